@@ -20,6 +20,7 @@ import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import javax.swing.*;
@@ -33,6 +34,21 @@ import javax.swing.text.StyledDocument;
 
 public class AdminDashboard extends JFrame {
     private User adminUser;
+    private final Consumer<DataEvent> dataEventListener = this::onDataEvent;
+
+    // Background loads, one slot per view so a newer request cancels the stale one
+    private final BackgroundLoader.Slot scheduleSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot tutorTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot receptionistTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot courseTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot resultsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot attendanceSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot incomeReportSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot payrollTutorsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot payrollReportSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot chatBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot announcementBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot feedbackBadgeSlot = new BackgroundLoader.Slot();
 
     private CardLayout cardLayout;
     private JPanel contentPanel;
@@ -114,9 +130,43 @@ public class AdminDashboard extends JFrame {
         refreshAnnouncementNotification();
         refreshFeedbackNotification();
 
+        // Badges are refreshed when a relevant change is published instead of on a timer
+        DataEventBus.subscribe(dataEventListener);
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                DataEventBus.unsubscribe(dataEventListener);
+            }
+        });
+
         cardLayout.show(contentPanel, "WELCOME_PANEL");
     }
 
+    private void onDataEvent(DataEvent event) {
+        switch (event.getType()) {
+            case MESSAGE_SENT:
+                if (adminUser.getUsername().equals(event.getTarget())) refreshChatNotification();
+                break;
+            case MESSAGES_READ:
+                if (adminUser.getUsername().equals(event.getActor())) refreshChatNotification();
+                break;
+            case ANNOUNCEMENTS_CHANGED:
+                refreshAnnouncementNotification();
+                break;
+            case FEEDBACK_SUBMITTED:
+            case FEEDBACK_READ:
+                if (adminUser.getId().equals(event.getTarget())) refreshFeedbackNotification();
+                break;
+            case FILE_CHANGED:
+                if (event.isFileChange(DataManager.CHATS_FILE)) refreshChatNotification();
+                if (event.isFileChange(DataManager.ANNOUNCEMENTS_FILE) || event.isFileChange(DataManager.READ_ANNOUNCEMENTS_FILE)) refreshAnnouncementNotification();
+                if (event.isFileChange(DataManager.FEEDBACK_FILE)) refreshFeedbackNotification();
+                break;
+            default:
+                break;
+        }
+    }
+
     private JPanel createSchedulePanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBackground(BG_COLOR);
@@ -161,31 +211,26 @@ public class AdminDashboard extends JFrame {
             weekLabel.setText(start.format(DateTimeFormatter.ofPattern("dd MMM yyyy")) + "  -  " + end.format(DateTimeFormatter.ofPattern("dd MMM yyyy")));
 
             listModel.clear();
+            listModel.addElement("Loading...");
 
-            Map<LocalDate, List<String[]>> weeklySchedule = DataManager.getStoredTimetable().entrySet().stream()
-                .filter(entry -> !entry.getKey().isBefore(start) && !entry.getKey().isAfter(end))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1, TreeMap::new));
-
-            if (weeklySchedule.isEmpty()) {
-                listModel.addElement("No classes scheduled for this week.");
-            } else {
-                for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
-                    listModel.addElement(entry.getKey().format(DateTimeFormatter.ofPattern("EEE, d MMM")));
-                    for (String[] classInfo : entry.getValue()) {
-                        String time = classInfo[0];
-                        String rawSubject = classInfo[1];
-                        String tutor = classInfo[2];
-                        String subjectName = rawSubject.replace("Weekly ", "").trim();
-                        User tutorUser = DataManager.findUserByUsername(tutor);
-                        String courseId = "N/A";
-                        if(tutorUser != null) {
-                            String foundId = DataManager.getCourseIdByTutorAndSubject(tutorUser.getId(), subjectName);
-                            if (foundId != null) courseId = foundId;
+            // Classes come back as [time, subjectName, tutor, courseId]
+            scheduleSlot.load(AsyncDataManager.getScheduledClassesForWeek(start), weeklySchedule -> {
+                listModel.clear();
+                if (weeklySchedule.isEmpty()) {
+                    listModel.addElement("No classes scheduled for this week.");
+                } else {
+                    for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
+                        listModel.addElement(entry.getKey().format(DateTimeFormatter.ofPattern("EEE, d MMM")));
+                        for (String[] classInfo : entry.getValue()) {
+                            String courseId = classInfo[3] != null ? classInfo[3] : "N/A";
+                            listModel.addElement(new ScheduleItem(courseId, classInfo[1], classInfo[0], classInfo[2]));
                         }
-                        listModel.addElement(new ScheduleItem(courseId, subjectName, time, tutor));
                     }
                 }
-            }
+            }, error -> {
+                listModel.clear();
+                listModel.addElement(BackgroundLoader.LOAD_FAILED);
+            });
         };
 
         // --- ACTION LISTENERS AND FINAL ASSEMBLY (Unchanged) ---
@@ -200,12 +245,23 @@ public class AdminDashboard extends JFrame {
         generateButton.addActionListener(e -> {
             int choice = JOptionPane.showConfirmDialog(this, "This will ERASE the existing timetable and generate a new one for the next 4 weeks.\nThis action cannot be undone. Are you sure?", "Confirm", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             if (choice == JOptionPane.YES_OPTION) {
-                SwingWorker<Boolean, Void> worker = new SwingWorker<>() {
-                    @Override protected Boolean doInBackground() { return DataManager.generateAndAssignTimetable(); }
+                SwingWorker<TimetableSolver.Result, Void> worker = new SwingWorker<>() {
+                    @Override protected TimetableSolver.Result doInBackground() { return DataManager.generateAndAssignTimetable(); }
                     @Override protected void done() {
                         try {
-                            if (get()) { JOptionPane.showMessageDialog(AdminDashboard.this, "Timetable generated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE); }
-                            else { JOptionPane.showMessageDialog(AdminDashboard.this, "Failed to generate timetable.", "Error", JOptionPane.ERROR_MESSAGE); }
+                            TimetableSolver.Result result = get();
+                            if (result == null) { JOptionPane.showMessageDialog(AdminDashboard.this, "Failed to generate timetable.", "Error", JOptionPane.ERROR_MESSAGE); }
+                            else if (result.getUnscheduled().isEmpty()) { JOptionPane.showMessageDialog(AdminDashboard.this, "Timetable generated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE); }
+                            else {
+                                // Classes without a clash-free slot are left out of the timetable; say which
+                                StringBuilder message = new StringBuilder("Timetable generated, but " + result.getUnscheduled().size() + " class(es) could not be scheduled:\n");
+                                for (TimetableSolver.ClassRequest unscheduled : result.getUnscheduled()) {
+                                    message.append("\n  - ").append(unscheduled.getSubject());
+                                    if (unscheduled.getCourseId() != null) message.append(" (").append(unscheduled.getCourseId()).append(")");
+                                }
+                                message.append("\n\nAdd rooms or time slots, or move some enrollments, and generate again.");
+                                JOptionPane.showMessageDialog(AdminDashboard.this, message.toString(), "Some Classes Not Scheduled", JOptionPane.WARNING_MESSAGE);
+                            }
                         } catch (Exception ex) { JOptionPane.showMessageDialog(AdminDashboard.this, "An error occurred during generation.", "Error", JOptionPane.ERROR_MESSAGE); }
                         updateScheduleView.run();
                     }
@@ -499,18 +555,18 @@ public class AdminDashboard extends JFrame {
         btnGenerate.addActionListener(e -> {
             int year = (int) yearComboBox.getSelectedItem();
             Object selectedMonth = monthComboBox.getSelectedItem();
-            String report;
+            reportPane.setText("Generating report...");
 
-            if ("All Months (Yearly)".equals(selectedMonth)) {
-                report = DataManager.generateYearlyIncomeReport(year);
-            } else {
-                int month = (int) selectedMonth;
-                report = DataManager.generateIncomeReport(month, year);
-            }
-            
-            reportPane.setText(report);
-            doc.setParagraphAttributes(0, doc.getLength(), center, false);
-            reportPane.setCaretPosition(0);
+            incomeReportSlot.load(() -> {
+                if ("All Months (Yearly)".equals(selectedMonth)) {
+                    return DataManager.generateYearlyIncomeReport(year);
+                }
+                return DataManager.generateIncomeReport((int) selectedMonth, year);
+            }, report -> {
+                reportPane.setText(report);
+                doc.setParagraphAttributes(0, doc.getLength(), center, false);
+                reportPane.setCaretPosition(0);
+            }, error -> reportPane.setText(BackgroundLoader.LOAD_FAILED));
         });
         
         return panel;
@@ -571,7 +627,7 @@ public class AdminDashboard extends JFrame {
                 adminUser.getRole(), newFullName, adminUser.getSpecialization()
             );
 
-            if (DataManager.updateUser(updatedUser)) {
+            if (DataManager.updateUser(updatedUser, newPasswordStr.isEmpty() ? null : newPasswordStr)) {
                 JOptionPane.showMessageDialog(this, "Profile updated successfully!");
                 this.adminUser = updatedUser; 
             } else {
@@ -582,19 +638,23 @@ public class AdminDashboard extends JFrame {
     }
 
     private void refreshTutorTable() {
-        tutorTableModel.setRowCount(0);
-        List<User> tutors = DataManager.getAllUsersByRole("Tutor");
-        for (User tutor : tutors) {
-            tutorTableModel.addRow(new Object[]{tutor.getId(), tutor.getUsername(), tutor.getFullName()});
-        }
+        BackgroundLoader.showLoading(tutorTableModel);
+        tutorTableSlot.load(AsyncDataManager.getAllUsersByRole("Tutor"), tutors -> {
+            tutorTableModel.setRowCount(0);
+            for (User tutor : tutors) {
+                tutorTableModel.addRow(new Object[]{tutor.getId(), tutor.getUsername(), tutor.getFullName()});
+            }
+        }, error -> BackgroundLoader.showError(tutorTableModel));
     }
 
     private void refreshReceptionistTable() {
-        receptionistTableModel.setRowCount(0);
-        List<User> receptionists = DataManager.getAllUsersByRole("Receptionist");
-        for (User user : receptionists) {
-            receptionistTableModel.addRow(new Object[]{user.getId(), user.getUsername(), user.getFullName()});
-        }
+        BackgroundLoader.showLoading(receptionistTableModel);
+        receptionistTableSlot.load(AsyncDataManager.getAllUsersByRole("Receptionist"), receptionists -> {
+            receptionistTableModel.setRowCount(0);
+            for (User user : receptionists) {
+                receptionistTableModel.addRow(new Object[]{user.getId(), user.getUsername(), user.getFullName()});
+            }
+        }, error -> BackgroundLoader.showError(receptionistTableModel));
     }
     
     
@@ -610,16 +670,17 @@ public class AdminDashboard extends JFrame {
     }
 
     public void refreshChatNotification() {
-        int unreadCount = DataManager.getUnreadMessageCount(this.adminUser); 
-        if (unreadCount > 0) {
-            btnChat.setText("Chat (" + unreadCount + ")");
-            btnChat.setForeground(Color.RED);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
-        } else {
-            btnChat.setText("Chat");
-            btnChat.setForeground(Color.WHITE);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
-        }
+        chatBadgeSlot.load(AsyncDataManager.getUnreadMessageCount(this.adminUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnChat.setText("Chat (" + unreadCount + ")");
+                btnChat.setForeground(Color.RED);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
+            } else {
+                btnChat.setText("Chat");
+                btnChat.setForeground(Color.WHITE);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
+            }
+        });
     }
 
     private JPanel createResultsPanelForAdmin() {
@@ -653,12 +714,14 @@ public class AdminDashboard extends JFrame {
         // --- Listeners for dynamic updates ---
         mainPanel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
-                studentSelector.removeAllItems();
-                DataManager.getAllUsersByRole("Student").forEach(studentSelector::addItem);
-                // Trigger the listener for the first student if the list is not empty
-                if (studentSelector.getItemCount() > 0) {
-                    studentSelector.setSelectedIndex(0);
-                }
+                resultsSlot.load(AsyncDataManager.getAllUsersByRole("Student"), students -> {
+                    studentSelector.removeAllItems();
+                    students.forEach(studentSelector::addItem);
+                    // Trigger the listener for the first student if the list is not empty
+                    if (studentSelector.getItemCount() > 0) {
+                        studentSelector.setSelectedIndex(0);
+                    }
+                }, error -> BackgroundLoader.showError(contentListPanel));
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -669,37 +732,47 @@ public class AdminDashboard extends JFrame {
             contentListPanel.removeAll();
 
             if (selectedStudent == null) {
+                resultsSlot.cancel();
                 gpaLabel.setText("Overall GPA: N/A");
                 contentListPanel.revalidate();
                 contentListPanel.repaint();
                 return;
             }
 
-            // THE FIX: Use the student's ID for a reliable data lookup.
-            List<ResultSummary> summaries = DataManager.getStudentResultSummaries(selectedStudent.getId());
-
-            if (summaries.isEmpty()) {
-                gpaLabel.setText("Overall GPA: N/A");
-                contentListPanel.setLayout(new GridBagLayout());
-                JLabel noDataLabel = new JLabel("No results have been uploaded for this student yet.");
-                noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
-                noDataLabel.setForeground(Color.LIGHT_GRAY);
-                contentListPanel.add(noDataLabel);
-            } else {
-                // Calculate and display GPA
-                double totalPoints = summaries.stream().mapToDouble(ResultSummary::getGradePoints).sum();
-                double gpa = totalPoints / summaries.size();
-                gpaLabel.setText(String.format("Overall GPA: %.2f", gpa));
-
-                // Create and add a card for each result
-                contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
-                for (ResultSummary summary : summaries) {
-                    contentListPanel.add(new ResultCard(summary));
-                    contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-                }
-            }
+            contentListPanel.setLayout(new GridBagLayout());
+            contentListPanel.add(BackgroundLoader.createLoadingLabel());
             contentListPanel.revalidate();
             contentListPanel.repaint();
+
+            // THE FIX: Use the student's ID for a reliable data lookup.
+            resultsSlot.load(AsyncDataManager.getStudentResultSummaries(selectedStudent.getId()), summaries -> {
+                contentListPanel.removeAll();
+                if (summaries.isEmpty()) {
+                    gpaLabel.setText("Overall GPA: N/A");
+                    contentListPanel.setLayout(new GridBagLayout());
+                    JLabel noDataLabel = new JLabel("No results have been uploaded for this student yet.");
+                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
+                    noDataLabel.setForeground(Color.LIGHT_GRAY);
+                    contentListPanel.add(noDataLabel);
+                } else {
+                    // Calculate and display GPA
+                    double totalPoints = summaries.stream().mapToDouble(ResultSummary::getGradePoints).sum();
+                    double gpa = totalPoints / summaries.size();
+                    gpaLabel.setText(String.format("Overall GPA: %.2f", gpa));
+
+                    // Create and add a card for each result
+                    contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
+                    for (ResultSummary summary : summaries) {
+                        contentListPanel.add(new ResultCard(summary));
+                        contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+                    }
+                }
+                contentListPanel.revalidate();
+                contentListPanel.repaint();
+            }, error -> {
+                gpaLabel.setText("Overall GPA: N/A");
+                BackgroundLoader.showError(contentListPanel);
+            });
         });
         
         return mainPanel;
@@ -733,8 +806,10 @@ public class AdminDashboard extends JFrame {
         // --- Logic and Listeners ---
         mainPanel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
-                attendanceStudentSelector.removeAllItems();
-                DataManager.getAllUsersByRole("Student").forEach(attendanceStudentSelector::addItem);
+                attendanceSlot.load(AsyncDataManager.getAllUsersByRole("Student"), students -> {
+                    attendanceStudentSelector.removeAllItems();
+                    students.forEach(attendanceStudentSelector::addItem);
+                }, error -> BackgroundLoader.showError(contentListPanel));
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -745,30 +820,37 @@ public class AdminDashboard extends JFrame {
             contentListPanel.removeAll(); // Clear previous content
 
             if (selectedStudent == null) {
+                attendanceSlot.cancel();
                 contentListPanel.revalidate();
                 contentListPanel.repaint();
                 return;
             }
 
+            contentListPanel.setLayout(new GridBagLayout());
+            contentListPanel.add(BackgroundLoader.createLoadingLabel());
+            contentListPanel.revalidate();
+            contentListPanel.repaint();
+
             // Fetch data using the student's ID for accuracy.
-            List<AttendanceSummary> summaries = DataManager.getAttendanceSummaryForStudent(selectedStudent.getId());
-
-            if (summaries.isEmpty()) {
-                contentListPanel.setLayout(new GridBagLayout());
-                JLabel noDataLabel = new JLabel("No attendance records found for this student.");
-                noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
-                noDataLabel.setForeground(Color.LIGHT_GRAY);
-                contentListPanel.add(noDataLabel);
-            } else {
-                contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
-                for (AttendanceSummary summary : summaries) {
-                    contentListPanel.add(new AttendanceCard(summary));
-                    contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            attendanceSlot.load(AsyncDataManager.getAttendanceSummaryForStudent(selectedStudent.getId()), summaries -> {
+                contentListPanel.removeAll();
+                if (summaries.isEmpty()) {
+                    contentListPanel.setLayout(new GridBagLayout());
+                    JLabel noDataLabel = new JLabel("No attendance records found for this student.");
+                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
+                    noDataLabel.setForeground(Color.LIGHT_GRAY);
+                    contentListPanel.add(noDataLabel);
+                } else {
+                    contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
+                    for (AttendanceSummary summary : summaries) {
+                        contentListPanel.add(new AttendanceCard(summary));
+                        contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+                    }
                 }
-            }
 
-            contentListPanel.revalidate();
-            contentListPanel.repaint();
+                contentListPanel.revalidate();
+                contentListPanel.repaint();
+            }, error -> BackgroundLoader.showError(contentListPanel));
         });
         
         // Trigger the listener for the first item when the panel loads.
@@ -791,19 +873,17 @@ public class AdminDashboard extends JFrame {
     }
 
     public void refreshAnnouncementNotification() {
-        Set<String> readIds = DataManager.getReadAnnouncementIds(this.adminUser);
-        List<Announcement> allAnnouncements = DataManager.getAllAnnouncements();
-        long unreadCount = allAnnouncements.stream().filter(a -> !readIds.contains(a.getId())).count();
-
-        if (unreadCount > 0) {
-            btnAnnouncements.setText("Announcements (" + unreadCount + ")");
-            btnAnnouncements.setForeground(Color.CYAN);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
-        } else {
-            btnAnnouncements.setText("Announcements");
-            btnAnnouncements.setForeground(Color.WHITE);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
-        }
+        announcementBadgeSlot.load(AsyncDataManager.getUnreadAnnouncementCount(this.adminUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnAnnouncements.setText("Announcements (" + unreadCount + ")");
+                btnAnnouncements.setForeground(Color.CYAN);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
+            } else {
+                btnAnnouncements.setText("Announcements");
+                btnAnnouncements.setForeground(Color.WHITE);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
+            }
+        });
     }
 
     private void logout() {
@@ -833,11 +913,12 @@ public class AdminDashboard extends JFrame {
         JComboBox<User> tutorSelector = new JComboBox<>();
         panel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) { 
-                tutorSelector.removeAllItems();
-                List<User> allTutors = DataManager.getAllUsersByRole("Tutor");
-                for(User t : allTutors) {
-                    tutorSelector.addItem(t);
-                }
+                payrollTutorsSlot.load(AsyncDataManager.getAllUsersByRole("Tutor"), allTutors -> {
+                    tutorSelector.removeAllItems();
+                    for(User t : allTutors) {
+                        tutorSelector.addItem(t);
+                    }
+                }, error -> reportArea.setText(BackgroundLoader.LOAD_FAILED));
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -873,9 +954,11 @@ public class AdminDashboard extends JFrame {
             
             int month = (int) monthComboBox.getSelectedItem();
             int year = (int) yearComboBox.getSelectedItem();
-            String report = DataManager.generateTutorPayrollReport(selectedTutor.getId(), month, year);
-            reportArea.setText(report);
-            reportArea.setCaretPosition(0);
+            reportArea.setText("Generating report...");
+            payrollReportSlot.load(() -> DataManager.generateTutorPayrollReport(selectedTutor.getId(), month, year), report -> {
+                reportArea.setText(report);
+                reportArea.setCaretPosition(0);
+            }, error -> reportArea.setText(BackgroundLoader.LOAD_FAILED));
         });
         
         return panel;
@@ -1093,16 +1176,17 @@ public class AdminDashboard extends JFrame {
     }
 
     public void refreshFeedbackNotification() {
-        int unreadCount = DataManager.getUnreadFeedbackCount(this.adminUser.getId());
-        if (unreadCount > 0) {
-            btnMyFeedback.setText("My Feedback (" + unreadCount + ")");
-            btnMyFeedback.setForeground(Color.ORANGE);
-            btnMyFeedback.setFont(new Font(btnMyFeedback.getFont().getName(), Font.BOLD, btnMyFeedback.getFont().getSize()));
-        } else {
-            btnMyFeedback.setText("My Feedback");
-            btnMyFeedback.setForeground(Color.WHITE);
-            btnMyFeedback.setFont(new Font(btnMyFeedback.getFont().getName(), Font.PLAIN, btnMyFeedback.getFont().getSize()));
-        }
+        feedbackBadgeSlot.load(AsyncDataManager.getUnreadFeedbackCount(this.adminUser.getId()), unreadCount -> {
+            if (unreadCount > 0) {
+                btnMyFeedback.setText("My Feedback (" + unreadCount + ")");
+                btnMyFeedback.setForeground(Color.ORANGE);
+                btnMyFeedback.setFont(new Font(btnMyFeedback.getFont().getName(), Font.BOLD, btnMyFeedback.getFont().getSize()));
+            } else {
+                btnMyFeedback.setText("My Feedback");
+                btnMyFeedback.setForeground(Color.WHITE);
+                btnMyFeedback.setFont(new Font(btnMyFeedback.getFont().getName(), Font.PLAIN, btnMyFeedback.getFont().getSize()));
+            }
+        });
     }
 
     private class ResultCard extends JPanel {
@@ -1267,22 +1351,22 @@ public class AdminDashboard extends JFrame {
     }
 
     private void refreshCoursesTable() {
-        courseTableModel.setRowCount(0);
-        // DataManager.getAvailableCourses returns a formatted string. We need raw data.
-        // A new method in DataManager would be ideal, but for now, we can parse the existing file.
-        try (java.io.BufferedReader reader = new java.io.BufferedReader(new java.io.FileReader("data/courses.txt"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 7);
+        BackgroundLoader.showLoading(courseTableModel);
+        // Raw course rows (not the formatted getAvailableCourses string), with the tutor id resolved to a name
+        courseTableSlot.load(() -> {
+            List<Object[]> rows = new java.util.ArrayList<>();
+            for (String[] data : DataManager.getAllCourseRows()) {
                 if (data.length >= 7) {
                     User tutor = DataManager.findUserById(data[2]);
                     String tutorName = (tutor != null) ? tutor.getFullName() : "Unknown";
-                    courseTableModel.addRow(new Object[]{data[0], data[1], tutorName, data[4], data[5], data[6]});
+                    rows.add(new Object[]{data[0], data[1], tutorName, data[4], data[5], data[6]});
                 }
             }
-        } catch (java.io.IOException e) {
-            // file not found or other error
-        }
+            return rows;
+        }, rows -> {
+            courseTableModel.setRowCount(0);
+            rows.forEach(courseTableModel::addRow);
+        }, error -> BackgroundLoader.showError(courseTableModel));
     }
 
     private void showAddCourseDialog() {
@@ -1539,7 +1623,7 @@ public class AdminDashboard extends JFrame {
 
             User updatedUser = new User(userToEdit.getId(), userToEdit.getUsername(), finalPassword, userToEdit.getRole(), newFullName, finalSpecialization);
 
-            if (DataManager.updateUser(updatedUser)) {
+            if (DataManager.updateUser(updatedUser, newPassword.isEmpty() ? null : newPassword)) {
                 JOptionPane.showMessageDialog(this, "User updated successfully!");
                 if ("Tutor".equals(updatedUser.getRole())) {
                     refreshTutorTable();
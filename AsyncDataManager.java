@@ -0,0 +1,63 @@
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking facade over the DataManager reads the dashboards make when a
+ * tab is shown or a selection changes. Every call runs on the
+ * {@link BackgroundLoader} pool; hand the future to a
+ * {@link BackgroundLoader.Slot} to get the result back on the EDT.
+ */
+public class AsyncDataManager {
+
+    public static CompletableFuture<List<User>> getAllUsersByRole(String role) {
+        return BackgroundLoader.supply(() -> DataManager.getAllUsersByRole(role));
+    }
+
+    public static CompletableFuture<StudentSnapshot> getStudentSnapshot(String studentId) {
+        return BackgroundLoader.supply(() -> DataManager.getStudentSnapshot(studentId));
+    }
+
+    public static CompletableFuture<List<ResultSummary>> getStudentResultSummaries(String studentId) {
+        return BackgroundLoader.supply(() -> DataManager.getStudentResultSummaries(studentId));
+    }
+
+    public static CompletableFuture<List<AttendanceSummary>> getAttendanceSummaryForStudent(String studentId) {
+        return BackgroundLoader.supply(() -> DataManager.getAttendanceSummaryForStudent(studentId));
+    }
+
+    public static CompletableFuture<Map<String, Double>> getPaymentStatus(String studentId) {
+        return BackgroundLoader.supply(() -> DataManager.getPaymentStatus(studentId));
+    }
+
+    public static CompletableFuture<List<String[]>> getCoursesByTutor(String tutorId) {
+        return BackgroundLoader.supply(() -> DataManager.getCoursesByTutor(tutorId));
+    }
+
+    public static CompletableFuture<List<String[]>> getAllPendingRequests() {
+        return BackgroundLoader.supply(DataManager::getAllPendingRequests);
+    }
+
+    public static CompletableFuture<Map<LocalDate, List<String[]>>> getTimetableForWeek(LocalDate weekStart) {
+        return BackgroundLoader.supply(() -> DataManager.getTimetableForWeek(weekStart));
+    }
+
+    public static CompletableFuture<Map<LocalDate, List<String[]>>> getScheduledClassesForWeek(LocalDate weekStart) {
+        return BackgroundLoader.supply(() -> DataManager.getScheduledClassesForWeek(weekStart));
+    }
+
+    // --- Badge counts ---
+
+    public static CompletableFuture<Integer> getUnreadMessageCount(User user) {
+        return BackgroundLoader.supply(() -> DataManager.getUnreadMessageCount(user));
+    }
+
+    public static CompletableFuture<Long> getUnreadAnnouncementCount(User user) {
+        return BackgroundLoader.supply(() -> DataManager.getUnreadAnnouncementCount(user));
+    }
+
+    public static CompletableFuture<Integer> getUnreadFeedbackCount(String userId) {
+        return BackgroundLoader.supply(() -> DataManager.getUnreadFeedbackCount(userId));
+    }
+}
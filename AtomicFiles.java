@@ -0,0 +1,165 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Locked writes to the data files, safe with several app instances sharing one
+ * data/ directory.
+ *
+ * In this process each file maps to one of a fixed set of read-write locks
+ * (striped by path, so there is no lock per file to keep around). Writers hold
+ * the write lock and, for the duration of the write, an exclusive
+ * {@link FileChannel#lock()} on FILE.lock, which keeps out writers in other
+ * processes. A rewrite goes to a temp file that is forced to disk and moved
+ * over the original with {@link StandardCopyOption#ATOMIC_MOVE}, so readers
+ * (here or in another process) always open either the old or the new file,
+ * never a half-written one, and a crash leaves one of the two.
+ *
+ * {@link UpdateLog} uses the same locks, so a rewrite never runs alongside a
+ * compaction of the same file. Callers must not take a file's write lock while
+ * holding its read lock (or another file's read lock in the same stripe).
+ */
+public final class AtomicFiles {
+    private static final int STRIPES = 16;
+    private static final ReadWriteLock[] LOCKS = new ReadWriteLock[STRIPES];
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    private AtomicFiles() {}
+
+    /** The in-process lock of a file. Held for writing, it also blocks logged updates and compaction of the file. */
+    public static ReadWriteLock lockFor(String file) {
+        String key = Paths.get(file).toAbsolutePath().normalize().toString();
+        return LOCKS[(key.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    /** Every line of the file as of one moment (empty if it does not exist). */
+    public static List<String> readLines(String file) throws IOException {
+        ReadWriteLock lock = lockFor(file);
+        lock.readLock().lock();
+        try {
+            return readAll(Paths.get(file));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Appends lines (without line separators) in one write, creating the file if needed. */
+    public static void append(String file, List<String> lines) throws IOException {
+        if (lines.isEmpty()) return;
+        StringBuilder text = new StringBuilder();
+        for (String line : lines) {
+            text.append(line).append(System.lineSeparator());
+        }
+        byte[] bytes = text.toString().getBytes(CHARSET);
+        withWriteLock(file, () -> Files.write(Paths.get(file), bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+    }
+
+    /** Atomically replaces the whole file with 'lines'. */
+    public static void replace(String file, List<String> lines) throws IOException {
+        withWriteLock(file, () -> writeAndMove(Paths.get(file), lines));
+    }
+
+    /**
+     * Read-modify-write of the whole file: 'edit' gets its current lines (empty
+     * if it does not exist) and returns the new ones, or null to leave the file
+     * alone. No other writer can change the file in between. Returns true if
+     * the file was replaced.
+     */
+    public static boolean rewrite(String file, UnaryOperator<List<String>> edit) throws IOException {
+        boolean[] replaced = {false};
+        withWriteLock(file, () -> {
+            Path path = Paths.get(file);
+            List<String> lines = edit.apply(readAll(path));
+            if (lines != null) {
+                writeAndMove(path, lines);
+                replaced[0] = true;
+            }
+        });
+        return replaced[0];
+    }
+
+    interface IOAction {
+        void run() throws IOException;
+    }
+
+    /** Runs 'action' holding the file's write lock and its lock file. */
+    static void withWriteLock(String file, IOAction action) throws IOException {
+        ReadWriteLock lock = lockFor(file);
+        lock.writeLock().lock();
+        try {
+            withProcessLock(file, action);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs 'action' holding FILE.lock. The caller must hold the file's write
+     * lock: two threads of one process cannot both lock the same file.
+     */
+    static void withProcessLock(String file, IOAction action) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(file + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = acquire(channel);
+            try {
+                action.run();
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    // Polls instead of blocking in lock(): the OS tracks lock waits per process, so two
+    // instances each writing two files from different threads would be refused as a deadlock.
+    private static FileLock acquire(FileChannel channel) throws IOException {
+        long waitNanos = 50_000;
+        FileLock lock;
+        while ((lock = channel.tryLock()) == null) {
+            LockSupport.parkNanos(waitNanos);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Interrupted waiting for a lock file");
+            }
+            waitNanos = Math.min(waitNanos * 2, 10_000_000); // at most 10 ms between tries
+        }
+        return lock;
+    }
+
+    // Like Files.readAllLines, but undecodable bytes are replaced instead of failing the read
+    private static List<String> readAll(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(path)) return lines;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path), CHARSET))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static void writeAndMove(Path path, List<String> lines) throws IOException {
+        Path temp = Paths.get(path + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, CHARSET)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write(System.lineSeparator());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,176 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GridBagLayout;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+
+/**
+ * Small, bounded pool for data loading so the dashboards never run file I/O on
+ * the Event Dispatch Thread. Work is submitted as a {@link CompletableFuture}
+ * (see {@link AsyncDataManager}) and results are handed back on the EDT.
+ *
+ * Each view that loads data keeps a {@link Slot}: starting a new load in a slot
+ * cancels the one still in flight, so quickly switching tabs or selections
+ * never paints an older result over a newer one. A view that shows a
+ * placeholder while loading also passes an {@code onFailed} callback, so a
+ * failed load replaces the placeholder instead of leaving it up.
+ */
+public class BackgroundLoader {
+    // The data files all live on one disk (or share); more threads would only contend for it.
+    private static final int THREADS = 2;
+    private static final int QUEUE_CAPACITY = 64;
+
+    public static final String LOAD_FAILED = "Could not load the data. Please try again.";
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            THREADS, THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+            new DaemonThreadFactory());
+
+    /** Runs callbacks on the Event Dispatch Thread. */
+    public static final Executor EDT = command -> {
+        if (SwingUtilities.isEventDispatchThread()) command.run();
+        else SwingUtilities.invokeLater(command);
+    };
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /** Runs {@code task} on the loader pool. A full queue yields a failed future instead of blocking the caller. */
+    public static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, EXECUTOR);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    /**
+     * One outstanding request per view. Must only be used from the EDT.
+     */
+    public static class Slot {
+        private CompletableFuture<?> current;
+
+        /** Starts loading on the pool; {@code onLoaded} runs on the EDT unless a newer load replaced this one. */
+        public <T> void load(Supplier<T> task, Consumer<T> onLoaded) {
+            load(supply(task), onLoaded);
+        }
+
+        /** Like {@link #load(Supplier, Consumer)}, but {@code onFailed} runs on the EDT if the task throws. */
+        public <T> void load(Supplier<T> task, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+            load(supply(task), onLoaded, onFailed);
+        }
+
+        /** Delivers {@code request} to {@code onLoaded} on the EDT unless a newer load replaced it first. */
+        public <T> void load(CompletableFuture<T> request, Consumer<T> onLoaded) {
+            load(request, onLoaded, error -> {});
+        }
+
+        /**
+         * Delivers {@code request} to {@code onLoaded}, or its error to {@code onFailed}, on the EDT
+         * unless a newer load replaced it first.
+         */
+        public <T> void load(CompletableFuture<T> request, Consumer<T> onLoaded, Consumer<Throwable> onFailed) {
+            cancel();
+            current = request;
+            request.whenCompleteAsync((result, error) -> {
+                if (current != request) return; // superseded by a newer load
+                current = null;
+                if (error == null) {
+                    onLoaded.accept(result);
+                } else if (!(unwrap(error) instanceof CancellationException)) {
+                    System.err.println("Background load failed: " + unwrap(error));
+                    onFailed.accept(unwrap(error));
+                }
+            }, EDT);
+        }
+
+        /** Drops the request in flight, if any; its result will not be delivered. */
+        public void cancel() {
+            if (current != null) {
+                // The task itself may still finish, but its result is ignored
+                current.cancel(false);
+                current = null;
+            }
+        }
+
+        public boolean isLoading() {
+            return current != null;
+        }
+    }
+
+    // --- Placeholders shown while a Slot is loading ---
+
+    public static JLabel createLoadingLabel() {
+        JLabel label = new JLabel("Loading...");
+        label.setFont(new Font("Arial", Font.ITALIC, 16));
+        label.setForeground(Color.LIGHT_GRAY);
+        return label;
+    }
+
+    /** Replaces a table's rows with a single "Loading..." row. */
+    public static void showLoading(DefaultTableModel model) {
+        model.setRowCount(0);
+        model.addRow(new Object[]{"Loading..."});
+    }
+
+    // --- What replaces the placeholder when a load fails ---
+
+    public static JLabel createErrorLabel() {
+        JLabel label = new JLabel(LOAD_FAILED);
+        label.setFont(new Font("Arial", Font.ITALIC, 16));
+        label.setForeground(new Color(255, 120, 120));
+        return label;
+    }
+
+    /** Replaces a panel's contents with the error label. */
+    public static void showError(JPanel panel) {
+        panel.removeAll();
+        panel.setLayout(new GridBagLayout());
+        panel.add(createErrorLabel());
+        panel.revalidate();
+        panel.repaint();
+    }
+
+    /** Replaces a table's rows with a single error row. */
+    public static void showError(DefaultTableModel model) {
+        model.setRowCount(0);
+        model.addRow(new Object[]{LOAD_FAILED});
+    }
+
+    /** True while a table shows a loading or error row instead of data. */
+    public static boolean isPlaceholder(DefaultTableModel model) {
+        return model.getRowCount() == 1 && model.getColumnCount() > 1 && model.getValueAt(0, 1) == null;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+    }
+
+    private static class DaemonThreadFactory implements java.util.concurrent.ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "data-loader-" + count.incrementAndGet());
+            thread.setDaemon(true); // never keep the app alive after the last window closes
+            return thread;
+        }
+    }
+}
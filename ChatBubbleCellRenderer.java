@@ -2,53 +2,58 @@ import java.awt.*;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
+// Swing calls this for every visible row on every repaint (including while scrolling),
+// so it reuses one set of components and reads sender roles from the shared cache.
 public class ChatBubbleCellRenderer implements ListCellRenderer<ChatMessage> {
     private static final ImageIcon STUDENT_ICON = loadStudentIcon();
+    private static final Font MESSAGE_FONT = new Font("SansSerif", Font.PLAIN, 14);
+    private static final Color OUTGOING_COLOR = new Color(0, 132, 255);
+    private static final Color INCOMING_COLOR = new Color(60, 60, 60);
+
     private final String currentUsername;
 
+    private final FlowLayout wrapperLayout = new FlowLayout(FlowLayout.LEFT, 0, 5);
+    private final JPanel wrapper = new JPanel(wrapperLayout);
+    private final RoundedPanel bubble = new RoundedPanel(new BorderLayout(5, 3), 15, INCOMING_COLOR);
+    private final JTextArea messageText = new JTextArea();
+    private final JLabel iconLabel = new JLabel(); // only shows an icon for students
+
     public ChatBubbleCellRenderer(String currentUsername) {
         this.currentUsername = currentUsername;
-    }
 
-    @Override
-    public Component getListCellRendererComponent(JList<? extends ChatMessage> list, ChatMessage message, int index, boolean isSelected, boolean cellHasFocus) {
-        boolean isCurrentUser = message.getSenderUsername().equals(currentUsername);
-
-        // Main container panel that controls left/right alignment
-        JPanel wrapper = new JPanel(new FlowLayout(isCurrentUser ? FlowLayout.RIGHT : FlowLayout.LEFT, 0, 5));
-        wrapper.setBackground(list.getBackground());
-
-        // The chat bubble itself
-        RoundedPanel bubble = new RoundedPanel(15, isCurrentUser ? new Color(0, 132, 255) : new Color(60, 60, 60));
-        bubble.setLayout(new BorderLayout(5, 3));
         bubble.setBorder(new EmptyBorder(8, 12, 8, 12));
 
-        // The text content of the message
-        JTextArea messageText = new JTextArea(message.getContent());
         messageText.setWrapStyleWord(true);
         messageText.setLineWrap(true);
         messageText.setEditable(false);
         messageText.setOpaque(false);
         messageText.setForeground(Color.WHITE);
-        messageText.setFont(new Font("SansSerif", Font.PLAIN, 14));
-        
-        // The icon label (only visible for students)
-        JLabel iconLabel = new JLabel();
-        User sender = DataManager.findUserByUsername(message.getSenderUsername());
-        if (sender != null && "Student".equals(sender.getRole())) {
-            iconLabel.setIcon(STUDENT_ICON);
-        }
+        messageText.setFont(MESSAGE_FONT);
 
-        // Arrange components based on who sent the message
-        if (isCurrentUser) {
-            bubble.add(messageText, BorderLayout.CENTER);
-        } else {
-            bubble.add(iconLabel, BorderLayout.WEST);
-            bubble.add(messageText, BorderLayout.CENTER);
+        bubble.add(iconLabel, BorderLayout.WEST);
+        bubble.add(messageText, BorderLayout.CENTER);
+        wrapper.add(bubble);
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends ChatMessage> list, ChatMessage message, int index, boolean isSelected, boolean cellHasFocus) {
+        boolean isCurrentUser = message.getSenderUsername().equals(currentUsername);
+
+        wrapperLayout.setAlignment(isCurrentUser ? FlowLayout.RIGHT : FlowLayout.LEFT);
+        wrapper.setBackground(list.getBackground());
+        bubble.setBackgroundColor(isCurrentUser ? OUTGOING_COLOR : INCOMING_COLOR);
+
+        // Size 0x0 makes the text area report its unwrapped width again, as a fresh one would
+        messageText.setSize(0, 0);
+        messageText.setText(message.getContent());
+
+        iconLabel.setVisible(!isCurrentUser);
+        if (!isCurrentUser) {
+            boolean isStudent = DataRepository.senderProfile(message.getSenderUsername()).isStudent();
+            iconLabel.setIcon(isStudent ? STUDENT_ICON : null);
         }
 
-        // Add the bubble to the wrapper
-        wrapper.add(bubble);
+        wrapper.invalidate();
         return wrapper;
     }
 
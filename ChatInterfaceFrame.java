@@ -1,4 +1,6 @@
 import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.time.LocalDateTime;
@@ -17,7 +19,9 @@ public class ChatInterfaceFrame extends JFrame {
     private JList<Object> contactList;
     private DefaultListModel<Object> contactListModel;
     
-    private JPanel chatPanel;
+    private JList<Message> messageList;
+    private DefaultListModel<Message> messageListModel;
+    private MessageBubbleRenderer messageRenderer;
     private JTextPane messageInput;
     private JButton sendButton;
     private JLabel chatPartnerNameLabel;
@@ -25,12 +29,17 @@ public class ChatInterfaceFrame extends JFrame {
     private JButton btnManageMembers;
 
     private Object selectedContact;
+    // The list holds records [firstLoadedIndex, loadedToIndex) of the open conversation;
+    // older pages are read when the user scrolls to the top.
+    private int firstLoadedIndex;
+    private int loadedToIndex;
+    private boolean pagingPaused;
 
     private JScrollPane chatScrollPane;
     private JComboBox<String> roleFilterComboBox;
 
-    private Map<String, Integer> unreadCounts = new HashMap<>();
-    private javax.swing.Timer refreshTimer;
+    private Map<String, ConversationSummary> conversationSummaries = new HashMap<>();
+    private final java.util.function.Consumer<DataEvent> dataEventListener = this::onDataEvent;
 
     private static final Color BG_COLOR = new Color(245, 245, 245);
     private static final Color LIST_BG_COLOR = Color.WHITE;
@@ -41,6 +50,9 @@ public class ChatInterfaceFrame extends JFrame {
     private static final Font USER_NAME_FONT = new Font("Arial", Font.BOLD, 14);
     private static final Font MESSAGE_FONT = new Font("Arial", Font.PLAIN, 13);
     private static final Font TIMESTAMP_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Font SENDER_NAME_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final DateTimeFormatter BUBBLE_TIME_FORMAT = DateTimeFormatter.ofPattern("h:mm a");
+    private static final int MESSAGE_PAGE_SIZE = 100;
 
     public ChatInterfaceFrame(User user, Runnable onMessageReadCallback) {
         this.currentUser = user;
@@ -52,7 +64,7 @@ public class ChatInterfaceFrame extends JFrame {
         setLayout(new BorderLayout());
         getContentPane().setBackground(BG_COLOR);
 
-        initUnreadCounts();
+        initConversationSummaries();
 
         JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT,
                 createConversationListPanel(),
@@ -63,34 +75,60 @@ public class ChatInterfaceFrame extends JFrame {
 
         add(splitPane, BorderLayout.CENTER);
 
-        refreshTimer = new javax.swing.Timer(5000, e -> {
-            refreshUnreadCounts();
-            if (selectedContact != null) {
-                loadConversation(false);
-            }
-        });
-        refreshTimer.start();
-
+        DataEventBus.subscribe(dataEventListener);
         addWindowListener(new WindowAdapter() {
             @Override
-            public void windowClosing(WindowEvent e) {
-                if (refreshTimer.isRunning()) {
-                    refreshTimer.stop();
-                }
+            public void windowClosed(WindowEvent e) {
+                DataEventBus.unsubscribe(dataEventListener);
             }
         });
         updateUserList();
     }
 
-    private void initUnreadCounts() {
-        this.unreadCounts = DataManager.getAllUnreadMessageCounts(currentUser);
+    // Pulls new messages only when a chat event concerns this user (or chats.txt changed on disk)
+    private void onDataEvent(DataEvent event) {
+        if (!isRelevant(event)) return;
+        refreshConversationSummaries();
+        if (selectedContact != null) {
+            loadNewMessages(false);
+        }
+    }
+
+    private boolean isRelevant(DataEvent event) {
+        String me = currentUser.getUsername();
+        switch (event.getType()) {
+            case MESSAGE_SENT:
+            case MESSAGES_READ:
+                return me.equals(event.getActor()) || me.equals(event.getTarget());
+            case GROUP_MESSAGE_SENT:
+                return conversationSummaries.containsKey(event.getTarget())
+                        || (selectedContact instanceof GroupChat && ((GroupChat) selectedContact).getGroupId().equals(event.getTarget()));
+            case FILE_CHANGED:
+                return event.isFileChange(DataManager.CHATS_FILE);
+            default:
+                return false;
+        }
+    }
+
+    private void initConversationSummaries() {
+        this.conversationSummaries = DataManager.getConversationSummaries(currentUser);
     }
 
-    private void refreshUnreadCounts() {
-        this.unreadCounts = DataManager.getAllUnreadMessageCounts(currentUser);
+    private void refreshConversationSummaries() {
+        this.conversationSummaries = DataManager.getConversationSummaries(currentUser);
         contactList.repaint();
     }
 
+    private ConversationSummary getSummary(Object contact) {
+        String key = null;
+        if (contact instanceof User) {
+            key = DataManager.getConversationKey(currentUser.getUsername(), ((User) contact).getUsername());
+        } else if (contact instanceof GroupChat) {
+            key = DataManager.getGroupConversationKey(((GroupChat) contact).getGroupId());
+        }
+        return key != null ? conversationSummaries.get(key) : null;
+    }
+
     private JPanel createConversationListPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBackground(LIST_BG_COLOR);
@@ -133,7 +171,7 @@ public class ChatInterfaceFrame extends JFrame {
 
                 if (selectedContact instanceof User) {
                     DataManager.markMessagesAsRead(currentUser, (User) selectedContact);
-                    refreshUnreadCounts();
+                    refreshConversationSummaries();
                 }
             }
         });
@@ -184,33 +222,19 @@ public class ChatInterfaceFrame extends JFrame {
                 .forEach(contactsToSort::add);
         }
         
-        // --- The sorting and list model update logic below remains the same ---
+        // Sort from the precomputed summaries: unread first, then most recent message
         contactsToSort.sort((o1, o2) -> {
-            boolean o1_hasUnread = false;
-            Message o1_lastMessage = null;
-            if (o1 instanceof User) {
-                User user1 = (User) o1;
-                o1_hasUnread = unreadCounts.getOrDefault(user1.getUsername(), 0) > 0;
-                o1_lastMessage = DataManager.getLastMessage(currentUser.getUsername(), user1.getUsername());
-            } else if (o1 instanceof GroupChat) {
-                o1_lastMessage = DataManager.getLastGroupMessage(((GroupChat) o1).getGroupId());
-            }
-            
-            boolean o2_hasUnread = false;
-            Message o2_lastMessage = null;
-            if (o2 instanceof User) {
-                User user2 = (User) o2;
-                o2_hasUnread = unreadCounts.getOrDefault(user2.getUsername(), 0) > 0;
-                o2_lastMessage = DataManager.getLastMessage(currentUser.getUsername(), user2.getUsername());
-            } else if (o2 instanceof GroupChat) {
-                o2_lastMessage = DataManager.getLastGroupMessage(((GroupChat) o2).getGroupId());
-            }
+            ConversationSummary s1 = getSummary(o1);
+            ConversationSummary s2 = getSummary(o2);
+
+            boolean o1_hasUnread = s1 != null && s1.getUnreadCount() > 0;
+            boolean o2_hasUnread = s2 != null && s2.getUnreadCount() > 0;
             
             if (o1_hasUnread && !o2_hasUnread) return -1;
             if (!o1_hasUnread && o2_hasUnread) return 1;
             
-            LocalDateTime time1 = o1_lastMessage != null ? o1_lastMessage.getTimestamp() : null;
-            LocalDateTime time2 = o2_lastMessage != null ? o2_lastMessage.getTimestamp() : null;
+            LocalDateTime time1 = s1 != null ? s1.getLastTimestamp() : null;
+            LocalDateTime time2 = s2 != null ? s2.getLastTimestamp() : null;
             
             if (time1 != null && time2 != null) {
                 return time2.compareTo(time1);
@@ -251,16 +275,34 @@ public class ChatInterfaceFrame extends JFrame {
         
         panel.add(header, BorderLayout.NORTH);
 
-        chatPanel = new JPanel();
-        chatPanel.setLayout(new BoxLayout(chatPanel, BoxLayout.Y_AXIS));
-        chatPanel.setBackground(BG_COLOR);
-        chatPanel.setBorder(new EmptyBorder(10, 10, 10, 10));
+        // Only the visible bubbles are painted, all through one reused renderer
+        messageListModel = new DefaultListModel<>();
+        messageList = new JList<>(messageListModel);
+        messageRenderer = new MessageBubbleRenderer();
+        messageList.setCellRenderer(messageRenderer);
+        messageList.setBackground(BG_COLOR);
+        messageList.setBorder(new EmptyBorder(10, 10, 10, 10));
+        messageList.setFocusable(false);
 
-        chatScrollPane = new JScrollPane(chatPanel);
+        chatScrollPane = new JScrollPane(messageList);
         chatScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
         chatScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_NEVER);
         chatScrollPane.setBorder(null);
         chatScrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        chatScrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            if (e.getValue() == 0 && !e.getValueIsAdjusting()) {
+                loadOlderMessages();
+            }
+        });
+        chatScrollPane.getViewport().addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                // Bubble heights depend on the width; make the list measure its rows again
+                messageRenderer.clearSizes();
+                messageList.setFixedCellHeight(1);
+                messageList.setFixedCellHeight(-1);
+            }
+        });
         panel.add(chatScrollPane, BorderLayout.CENTER);
 
         JPanel inputPanel = new JPanel(new BorderLayout(10, 0));
@@ -298,32 +340,85 @@ public class ChatInterfaceFrame extends JFrame {
         }
     }
     
-    private void loadConversation(boolean jumpToBottom) {
-        chatPanel.removeAll();
-        List<Message> messages = new ArrayList<>();
-
+    private String getSelectedConversationKey() {
         if (selectedContact instanceof User) {
-            messages = DataManager.getConversation(currentUser.getUsername(), ((User) selectedContact).getUsername());
+            return DataManager.getConversationKey(currentUser.getUsername(), ((User) selectedContact).getUsername());
         } else if (selectedContact instanceof GroupChat) {
-            messages = DataManager.getGroupConversation(((GroupChat) selectedContact).getGroupId());
+            return DataManager.getGroupConversationKey(((GroupChat) selectedContact).getGroupId());
         }
+        return null;
+    }
+
+    // Shows the newest page of the selected conversation.
+    private void loadConversation(boolean jumpToBottom) {
+        pagingPaused = true;
+        firstLoadedIndex = 0;
+        loadedToIndex = 0;
+        messageListModel.clear();
+
+        String conversationKey = getSelectedConversationKey();
+        if (conversationKey == null) return;
+
+        int count = DataManager.getMessageCount(conversationKey);
+        firstLoadedIndex = Math.max(0, count - MESSAGE_PAGE_SIZE);
+        loadedToIndex = count;
+        messageListModel.addAll(DataManager.getMessages(conversationKey, firstLoadedIndex, count));
+
+        JScrollBar vertical = chatScrollPane.getVerticalScrollBar();
+        SwingUtilities.invokeLater(() -> {
+            if (jumpToBottom) vertical.setValue(vertical.getMaximum());
+            pagingPaused = false;
+        });
+    }
 
-        for (Message msg : messages) {
-            chatPanel.add(createMessageBubble(msg));
-            chatPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+    // Appends only the messages written since the last load. Rewrites of the chat file
+    // keep every record in place, so positions stay valid; if the conversation shrank
+    // anyway, start over.
+    private void loadNewMessages(boolean jumpToBottom) {
+        String conversationKey = getSelectedConversationKey();
+        if (conversationKey == null) return;
+
+        int count = DataManager.getMessageCount(conversationKey);
+        if (count < loadedToIndex) {
+            loadConversation(true);
+            return;
         }
+        if (count == loadedToIndex) return;
 
-        chatPanel.revalidate();
-        chatPanel.repaint();
+        JScrollBar vertical = chatScrollPane.getVerticalScrollBar();
+        boolean wasAtBottom = vertical.getValue() + vertical.getVisibleAmount() >= vertical.getMaximum() - 20;
 
-        if (jumpToBottom) {
-            SwingUtilities.invokeLater(() -> {
-                JScrollBar vertical = chatScrollPane.getVerticalScrollBar();
-                vertical.setValue(vertical.getMaximum());
-            });
+        messageListModel.addAll(DataManager.getMessages(conversationKey, loadedToIndex, count));
+        loadedToIndex = count;
+
+        if (jumpToBottom || wasAtBottom) {
+            SwingUtilities.invokeLater(() -> vertical.setValue(vertical.getMaximum()));
         }
     }
 
+    // Called when the user scrolls to the top: prepends the previous page and keeps
+    // the message that was at the top where it was on screen.
+    private void loadOlderMessages() {
+        String conversationKey = getSelectedConversationKey();
+        if (pagingPaused || conversationKey == null || firstLoadedIndex == 0 || messageListModel.isEmpty()) return;
+
+        JScrollBar vertical = chatScrollPane.getVerticalScrollBar();
+        int offset = vertical.getValue() - messageList.getCellBounds(0, 0).y;
+
+        int from = Math.max(0, firstLoadedIndex - MESSAGE_PAGE_SIZE);
+        List<Message> older = DataManager.getMessages(conversationKey, from, firstLoadedIndex);
+        firstLoadedIndex = from;
+        if (older.isEmpty()) return;
+
+        pagingPaused = true;
+        messageListModel.addAll(0, older);
+        SwingUtilities.invokeLater(() -> {
+            Rectangle anchor = messageList.getCellBounds(older.size(), older.size());
+            if (anchor != null) vertical.setValue(anchor.y + offset);
+            pagingPaused = false;
+        });
+    }
+
     private void sendMessage() {
         String text = messageInput.getText().trim();
         if (text.isEmpty() || selectedContact == null) return;
@@ -335,65 +430,11 @@ public class ChatInterfaceFrame extends JFrame {
         }
         
         messageInput.setText("");
-        loadConversation(true);
+        loadNewMessages(true);
+        refreshConversationSummaries();
         updateUserList();
     }
 
-    private JPanel createMessageBubble(Message message) {
-        boolean isOutgoing = message.getSenderUsername().equals(currentUser.getUsername());
-
-        JPanel container = new JPanel(new FlowLayout(isOutgoing ? FlowLayout.RIGHT : FlowLayout.LEFT, 0, 0));
-        container.setBackground(BG_COLOR);
-
-        JPanel contentPanel = new JPanel();
-        contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
-        contentPanel.setBackground(BG_COLOR);
-
-        Color bubbleColor = isOutgoing ? OUTGOING_BUBBLE_BG : INCOMING_BUBBLE_BG;
-        JPanel bubble = new RoundedPanel(15, bubbleColor);
-        bubble.setLayout(new BorderLayout());
-        bubble.setBorder(new EmptyBorder(5, 10, 5, 10));
-
-        JTextArea messageText = new JTextArea(message.getContent());
-        messageText.setLineWrap(true);
-        messageText.setWrapStyleWord(true);
-        messageText.setEditable(false);
-        messageText.setBackground(bubbleColor);
-        messageText.setFont(MESSAGE_FONT);
-        messageText.setForeground(TEXT_COLOR);
-        messageText.setFocusable(false);
-        
-        if (!isOutgoing && selectedContact instanceof GroupChat) {
-            User sender = DataManager.findUserByUsername(message.getSenderUsername());
-            String senderName = sender != null ? sender.getFullName() : message.getSenderUsername();
-            JLabel senderLabel = new JLabel(senderName);
-            senderLabel.setFont(new Font("Arial", Font.BOLD, 12));
-            senderLabel.setForeground(new Color(67, 102, 163));
-            bubble.add(senderLabel, BorderLayout.NORTH);
-        }
-        
-        bubble.add(messageText, BorderLayout.CENTER);
-        
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("h:mm a");
-        JLabel timestampLabel = new JLabel(message.getTimestamp().format(timeFormatter));
-        timestampLabel.setFont(TIMESTAMP_FONT);
-        timestampLabel.setForeground(Color.GRAY);
-        timestampLabel.setBorder(new EmptyBorder(2, 10, 0, 10));
-
-        if (isOutgoing) {
-            contentPanel.add(bubble);
-            contentPanel.add(timestampLabel);
-            timestampLabel.setAlignmentX(Component.RIGHT_ALIGNMENT);
-        } else {
-            contentPanel.add(bubble);
-            contentPanel.add(timestampLabel);
-            timestampLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        }
-
-        container.add(contentPanel);
-        return container;
-    }
-
     private void showCreateGroupDialog() {
         JTextField groupNameField = new JTextField();
         List<User> potentialMembers = DataManager.getAllUsersByRole("Student");
@@ -531,8 +572,9 @@ public class ChatInterfaceFrame extends JFrame {
             
             if (value instanceof User) {
                 User user = (User) value;
+                ConversationSummary summary = getSummary(user);
                 String nameText = user.getFullName();
-                int unreadCount = unreadCounts.getOrDefault(user.getUsername(), 0);
+                int unreadCount = summary != null ? summary.getUnreadCount() : 0;
                 if (unreadCount > 0) {
                     nameLabel.setText(nameText + " (" + unreadCount + ")");
                     nameLabel.setForeground(Color.RED);
@@ -541,7 +583,7 @@ public class ChatInterfaceFrame extends JFrame {
                     nameLabel.setForeground(TEXT_COLOR);
                 }
                 
-                Message lastMessage = DataManager.getLastMessage(currentUser.getUsername(), user.getUsername());
+                Message lastMessage = summary != null ? summary.getLastMessage() : null;
                 lastMessageLabel.setText(lastMessage != null ? lastMessage.getContent() : "No messages yet.");
                 
                 avatarLabel.setText(String.valueOf(user.getFullName().charAt(0)));
@@ -554,7 +596,8 @@ public class ChatInterfaceFrame extends JFrame {
                 nameLabel.setText(group.getGroupName());
                 nameLabel.setForeground(TEXT_COLOR);
                 
-                Message lastMessage = DataManager.getLastGroupMessage(group.getGroupId());
+                ConversationSummary summary = getSummary(group);
+                Message lastMessage = summary != null ? summary.getLastMessage() : null;
                 lastMessageLabel.setText(lastMessage != null ? lastMessage.getContent() : "No messages yet.");
                 
                 avatarLabel.setText("G");
@@ -571,4 +614,99 @@ public class ChatInterfaceFrame extends JFrame {
         }
     }
 
-}
\ No newline at end of file
+    // One set of components paints every bubble. The list asks for every row's size
+    // whenever its model changes, so wrapped text is measured once per message and
+    // list width and the result is kept until the width changes.
+    class MessageBubbleRenderer extends JPanel implements ListCellRenderer<Message> {
+        private final FlowLayout rowLayout = new FlowLayout(FlowLayout.LEFT, 0, 0);
+        private final RoundedPanel bubble = new RoundedPanel(new BorderLayout(), 15, INCOMING_BUBBLE_BG);
+        private final JLabel senderLabel = new JLabel();
+        private final JTextArea messageText = new JTextArea();
+        private final JLabel timestampLabel = new JLabel();
+
+        private final Map<Message, Dimension> textSizes = new IdentityHashMap<>();
+        private int measuredWidth = -1;
+
+        MessageBubbleRenderer() {
+            setLayout(rowLayout);
+            setBackground(BG_COLOR);
+            setBorder(new EmptyBorder(0, 0, 5, 0));
+
+            JPanel contentPanel = new JPanel();
+            contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
+            contentPanel.setBackground(BG_COLOR);
+
+            bubble.setBorder(new EmptyBorder(5, 10, 5, 10));
+            senderLabel.setFont(SENDER_NAME_FONT);
+            senderLabel.setForeground(new Color(67, 102, 163));
+
+            messageText.setLineWrap(true);
+            messageText.setWrapStyleWord(true);
+            messageText.setEditable(false);
+            messageText.setFont(MESSAGE_FONT);
+            messageText.setForeground(TEXT_COLOR);
+
+            bubble.add(senderLabel, BorderLayout.NORTH);
+            bubble.add(messageText, BorderLayout.CENTER);
+
+            timestampLabel.setFont(TIMESTAMP_FONT);
+            timestampLabel.setForeground(Color.GRAY);
+            timestampLabel.setBorder(new EmptyBorder(2, 10, 0, 10));
+
+            contentPanel.add(bubble);
+            contentPanel.add(timestampLabel);
+            add(contentPanel);
+        }
+
+        void clearSizes() {
+            textSizes.clear();
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Message> list, Message message, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            boolean isOutgoing = message.getSenderUsername().equals(currentUser.getUsername());
+            Color bubbleColor = isOutgoing ? OUTGOING_BUBBLE_BG : INCOMING_BUBBLE_BG;
+
+            rowLayout.setAlignment(isOutgoing ? FlowLayout.RIGHT : FlowLayout.LEFT);
+            bubble.setBackgroundColor(bubbleColor);
+            messageText.setBackground(bubbleColor);
+            messageText.setText(message.getContent());
+            messageText.setPreferredSize(textSize(list, message));
+
+            boolean showSender = !isOutgoing && selectedContact instanceof GroupChat;
+            senderLabel.setVisible(showSender);
+            if (showSender) {
+                senderLabel.setText(DataRepository.senderProfile(message.getSenderUsername()).getFullName());
+            }
+
+            timestampLabel.setText(message.getTimestamp().format(BUBBLE_TIME_FORMAT));
+            timestampLabel.setAlignmentX(isOutgoing ? Component.RIGHT_ALIGNMENT : Component.LEFT_ALIGNMENT);
+
+            messageText.invalidate();
+            return this;
+        }
+
+        // Short messages get a bubble as wide as their longest line, long ones wrap at
+        // two thirds of the list width.
+        private Dimension textSize(JList<?> list, Message message) {
+            int listWidth = list.getWidth() > 0 ? list.getWidth() : 600;
+            if (listWidth != measuredWidth) {
+                textSizes.clear();
+                measuredWidth = listWidth;
+            }
+            return textSizes.computeIfAbsent(message, m -> {
+                FontMetrics metrics = messageText.getFontMetrics(MESSAGE_FONT);
+                Insets insets = messageText.getInsets();
+                int longestLine = 0;
+                for (String line : m.getContent().split("\n", -1)) {
+                    longestLine = Math.max(longestLine, metrics.stringWidth(line));
+                }
+                int width = Math.min(longestLine + insets.left + insets.right + 1, listWidth * 2 / 3);
+                messageText.setPreferredSize(null);
+                messageText.setSize(width, Short.MAX_VALUE);
+                return new Dimension(width, messageText.getPreferredSize().height);
+            });
+        }
+    }
+}
@@ -15,6 +15,8 @@ public class ChatInterfaceFrameSimple extends JFrame {
     private User selectedUser = null;
     private JComboBox<String> roleFilterComboBox;
 
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("MMM dd, h:mm a");
+
     public ChatInterfaceFrameSimple(User user) {
         this.currentUser = user;
         setTitle("Chat - " + currentUser.getFullName());
@@ -126,7 +128,7 @@ public class ChatInterfaceFrameSimple extends JFrame {
         loadConversation();
     }
 
-    // --- Inner class for rendering chat bubbles (no changes needed here) ---
+    // --- Inner class for rendering chat bubbles (one reused set of components for every row) ---
     private class ChatBubbleCellRenderer extends JPanel implements ListCellRenderer<Message> {
         private String currentUserUsername;
         private JTextArea messageArea = new JTextArea();
@@ -159,7 +161,7 @@ public class ChatInterfaceFrameSimple extends JFrame {
                                                       boolean isSelected, boolean cellHasFocus) {
             
             messageArea.setText(message.getContent());
-            timestampLabel.setText(message.getTimestamp().format(DateTimeFormatter.ofPattern("MMM dd, h:mm a")));
+            timestampLabel.setText(message.getTimestamp().format(TIMESTAMP_FORMAT));
             
             boolean isOutgoing = message.getSenderUsername().equals(currentUserUsername);
 
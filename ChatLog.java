@@ -0,0 +1,312 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only view of chats.txt with an index from conversation key to the
+ * byte ranges of that conversation's records.
+ *
+ * Direct messages are keyed by the (sorted) pair of usernames, group messages
+ * (status GROUP) by the group id. The index is kept in memory, extended by
+ * reading only the bytes appended since the last call, and saved to a sidecar
+ * file next to the log so a fresh start does not have to re-read the whole log.
+ * Any rewrite of the log (e.g. folding in pending updates) must call
+ * {@link #invalidate()}. Rewrites by other app instances are caught on the
+ * next read: a log that shrank, is a different file (file key) or whose tail
+ * no longer matches the indexed bytes is re-indexed from scratch. Records are returned with the
+ * {@link UpdateLog} updates that are still pending for the log applied.
+ */
+public class ChatLog {
+    private static final String INDEX_HEADER = "#chatlog-index v2";
+    private static final int FINGERPRINT_BYTES = 64;
+    private static final int SAVE_EVERY_N_RECORDS = 256;
+
+    private final String logFile;
+    private final Path logPath;
+    private final Path indexPath;
+    private final UpdateLog updates;
+    private final Charset charset = Charset.defaultCharset();
+
+    private final Map<String, List<Extent>> extentsByKey = new HashMap<>();
+    private long indexedLength = -1; // -1 = not loaded yet
+    private String indexedFileKey = "";  // identity of the log file the index describes
+    private long indexedFingerprint = 0; // fingerprint(indexedLength) of that file
+    private int recordsSinceSave = 0;
+
+    public ChatLog(String logFile, UpdateLog updates) {
+        this.logFile = logFile;
+        this.logPath = Paths.get(logFile);
+        this.indexPath = Paths.get(logFile + ".idx");
+        this.updates = updates;
+    }
+
+    /** A record's position in the log: start offset and length in bytes (without the line break). */
+    public static class Extent {
+        final long offset;
+        final int length;
+
+        Extent(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset() { return offset; }
+        public long getEnd() { return offset + length; }
+    }
+
+    public static String directKey(String user1, String user2) {
+        return user1.compareTo(user2) <= 0 ? user1 + "|" + user2 : user2 + "|" + user1;
+    }
+
+    public static String groupKey(String groupId) {
+        return groupId;
+    }
+
+    /** Appends one record (without line separator) to the log and indexes it. */
+    public void append(String record) throws IOException {
+        // Not under this monitor: compaction takes the file lock first and then this monitor
+        AtomicFiles.append(logFile, Collections.singletonList(record));
+        synchronized (this) {
+            refresh();
+        }
+    }
+
+    /** Returns the raw lines of one conversation in log order. */
+    public synchronized List<String> readConversation(String key) {
+        return readRange(key, 0, Integer.MAX_VALUE);
+    }
+
+    /** Number of records in one conversation. */
+    public synchronized int count(String key) {
+        refresh();
+        List<Extent> extents = extentsByKey.get(key);
+        return extents == null ? 0 : extents.size();
+    }
+
+    /**
+     * Returns the raw lines of records {@code from} (inclusive) to {@code to}
+     * (exclusive) of one conversation, counted in log order. Rewrites that keep
+     * every record (marking messages as read) leave these positions unchanged.
+     */
+    public synchronized List<String> readRange(String key, int from, int to) {
+        refresh();
+        List<String> lines = new ArrayList<>();
+        List<Extent> extents = extentsByKey.get(key);
+        if (extents == null) return lines;
+        int end = Math.min(to, extents.size());
+        if (from >= end) return lines;
+
+        UpdateLog.Overlay overlay = updates.overlay(logFile);
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            for (int i = Math.max(0, from); i < end; i++) {
+                Extent extent = extents.get(i);
+                ByteBuffer buffer = ByteBuffer.allocate(extent.length);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, extent.offset + buffer.position()) < 0) break;
+                }
+                lines.add(overlay.apply(extent.offset, new String(buffer.array(), 0, buffer.position(), charset)));
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading chat log: " + e.getMessage());
+        }
+        return lines;
+    }
+
+    /** Length of the log that has been indexed; records after this offset are not visible yet. */
+    public synchronized long getIndexedLength() {
+        refresh();
+        return indexedLength;
+    }
+
+    /** Forgets the in-memory index; the next read re-validates the sidecar or re-indexes the log. */
+    public synchronized void invalidate() {
+        extentsByKey.clear();
+        indexedLength = -1;
+        try {
+            Files.deleteIfExists(indexPath);
+        } catch (IOException e) { /* ignore, fingerprint check catches a stale sidecar */ }
+    }
+
+    // Brings the index up to date with the log: loads the sidecar on first use,
+    // then reads only the bytes appended since the last indexed position.
+    private void refresh() {
+        String fileKey = fileKey();
+        long logLength = logLength();
+        if (indexedLength < 0) {
+            if (!loadSidecar(fileKey, logLength)) {
+                clearIndex();
+            }
+        } else if (logLength < indexedLength || !fileKey.equals(indexedFileKey) || fingerprint(indexedLength) != indexedFingerprint) {
+            // Log was rewritten or replaced behind our back, e.g. by another instance
+            clearIndex();
+        }
+        indexedFileKey = fileKey;
+        if (logLength > indexedLength) {
+            boolean fullScan = indexedLength == 0;
+            indexTail(logLength);
+            indexedFingerprint = fingerprint(indexedLength);
+            if (fullScan || recordsSinceSave >= SAVE_EVERY_N_RECORDS) {
+                saveSidecar();
+            }
+        }
+    }
+
+    private void clearIndex() {
+        extentsByKey.clear();
+        indexedLength = 0;
+        indexedFingerprint = 0;
+    }
+
+    private void indexTail(long logLength) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(logPath))) {
+            in.skipNBytes(indexedLength);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long position = indexedLength;
+            long lineStart = position;
+            int b;
+            while (position < logLength && (b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    int length = bytes.length;
+                    if (length > 0 && bytes[length - 1] == '\r') length--;
+                    indexRecord(new String(bytes, 0, length, charset), lineStart, length);
+                    line.reset();
+                    lineStart = position;
+                    indexedLength = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            // A trailing record without its line break is still being written; pick it up next time.
+        } catch (IOException e) {
+            System.err.println("Error indexing chat log: " + e.getMessage());
+        }
+    }
+
+    private void indexRecord(String line, long offset, int length) {
+        String key = keyOf(line);
+        if (key == null) return;
+        extentsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(new Extent(offset, length));
+        recordsSinceSave++;
+    }
+
+    // Format: sender,recipient,content,timestamp,status
+    static String keyOf(String line) {
+        String[] data = line.split(",", 5);
+        if (data.length < 5) return null;
+        return "GROUP".equals(data[4]) ? groupKey(data[1]) : directKey(data[0], data[1]);
+    }
+
+    // The log file's identity (inode), or "" if it is missing or the file system has no keys
+    private String fileKey() {
+        try {
+            Object key = Files.readAttributes(logPath, BasicFileAttributes.class).fileKey();
+            return key == null ? "" : key.toString();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private long logLength() {
+        try {
+            return Files.exists(logPath) ? Files.size(logPath) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // --- Sidecar persistence ---
+    // Line 1: header,indexedLength,fingerprint,fileKey   Then: key<TAB>offset:length offset:length ...
+
+    private boolean loadSidecar(String fileKey, long logLength) {
+        if (!Files.exists(indexPath)) return false;
+        try (BufferedReader reader = Files.newBufferedReader(indexPath)) {
+            String[] header = reader.readLine().split(",", 4);
+            if (header.length != 4 || !INDEX_HEADER.equals(header[0])) return false;
+            long length = Long.parseLong(header[1]);
+            long fingerprint = Long.parseLong(header[2]);
+            if (!header[3].equals(fileKey) || length > logLength || fingerprint(length) != fingerprint) return false;
+
+            Map<String, List<Extent>> loaded = new HashMap<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) continue;
+                List<Extent> extents = new ArrayList<>();
+                for (String entry : line.substring(tab + 1).split(" ")) {
+                    int colon = entry.indexOf(':');
+                    extents.add(new Extent(Long.parseLong(entry.substring(0, colon)), Integer.parseInt(entry.substring(colon + 1))));
+                }
+                loaded.put(line.substring(0, tab), extents);
+            }
+            extentsByKey.clear();
+            extentsByKey.putAll(loaded);
+            indexedLength = length;
+            indexedFingerprint = fingerprint;
+            recordsSinceSave = 0;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return false; // Corrupt or unreadable sidecar: rebuild
+        }
+    }
+
+    private void saveSidecar() {
+        Path tempPath;
+        try {
+            // Own temp file: other app instances may be saving theirs at the same time
+            tempPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(), indexPath.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            System.err.println("Could not save chat index: " + e.getMessage());
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
+            writer.write(INDEX_HEADER + "," + indexedLength + "," + indexedFingerprint + "," + indexedFileKey);
+            writer.newLine();
+            for (Map.Entry<String, List<Extent>> entry : extentsByKey.entrySet()) {
+                StringBuilder sb = new StringBuilder(entry.getKey()).append('\t');
+                for (Extent extent : entry.getValue()) {
+                    sb.append(extent.offset).append(':').append(extent.length).append(' ');
+                }
+                sb.setLength(sb.length() - 1);
+                writer.write(sb.toString());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save chat index: " + e.getMessage());
+            try { Files.deleteIfExists(tempPath); } catch (IOException ignored) {}
+            return;
+        }
+        try {
+            Files.move(tempPath, indexPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            recordsSinceSave = 0;
+        } catch (IOException e) {
+            System.err.println("Could not save chat index: " + e.getMessage());
+        }
+    }
+
+    // CRC of the bytes just before 'length', used to detect a log that was rewritten since the sidecar was saved.
+    private long fingerprint(long length) {
+        if (length <= 0) return 0;
+        int size = (int) Math.min(FINGERPRINT_BYTES, length);
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, length - size + buffer.position()) < 0) return -1;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.array());
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
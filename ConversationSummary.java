@@ -0,0 +1,31 @@
+import java.time.LocalDateTime;
+
+public class ConversationSummary {
+    private final String conversationKey;
+    private Message lastMessage;
+    private int unreadCount;
+
+    public ConversationSummary(String conversationKey) {
+        this.conversationKey = conversationKey;
+    }
+
+    public String getConversationKey() { return conversationKey; }
+    public Message getLastMessage() { return lastMessage; }
+    public int getUnreadCount() { return unreadCount; }
+
+    public LocalDateTime getLastTimestamp() {
+        return lastMessage != null ? lastMessage.getTimestamp() : null;
+    }
+
+    // Keeps the newest message; on equal timestamps the later line in the file wins,
+    // the same as sorting the conversation and taking the last element.
+    void offer(Message message) {
+        if (lastMessage == null || !message.getTimestamp().isBefore(lastMessage.getTimestamp())) {
+            lastMessage = message;
+        }
+    }
+
+    void incrementUnread() {
+        unreadCount++;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.*;
+
+/**
+ * A change to the shared data files, published on the {@link DataEventBus}.
+ * Which of the optional fields are set depends on the type.
+ */
+public class DataEvent {
+    public enum Type {
+        MESSAGE_SENT,          // actor = sender, target = recipient username
+        GROUP_MESSAGE_SENT,    // actor = sender, target = group id
+        MESSAGES_READ,         // actor = reader, target = sender whose messages were read
+        ANNOUNCEMENTS_CHANGED, // actor = author (null when only read state changed)
+        FEEDBACK_SUBMITTED,    // actor = submitter id, target = user id the feedback is about
+        FEEDBACK_READ,         // target = user id whose feedback was marked read
+        FILE_CHANGED           // fileName = data file touched outside this process, or the update log
+    }
+
+    private final Type type;
+    private final String actor;
+    private final String target;
+    private final String fileName;
+    // Names of the data files whose contents changed (FILE_CHANGED only)
+    private final Set<String> changedFiles;
+
+    private DataEvent(Type type, String actor, String target, String fileName, Set<String> changedFiles) {
+        this.type = type;
+        this.actor = actor;
+        this.target = target;
+        this.fileName = fileName;
+        this.changedFiles = changedFiles;
+    }
+
+    public static DataEvent of(Type type, String actor, String target) {
+        return new DataEvent(type, actor, target, null, Collections.emptySet());
+    }
+
+    public static DataEvent fileChanged(String fileName) {
+        return new DataEvent(Type.FILE_CHANGED, null, null, fileName, Collections.singleton(fileName));
+    }
+
+    /** A change to the update log 'logName' that changed what 'files' read as. */
+    public static DataEvent updatesLogged(String logName, Collection<String> files) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String file : files) {
+            names.add(nameOf(file));
+        }
+        return new DataEvent(Type.FILE_CHANGED, null, null, logName, Collections.unmodifiableSet(names));
+    }
+
+    public Type getType() { return type; }
+    public String getActor() { return actor; }
+    public String getTarget() { return target; }
+    public String getFileName() { return fileName; }
+
+    /**
+     * True for a FILE_CHANGED event on the given data file (e.g. DataManager.CHATS_FILE),
+     * or on the update log when it changed updates of that file. Which files those
+     * are is worked out by the watcher when it builds the event, so this reads nothing.
+     */
+    public boolean isFileChange(String filePath) {
+        return type == Type.FILE_CHANGED && changedFiles.contains(nameOf(filePath));
+    }
+
+    private static String nameOf(String filePath) {
+        return java.nio.file.Paths.get(filePath).getFileName().toString();
+    }
+
+    @Override
+    public String toString() {
+        if (fileName == null) return type + "[" + actor + " -> " + target + "]";
+        return type + "[" + fileName + (changedFiles.contains(fileName) ? "" : " " + changedFiles) + "]";
+    }
+}
@@ -0,0 +1,104 @@
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * In-process publish/subscribe for data changes. DataManager publishes after
+ * each write; open frames subscribe and refresh only what the event touches,
+ * instead of polling with timers. Listeners are always called on the EDT.
+ *
+ * A WatchService on the data directory feeds the same bus with FILE_CHANGED
+ * events, so writes from other app instances sharing the folder show up too,
+ * including updates they log to data/updates.wal (see {@link DataEvent#isFileChange}).
+ */
+public class DataEventBus {
+    private static final List<Consumer<DataEvent>> listeners = new CopyOnWriteArrayList<>();
+    private static final long WATCH_DEBOUNCE_MS = 250;
+    private static final String UPDATE_LOG_NAME = Paths.get(DataManager.UPDATE_LOG_FILE).getFileName().toString();
+    private static Thread watcherThread;
+
+    public static void subscribe(Consumer<DataEvent> listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(Consumer<DataEvent> listener) {
+        listeners.remove(listener);
+    }
+
+    public static void publish(DataEvent event) {
+        if (listeners.isEmpty()) return;
+        SwingUtilities.invokeLater(() -> {
+            for (Consumer<DataEvent> listener : listeners) {
+                try {
+                    listener.accept(event);
+                } catch (RuntimeException e) {
+                    e.printStackTrace(); // One broken listener must not stop the others
+                }
+            }
+        });
+    }
+
+    /** Starts a daemon thread that turns file changes in {@code dataDir} into FILE_CHANGED events. */
+    public static synchronized void startFileWatcher(String dataDir) {
+        if (watcherThread != null) return;
+        Path dir = Paths.get(dataDir);
+        WatchService watchService;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            System.err.println("File watcher unavailable, changes from other instances will not be pushed: " + e.getMessage());
+            return;
+        }
+
+        watcherThread = new Thread(() -> watchLoop(watchService), "data-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    private static void watchLoop(WatchService watchService) {
+        // What the update log's files read as when it was last looked at; a change to the
+        // log is published as a change to the files whose versions moved since
+        Map<String, Long> logVersions = DataManager.UPDATE_LOG.versions();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                WatchKey key = watchService.take();
+                // A single save usually produces several MODIFY events; collect them briefly
+                Set<String> changed = new LinkedHashSet<>();
+                do {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+                        String name = event.context().toString();
+                        // Skip our own .tmp/.idx side files; the update log changes what its files read as
+                        if (name.endsWith(".txt") || name.equals(UPDATE_LOG_NAME)) {
+                            changed.add(name);
+                        }
+                    }
+                    if (!key.reset()) return;
+                    key = watchService.poll(WATCH_DEBOUNCE_MS, java.util.concurrent.TimeUnit.MILLISECONDS);
+                } while (key != null);
+
+                for (String name : changed) {
+                    if (name.equals(UPDATE_LOG_NAME)) {
+                        Map<String, Long> versions = DataManager.UPDATE_LOG.versions();
+                        List<String> files = new ArrayList<>();
+                        for (Map.Entry<String, Long> entry : versions.entrySet()) {
+                            if (!entry.getValue().equals(logVersions.get(entry.getKey()))) files.add(entry.getKey());
+                        }
+                        logVersions = versions;
+                        if (!files.isEmpty()) publish(DataEvent.updatesLogged(name, files));
+                    } else {
+                        publish(DataEvent.fileChanged(name));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+        }
+    }
+}
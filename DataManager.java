@@ -1,34 +1,52 @@
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.io.IOException;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 public class DataManager {
     // User files
-    private static final String ADMINS_FILE = "data/admins.txt";
-    private static final String TUTORS_FILE = "data/tutors.txt";
-    private static final String RECEPTIONISTS_FILE = "data/receptionists.txt";
-    private static final String STUDENTS_FILE = "data/students.txt";  
+    static final String ADMINS_FILE = "data/admins.txt";
+    static final String TUTORS_FILE = "data/tutors.txt";
+    static final String RECEPTIONISTS_FILE = "data/receptionists.txt";
+    static final String STUDENTS_FILE = "data/students.txt";  
     // Data files
-    private static final String STUDENT_DETAILS_FILE = "data/student_details.txt";
-    private static final String COURSES_FILE = "data/courses.txt";
-    private static final String ENROLLMENTS_FILE = "data/enrollments.txt";
-    private static final String PAYMENTS_FILE = "data/payments.txt";
-    private static final String REQUESTS_FILE = "data/requests.txt";
-    private static final String CHATS_FILE = "data/chats.txt";
-    private static final String RESULTS_FILE = "data/results.txt";
-    private static final String ANNOUNCEMENTS_FILE = "data/announcements.txt";
-    private static final String READ_ANNOUNCEMENTS_FILE = "data/read_announcements.txt";
-    private static final String TIMETABLE_FILE = "data/timetable.txt";
-    private static final String GROUP_CHATS_FILE = "data/group_chats.txt";
-    private static final String ATTENDANCE_FILE = "data/attendance.txt";
-    private static final String FEEDBACK_FILE = "data/feedback.txt";
+    static final String STUDENT_DETAILS_FILE = "data/student_details.txt";
+    static final String COURSES_FILE = "data/courses.txt";
+    static final String ENROLLMENTS_FILE = "data/enrollments.txt";
+    static final String PAYMENTS_FILE = "data/payments.txt";
+    static final String REQUESTS_FILE = "data/requests.txt";
+    static final String CHATS_FILE = "data/chats.txt";
+    static final String RESULTS_FILE = "data/results.txt";
+    static final String ANNOUNCEMENTS_FILE = "data/announcements.txt";
+    static final String READ_ANNOUNCEMENTS_FILE = "data/read_announcements.txt";
+    static final String TIMETABLE_FILE = "data/timetable.txt";
+    static final String GROUP_CHATS_FILE = "data/group_chats.txt";
+    static final String ATTENDANCE_FILE = "data/attendance.txt";
+    static final String FEEDBACK_FILE = "data/feedback.txt";
+
+    static final String UPDATE_LOG_FILE = "data/updates.wal";
+    // Highest id reserved per table and prefix (see IdAllocator)
+    static final String ID_SEQUENCES_FILE = "data/id_sequences.txt";
+
+    // Field updates (read flags, statuses, profiles) are logged here instead of rewriting the file
+    static final UpdateLog UPDATE_LOG = new UpdateLog(UPDATE_LOG_FILE);
+
+    // Where everything below reads and writes (-Dstorage=memory or sqlite to swap the data files out)
+    static final Storage STORAGE = Storage.open();
+
+    // StudentDashboard data per student id, see getStudentSnapshot
+    private static final Map<String, StudentSnapshot> STUDENT_SNAPSHOTS = new ConcurrentHashMap<>();
+    // Bumped by every write to data a snapshot shows, which makes the cached ones stale
+    private static final AtomicLong STUDENT_DATA_VERSION = new AtomicLong();
+    // What a snapshot is read from; writes by other app instances show up as changed stamps,
+    // including updates logged for these files (but not for others, e.g. chat read receipts)
+    private static final String[] STUDENT_SNAPSHOT_FILES = {ENROLLMENTS_FILE, COURSES_FILE, PAYMENTS_FILE,
+            RESULTS_FILE, ATTENDANCE_FILE, REQUESTS_FILE};
 
     public static final List<String> AVAILABLE_SUBJECTS = Arrays.asList(
             "Mathematics", "Physics", "Additional Mathematics", "Chemistry",
@@ -40,77 +58,37 @@ public class DataManager {
     }
 
     public static User authenticateUser(String username, String password) {
-        User user = findUserInFile(ADMINS_FILE, "Admin", username, password);
-        if (user != null) return user;
-        user = findUserInFile(TUTORS_FILE, "Tutor", username, password);
-        if (user != null) return user;
-        user = findUserInFile(RECEPTIONISTS_FILE, "Receptionist", username, password);
-        if (user != null) return user;
-        user = findUserInFile(STUDENTS_FILE, "Student", username, password);
-        if (user != null) return user;
-        return null; // User not found
-    }
-    
-    private static User findUserInFile(String filePath, String role, String username, String password) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                if (data.length >= 4 && data[1].equals(username) && data[2].equals(password)) {
-                    String id = data[0];
-                    String fullName = data[3];
-                    String specialization = (role.equals("Tutor") && data.length > 4) ? data[4] : "";
-                    return new User(id, username, password, role, fullName, specialization);
-                }
+        User user = STORAGE.users().findByUsername(username);
+        if (user != null && PasswordHasher.verify(password, user.getPassword())) {
+            if (PasswordHasher.needsRehash(user.getPassword())) {
+                // Old plaintext (or weaker) credential: store a fresh hash now that we know the password
+                updateUser(user, password);
             }
-        } catch (IOException e) { /* Ignore */ }
-        return null;
+            return user;
+        }
+        return null; // User not found or wrong password
     }
 
     public static List<User> getAllUsersByRole(String role) {
-        String filePath = getFilePathForRole(role);
-        if (filePath == null) return new ArrayList<>();
-        return readUsersFromFile(filePath, role);
-    }
-    
-    private static List<User> readUsersFromFile(String filePath, String role) {
-        List<User> users = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                if (data.length >= 4) {
-                    String specialization = (role.equals("Tutor") && data.length > 4) ? data[4] : "";
-                    users.add(new User(data[0], data[1], data[2], role, data[3], specialization));
-                }
-            }
-        } catch (IOException e) { /* Ignore */ }
-        return users;
+        if (getFilePathForRole(role) == null) return new ArrayList<>();
+        return STORAGE.users().getByRole(role);
     }
     
-    public static boolean updateUser(User userToUpdate) {
-        String filePath = getFilePathForRole(userToUpdate.getRole());
-        if (filePath == null) return false;
-
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(filePath));
-            boolean updated = false;
-            for (int i = 0; i < lines.size(); i++) {
-                String[] data = lines.get(i).split(",", 2);
-                if (data.length > 0 && data[0].equals(userToUpdate.getId())) {
-                    lines.set(i, userToUpdate.toCsvString());
-                    updated = true;
-                    break;
-                }
-            }
-            if (updated) {
-                Files.write(Paths.get(filePath), lines);
-            }
-            return updated;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+    /**
+     * Saves a user's details. 'newPassword' is a new plaintext password, stored
+     * hashed; null keeps the stored credential, whatever userToUpdate holds.
+     */
+    public static boolean updateUser(User userToUpdate, String newPassword) {
+        if (getFilePathForRole(userToUpdate.getRole()) == null) return false;
+
+        if (newPassword != null) {
+            userToUpdate.setPassword(PasswordHasher.hash(newPassword));
+        } else {
+            User stored = STORAGE.users().findById(userToUpdate.getId());
+            if (stored == null) return false;
+            userToUpdate.setPassword(stored.getPassword());
         }
+        return STORAGE.users().update(userToUpdate);
     }
 
     public static boolean registerUser(String username, String password, String role, String fullName, List<String> specializations) {
@@ -122,69 +100,33 @@ public class DataManager {
             return false;
         }
         
-        try {
-            String newUserId = getNextIdForRole(role);
-            if (newUserId == null) return false;
-
-            String newUserLine;
+        String newUserId = getNextIdForRole(role);
+        if (newUserId == null) return false;
 
-            // ============================ THE FIX: PART 2 ============================
-            // This logic correctly handles the List<String> for Tutors.
-            if ("Tutor".equalsIgnoreCase(role)) {
-                // Join the list of specializations with a semicolon.
-                String specializationString = String.join(";", specializations);
-                newUserLine = String.join(",", newUserId, username, password, fullName, specializationString);
-            } else {
-                // For other roles, the specializations list is ignored.
-                newUserLine = String.join(",", newUserId, username, password, fullName);
-            }
-            // ========================= END OF FIX ==========================
-
-            String lineToWrite = newUserLine + System.lineSeparator();
-            Files.write(Paths.get(filePath), lineToWrite.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+        // ============================ THE FIX: PART 2 ============================
+        // This logic correctly handles the List<String> for Tutors.
+        String specializationString = "";
+        if ("Tutor".equalsIgnoreCase(role)) {
+            // Join the list of specializations with a semicolon.
+            specializationString = String.join(";", specializations);
         }
+        // For other roles, the specializations list is ignored.
+        // ========================= END OF FIX ==========================
+
+        return STORAGE.users().add(new User(newUserId, username, PasswordHasher.hash(password), role, fullName, specializationString));
     }
 
     public static boolean deleteUser(String username) {
-        boolean deleted = false;
-        if (deleteLineByColumnValue(ADMINS_FILE, username, 1)) deleted = true;
-        if (deleteLineByColumnValue(TUTORS_FILE, username, 1)) deleted = true;
-        if (deleteLineByColumnValue(RECEPTIONISTS_FILE, username, 1)) deleted = true;
-        if (deleteLineByColumnValue(STUDENTS_FILE, username, 1)) deleted = true;
-        return deleted;
+        return STORAGE.users().deleteByUsername(username);
     }
     
     public static String generateIncomeReport(int month, int year) {
-        Map<String, Map<String, Double>> incomeByLevelAndSubject = new HashMap<>();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        try {
-            if (!Files.exists(Paths.get(PAYMENTS_FILE))) return "No payment data found.";
-            List<String> payments = Files.readAllLines(Paths.get(PAYMENTS_FILE));
-            for (String paymentLine : payments) {
-                String[] pData = paymentLine.split(",");
-                if (pData.length < 4) continue;
-                LocalDate paymentDate = LocalDate.parse(pData[3], formatter);
-                if (paymentDate.getMonthValue() == month && paymentDate.getYear() == year) {
-                    String enrollmentId = pData[1];
-                    double amount = Double.parseDouble(pData[2]);
-                    String courseId = findCourseIdForEnrollment(enrollmentId);
-                    if (courseId != null) {
-                        String[] courseDetails = findCourseDetails(courseId);
-                        if (courseDetails != null) {
-                            String level = courseDetails[0];
-                            String subject = courseDetails[1];
-                            incomeByLevelAndSubject.computeIfAbsent(level, k -> new HashMap<>()).merge(subject, amount, Double::sum);
-                        }
-                    }
-                }
-            }
-        } catch (IOException | java.time.format.DateTimeParseException e) {
-            return "Error reading data files or parsing date: " + e.getMessage();
+        if (!hasPayments()) return "No payment data found.";
+        String paymentsError = STORAGE.payments().getPaymentsError();
+        if (paymentsError != null) {
+            return "Error reading data files or parsing date: " + paymentsError;
         }
+        Map<String, Map<String, Double>> incomeByLevelAndSubject = STORAGE.payments().getIncomeByLevelAndSubject(year, month);
         StringBuilder report = new StringBuilder("Monthly Income Report for " + month + "/" + year + "\n");
         report.append("--------------------------------------------------\n");
         if (incomeByLevelAndSubject.isEmpty()) {
@@ -206,19 +148,12 @@ public class DataManager {
 
     public static List<String> getAvailableCourses() {
         List<String> courses = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // CHANGE THIS:
-                String[] data = line.split(",", 7); // Was split(",", 6)
-                // CHANGE THIS:
-                if (data.length >= 7) { // Check for 7 columns now
-                    // This line is now safe because the split is correct
-                    String courseInfo = String.format("%s: %s (%s) - $%.2f", data[0], data[1], data[3], Double.parseDouble(data[5]));
-                    courses.add(courseInfo);
-                }
+        for (String[] data : STORAGE.courses().getAll()) {
+            if (data.length >= 7) { // Check for 7 columns now
+                String courseInfo = String.format("%s: %s (%s) - $%.2f", data[0], data[1], data[3], Double.parseDouble(data[5]));
+                courses.add(courseInfo);
             }
-        } catch (IOException e) { /* ignore */ }
+        }
         return courses;
     }
 
@@ -231,196 +166,189 @@ public class DataManager {
         
         String studentId = getNextIdForRole("Student");
         // --- THE FIX ---
-        String userLine = String.join(",", studentId, username, password, fullName) + System.lineSeparator();
-        try {
-            Files.write(Paths.get(STUDENTS_FILE), userLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (!STORAGE.users().add(new User(studentId, username, PasswordHasher.hash(password), "Student", fullName, ""))) {
             return false;
         }
 
         // --- THE FIX ---
-        String detailsLine = String.join(",", studentId, ic, email, contact, address) + System.lineSeparator();
-        try {
-            Files.write(Paths.get(STUDENT_DETAILS_FILE), detailsLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (!STORAGE.users().addStudentDetails(new String[]{studentId, ic, email, contact, address})) {
+            STORAGE.users().deleteById(studentId);
             return false;
         }
 
-        for (String courseId : courseIDs) {
-            String enrollmentId = getNextIdForPrefix("ENR-", ENROLLMENTS_FILE);
-            String enrollmentLine = String.join(",", enrollmentId, studentId, courseId) + System.lineSeparator();
-            try {
-                Files.write(Paths.get(ENROLLMENTS_FILE), enrollmentLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
-            }
+        // All enrollments in one write; if it fails the student is removed again rather than left half-registered
+        Set<String> courses = new LinkedHashSet<>(courseIDs);
+        if (!STORAGE.enrollments().apply(studentId, Collections.emptySet(), newEnrollments(studentId, courses))) {
+            STORAGE.users().deleteStudentDetails(studentId);
+            STORAGE.users().deleteById(studentId);
+            return false;
         }
-        return true;
+        return studentDataChanged(true);
+    }
+
+    /** Registers and enrolls every student in a CSV file (see {@link StudentImporter} for the columns). */
+    public static StudentImporter.Report importStudents(String csvPath) {
+        StudentImporter.Report report = StudentImporter.importFile(csvPath);
+        studentDataChanged(report.getImported() > 0);
+        return report;
+    }
+
+    // Enrollment rows for a student in each course, with ids taken in one step
+    private static List<String[]> newEnrollments(String studentId, Collection<String> courseIds) {
+        List<String[]> enrollments = new ArrayList<>();
+        Iterator<String> ids = STORAGE.nextIds("ENR-", ENROLLMENTS_FILE, 1, courseIds.size()).iterator();
+        for (String courseId : courseIds) {
+            enrollments.add(new String[]{ids.next(), studentId, courseId});
+        }
+        return enrollments;
     }
 
     public static Map<String, String> getStudentEnrollments(String studentId) {
         Map<String, String> enrollments = new HashMap<>();
-        try {
-            if (!Files.exists(Paths.get(ENROLLMENTS_FILE))) return enrollments;
-            List<String> enrollmentLines = Files.readAllLines(Paths.get(ENROLLMENTS_FILE));
-            for (String line : enrollmentLines) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[1].equals(studentId)) {
-                    String enrollmentId = data[0];
-                    String courseId = data[2];
-                    String courseInfo = getCourseInfoById(courseId);
-                    if (courseInfo != null) {
-                        enrollments.put(enrollmentId, courseInfo);
-                    }
-                }
+        for (String[] data : STORAGE.enrollments().getByStudent(studentId)) {
+            String enrollmentId = data[0];
+            String courseId = data[2];
+            String courseInfo = getCourseInfoById(courseId);
+            if (courseInfo != null) {
+                enrollments.put(enrollmentId, courseInfo);
             }
-        } catch (IOException e) { /* ignore */ }
+        }
         return enrollments;
     }
+
+    /**
+     * Everything StudentDashboard shows about a student. Built once and cached
+     * until a write here changes student data or another instance changes the
+     * files it was read from.
+     */
+    public static StudentSnapshot getStudentSnapshot(String studentId) {
+        long version = STUDENT_DATA_VERSION.get();
+        long[] stamps = DataRepository.stampsWithUpdatesOf(STUDENT_SNAPSHOT_FILES);
+        StudentSnapshot snapshot = STUDENT_SNAPSHOTS.get(studentId);
+        if (snapshot == null || !snapshot.isCurrent(version, stamps)) {
+            snapshot = loadStudentSnapshot(studentId, version, stamps);
+            STUDENT_SNAPSHOTS.put(studentId, snapshot);
+        }
+        return snapshot;
+    }
+
+    private static StudentSnapshot loadStudentSnapshot(String studentId, long version, long[] stamps) {
+        // The enrollments and their courses are read once and shared by every section
+        Map<String, String> enrollments = new HashMap<>();
+        Set<String> courseIds = new HashSet<>();
+        for (String[] data : STORAGE.enrollments().getByStudent(studentId)) {
+            courseIds.add(data[2]);
+            enrollments.put(data[0], getCourseInfoById(data[2]));
+        }
+        Map<String, List<String[]>> attendanceByCourse = getAttendanceByCourse(studentId, courseIds);
+        return new StudentSnapshot(studentId, courseIds,
+                resultSummariesOf(enrollments),
+                attendanceSummariesOf(enrollments, attendanceByCourse),
+                attendanceByCourse,
+                getPaymentStatus(studentId),
+                paymentHistoryOf(enrollments),
+                getPendingRequests(studentId),
+                version, stamps);
+    }
+
+    // Called after each write to data a StudentSnapshot shows; passes the write's result through
+    private static boolean studentDataChanged(boolean written) {
+        STUDENT_DATA_VERSION.incrementAndGet();
+        STUDENT_SNAPSHOTS.clear();
+        return written;
+    }
     
     public static String acceptPayment(String enrollmentId, double amount) {
         String paymentId = getNextIdForPrefix("PAY-", PAYMENTS_FILE);
         String paymentDate = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
-        String paymentLine = String.join(",", paymentId, enrollmentId, String.valueOf(amount), paymentDate) + System.lineSeparator();
         
-        try {
-            Files.write(Paths.get(PAYMENTS_FILE), paymentLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-
-            return "--- RECEIPT ---\n" +
-                   "Payment ID: " + paymentId + "\n" +
-                   "Date: " + paymentDate + "\n" +
-                   "Enrollment ID: " + enrollmentId + "\n" +
-                   "Amount Paid: $" + String.format("%.2f", amount) + "\n" +
-                   "----------------\n" +
-                   "Thank you!";
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (!studentDataChanged(STORAGE.payments().add(new String[]{paymentId, enrollmentId, String.valueOf(amount), paymentDate}))) {
             return "Failed to record payment.";
         }
+        return "--- RECEIPT ---\n" +
+               "Payment ID: " + paymentId + "\n" +
+               "Date: " + paymentDate + "\n" +
+               "Enrollment ID: " + enrollmentId + "\n" +
+               "Amount Paid: $" + String.format("%.2f", amount) + "\n" +
+               "----------------\n" +
+               "Thank you!";
     }
     
     public static boolean updateStudentEnrollments(String studentId, List<String> newCourseIDs) {
-        deleteLineByColumnValue(ENROLLMENTS_FILE, studentId, 1);
-
-        for (String courseId : newCourseIDs) {
-            String enrollmentId = getNextIdForPrefix("ENR-", ENROLLMENTS_FILE);
-            String enrollmentLine = String.join(",", enrollmentId, studentId, courseId) + System.lineSeparator();
-            try {
-                Files.write(Paths.get(ENROLLMENTS_FILE), enrollmentLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
+        // Only the difference is written: courses still listed keep their enrollment (and its
+        // payments and results), dropped ones are removed and new ones added, all in one write.
+        Set<String> listed = new HashSet<>(newCourseIDs);
+        Set<String> toAdd = new LinkedHashSet<>(newCourseIDs);
+        Set<String> removedIds = new HashSet<>();
+        for (String[] enrollment : STORAGE.enrollments().getByStudent(studentId)) {
+            if (listed.contains(enrollment[2])) {
+                toAdd.remove(enrollment[2]);
+            } else {
+                removedIds.add(enrollment[0]);
             }
         }
-        return true;
+        if (removedIds.isEmpty() && toAdd.isEmpty()) {
+            return true;
+        }
+        return studentDataChanged(STORAGE.enrollments().apply(studentId, removedIds, newEnrollments(studentId, toAdd)));
     }
     
     public static boolean deleteStudent(String studentId) {
         boolean success = true;
-        if (!deleteLineByColumnValue(STUDENTS_FILE, studentId, 0)) success = false;
-        if (!deleteLineByColumnValue(STUDENT_DETAILS_FILE, studentId, 0)) success = false;
-        if (!deleteLineByColumnValue(ENROLLMENTS_FILE, studentId, 1)) success = false;
-        return success;
+        User student = STORAGE.users().findById(studentId);
+        if (student == null || !"Student".equals(student.getRole()) || !STORAGE.users().deleteById(studentId)) success = false;
+        if (!STORAGE.users().deleteStudentDetails(studentId)) success = false;
+        if (!STORAGE.enrollments().deleteByStudent(studentId)) success = false;
+        return studentDataChanged(success);
     }
 
      public static List<String[]> getCoursesByTutor(String tutorId) {
         List<String[]> courses = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 7);
-                // Check if the tutorID column (index 2) matches
-                if (data.length >= 7 && data[2].equals(tutorId)) {
-                    courses.add(data);
-                }
+        for (String[] data : STORAGE.courses().getByTutor(tutorId)) {
+            if (data.length >= 7) {
+                courses.add(data.clone());
             }
-        } catch (IOException e) { /* ignore */ }
+        }
         return courses;
     }
     
     public static boolean addCourse(String courseName, String tutorId, String level, String subject, double fee, String schedule) {
-        try {
-            String courseId = getNextIdForPrefix("C-", COURSES_FILE, 101);
-
-            String courseLine = String.join(",", courseId, courseName, tutorId, level, subject, String.format("%.2f", fee), schedule) + System.lineSeparator();
-            
-            Files.write(Paths.get(COURSES_FILE), courseLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        String courseId = getNextIdForPrefix("C-", COURSES_FILE, 101);
+        return studentDataChanged(STORAGE.courses().add(new String[]{courseId, courseName, tutorId, level, subject, String.format("%.2f", fee), schedule}));
     }
 
     public static boolean updateCourse(String courseId, String courseName, String level, String subject, double fee, String schedule) {
-        try {
-            List<String> lines = Files.readAllLines(Paths.get(COURSES_FILE));
-            boolean updated = false;
-            for (int i = 0; i < lines.size(); i++) {
-                String[] data = lines.get(i).split(",", 2);
-                if (data.length > 0 && data[0].equals(courseId)) {
-                    String tutorId = lines.get(i).split(",")[2];
-                    
-                    // CHANGE THIS:
-                    // String updatedLine = String.join(",", courseId, courseName, tutorId, level, subject, String.format("%.2f", fee));
-                    
-                    // TO THIS (add the schedule to the updated line):
-                    String updatedLine = String.join(",", courseId, courseName, tutorId, level, subject, String.format("%.2f", fee), schedule);
-                    
-                    lines.set(i, updatedLine);
-                    updated = true;
-                    break;
-                }
-            }
-            if (updated) {
-                Files.write(Paths.get(COURSES_FILE), lines);
-            }
-            return updated;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        String[] existing = STORAGE.courses().findById(courseId);
+        if (existing == null || existing.length < 3) return false;
+        String tutorId = existing[2];
+        return studentDataChanged(STORAGE.courses().update(new String[]{courseId, courseName, tutorId, level, subject, String.format("%.2f", fee), schedule}));
     }
 
     public static boolean deleteCourse(String courseId) {
         // Warning: This deletes the course but does not automatically un-enroll students.
         // A more robust system would handle this, e.g., by preventing deletion or notifying students.
-        return deleteLineByColumnValue(COURSES_FILE, courseId, 0);
+        return studentDataChanged(STORAGE.courses().delete(courseId));
     }
     
     public static List<String> getStudentsByCourse(String courseId) {
         List<String> studentNames = new ArrayList<>();
         List<String> studentIDs = new ArrayList<>();
 
-        // 1. Find all student IDs for the given course ID from enrollments.txt
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[2].equals(courseId)) {
-                    studentIDs.add(data[1]);
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
+        // 1. Find all student IDs for the given course ID from the enrollments
+        for (String[] data : STORAGE.enrollments().getByCourse(courseId)) {
+            studentIDs.add(data[1]);
+        }
 
         if (studentIDs.isEmpty()) {
             return studentNames; // No students enrolled
         }
 
-        // 2. Find the names for each student ID from students.txt
-        try (BufferedReader reader = new BufferedReader(new FileReader(STUDENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                // If this student's ID is in our list, add their name
-                if (data.length >= 4 && studentIDs.contains(data[0])) {
-                    studentNames.add(data[3] + " (" + data[0] + ")");
-                }
+        // 2. Add their names in students.txt order
+        for (User student : STORAGE.users().getByRole("Student")) {
+            if (studentIDs.contains(student.getId())) {
+                studentNames.add(student.getFullName() + " (" + student.getId() + ")");
             }
-        } catch (IOException e) { /* ignore */ }
+        }
         
         return studentNames;
     }
@@ -430,28 +358,18 @@ public class DataManager {
         List<String> courseIDs = new ArrayList<>();
 
         // 1. Get all course IDs for the student from enrollments
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[1].equals(studentId)) {
-                    courseIDs.add(data[2]);
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
+        for (String[] data : STORAGE.enrollments().getByStudent(studentId)) {
+            courseIDs.add(data[2]);
+        }
 
         if (courseIDs.isEmpty()) return schedule;
 
         // 2. For each course ID, get the course name and schedule
-        try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 7); // Now split by 7 for schedule
-                if (data.length == 7 && courseIDs.contains(data[0])) {
-                    schedule.add(data[1] + "  |  " + data[6]); // e.g., "Primary 5 Math  |  Mon 4-6 PM"
-                }
+        for (String[] data : STORAGE.courses().getAll()) {
+            if (data.length == 7 && courseIDs.contains(data[0])) {
+                schedule.add(data[1] + "  |  " + data[6]); // e.g., "Primary 5 Math  |  Mon 4-6 PM"
             }
-        } catch (IOException e) { /* ignore */ }
+        }
         
         return schedule;
     }
@@ -461,116 +379,41 @@ public class DataManager {
         String date = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
         String status = "PENDING";
         
-        String requestLine = String.join(",", requestId, studentId, details, status, date) + System.lineSeparator();
-        
-        try {
-            Files.write(Paths.get(REQUESTS_FILE), requestLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return studentDataChanged(STORAGE.requests().add(new String[]{requestId, studentId, details, status, date}));
     }
 
     public static Map<String, String> getPendingRequests(String studentId) {
         Map<String, String> requests = new HashMap<>(); // Map<RequestID, Details>
-        try (BufferedReader reader = new BufferedReader(new FileReader(REQUESTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 5 && data[1].equals(studentId) && data[3].equalsIgnoreCase("PENDING")) {
-                    requests.put(data[0], data[2]);
-                }
+        for (String[] data : STORAGE.requests().getAll()) {
+            if (data[1].equals(studentId) && data[3].equalsIgnoreCase("PENDING")) {
+                requests.put(data[0], data[2]);
             }
-        } catch (IOException e) { /* ignore */ }
+        }
         return requests;
     }
 
     public static boolean deleteRequest(String requestId, String studentId) {
         // This is a secure delete: checks that the request belongs to the student AND is pending.
-        File inputFile = new File(REQUESTS_FILE);
-        if (!inputFile.exists()) return false;
-        File tempFile = new File(REQUESTS_FILE + ".tmp");
-        boolean deleted = false;
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                // Check all conditions before deleting
-                if (data.length == 5 && data[0].equals(requestId) && data[1].equals(studentId) && data[3].equalsIgnoreCase("PENDING")) {
-                    deleted = true;
-                    continue; // Skip writing this line to delete it
-                }
-                writer.write(line + System.lineSeparator());
+        for (String[] data : STORAGE.requests().getAll()) {
+            if (data[0].equals(requestId) && data[1].equals(studentId) && data[3].equalsIgnoreCase("PENDING")) {
+                return studentDataChanged(STORAGE.requests().delete(requestId));
             }
-        } catch (IOException e) { e.printStackTrace(); return false; }
-
-        if (deleted) {
-            inputFile.delete();
-            tempFile.renameTo(inputFile);
-        } else {
-            tempFile.delete(); // No changes were made
         }
-        return deleted;
+        return false;
     }
 
     public static Map<String, Double> getPaymentStatus(String studentId) {
-        Map<String, Double> status = new HashMap<>();
-        double totalFees = 0.0;
-        double totalPaid = 0.0;
-
-        List<String> courseIDs = new ArrayList<>();
-        List<String> enrollmentIDs = new ArrayList<>();
-
-        // 1. Get all course and enrollment IDs for the student
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[1].equals(studentId)) {
-                    enrollmentIDs.add(data[0]);
-                    courseIDs.add(data[2]);
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
-
-        // 2. Calculate total fees from the courses
-        try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 7);
-                if (data.length == 7 && courseIDs.contains(data[0])) {
-                    totalFees += Double.parseDouble(data[5]);
-                }
-            }
-        } catch (IOException | NumberFormatException e) { /* ignore */ }
-
-        // 3. Calculate total paid from payments
-        try (BufferedReader reader = new BufferedReader(new FileReader(PAYMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 4 && enrollmentIDs.contains(data[1])) {
-                    totalPaid += Double.parseDouble(data[2]);
-                }
-            }
-        } catch (IOException | NumberFormatException e) { /* ignore */ }
-        
-        status.put("totalFees", totalFees);
-        status.put("totalPaid", totalPaid);
-        status.put("balance", totalFees - totalPaid);
-        return status;
+        return STORAGE.payments().getPaymentStatus(studentId);
     }
 
     public static void sendMessage(String senderUsername, String recipientUsername, String content) {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         String escapedContent = content.replace(",", ";").replace("\n", " | ");
         String status = "UNREAD";
-        String messageLine = String.join(",", senderUsername, recipientUsername, escapedContent, timestamp, status) + System.lineSeparator();
+        String messageLine = String.join(",", senderUsername, recipientUsername, escapedContent, timestamp, status);
         try {
-            Files.write(Paths.get(CHATS_FILE), messageLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            STORAGE.chats().append(messageLine);
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.MESSAGE_SENT, senderUsername, recipientUsername));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -579,12 +422,9 @@ public class DataManager {
 
     public static List<Message> getConversation(String user1Username, String user2Username) {
         List<Message> conversation = new ArrayList<>();
-        if (!Files.exists(Paths.get(CHATS_FILE))) {
-            return conversation;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(CHATS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
+        // Only this pair's records are read, located through the chat log index
+        try {
+            for (String line : STORAGE.chats().readConversation(ChatLog.directKey(user1Username, user2Username))) {
                 String[] data = line.split(",", 5);
                 if (data.length < 5) continue;
                 String sender = data[0];
@@ -597,7 +437,7 @@ public class DataManager {
                     conversation.add(new Message(sender, receiver, content, timestamp, isRead));
                 }
             }
-        } catch (IOException | java.time.format.DateTimeParseException e) {
+        } catch (java.time.format.DateTimeParseException e) {
             System.err.println("Error reading or parsing conversation: " + e.getMessage());
         }
         conversation.sort(Comparator.comparing(Message::getTimestamp));
@@ -606,47 +446,27 @@ public class DataManager {
     
     public static void markMessagesAsRead(User reader, User sender) {
         if (sender == null) return;
-        if (!Files.exists(Paths.get(CHATS_FILE))) return;
-        List<String> updatedLines = new ArrayList<>();
-        boolean modified = false;
 
-        try {
-            List<String> allLines = Files.readAllLines(Paths.get(CHATS_FILE));
-            for (String line : allLines) {
-                String[] data = line.split(",", 5);
-                if (data.length < 5) {
-                    updatedLines.add(line);
-                    continue;
-                }
-                // THE FIX: Check data[1] (recipient) and data[0] (sender)
-                if (data[1].equals(reader.getUsername()) && data[0].equals(sender.getUsername()) && "UNREAD".equalsIgnoreCase(data[4])) {
-                    data[4] = "READ"; // Update status
-                    updatedLines.add(String.join(",", data));
-                    modified = true;
-                } else {
-                    updatedLines.add(line);
-                }
-            }
-            if (modified) {
-                Files.write(Paths.get(CHATS_FILE), updatedLines);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (STORAGE.chats().markRead(sender.getUsername(), reader.getUsername())) {
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.MESSAGES_READ, reader.getUsername(), sender.getUsername()));
         }
     }
 
     public static int getUnreadMessageCount(User currentUser) {
-        if (!Files.exists(Paths.get(CHATS_FILE))) return 0;
+        int[] count = {0};
         try {
-            return (int) Files.lines(Paths.get(CHATS_FILE))
-                .map(line -> line.split(",", 5))
+            STORAGE.chats().forEachLine(line -> {
+                String[] data = line.split(",", 5);
                 // THE FIX: Check data[1] (recipient) for the current user's name
-                .filter(data -> data.length >= 5 && data[1].equals(currentUser.getUsername()) && "UNREAD".equalsIgnoreCase(data[4]))
-                .count();
+                if (data.length >= 5 && data[1].equals(currentUser.getUsername()) && "UNREAD".equalsIgnoreCase(data[4])) {
+                    count[0]++;
+                }
+            });
         } catch (IOException e) {
             e.printStackTrace();
             return 0;
         }
+        return count[0];
     }
 
 
@@ -688,7 +508,7 @@ public class DataManager {
         return eligibleUsers;
     }
 
-    private static String getFilePathForRole(String role) {
+    static String getFilePathForRole(String role) {
         switch (role) {
             case "Admin": return ADMINS_FILE;
             case "Tutor": return TUTORS_FILE;
@@ -699,6 +519,12 @@ public class DataManager {
     }
     
     private static String getNextIdForRole(String role) {
+        List<String> ids = getNextIdsForRole(role, 1);
+        return ids == null ? null : ids.get(0);
+    }
+
+    // 'count' new ids for a role at once, for bulk registration
+    static List<String> getNextIdsForRole(String role, int count) {
         String prefix;
         int startNumber;
         switch (role) {
@@ -708,7 +534,7 @@ public class DataManager {
             case "Student": prefix = "STU-"; startNumber = 401; break;
             default: return null;
         }
-        return getNextIdForPrefix(prefix, getFilePathForRole(role), startNumber);
+        return STORAGE.nextIds(prefix, getFilePathForRole(role), startNumber, count);
     }
     
     private static String getNextIdForPrefix(String prefix, String filePath) {
@@ -716,73 +542,28 @@ public class DataManager {
     }
     
     private static String getNextIdForPrefix(String prefix, String filePath, int startNumber) {
-        try {
-            if (!Files.exists(Paths.get(filePath))) {
-                return prefix + String.format("%03d", startNumber);
-            }
-            int maxNum = Files.lines(Paths.get(filePath))
-                    .map(line -> line.split(",")[0])
-                    .filter(id -> id.startsWith(prefix))
-                    .map(id -> id.substring(prefix.length()))
-                    .mapToInt(Integer::parseInt)
-                    .max()
-                    .orElse(startNumber - 1);
-            return prefix + String.format("%03d", maxNum + 1);
-        } catch (IOException e) {
-            return prefix + String.format("%03d", startNumber); // Fallback
-        }
+        return STORAGE.nextId(prefix, filePath, startNumber);
     }
 
-    private static boolean deleteLineByColumnValue(String filePath, String value, int columnIndex) {
-        File inputFile = new File(filePath);
-        if (!inputFile.exists()) return false;
-        File tempFile = new File(filePath + ".tmp");
-        boolean modified = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length > columnIndex && data[columnIndex].equals(value)) {
-                    modified = true;
-                    continue;
-                }
-                writer.write(line + System.lineSeparator());
-            }
-        } catch (IOException e) { e.printStackTrace(); return false; }
-
-        if (modified) { inputFile.delete(); tempFile.renameTo(inputFile); }
-        else { tempFile.delete(); }
-        return modified;
+    // False until the first payment is stored; the income reports say so instead of showing zeros.
+    private static boolean hasPayments() {
+        return STORAGE.payments().hasData();
     }
 
-    private static String findCourseIdForEnrollment(String enrollmentId) throws IOException {
-        if (!Files.exists(Paths.get(ENROLLMENTS_FILE))) return null;
-        return Files.lines(Paths.get(ENROLLMENTS_FILE)).map(line -> line.split(",")).filter(data -> data.length > 2 && data[0].equals(enrollmentId)).map(data -> data[2]).findFirst().orElse(null);
+    /** Every course row, [id, name, tutorId, level, subject, fee, schedule]. */
+    public static Collection<String[]> getAllCourseRows() {
+        return STORAGE.courses().getAll();
     }
 
-    private static String[] findCourseDetails(String courseId) throws IOException {
-        if (!Files.exists(Paths.get(COURSES_FILE))) return null;
-        return Files.lines(Paths.get(COURSES_FILE))
-                .map(line -> line.split(",", 7))
-                .filter(data -> data.length > 0 && data[0].equals(courseId))
-                .map(data -> new String[]{data[3], data[4]})
-                .findFirst().orElse(null);
+    private static String findCourseIdForEnrollment(String enrollmentId) {
+        return STORAGE.enrollments().getCourseId(enrollmentId);
     }
 
     public static String getCourseInfoById(String courseId) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // CHANGE THIS:
-                String[] data = line.split(",", 7); // Was split(",", 6)
-                // CHANGE THIS:
-                if (data.length >= 7 && data[0].equals(courseId)) { // Check for 7 columns
-                    return String.format("%s (%s) - $%.2f", data[1], data[3], Double.parseDouble(data[5]));
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
+        String[] data = STORAGE.courses().findById(courseId);
+        if (data != null && data.length >= 7) { // Check for 7 columns
+            return String.format("%s (%s) - $%.2f", data[1], data[3], Double.parseDouble(data[5]));
+        }
         return "Unknown Course";
     }
 
@@ -790,28 +571,16 @@ public class DataManager {
         String resultId = getNextIdForPrefix("RES-", RESULTS_FILE);
         String uploadDate = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
 
-        String resultLine = String.join(",", resultId, enrollmentId, assessmentName, String.valueOf(score), String.valueOf(totalMarks), uploadDate) + System.lineSeparator();
-        try {
-            Files.write(Paths.get(RESULTS_FILE), resultLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return studentDataChanged(STORAGE.results().add(new String[]{resultId, enrollmentId, assessmentName, String.valueOf(score), String.valueOf(totalMarks), uploadDate}));
     }
 
     private static List<String[]> getRawResultsForEnrollment(String enrollmentId) {
-        List<String[]> results = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(RESULTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 6);
-                if (data.length == 6 && data[1].equals(enrollmentId)) {
-                    results.add(data);
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
-        return results;
+        return getRawResultsByEnrollment(Collections.singleton(enrollmentId)).getOrDefault(enrollmentId, new ArrayList<>());
+    }
+
+    // One scan of results.txt for several enrollments; only their rows are parsed.
+    private static Map<String, List<String[]>> getRawResultsByEnrollment(Collection<String> enrollmentIds) {
+        return STORAGE.results().getByEnrollment(enrollmentIds);
     }
 
     private static Map<String, Object> calculateMetrics(List<String[]> rawResults) {
@@ -851,13 +620,14 @@ public class DataManager {
         }
         
         report.append("Results for Student ID: ").append(studentId).append("\n\n");
+        Map<String, List<String[]>> resultsByEnrollment = getRawResultsByEnrollment(enrollments.keySet());
 
         for (Map.Entry<String, String> entry : enrollments.entrySet()) {
             String enrollmentId = entry.getKey();
             String courseInfo = entry.getValue().split(" - ")[0]; // "Course Name (Level)"
             report.append("--- Course: ").append(courseInfo).append(" ---\n");
             
-            List<String[]> rawResults = getRawResultsForEnrollment(enrollmentId);
+            List<String[]> rawResults = resultsByEnrollment.getOrDefault(enrollmentId, new ArrayList<>());
             if (rawResults.isEmpty()) {
                 report.append("No results uploaded for this course yet.\n\n");
                 continue;
@@ -882,16 +652,10 @@ public class DataManager {
         Map<String, String> enrollmentIdToStudentIdMap = new HashMap<>();
 
         // 1. Get all enrollments for this course
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[2].equals(courseId)) {
-                    studentIDs.add(data[1]);
-                    enrollmentIdToStudentIdMap.put(data[0], data[1]);
-                }
-            }
-        } catch (IOException e) { return "Error reading enrollment data."; }
+        for (String[] data : STORAGE.enrollments().getByCourse(courseId)) {
+            studentIDs.add(data[1]);
+            enrollmentIdToStudentIdMap.put(data[0], data[1]);
+        }
         
         if (studentIDs.isEmpty()) return "No students are enrolled in this course.";
         
@@ -905,12 +669,13 @@ public class DataManager {
         report.append("------------------------------------------------------------------\n");
 
         // 3. Loop through enrollments, calculate metrics, and build the report
+        Map<String, List<String[]>> resultsByEnrollment = getRawResultsByEnrollment(enrollmentIdToStudentIdMap.keySet());
         for (Map.Entry<String, String> entry : enrollmentIdToStudentIdMap.entrySet()) {
             String enrollmentId = entry.getKey();
             String studentId = entry.getValue();
             String studentName = studentIdToNameMap.getOrDefault(studentId, "Unknown Student");
             
-            List<String[]> rawResults = getRawResultsForEnrollment(enrollmentId);
+            List<String[]> rawResults = resultsByEnrollment.getOrDefault(enrollmentId, new ArrayList<>());
             if (rawResults.isEmpty()) {
                 report.append(String.format("%-20s | %-15s | %-10s\n", studentName, "N/A", "N/A"));
                 continue;
@@ -931,49 +696,35 @@ public class DataManager {
         String escapedTitle = title.replace(",", ";");
         String escapedContent = content.replace(",", ";");
 
-        String line = String.join(",", announcementId, escapedTitle, escapedContent, author.getUsername(), date) + System.lineSeparator();
-        try {
-            Files.write(Paths.get(ANNOUNCEMENTS_FILE), line.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (!STORAGE.announcements().add(new String[]{announcementId, escapedTitle, escapedContent, author.getUsername(), date})) {
             return false;
         }
+        DataEventBus.publish(DataEvent.of(DataEvent.Type.ANNOUNCEMENTS_CHANGED, author.getUsername(), announcementId));
+        return true;
     }
     
     public static List<Announcement> getAllAnnouncements() {
         List<Announcement> announcements = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(ANNOUNCEMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                if (data.length == 5) {
-                    // Un-escape commas for display
-                    String title = data[1].replace(";", ",");
-                    String content = data[2].replace(";", ",");
-                    announcements.add(new Announcement(data[0], title, content, data[3], data[4]));
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
+        for (String[] data : STORAGE.announcements().getAll()) {
+            // Un-escape commas for display
+            String title = data[1].replace(";", ",");
+            String content = data[2].replace(";", ",");
+            announcements.add(new Announcement(data[0], title, content, data[3], data[4]));
+        }
         // Sort by date, newest first
         announcements.sort(Comparator.comparing(Announcement::getDate).reversed());
         return announcements;
     }
 
     public static Set<String> getReadAnnouncementIds(User user) {
-        Set<String> readIds = new HashSet<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(READ_ANNOUNCEMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 2 && data[0].equals(user.getUsername())) {
-                    readIds.add(data[1]);
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
-        return readIds;
+        return STORAGE.announcements().getReadIds(user.getUsername());
     }
     
+    public static long getUnreadAnnouncementCount(User user) {
+        Set<String> readIds = getReadAnnouncementIds(user);
+        return getAllAnnouncements().stream().filter(a -> !readIds.contains(a.getId())).count();
+    }
+
     public static void markAnnouncementAsRead(User user, String announcementId) {
         // First, check if it's already marked as read to avoid duplicate entries
         Set<String> readIds = getReadAnnouncementIds(user);
@@ -981,9 +732,9 @@ public class DataManager {
             return; // Already read
         }
         
-        String line = user.getUsername() + "," + announcementId + System.lineSeparator();
         try {
-            Files.write(Paths.get(READ_ANNOUNCEMENTS_FILE), line.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            STORAGE.announcements().markRead(user.getUsername(), announcementId);
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.ANNOUNCEMENTS_CHANGED, null, announcementId));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -991,81 +742,32 @@ public class DataManager {
 
     public static List<String[]> getAllPendingRequests() {
         List<String[]> requests = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(REQUESTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                // The status is in column 3
-                if (data.length == 5 && data[3].equalsIgnoreCase("PENDING")) {
-                    requests.add(data); // Add the full request data
-                }
+        for (String[] data : STORAGE.requests().getAll()) {
+            // The status is in column 3
+            if (data[3].equalsIgnoreCase("PENDING")) {
+                requests.add(data); // Add the full request data
             }
-        } catch (IOException e) { /* ignore if file doesn't exist */ }
+        }
         return requests;
     }
 
     public static boolean updateRequestStatus(String requestId, String newStatus) {
-        File inputFile = new File(REQUESTS_FILE);
-        if (!inputFile.exists()) return false;
-        
-        List<String> outLines = new ArrayList<>();
-        boolean updated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                if (data.length == 5 && data[0].equals(requestId)) {
-                    data[3] = newStatus; // Update the status column
-                    outLines.add(String.join(",", data));
-                    updated = true;
-                } else {
-                    outLines.add(line);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
-
-        if (updated) {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(inputFile, false))) { // false to overwrite
-                for (String line : outLines) {
-                    writer.write(line + System.lineSeparator());
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
-            }
-        }
-        return updated;
+        return studentDataChanged(STORAGE.requests().updateStatus(requestId, newStatus));
     }
 
     public static Set<String> getStudentCourseIDs(String studentId) {
         Set<String> courseIDs = new HashSet<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[1].equals(studentId)) {
-                    courseIDs.add(data[2]);
-                }
-            }
-        } catch (IOException e) { /* ignore */ }
+        for (String[] data : STORAGE.enrollments().getByStudent(studentId)) {
+            courseIDs.add(data[2]);
+        }
         return courseIDs;
     }
 
     public static String getEnrollmentId(String studentId, String courseId) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[1].equals(studentId) && data[2].equals(courseId)) {
-                    return data[0];
-                }
+        for (String[] data : STORAGE.enrollments().getByStudent(studentId)) {
+            if (data[2].equals(courseId)) {
+                return data[0];
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return null;
     }
@@ -1080,9 +782,10 @@ public class DataManager {
         report.append("========================================================\n");
 
         // Find the tutor's name for the report header
-        User tutor = getAllUsersByRole("Tutor").stream()
-                .filter(u -> u.getId().equals(tutorId))
-                .findFirst().orElse(null);
+        User tutor = STORAGE.users().findById(tutorId);
+        if (tutor != null && !"Tutor".equals(tutor.getRole())) {
+            tutor = null;
+        }
         
         if (tutor == null) {
             return "Tutor with ID " + tutorId + " not found.";
@@ -1105,13 +808,7 @@ public class DataManager {
                 double courseFee = Double.parseDouble(courseData[5]);
                 
                 // Count students enrolled in this specific course
-                long studentCount = 0;
-                try {
-                    studentCount = Files.lines(Paths.get(ENROLLMENTS_FILE))
-                            .map(line -> line.split(","))
-                            .filter(data -> data.length == 3 && data[2].equals(courseId))
-                            .count();
-                } catch (IOException e) { /* ignore */ }
+                long studentCount = STORAGE.enrollments().getByCourse(courseId).size();
                 
                 if (studentCount > 0) {
                     double grossForCourse = studentCount * courseFee;
@@ -1142,287 +839,153 @@ public class DataManager {
     }
 
     public static boolean isUsernameValid(String username) {
-
-        List<String> userFiles = Arrays.asList(ADMINS_FILE, TUTORS_FILE, RECEPTIONISTS_FILE, STUDENTS_FILE);
-
-        for (String filePath : userFiles) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] data = line.split(",", 2);
-                    if (data.length > 1 && data[1].startsWith(username + ",")) {
-                        return true;
-                    }
-                }
-            } catch (IOException e) {
-
-            }
-        }
-        return false;
+        return STORAGE.users().isUsernameTaken(username);
     }
 
     public static boolean deleteAnnouncement(String announcementId, User currentUser) {
-        File inputFile = new File(ANNOUNCEMENTS_FILE);
-        if (!inputFile.exists()) return false;
-        
-        File tempFile = new File(ANNOUNCEMENTS_FILE + ".tmp");
-        boolean deleted = false;
-        
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-             BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                if (data.length == 5 && data[0].equals(announcementId) && data[3].equals(currentUser.getUsername())) {
-                    deleted = true;
-                    continue;
-                }
-                writer.write(line + System.lineSeparator());
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
-
+        // Only the author can delete an announcement
+        boolean deleted = STORAGE.announcements().delete(announcementId, currentUser.getUsername());
         if (deleted) {
-            inputFile.delete();
-            tempFile.renameTo(inputFile);
-        } else {
-            tempFile.delete();
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.ANNOUNCEMENTS_CHANGED, currentUser.getUsername(), announcementId));
         }
         return deleted;
     }
 
     public static boolean updateAnnouncement(String announcementId, String newTitle, String newContent, User currentUser) {
-        File inputFile = new File(ANNOUNCEMENTS_FILE);
-        if (!inputFile.exists()) return false;
-
-        List<String> outLines = new ArrayList<>();
-        boolean updated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 5);
-                // Security Check: Only update if the ID and author match.
-                if (data.length == 5 && data[0].equals(announcementId) && data[3].equals(currentUser.getUsername())) {
-                    // Re-escape commas in the new content before saving.
-                    String escapedTitle = newTitle.replace(",", ";");
-                    String escapedContent = newContent.replace(",", ";");
-                    
-                    // Reconstruct the line with the new data, keeping original ID, author, and date.
-                    String updatedLine = String.join(",", data[0], escapedTitle, escapedContent, data[3], data[4]);
-                    outLines.add(updatedLine);
-                    updated = true;
-                } else {
-                    outLines.add(line);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        // Re-escape commas in the new content before saving.
+        String escapedTitle = newTitle.replace(",", ";");
+        String escapedContent = newContent.replace(",", ";");
 
+        // Security Check: Only update if the ID and author match.
+        boolean updated = STORAGE.announcements().update(announcementId, currentUser.getUsername(), escapedTitle, escapedContent);
         if (updated) {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(inputFile, false))) { // false to overwrite the file
-                for (String outLine : outLines) {
-                    writer.write(outLine + System.lineSeparator());
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
-            }
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.ANNOUNCEMENTS_CHANGED, currentUser.getUsername(), announcementId));
         }
         return updated;
     }
 
-    public static boolean generateAndAssignTimetable() {
-        System.out.println("Starting 4-week intelligent timetable generation...");
+    // Rooms the centre can run classes in at the same time
+    private static final int TIMETABLE_ROOMS = 8;
+    private static final int TIMETABLE_WEEKS = 4;
+    private static final long TIMETABLE_TIME_BUDGET_MS = 3000;
 
-        // Step 1: Get all tutors and their specializations (same as before)
-        Map<String, List<String>> subjectToTutorIds = new HashMap<>();
-        Map<String, String> tutorIdToNameMap = new HashMap<>();
+    // Returns the solver's result, whose unscheduled classes the caller must show, or null if nothing was saved
+    public static TimetableSolver.Result generateAndAssignTimetable() {
+        System.out.println("Starting 4-week timetable generation...");
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(TUTORS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length < 5 || data[4].trim().isEmpty()) continue;
-                String tutorId = data[0].trim();
-                String tutorName = data[3].trim();
-                tutorIdToNameMap.put(tutorId, tutorName);
-                // Specializations are stored separated by semicolons
-                String[] specializations = data[4].split(";");
-                for (String subject : specializations) {
-                    String trimmedSubject = subject.trim();
-                    if (!trimmedSubject.isEmpty()) {
-                        subjectToTutorIds.computeIfAbsent(trimmedSubject, k -> new ArrayList<>()).add(tutorId);
-                    }
+        // Step 1: Tutors and their specializations
+        Map<String, List<String>> subjectToTutorIds = new TreeMap<>();
+        Map<String, String> tutorIdToNameMap = new HashMap<>();
+        for (User tutor : STORAGE.users().getByRole("Tutor")) {
+            tutorIdToNameMap.put(tutor.getId().trim(), tutor.getFullName().trim());
+            // Specializations are stored separated by semicolons
+            for (String subject : tutor.getSpecialization().split(";")) {
+                String trimmedSubject = subject.trim();
+                if (!trimmedSubject.isEmpty()) {
+                    subjectToTutorIds.computeIfAbsent(trimmedSubject, k -> new ArrayList<>()).add(tutor.getId().trim());
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
         }
 
-        if (subjectToTutorIds.isEmpty()) {
-            System.err.println("CRITICAL: No teachable subjects found. Check tutor specializations in tutors.txt.");
-            return false;
+        // Step 2: One weekly class per course (taught by its own tutor), plus one for every
+        // specialization subject that has no course yet (taught by any qualified tutor)
+        List<TimetableSolver.ClassRequest> classes = new ArrayList<>();
+        Set<String> subjectsWithCourses = new HashSet<>();
+        Map<String, List<String>> coursesByStudent = new HashMap<>();
+        for (String[] course : STORAGE.courses().getAll()) {
+            if (course.length < 5 || !tutorIdToNameMap.containsKey(course[2])) continue;
+            classes.add(new TimetableSolver.ClassRequest(course[4], course[0], List.of(course[2])));
+            subjectsWithCourses.add(course[4]);
+            for (String[] enrollment : STORAGE.enrollments().getByCourse(course[0])) {
+                coursesByStudent.computeIfAbsent(enrollment[1], k -> new ArrayList<>()).add(course[0]);
+            }
         }
-
-        // Step 2: Define available time slots and other setup
+        subjectToTutorIds.forEach((subject, tutorIds) -> {
+            if (!subjectsWithCourses.contains(subject)) {
+                classes.add(new TimetableSolver.ClassRequest(subject, null, tutorIds));
+            }
+        });
+
+        if (classes.isEmpty()) {
+            System.err.println("CRITICAL: Nothing to schedule. Check courses.txt and tutor specializations in tutors.txt.");
+            return null;
+        }
+
+        // Step 3: Solve one clash-free week; every generated week repeats it
         String[] timeSlots = {"09-10 AM", "10-11 AM", "11-12 PM", "02-03 PM", "03-04 PM", "04-05 PM", "05-06 PM"};
         List<DayOfWeek> weekdays = List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
-        Random random = new Random();
-        List<String> newTimetableLines = new ArrayList<>();
-        
-        // Set the starting point to the Monday of the current week
-        LocalDate weekStart = LocalDate.now().with(java.time.temporal.TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        TimetableSolver solver = new TimetableSolver(classes, coursesByStudent, weekdays.size(), timeSlots.length, TIMETABLE_ROOMS);
+        TimetableSolver.Result result = solver.solve(TIMETABLE_TIME_BUDGET_MS, Runtime.getRuntime().availableProcessors(), System.nanoTime());
 
-        // Step 3: Loop for 4 weeks to generate the schedule
-        for (int week = 0; week < 4; week++) {
-            System.out.println("\n--- Processing Week " + (week + 1) + " (starting: " + weekStart + ") ---");
-            
-            // Data structures for the weekly generation. These are reset each week.
-            Map<LocalDate, List<String>> availableSlotsPerDay = new LinkedHashMap<>();
-            
-            // Initialize available slots for the current week
-            for (DayOfWeek day : weekdays) {
-                availableSlotsPerDay.put(weekStart.with(day), new ArrayList<>(List.of(timeSlots)));
-            }
-
-            // Get the list of all unique subjects to be scheduled this week
-            List<String> subjectsToSchedule = new ArrayList<>(subjectToTutorIds.keySet());
-            Collections.shuffle(subjectsToSchedule);
-
-            // This is the main scheduling logic for one week
-            for (String subject : subjectsToSchedule) {
-                boolean scheduledThisWeek = false;
-                // Shuffle the days to ensure subjects are not always on the same day of the week
-                List<LocalDate> shuffledDays = new ArrayList<>(availableSlotsPerDay.keySet());
-                Collections.shuffle(shuffledDays);
-
-                for (LocalDate day : shuffledDays) {
-                    List<String> slotsOnDay = availableSlotsPerDay.get(day);
-                    if (!slotsOnDay.isEmpty()) {
-                        // Pick a random available slot on this day
-                        String timeSlot = slotsOnDay.remove(random.nextInt(slotsOnDay.size()));
-
-                        // Assign a random qualified tutor
-                        List<String> qualifiedTutors = subjectToTutorIds.get(subject);
-                        String tutorId = qualifiedTutors.get(random.nextInt(qualifiedTutors.size()));
-                        String tutorName = tutorIdToNameMap.get(tutorId);
-                        
-                        // Create the timetable entry line
-                        String timetableLine = String.join(",", day.toString(), timeSlot, "Weekly " + subject, tutorName);
-                        newTimetableLines.add(timetableLine);
-                        
-                        System.out.println("  [OK] Scheduled '" + subject + "' on " + day.getDayOfWeek() + " at " + timeSlot);
-                        scheduledThisWeek = true;
-                        break; // Move to the next subject once this one is scheduled for the week
-                    }
-                }
+        System.out.println("Scheduled " + result.getPlacements().size() + " of " + classes.size() + " weekly classes ("
+                + result.getSoftViolations() + " tutor workload warnings).");
+        for (TimetableSolver.ClassRequest unscheduled : result.getUnscheduled()) {
+            System.out.println("  [WARN] No clash-free slot for '" + unscheduled.getSubject() + "'"
+                    + (unscheduled.getCourseId() != null ? " (" + unscheduled.getCourseId() + ")" : "")
+                    + ". Add rooms or time slots, or move some enrollments.");
+        }
 
-                if (!scheduledThisWeek) {
-                    System.out.println("  [WARN] Could not find a slot for '" + subject + "' in the week of " + weekStart + ". There may be more subjects than available slots.");
-                }
+        // Set the starting point to the Monday of the current week
+        LocalDate weekStart = LocalDate.now().with(java.time.temporal.TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<TimetableSolver.Placement> placements = new ArrayList<>(result.getPlacements());
+        placements.sort(Comparator.comparingInt(TimetableSolver.Placement::getDay).thenComparingInt(TimetableSolver.Placement::getSlot));
+        List<String[]> newTimetable = new ArrayList<>();
+        for (int week = 0; week < TIMETABLE_WEEKS; week++) {
+            for (TimetableSolver.Placement placement : placements) {
+                LocalDate day = weekStart.plusWeeks(week).with(weekdays.get(placement.getDay()));
+                newTimetable.add(new String[]{day.toString(), timeSlots[placement.getSlot()],
+                        "Weekly " + placement.getRequest().getSubject(), tutorIdToNameMap.get(placement.getTutorId())});
             }
-            
-            // Move to the next week for the next iteration of the loop
-            weekStart = weekStart.plusWeeks(1);
         }
 
-
-        // Step 4: Write the generated timetable to the file, overwriting the old one
-        System.out.println("\nFinished generating 4-week timetable. Writing to file...");
-        try {
-            Files.write(Paths.get(TIMETABLE_FILE), newTimetableLines, 
-                    java.nio.file.StandardOpenOption.CREATE, 
-                    java.nio.file.StandardOpenOption.TRUNCATE_EXISTING);
-            System.out.println("Timetable generated and saved successfully.");
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+        // Step 4: Save the generated timetable, replacing the old one
+        System.out.println("Finished generating 4-week timetable. Writing to file...");
+        if (!STORAGE.timetable().replaceAll(newTimetable)) {
+            return null;
         }
+        System.out.println("Timetable generated and saved successfully.");
+        return result;
     }
 
-
-
-
-
     public static Map<LocalDate, List<String[]>> getStoredTimetable() {
-        // New structure: Map<Date, List<[Time, Subject, Tutor]>>
-        Map<LocalDate, List<String[]>> weeklyTimetable = new TreeMap<>(); // TreeMap to keep dates sorted
-
-        if (!Files.exists(Paths.get(TIMETABLE_FILE))) {
-            return weeklyTimetable;
-        }
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(TIMETABLE_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 4);
-                if (data.length < 4) continue;
+        // Map<Date, List<[Time, Subject, Tutor]>>, dates and classes in order
+        return STORAGE.timetable().getTimetable(LocalDate.MIN, LocalDate.MAX, null);
+    }
 
-                try {
-                    LocalDate date = LocalDate.parse(data[0], formatter);
-                    String timeSlot = data[1];
-                    String subject = data[2];
-                    String tutor = data[3];
-
-                    weeklyTimetable.computeIfAbsent(date, k -> new ArrayList<>())
-                                .add(new String[]{timeSlot, subject, tutor});
-                } catch (Exception e) {
-                    System.err.println("Skipping malformed timetable line: " + line);
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("timetable.txt not found or is empty.");
-        }
+    /** Classes between two dates (inclusive) as [time, subject, tutor]; tutorFullName may be null for everyone. */
+    public static NavigableMap<LocalDate, List<String[]>> getTimetable(LocalDate from, LocalDate to, String tutorFullName) {
+        return STORAGE.timetable().getTimetable(from, to, tutorFullName);
+    }
 
-        // Sort classes within each day by time
-        for (List<String[]> dailyClasses : weeklyTimetable.values()) {
-            dailyClasses.sort(Comparator.comparing(c -> c[0]));
-        }
+    /** The stored timetable restricted to the 7 days starting at weekStart. */
+    public static Map<LocalDate, List<String[]>> getTimetableForWeek(LocalDate weekStart) {
+        return getTimetable(weekStart, weekStart.plusDays(6), null);
+    }
 
-        return weeklyTimetable;
+    /**
+     * Like getTimetableForWeek, but each class is resolved to
+     * [time, subjectName, tutor, courseId] (courseId is null if no course matches).
+     */
+    public static Map<LocalDate, List<String[]>> getScheduledClassesForWeek(LocalDate weekStart) {
+        return STORAGE.timetable().getScheduledClasses(weekStart, weekStart.plusDays(6));
     }
 
     public static List<String[]> getStudentPaymentHistory(String studentId) {
-        List<String[]> paymentHistory = new ArrayList<>();
-
-        Set<String> enrollmentIDs = getStudentEnrollments(studentId).keySet();
-        if (enrollmentIDs.isEmpty()) {
-            return paymentHistory;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(PAYMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] pData = line.split(",");
-                if (pData.length < 4) continue;
+        return paymentHistoryOf(getStudentEnrollments(studentId));
+    }
 
-                String enrollmentIdFromFile = pData[1];
-                
-                if (enrollmentIDs.contains(enrollmentIdFromFile)) {
-                    String paymentId = pData[0];
-                    String paymentDate = pData[3];
-                    String amount = pData[2];
-                    
-                    String courseName = "Unknown Course";
-                    String courseInfo = getStudentEnrollments(studentId).get(enrollmentIdFromFile);
-                    if (courseInfo != null) {
-                        courseName = courseInfo.split(" \\(")[0];
-                    }
-                    
-                    paymentHistory.add(new String[]{paymentId, paymentDate, courseName, amount});
-                }
+    // [paymentId, date, courseName, amount] for each payment on the given enrollments, newest first
+    private static List<String[]> paymentHistoryOf(Map<String, String> enrollments) {
+        List<String[]> paymentHistory = new ArrayList<>();
+        Storage.Payments payments = STORAGE.payments();
+        for (Map.Entry<String, String> enrollment : enrollments.entrySet()) {
+            String courseName = enrollment.getValue().split(" \\(")[0];
+            for (String[] pData : payments.getByEnrollment(enrollment.getKey())) {
+                String paymentId = pData[0];
+                String paymentDate = pData[3];
+                String amount = pData[2];
+                paymentHistory.add(new String[]{paymentId, paymentDate, courseName, amount});
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         
         paymentHistory.sort((p1, p2) -> p2[1].compareTo(p1[1]));
@@ -1434,40 +997,18 @@ public class DataManager {
         Map<String, Double> status = new HashMap<>();
         double courseFee = 0.0;
         double totalPaid = 0.0;
-        String courseId = null;
-        try (BufferedReader reader = new BufferedReader(new FileReader(ENROLLMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 3 && data[0].equals(enrollmentId)) {
-                    courseId = data[2];
-                    break;
-                }
-            }
-        } catch (IOException e) { e.printStackTrace(); }
+        String courseId = findCourseIdForEnrollment(enrollmentId);
 
         if (courseId != null) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(COURSES_FILE))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] data = line.split(",", 7);
-                    if (data.length >= 6 && data[0].equals(courseId)) {
-                        courseFee = Double.parseDouble(data[5]);
-                        break;
-                    }
-                }
-            } catch (IOException | NumberFormatException e) { e.printStackTrace(); }
+            String[] data = STORAGE.courses().findById(courseId);
+            if (data != null && data.length >= 6) {
+                try {
+                    courseFee = Double.parseDouble(data[5]);
+                } catch (NumberFormatException e) { e.printStackTrace(); }
+            }
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(PAYMENTS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",");
-                if (data.length == 4 && data[1].equals(enrollmentId)) {
-                    totalPaid += Double.parseDouble(data[2]);
-                }
-            }
-        } catch (IOException | NumberFormatException e) { e.printStackTrace(); }
+        totalPaid = STORAGE.payments().getTotalPaid(enrollmentId);
         
         status.put("fee", courseFee);
         status.put("paid", totalPaid);
@@ -1483,45 +1024,28 @@ public class DataManager {
         }
 
         for (String courseId : courseIDs) {
-            try {
-                String[] courseDetails = Files.lines(Paths.get(COURSES_FILE))
-                    .map(line -> line.split(",", 7))
-                    .filter(data -> data.length >= 7 && data[0].equals(courseId))
-                    .findFirst().orElse(null);
-                
-                if (courseDetails != null) {
-                    String courseName = courseDetails[1];
-                    String tutorId = courseDetails[2];
-                    String schedule = courseDetails[6];
-                    User tutorUser = getUserById(tutorId);
-                    if (tutorUser != null) {
-                        String tutorName = tutorUser.getFullName();
-                        scheduleData.add(new String[]{courseName, tutorName, schedule});
-                    } else {
-                        System.err.println("Warning: Tutor with ID '" + tutorId + "' for course '" + courseName + "' not found. Skipping course in schedule view.");
-                    }
+            String[] courseDetails = STORAGE.courses().findById(courseId);
+            if (courseDetails != null && courseDetails.length >= 7) {
+                String courseName = courseDetails[1];
+                String tutorId = courseDetails[2];
+                String schedule = courseDetails[6];
+                User tutorUser = getUserById(tutorId);
+                if (tutorUser != null) {
+                    String tutorName = tutorUser.getFullName();
+                    scheduleData.add(new String[]{courseName, tutorName, schedule});
+                } else {
+                    System.err.println("Warning: Tutor with ID '" + tutorId + "' for course '" + courseName + "' not found. Skipping course in schedule view.");
                 }
-            } catch (IOException e) {
-                e.printStackTrace();
             }
         }
         return scheduleData;
     }
 
     public static User getUserById(String userId) {
-        List<String> userFiles = List.of(ADMINS_FILE, TUTORS_FILE, RECEPTIONISTS_FILE, STUDENTS_FILE);
-        for (String file : userFiles) {
-            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    String[] data = line.split(",");
-                    if (data.length > 0 && data[0].equals(userId)) {
-                        return new User(data[0], data[1], "", "", data[3], "");
-                    }
-                }
-            } catch (IOException e) {}
-        }
-        return null;
+        User user = STORAGE.users().findById(userId);
+        if (user == null) return null;
+        // Lightweight view: no password, role or specialization
+        return new User(user.getId(), user.getUsername(), "", "", user.getFullName(), "");
     }
 
     public static String[] getChatFilterRolesForUser(User currentUser) {
@@ -1551,72 +1075,36 @@ public class DataManager {
     }
 
     public static int getUnreadMessageCountFromSender(User receiver, User sender) {
-        int count = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(CHATS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
+        int[] count = {0};
+        try {
+            STORAGE.chats().forEachLine(line -> {
                 String[] data = line.split(",", 6);
-                if (data.length < 6) continue;
+                if (data.length < 6) return;
                 if (data[2].equals(receiver.getUsername()) && 
                     data[1].equals(sender.getUsername()) && 
                     data[4].equalsIgnoreCase("UNREAD")) {
-                    count++;
+                    count[0]++;
                 }
-            }
+            });
         } catch (IOException e) {}
-        return count;
+        return count[0];
     }
 
     public static boolean isUsernameTaken(String username) {
-        List<String> userFiles = List.of(ADMINS_FILE, TUTORS_FILE, RECEPTIONISTS_FILE, STUDENTS_FILE);
-        for (String file : userFiles) {
-            try {
-                if (Files.exists(Paths.get(file))) {
-                    boolean found = Files.lines(Paths.get(file))
-                                        .anyMatch(line -> line.split(",")[1].equals(username));
-                    if (found) return true;
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return false;
+        return STORAGE.users().isUsernameTaken(username);
     }
 
     public static String generateYearlyIncomeReport(int year) {
-        Map<String, Double> incomeBySubject = new HashMap<>();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        double totalIncome = 0;
-
-        try {
-            if (!Files.exists(Paths.get(PAYMENTS_FILE))) {
-                return "No payment data found.";
-            }
-            List<String> payments = Files.readAllLines(Paths.get(PAYMENTS_FILE));
-            for (String paymentLine : payments) {
-                String[] pData = paymentLine.split(",");
-                if (pData.length < 4) continue;
-                
-                LocalDate paymentDate = LocalDate.parse(pData[3], formatter);
-                if (paymentDate.getYear() == year) { // Check only the year
-                    String enrollmentId = pData[1];
-                    double amount = Double.parseDouble(pData[2]);
-                    totalIncome += amount;
-
-                    String courseId = findCourseIdForEnrollment(enrollmentId);
-                    if (courseId != null) {
-                        // findCourseDetails returns [level, subject]
-                        String[] courseDetails = findCourseDetails(courseId);
-                        if (courseDetails != null) {
-                            String subject = courseDetails[1];
-                            incomeBySubject.merge(subject, amount, Double::sum);
-                        }
-                    }
-                }
-            }
-        } catch (IOException | java.time.format.DateTimeParseException e) {
-            return "Error reading data files or parsing date: " + e.getMessage();
+        if (!hasPayments()) {
+            return "No payment data found.";
+        }
+        String paymentsError = STORAGE.payments().getPaymentsError();
+        if (paymentsError != null) {
+            return "Error reading data files or parsing date: " + paymentsError;
         }
+        Map<String, Double> incomeBySubject = STORAGE.payments().getIncomeBySubject(year);
+        // The total also counts payments for enrollments/courses that no longer exist
+        double totalIncome = STORAGE.payments().getTotalIncome(year);
 
         StringBuilder report = new StringBuilder();
         report.append("==================================================\n");
@@ -1654,243 +1142,94 @@ public class DataManager {
                                         .collect(Collectors.joining(";"));
 
         // Format: GroupID,GroupName,CreatorUsername,Member1;Member2;...
-        String line = String.join(",", groupId, groupName, creatorUsername, memberUsernames) + System.lineSeparator();
-        
-        try {
-            Files.write(Paths.get(GROUP_CHATS_FILE), line.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+        return STORAGE.groupChats().add(new String[]{groupId, groupName, creatorUsername, memberUsernames});
     }
 
     public static List<GroupChat> getGroupChatsForUser(User user) {
         List<GroupChat> groups = new ArrayList<>();
-        if (!Files.exists(Paths.get(GROUP_CHATS_FILE))) {
-            return groups;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(GROUP_CHATS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 4);
-                if (data.length < 4) continue;
-                
-                Set<String> memberUsernames = new HashSet<>(Arrays.asList(data[3].split(";")));
+        for (String[] data : STORAGE.groupChats().getAll()) {
+            Set<String> memberUsernames = new HashSet<>(Arrays.asList(data[3].split(";")));
 
-                if (memberUsernames.contains(user.getUsername())) {
-                    groups.add(new GroupChat(data[0], data[1]));
-                }
+            if (memberUsernames.contains(user.getUsername())) {
+                groups.add(new GroupChat(data[0], data[1]));
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return groups;
     }
 
     public static String getGroupChatCreator(String groupId) {
-        if (!Files.exists(Paths.get(GROUP_CHATS_FILE))) {
-            return null;
-        }
-        try {
-            return Files.lines(Paths.get(GROUP_CHATS_FILE))
-                    .map(line -> line.split(",", 4))
-                    .filter(data -> data.length >= 4 && data[0].equals(groupId))
-                    .map(data -> data[2]) // Creator username is the 3rd element
-                    .findFirst()
-                    .orElse(null);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return STORAGE.groupChats().getAll().stream()
+                .filter(data -> data[0].equals(groupId))
+                .map(data -> data[2]) // Creator username is the 3rd element
+                .findFirst()
+                .orElse(null);
     }
 
     public static List<User> getGroupChatMembers(String groupId) {
         List<User> members = new ArrayList<>();
-        if (!Files.exists(Paths.get(GROUP_CHATS_FILE))) {
-            return members;
-        }
-        try {
-            String memberUsernamesLine = Files.lines(Paths.get(GROUP_CHATS_FILE))
-                    .map(line -> line.split(",", 4))
-                    .filter(data -> data.length >= 4 && data[0].equals(groupId))
-                    .map(data -> data[3])
-                    .findFirst()
-                    .orElse("");
-            
-            if (!memberUsernamesLine.isEmpty()) {
-                List<String> usernames = Arrays.asList(memberUsernamesLine.split(";"));
-                for (String username : usernames) {
-                    User user = findStudentOrTutorByUsername(username);
-                    if (user != null) {
-                        members.add(user);
-                    }
+        String memberUsernamesLine = STORAGE.groupChats().getAll().stream()
+                .filter(data -> data[0].equals(groupId))
+                .map(data -> data[3])
+                .findFirst()
+                .orElse("");
+
+        if (!memberUsernamesLine.isEmpty()) {
+            List<String> usernames = Arrays.asList(memberUsernamesLine.split(";"));
+            for (String username : usernames) {
+                User user = findStudentOrTutorByUsername(username);
+                if (user != null) {
+                    members.add(user);
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return members;
     }
 
     public static boolean updateGroupChatMembers(String groupId, Set<User> newMembers) {
-        File inputFile = new File(GROUP_CHATS_FILE);
-        if (!inputFile.exists()) {
-            return false;
-        }
-        List<String> outLines = new ArrayList<>();
-        boolean updated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 4);
-                if (data.length >= 4 && data[0].equals(groupId)) {
-                    String memberUsernames = newMembers.stream()
-                                                    .map(User::getUsername)
-                                                    .collect(Collectors.joining(";"));
-                    
-                    outLines.add(String.join(",", data[0], data[1], data[2], memberUsernames));
-                    updated = true;
-                } else {
-                    outLines.add(line);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
-
-        if (updated) {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(inputFile, false))) {
-                for (String outLine : outLines) {
-                    writer.write(outLine + System.lineSeparator());
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
-            }
-        }
-        return updated;
+        String memberUsernames = newMembers.stream()
+                                        .map(User::getUsername)
+                                        .collect(Collectors.joining(";"));
+        return STORAGE.groupChats().updateMembers(groupId, memberUsernames);
     }
 
     public static User findUserByUsername(String username) {
-        List<String> userFiles = List.of(ADMINS_FILE, TUTORS_FILE, RECEPTIONISTS_FILE, STUDENTS_FILE);
-        for (String file : userFiles) {
-            try {
-                if (Files.exists(Paths.get(file))) {
-                    Optional<User> user = Files.lines(Paths.get(file))
-                        .map(line -> line.split(",", 5))
-                        .filter(data -> data.length >= 4 && data[1].equals(username))
-                        .map(data -> {
-                            String role = getRoleFromFilePath(file);
-                            String specialization = (role.equals("Tutor") && data.length > 4) ? data[4] : "";
-                            return new User(data[0], data[1], data[2], role, data[3], specialization);
-                        })
-                        .findFirst();
-                    if (user.isPresent()) return user.get();
-                }
-            } catch (IOException e) { e.printStackTrace(); }
-        }
-        return null;
-    }
-
-    private static String getRoleFromFilePath(String filePath) {
-        if (filePath.contains("admins")) return "Admin";
-        if (filePath.contains("tutors")) return "Tutor";
-        if (filePath.contains("receptionists")) return "Receptionist";
-        if (filePath.contains("students")) return "Student";
-        return "Unknown";
+        return STORAGE.users().findByUsername(username);
     }
 
     public static boolean recordAttendance(String courseId, Map<String, String> attendanceData, String date) {
-        // First, delete any existing records for this course on this date to prevent duplicates
-        File inputFile = new File(ATTENDANCE_FILE);
-        if (inputFile.exists()) {
-            try {
-                List<String> outLines = new ArrayList<>();
-                List<String> allLines = Files.readAllLines(Paths.get(ATTENDANCE_FILE));
-                for (String line : allLines) {
-                    String[] data = line.split(",");
-                    if (data.length >= 4 && data[0].equals(courseId) && data[2].equals(date)) {
-                        continue; // Skip this line to delete it
-                    }
-                    outLines.add(line);
-                }
-                Files.write(Paths.get(ATTENDANCE_FILE), outLines);
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
-            }
-        }
-
-        // Now, write the new records
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(inputFile, true))) { // true to append
-            for (Map.Entry<String, String> entry : attendanceData.entrySet()) {
-                String studentId = entry.getKey();
-                String status = entry.getValue();
-                String line = String.join(",", courseId, studentId, date, status) + System.lineSeparator();
-                writer.write(line);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+        // Any existing records for this course on this date are replaced, so there are no duplicates
+        List<String[]> records = new ArrayList<>();
+        for (Map.Entry<String, String> entry : attendanceData.entrySet()) {
+            records.add(new String[]{courseId, entry.getKey(), date, entry.getValue()});
         }
-        return true;
+        return studentDataChanged(STORAGE.attendance().replace(courseId, date, records));
     }
 
     public static List<String[]> getAttendanceForStudent(String studentId, String courseId) {
-        List<String[]> records = new ArrayList<>();
-        if (!Files.exists(Paths.get(ATTENDANCE_FILE))) {
-            return records;
-        }
-        try {
-            records = Files.lines(Paths.get(ATTENDANCE_FILE))
-                .map(line -> line.split(","))
-                .filter(data -> data.length >= 4 && data[0].equals(courseId) && data[1].equals(studentId))
-                .sorted((r1, r2) -> r2[2].compareTo(r1[2])) // Sort by date, descending
-                .collect(Collectors.toList());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return records;
+        return getAttendanceByCourse(studentId, Collections.singleton(courseId)).getOrDefault(courseId, new ArrayList<>());
     }
 
-    public static boolean updateAttendance(String courseId, String studentId, String date, String newStatus) {
-        File inputFile = new File(ATTENDANCE_FILE);
-        if (!inputFile.exists()) return false;
-        
-        List<String> outLines = new ArrayList<>();
-        boolean updated = false;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(inputFile))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 4);
-                if (data.length >= 4 && data[0].equals(courseId) && data[1].equals(studentId) && data[2].equals(date)) {
-                    outLines.add(String.join(",", data[0], data[1], data[2], newStatus));
-                    updated = true;
-                } else {
-                    outLines.add(line);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+    // One lookup of a student's attendance records in the given courses, keyed by
+    // course in the order given.
+    private static Map<String, List<String[]>> getAttendanceByCourse(String studentId, Collection<String> courseIds) {
+        Map<String, List<String[]>> byCourse = new LinkedHashMap<>();
+        for (String courseId : courseIds) {
+            byCourse.put(courseId, new ArrayList<>());
         }
-
-        if (updated) {
-            try (BufferedWriter writer = new BufferedWriter(new FileWriter(inputFile, false))) {
-                for (String outLine : outLines) {
-                    writer.write(outLine + System.lineSeparator());
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-                return false;
+        for (String[] data : STORAGE.attendance().getByStudent(studentId)) {
+            List<String[]> records = data.length >= 4 ? byCourse.get(data[0]) : null;
+            if (records != null) {
+                records.add(data);
             }
         }
-        return updated;
+        for (List<String[]> records : byCourse.values()) {
+            records.sort((r1, r2) -> r2[2].compareTo(r1[2])); // Sort by date, descending
+        }
+        return byCourse;
+    }
+
+    public static boolean updateAttendance(String courseId, String studentId, String date, String newStatus) {
+        return studentDataChanged(STORAGE.attendance().updateStatus(courseId, studentId, date, newStatus));
     }
 
     public static String generateAttendanceReport(String studentId, String courseId) {
@@ -1929,18 +1268,7 @@ public class DataManager {
     }
 
     public static String getCourseIdFromEnrollment(String enrollmentId) {
-        if (!Files.exists(Paths.get(ENROLLMENTS_FILE))) return null;
-        try {
-            return Files.lines(Paths.get(ENROLLMENTS_FILE))
-                    .map(line -> line.split(","))
-                    .filter(data -> data.length >= 3 && data[0].equals(enrollmentId))
-                    .map(data -> data[2]) // The Course ID is the 3rd element
-                    .findFirst()
-                    .orElse(null);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
+        return STORAGE.enrollments().getCourseId(enrollmentId);
     }
 
     public static boolean submitFeedback(String submitterId, String targetRole, String targetId, String subject, int rating, String content) {
@@ -1951,55 +1279,42 @@ public class DataManager {
         // Sanitize content to prevent breaking the CSV format
         String escapedContent = content.replace(",", ";").replace("\n", " | ");
 
-        // Construct the new line with the submitter's ID included
-        String feedbackLine = String.join(",",
+        // The submitter's ID is kept for traceability
+        boolean added = STORAGE.feedback().add(new String[]{
                 feedbackId,
-                submitterId, // Added for traceability
+                submitterId,
                 targetRole,
                 targetId,
                 subject,
                 String.valueOf(rating),
                 escapedContent,
                 date,
-                status)
-                + System.lineSeparator();
-
-        try {
-            Files.write(Paths.get(FEEDBACK_FILE), feedbackLine.getBytes(),
-                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
+                status});
+        if (added) {
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.FEEDBACK_SUBMITTED, submitterId, targetId));
         }
+        return added;
     }
 
     public static List<Feedback> getFeedbackForUser(String userId) {
         List<Feedback> feedbackList = new ArrayList<>();
-        if (!Files.exists(Paths.get(FEEDBACK_FILE))) {
-            return feedbackList;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(FEEDBACK_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 9);
-                if (data.length >= 9 && data[3].equals(userId)) {
-                    String unescapedContent = data[6].replace(";", ",").replace(" | ", "\n");
-                    Feedback feedback = new Feedback(
-                            data[0],
-                            data[1],
-                            data[2],
-                            data[3],
-                            data[4],
-                            Integer.parseInt(data[5]),
-                            unescapedContent,
-                            LocalDate.parse(data[7]),
-                            data[8]
-                    );
-                    feedbackList.add(feedback);
-                }
-            }
-        } catch (IOException | NumberFormatException | java.time.format.DateTimeParseException e) {
+        try {
+            for (String[] data : STORAGE.feedback().getForUser(userId)) {
+                String unescapedContent = data[6].replace(";", ",").replace(" | ", "\n");
+                Feedback feedback = new Feedback(
+                        data[0],
+                        data[1],
+                        data[2],
+                        data[3],
+                        data[4],
+                        Integer.parseInt(data[5]),
+                        unescapedContent,
+                        LocalDate.parse(data[7]),
+                        data[8]
+                );
+                feedbackList.add(feedback);
+            }
+        } catch (NumberFormatException | java.time.format.DateTimeParseException e) {
             e.printStackTrace();
         }
         feedbackList.sort(Comparator.comparing(Feedback::getDate).reversed());
@@ -2007,75 +1322,28 @@ public class DataManager {
     }
 
     public static void markFeedbackAsRead(String userId) {
-        if (!Files.exists(Paths.get(FEEDBACK_FILE))) return;
-
-        List<String> outLines = new ArrayList<>();
-        boolean modified = false;
-        try {
-            List<String> allLines = Files.readAllLines(Paths.get(FEEDBACK_FILE));
-            for (String line : allLines) {
-                String[] data = line.split(",", 9);
-                if (data.length >= 9 && data[3].equals(userId) && "NEW".equalsIgnoreCase(data[8])) {
-                    data[8] = "READ";
-                    outLines.add(String.join(",", data));
-                    modified = true;
-                } else {
-                    outLines.add(line);
-                }
-            }
-
-            if (modified) {
-                Files.write(Paths.get(FEEDBACK_FILE), outLines);
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (STORAGE.feedback().markRead(userId)) {
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.FEEDBACK_READ, null, userId));
         }
     }
 
     public static List<String[]> getTutorClassesForDate(String tutorFullName, LocalDate date) {
         List<String[]> classes = new ArrayList<>();
-        if (!Files.exists(Paths.get(TIMETABLE_FILE))) {
-            return classes;
-        }
-        
-        DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE;
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(TIMETABLE_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] data = line.split(",", 4);
-                if (data.length < 4) continue;
-
-                LocalDate scheduleDate = LocalDate.parse(data[0], formatter);
-                String tutorNameInSchedule = data[3];
-
-                // Check if the date and tutor name match
-                if (scheduleDate.equals(date) && tutorNameInSchedule.equals(tutorFullName)) {
-                    // Return [Time, Subject]
-                    classes.add(new String[]{data[1], data[2]});
-                }
+        for (List<String[]> daily : getTimetable(date, date, tutorFullName).values()) {
+            for (String[] classInfo : daily) {
+                classes.add(new String[]{classInfo[0], classInfo[1]}); // [Time, Subject]
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
         return classes;
     }
 
     public static String getCourseIdByTutorAndSubject(String tutorId, String subjectName) {
-        if (!Files.exists(Paths.get(COURSES_FILE))) {
-            return null;
-        }
-        try {
-            return Files.lines(Paths.get(COURSES_FILE))
-                .map(line -> line.split(",", 7))
-                .filter(data -> data.length >= 7 && data[2].equals(tutorId) && data[4].equalsIgnoreCase(subjectName))
-                .map(data -> data[0]) // Return the course ID (the first element)
-                .findFirst()
-                .orElse(null);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+        for (String[] data : STORAGE.courses().getByTutor(tutorId)) {
+            if (data.length >= 7 && data[4].equalsIgnoreCase(subjectName)) {
+                return data[0]; // Return the course ID (the first element)
+            }
         }
+        return null;
     }
 
     public static List<String[]> getAttendanceForAllCourses(String studentId) {
@@ -2089,10 +1357,9 @@ public class DataManager {
             return allRecords;
         }
 
-        // For each course, get its attendance and add it to the main list.
-        for (String courseId : courseIDs) {
-            // getAttendanceForStudent returns a List<String[]> where each array is [courseId, studentId, date, status]
-            allRecords.addAll(getAttendanceForStudent(studentId, courseId));
+        // Each course's records are [courseId, studentId, date, status]
+        for (List<String[]> records : getAttendanceByCourse(studentId, courseIDs).values()) {
+            allRecords.addAll(records);
         }
 
         // Sort the combined list by date, with the most recent first.
@@ -2110,33 +1377,31 @@ public class DataManager {
     }
 
     public static List<AttendanceSummary> getAttendanceSummaryForStudent(String studentId) {
-        List<AttendanceSummary> summaryList = new ArrayList<>();
-        
         // 1. Get all courses the student is enrolled in.
         Map<String, String> enrollments = getStudentEnrollments(studentId);
         if (enrollments.isEmpty()) {
-            return summaryList;
+            return new ArrayList<>();
         }
 
         // 2. Get all attendance records for this student in one go.
-        List<String[]> allRecords = getAttendanceForAllCourses(studentId);
+        return attendanceSummariesOf(enrollments, getAttendanceByCourse(studentId, getStudentCourseIDs(studentId)));
+    }
 
-        // 3. For each course, calculate the summary.
+    // One summary per enrolled course that has attendance records
+    private static List<AttendanceSummary> attendanceSummariesOf(Map<String, String> enrollments, Map<String, List<String[]>> attendanceByCourse) {
+        List<AttendanceSummary> summaryList = new ArrayList<>();
         for (Map.Entry<String, String> entry : enrollments.entrySet()) {
             String enrollmentId = entry.getKey();
             String courseId = getCourseIdFromEnrollment(enrollmentId);
-            String courseName = getCourseInfoById(courseId).split(" - ")[0].split(" \\(")[0];
-
             if (courseId == null) continue;
 
-            // Filter the records for the current course
-            long totalClasses = allRecords.stream()
-                    .filter(r -> r[0].equals(courseId))
-                    .count();
+            String courseName = getCourseInfoById(courseId).split(" - ")[0].split(" \\(")[0];
+            List<String[]> records = attendanceByCourse.getOrDefault(courseId, Collections.emptyList());
+            long totalClasses = records.size();
 
             // "Attended" includes both "Present" and "Late"
-            long attendedClasses = allRecords.stream()
-                    .filter(r -> r[0].equals(courseId) && (r[3].equals("Present") || r[3].equals("Late")))
+            long attendedClasses = records.stream()
+                    .filter(r -> r[3].equals("Present") || r[3].equals("Late"))
                     .count();
 
             if (totalClasses > 0) {
@@ -2164,15 +1429,20 @@ public class DataManager {
     }
 
     public static List<ResultSummary> getStudentResultSummaries(String studentId) {
+        return resultSummariesOf(getStudentEnrollments(studentId));
+    }
+
+    // Grade per enrolled course that has results
+    private static List<ResultSummary> resultSummariesOf(Map<String, String> enrollments) {
         List<ResultSummary> resultSummaries = new ArrayList<>();
-        Map<String, String> enrollments = getStudentEnrollments(studentId);
+        Map<String, List<String[]>> resultsByEnrollment = getRawResultsByEnrollment(enrollments.keySet());
 
         for (Map.Entry<String, String> entry : enrollments.entrySet()) {
             String enrollmentId = entry.getKey();
             String courseInfo = entry.getValue();
             String courseName = courseInfo.split(" \\(")[0];
 
-            List<String[]> rawResults = getRawResultsForEnrollment(enrollmentId);
+            List<String[]> rawResults = resultsByEnrollment.getOrDefault(enrollmentId, new ArrayList<>());
             if (rawResults.isEmpty()) continue;
 
             double totalScore = 0;
@@ -2197,21 +1467,21 @@ public class DataManager {
     }
 
     public static Map<String, Integer> getAllUnreadMessageCounts(User currentUser) {
-        if (!Files.exists(Paths.get(CHATS_FILE))) return new HashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
         try {
-            return Files.lines(Paths.get(CHATS_FILE))
-                    .map(line -> line.split(",", 5))
-                    .filter(data -> data.length >= 5)
-                    .filter(data -> data[1].equals(currentUser.getUsername())) // Recipient is current user
-                    .filter(data -> "UNREAD".equalsIgnoreCase(data[4]))     // Message is unread
-                    .collect(Collectors.groupingBy(
-                            data -> data[0], // Group by sender's username
-                            Collectors.summingInt(data -> 1) // Count 1 for each message
-                    ));
+            STORAGE.chats().forEachLine(line -> {
+                String[] data = line.split(",", 5);
+                if (data.length >= 5
+                        && data[1].equals(currentUser.getUsername()) // Recipient is current user
+                        && "UNREAD".equalsIgnoreCase(data[4])) {     // Message is unread
+                    counts.merge(data[0], 1, Integer::sum);         // Group by sender's username
+                }
+            });
         } catch (IOException e) {
             e.printStackTrace();
             return new HashMap<>();
         }
+        return counts;
     }
 
     public static void sendGroupMessage(String senderUsername, String groupId, String content) {
@@ -2220,9 +1490,10 @@ public class DataManager {
         String status = "GROUP"; // A special status to identify it
         
         // Format: sender,recipient_group_id,content,timestamp,status
-        String messageLine = String.join(",", senderUsername, groupId, escapedContent, timestamp, status) + System.lineSeparator();
+        String messageLine = String.join(",", senderUsername, groupId, escapedContent, timestamp, status);
         try {
-            Files.write(Paths.get(CHATS_FILE), messageLine.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            STORAGE.chats().append(messageLine);
+            DataEventBus.publish(DataEvent.of(DataEvent.Type.GROUP_MESSAGE_SENT, senderUsername, groupId));
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -2230,12 +1501,8 @@ public class DataManager {
 
     public static List<Message> getGroupConversation(String groupId) {
         List<Message> conversation = new ArrayList<>();
-        if (!Files.exists(Paths.get(CHATS_FILE))) {
-            return conversation;
-        }
-        try (BufferedReader reader = new BufferedReader(new FileReader(CHATS_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
+        try {
+            for (String line : STORAGE.chats().readConversation(ChatLog.groupKey(groupId))) {
                 String[] data = line.split(",", 5);
                 if (data.length < 5) continue;
                 
@@ -2248,12 +1515,87 @@ public class DataManager {
                     conversation.add(new Message(sender, recipient, content, timestamp, true));
                 }
             }
-        } catch (IOException | java.time.format.DateTimeParseException e) {
+        } catch (java.time.format.DateTimeParseException e) {
             System.err.println("Error reading group conversation: " + e.getMessage());
         }
         conversation.sort(Comparator.comparing(Message::getTimestamp));
         return conversation;
     }
+
+    public static String getConversationKey(String user1Username, String user2Username) {
+        return ChatLog.directKey(user1Username, user2Username);
+    }
+
+    public static String getGroupConversationKey(String groupId) {
+        return ChatLog.groupKey(groupId);
+    }
+
+    // One pass over the chat records that gives, for every direct chat and group the user is in,
+    // the newest message and the number of unread messages. Keyed by conversation key.
+    public static Map<String, ConversationSummary> getConversationSummaries(User currentUser) {
+        Map<String, ConversationSummary> summaries = new HashMap<>();
+        String me = currentUser.getUsername();
+        Set<String> myGroupIds = getGroupChatsForUser(currentUser).stream()
+                .map(GroupChat::getGroupId)
+                .collect(Collectors.toSet());
+
+        try {
+            STORAGE.chats().forEachLine(line -> {
+                String[] data = line.split(",", 5);
+                if (data.length < 5) return;
+                String sender = data[0];
+                String recipient = data[1];
+
+                String key;
+                boolean isGroup = "GROUP".equals(data[4]);
+                if (isGroup && myGroupIds.contains(recipient)) {
+                    key = ChatLog.groupKey(recipient);
+                } else if (!isGroup && (sender.equals(me) || recipient.equals(me))) {
+                    key = ChatLog.directKey(sender, recipient);
+                } else {
+                    return;
+                }
+
+                try {
+                    String content = data[2].replace(";", ",").replace(" | ", "\n");
+                    boolean isRead = isGroup || "READ".equalsIgnoreCase(data[4]);
+                    Message message = new Message(sender, recipient, content, LocalDateTime.parse(data[3]), isRead);
+                    ConversationSummary summary = summaries.computeIfAbsent(key, ConversationSummary::new);
+                    summary.offer(message);
+                    if (recipient.equals(me) && "UNREAD".equalsIgnoreCase(data[4])) {
+                        summary.incrementUnread();
+                    }
+                } catch (java.time.format.DateTimeParseException e) { /* skip malformed line */ }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return summaries;
+    }
+
+    // Number of records in a conversation; message positions below are counted against it.
+    public static int getMessageCount(String conversationKey) {
+        return STORAGE.chats().count(conversationKey);
+    }
+
+    // Returns messages 'from' (inclusive) to 'to' (exclusive) of a conversation, oldest first.
+    // Lets the chat window page through long histories instead of loading them whole.
+    public static List<Message> getMessages(String conversationKey, int from, int to) {
+        List<Message> messages = new ArrayList<>();
+        for (String line : STORAGE.chats().readRange(conversationKey, from, to)) {
+            if (!conversationKey.equals(ChatLog.keyOf(line))) continue;
+            String[] data = line.split(",", 5);
+            try {
+                String content = data[2].replace(";", ",").replace(" | ", "\n");
+                // Group messages are considered "read" when fetched
+                boolean isRead = "GROUP".equals(data[4]) || "READ".equalsIgnoreCase(data[4]);
+                messages.add(new Message(data[0], data[1], content, LocalDateTime.parse(data[3]), isRead));
+            } catch (java.time.format.DateTimeParseException e) {
+                System.err.println("Skipping malformed chat line: " + line);
+            }
+        }
+        return messages;
+    }
     
     public static Message getLastGroupMessage(String groupId) {
         List<Message> conversation = getGroupConversation(groupId);
@@ -2265,48 +1607,13 @@ public class DataManager {
     }
 
     public static User findUserById(String userId) {
-        List<String> userFiles = List.of(ADMINS_FILE, TUTORS_FILE, RECEPTIONISTS_FILE, STUDENTS_FILE);
-        for (String file : userFiles) {
-            if (!Files.exists(Paths.get(file))) continue;
-            try {
-                Optional<String[]> userData = Files.lines(Paths.get(file))
-                    .map(line -> line.split(",", 5))
-                    .filter(data -> data.length > 0 && data[0].equals(userId))
-                    .findFirst();
-                
-                if (userData.isPresent()) {
-                    String[] data = userData.get();
-                    String role = getRoleFromFilePath(file); // Assumes you have getRoleFromFilePath
-                    String specialization = (role.equals("Tutor") && data.length > 4) ? data[4] : "";
-                    return new User(data[0], data[1], data[2], role, data[3], specialization);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-        }
-        return null;
+        return STORAGE.users().findById(userId);
     }
 
     private static User findStudentOrTutorByUsername(String username) {
-        List<String> userFiles = List.of(STUDENTS_FILE, TUTORS_FILE);
-
-        for (String file : userFiles) {
-            if (!Files.exists(Paths.get(file))) continue;
-            try {
-                Optional<String[]> userData = Files.lines(Paths.get(file))
-                    .map(line -> line.split(",", 5))
-                    .filter(data -> data.length >= 4 && data[1].equals(username))
-                    .findFirst();
-                
-                if (userData.isPresent()) {
-                    String[] data = userData.get();
-                    String role = getRoleFromFilePath(file);
-                    String specialization = (role.equals("Tutor") && data.length > 4) ? data[4] : "";
-                    return new User(data[0], data[1], data[2], role, data[3], specialization);
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
+        User user = STORAGE.users().findByUsername(username);
+        if (user != null && (user.getRole().equals("Student") || user.getRole().equals("Tutor"))) {
+            return user;
         }
         return null; // Return null if not found
     }
@@ -0,0 +1,432 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Load-once, in-memory view of the flat data files used by DataManager.
+ * Each table is parsed the first time it is needed and kept in maps keyed the
+ * way the dashboards look things up. The files stay the source of truth:
+ * {@link FileStorage} writes to them and then calls {@link #invalidate(String)}, and a
+ * table is also reloaded whenever its file changes on disk (size or mtime).
+ */
+public class DataRepository {
+
+    // Role order matches the old lookup order in DataManager (first file wins).
+    private static final String[] ROLES = {"Admin", "Tutor", "Receptionist", "Student"};
+
+    private static final CachedTable<UserIndex> USERS = new CachedTable<>(DataRepository::loadUsers,
+            DataManager.ADMINS_FILE, DataManager.TUTORS_FILE, DataManager.RECEPTIONISTS_FILE, DataManager.STUDENTS_FILE);
+    private static final CachedTable<CourseIndex> COURSES = new CachedTable<>(DataRepository::loadCourses,
+            DataManager.COURSES_FILE);
+    private static final CachedTable<EnrollmentIndex> ENROLLMENTS = new CachedTable<>(DataRepository::loadEnrollments,
+            DataManager.ENROLLMENTS_FILE);
+    private static final CachedTable<PaymentIndex> PAYMENTS = new CachedTable<>(DataRepository::loadPayments,
+            DataManager.PAYMENTS_FILE);
+    private static final CachedTable<TimetableIndex> TIMETABLE = new CachedTable<>(DataRepository::loadTimetable,
+            DataManager.TIMETABLE_FILE);
+    private static final CachedTable<ResolvedTimetable> RESOLVED_TIMETABLE = new CachedTable<>(DataRepository::resolveTimetable,
+            DataManager.TIMETABLE_FILE, DataManager.TUTORS_FILE, DataManager.COURSES_FILE);
+
+    private static final List<CachedTable<?>> ALL_TABLES = List.of(USERS, COURSES, ENROLLMENTS, PAYMENTS, TIMETABLE, RESOLVED_TIMETABLE);
+
+    // Maintained incrementally from payments.txt rather than reloaded, see IncomeLedger
+    private static final IncomeLedger INCOME = new IncomeLedger(DataManager.PAYMENTS_FILE);
+
+    // Chat renderers look up the sender of every bubble they paint, so this skips the
+    // per-call file stamp check the tables do. It is cleared whenever the user files are
+    // invalidated or the file watcher reports them changed.
+    private static final Map<String, SenderProfile> SENDER_PROFILES = new ConcurrentHashMap<>();
+
+    static {
+        DataEventBus.subscribe(event -> {
+            for (String file : USERS.filePaths) {
+                if (event.isFileChange(file)) SENDER_PROFILES.clear();
+            }
+        });
+    }
+
+    public static UserIndex users() { return USERS.get(); }
+    public static CourseIndex courses() { return COURSES.get(); }
+    public static EnrollmentIndex enrollments() { return ENROLLMENTS.get(); }
+    public static PaymentIndex payments() { return PAYMENTS.get(); }
+    public static TimetableIndex timetable() { return TIMETABLE.get(); }
+    public static ResolvedTimetable resolvedTimetable() { return RESOLVED_TIMETABLE.get(); }
+    public static IncomeLedger income() { return INCOME; }
+
+    /** Role and display name of a chat sender; unknown usernames get a profile with no role. */
+    public static SenderProfile senderProfile(String username) {
+        return SENDER_PROFILES.computeIfAbsent(username, u -> {
+            User user = DataManager.STORAGE.users().findByUsername(u);
+            return user != null ? new SenderProfile(user.getRole(), user.getFullName()) : new SenderProfile(null, u);
+        });
+    }
+
+    /** Drops every cached table that is built from the given file. */
+    public static void invalidate(String filePath) {
+        for (CachedTable<?> table : ALL_TABLES) {
+            if (table.dependsOn(filePath)) {
+                table.invalidate();
+            }
+        }
+        if (USERS.dependsOn(filePath)) {
+            SENDER_PROFILES.clear();
+        }
+        // Not the income aggregate: it tells appended enrollments/courses from rewritten ones itself
+    }
+
+    public static void invalidateAll() {
+        ALL_TABLES.forEach(CachedTable::invalidate);
+        SENDER_PROFILES.clear();
+        INCOME.invalidate();
+    }
+
+    /** Modification time and size of each file, in order; a missing file stamps as 0,0. */
+    static long[] stampsOf(String... filePaths) {
+        long[] result = new long[filePaths.length * 2];
+        for (int i = 0; i < filePaths.length; i++) {
+            File file = new File(filePaths[i]);
+            result[i * 2] = file.lastModified();
+            result[i * 2 + 1] = file.length();
+        }
+        return result;
+    }
+
+    /** Like {@link #stampsOf}, followed by each file's version in the update log (its pending field updates). */
+    static long[] stampsWithUpdatesOf(String... filePaths) {
+        long[] fileStamps = stampsOf(filePaths);
+        long[] logStamps = DataManager.UPDATE_LOG.versionsOf(filePaths);
+        long[] result = Arrays.copyOf(fileStamps, fileStamps.length + logStamps.length);
+        System.arraycopy(logStamps, 0, result, fileStamps.length, logStamps.length);
+        return result;
+    }
+
+    private static String[] copyOf(String[] row) {
+        return row != null ? row.clone() : null;
+    }
+
+    private static List<String[]> copiesOf(Collection<String[]> rows) {
+        List<String[]> copies = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            copies.add(row.clone());
+        }
+        return copies;
+    }
+
+    // ---------------------------------------------------------------- Users
+
+    public static class UserIndex {
+        private final Map<String, User> byId = new HashMap<>();
+        private final Map<String, User> byUsername = new HashMap<>();
+        private final Map<String, List<User>> byRole = new HashMap<>();
+
+        private void add(User user) {
+            byId.putIfAbsent(user.getId(), user);
+            byUsername.putIfAbsent(user.getUsername(), user);
+            byRole.computeIfAbsent(user.getRole(), k -> new ArrayList<>()).add(user);
+        }
+
+        // Callers are handed copies because dashboards mutate User objects before saving them.
+        public User findById(String id) { return copyOf(byId.get(id)); }
+        public User findByUsername(String username) { return copyOf(byUsername.get(username)); }
+        public boolean isUsernameTaken(String username) { return byUsername.containsKey(username); }
+
+        public List<User> getByRole(String role) {
+            List<User> users = new ArrayList<>();
+            for (User user : byRole.getOrDefault(role, Collections.emptyList())) {
+                users.add(copyOf(user));
+            }
+            return users;
+        }
+
+        private static User copyOf(User user) {
+            if (user == null) return null;
+            return new User(user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.getFullName(), user.getSpecialization());
+        }
+    }
+
+    public static final class SenderProfile {
+        private final String role;
+        private final String fullName;
+
+        private SenderProfile(String role, String fullName) {
+            this.role = role;
+            this.fullName = fullName;
+        }
+
+        public String getRole() { return role; }
+        public String getFullName() { return fullName; }
+        public boolean isStudent() { return "Student".equals(role); }
+    }
+
+    // -------------------------------------------------------------- Courses
+
+    public static class CourseIndex {
+        // Rows are split(",", 7): [id, name, tutorId, level, subject, fee, schedule]
+        private final Map<String, String[]> byId = new LinkedHashMap<>();
+        private final Map<String, List<String[]>> byTutor = new HashMap<>();
+
+        private void add(String[] data) {
+            byId.putIfAbsent(data[0], data);
+            if (data.length > 2) {
+                byTutor.computeIfAbsent(data[2], k -> new ArrayList<>()).add(data);
+            }
+        }
+
+        // Callers get copies of the rows, like UserIndex, so editing one cannot corrupt the cache
+        public String[] findById(String courseId) { return copyOf(byId.get(courseId)); }
+        public Collection<String[]> getAll() { return copiesOf(byId.values()); }
+        public List<String[]> getByTutor(String tutorId) { return copiesOf(byTutor.getOrDefault(tutorId, Collections.emptyList())); }
+    }
+
+    // ---------------------------------------------------------- Enrollments
+
+    public static class EnrollmentIndex {
+        // Rows are [enrollmentId, studentId, courseId]
+        private final Map<String, String[]> byId = new LinkedHashMap<>();
+        private final Map<String, List<String[]>> byStudent = new HashMap<>();
+        private final Map<String, List<String[]>> byCourse = new HashMap<>();
+
+        private void add(String[] data) {
+            byId.putIfAbsent(data[0], data);
+            byStudent.computeIfAbsent(data[1], k -> new ArrayList<>()).add(data);
+            byCourse.computeIfAbsent(data[2], k -> new ArrayList<>()).add(data);
+        }
+
+        public String[] findById(String enrollmentId) { return copyOf(byId.get(enrollmentId)); }
+        public List<String[]> getByStudent(String studentId) { return copiesOf(byStudent.getOrDefault(studentId, Collections.emptyList())); }
+        public List<String[]> getByCourse(String courseId) { return copiesOf(byCourse.getOrDefault(courseId, Collections.emptyList())); }
+
+        public String getCourseId(String enrollmentId) {
+            String[] data = byId.get(enrollmentId);
+            return data != null ? data[2] : null;
+        }
+    }
+
+    // ------------------------------------------------------------- Payments
+
+    public static class PaymentIndex {
+        // Rows are [paymentId, enrollmentId, amount, date]
+        private final List<String[]> all = new ArrayList<>();
+        private final Map<String, List<String[]>> byEnrollment = new HashMap<>();
+
+        private void add(String[] data) {
+            all.add(data);
+            byEnrollment.computeIfAbsent(data[1], k -> new ArrayList<>()).add(data);
+        }
+
+        public List<String[]> getAll() { return Collections.unmodifiableList(all); }
+        public List<String[]> getByEnrollment(String enrollmentId) { return byEnrollment.getOrDefault(enrollmentId, Collections.emptyList()); }
+    }
+
+    // ------------------------------------------------------------ Timetable
+
+    public static class TimetableIndex {
+        // Rows are [time, subject, tutor]. The full timetable is sorted by time within each day
+        // (as the schedule views always showed it); a tutor's own classes keep file order.
+        private final NavigableMap<LocalDate, List<String[]>> byDate = new TreeMap<>();
+        private final Map<String, NavigableMap<LocalDate, List<String[]>>> byTutor = new HashMap<>();
+
+        private void add(LocalDate date, String[] row) {
+            byDate.computeIfAbsent(date, k -> new ArrayList<>()).add(row);
+            byTutor.computeIfAbsent(row[2], k -> new TreeMap<>()).computeIfAbsent(date, k -> new ArrayList<>()).add(row);
+        }
+
+        private void sortDays() {
+            byDate.values().forEach(classes -> classes.sort(Comparator.comparing(c -> c[0])));
+        }
+
+        /** Classes from {@code from} to {@code to} (both inclusive), optionally only those of one tutor (as named in the timetable). */
+        public NavigableMap<LocalDate, List<String[]>> getTimetable(LocalDate from, LocalDate to, String tutor) {
+            NavigableMap<LocalDate, List<String[]>> source = tutor == null ? byDate : byTutor.get(tutor);
+            NavigableMap<LocalDate, List<String[]>> result = new TreeMap<>();
+            if (source == null || from.isAfter(to)) return result;
+            source.subMap(from, true, to, true).forEach((date, classes) -> result.put(date, Collections.unmodifiableList(classes)));
+            return result;
+        }
+    }
+
+    /**
+     * The timetable joined to courses: rows are [time, subjectName, tutor, courseId]
+     * (courseId null if the tutor has no course for that subject). Built once per
+     * version of the timetable, tutor and course files.
+     */
+    public static class ResolvedTimetable {
+        private final NavigableMap<LocalDate, List<String[]>> byDate = new TreeMap<>();
+
+        public NavigableMap<LocalDate, List<String[]>> getClasses(LocalDate from, LocalDate to) {
+            NavigableMap<LocalDate, List<String[]>> result = new TreeMap<>();
+            if (from.isAfter(to)) return result;
+            byDate.subMap(from, true, to, true).forEach((date, classes) -> result.put(date, Collections.unmodifiableList(classes)));
+            return result;
+        }
+    }
+
+    // -------------------------------------------------------------- Loaders
+
+    private static UserIndex loadUsers() {
+        UserIndex index = new UserIndex();
+        for (String role : ROLES) {
+            for (String line : readLines(DataManager.getFilePathForRole(role))) {
+                String[] data = line.split(",", 5);
+                if (data.length >= 4) {
+                    String specialization = (role.equals("Tutor") && data.length > 4) ? data[4] : "";
+                    index.add(new User(data[0], data[1], data[2], role, data[3], specialization));
+                }
+            }
+        }
+        return index;
+    }
+
+    private static CourseIndex loadCourses() {
+        CourseIndex index = new CourseIndex();
+        for (String line : readLines(DataManager.COURSES_FILE)) {
+            String[] data = line.split(",", 7);
+            if (data.length > 0 && !data[0].isEmpty()) {
+                index.add(data);
+            }
+        }
+        return index;
+    }
+
+    private static EnrollmentIndex loadEnrollments() {
+        EnrollmentIndex index = new EnrollmentIndex();
+        for (String line : readLines(DataManager.ENROLLMENTS_FILE)) {
+            String[] data = line.split(",");
+            if (data.length == 3) {
+                index.add(data);
+            }
+        }
+        return index;
+    }
+
+    private static PaymentIndex loadPayments() {
+        PaymentIndex index = new PaymentIndex();
+        for (String line : readLines(DataManager.PAYMENTS_FILE)) {
+            String[] data = line.split(",");
+            if (data.length >= 4) {
+                index.add(data);
+            }
+        }
+        return index;
+    }
+
+    private static TimetableIndex loadTimetable() {
+        List<String[]> rows = new ArrayList<>();
+        for (String line : readLines(DataManager.TIMETABLE_FILE)) {
+            String[] data = line.split(",", 4);
+            if (data.length == 4) {
+                rows.add(data);
+            }
+        }
+        return timetableOf(rows);
+    }
+
+    /** Indexes stored timetable rows [date, time, subject, tutor]; other storages build theirs with this too. */
+    static TimetableIndex timetableOf(List<String[]> rows) {
+        TimetableIndex index = new TimetableIndex();
+        for (String[] data : rows) {
+            try {
+                index.add(LocalDate.parse(data[0]), new String[]{data[1], data[2], data[3]});
+            } catch (DateTimeParseException e) {
+                System.err.println("Skipping malformed timetable line: " + String.join(",", data));
+            }
+        }
+        index.sortDays();
+        return index;
+    }
+
+    private static ResolvedTimetable resolveTimetable() {
+        return resolve(timetable(), users().getByRole("Tutor"), courses()::getByTutor);
+    }
+
+    // The timetable names tutors by full name, so join on that (names need not be unique,
+    // hence the list) and then on the tutor's course for the subject.
+    static ResolvedTimetable resolve(TimetableIndex timetable, List<User> tutors, Function<String, List<String[]>> coursesByTutor) {
+        Map<String, List<String>> tutorIdsByName = new HashMap<>();
+        for (User tutor : tutors) {
+            tutorIdsByName.computeIfAbsent(tutor.getFullName(), k -> new ArrayList<>()).add(tutor.getId());
+        }
+        Map<String, String> courseIdByTutorAndSubject = new HashMap<>();
+
+        ResolvedTimetable resolved = new ResolvedTimetable();
+        timetable.getTimetable(LocalDate.MIN, LocalDate.MAX, null).forEach((date, classes) -> {
+            List<String[]> rows = new ArrayList<>();
+            for (String[] classInfo : classes) {
+                String subjectName = classInfo[1].replace("Weekly ", "").trim();
+                String courseId = null;
+                for (String tutorId : tutorIdsByName.getOrDefault(classInfo[2], Collections.emptyList())) {
+                    courseId = courseIdByTutorAndSubject.computeIfAbsent(tutorId + "|" + subjectName.toLowerCase(), k -> findCourseId(coursesByTutor.apply(tutorId), subjectName));
+                    if (courseId != null) break;
+                }
+                rows.add(new String[]{classInfo[0], subjectName, classInfo[2], courseId});
+            }
+            resolved.byDate.put(date, rows);
+        });
+        return resolved;
+    }
+
+    private static String findCourseId(List<String[]> tutorCourses, String subjectName) {
+        for (String[] data : tutorCourses) {
+            if (data.length >= 7 && data[4].equalsIgnoreCase(subjectName)) return data[0];
+        }
+        return null;
+    }
+
+    private static List<String> readLines(String filePath) {
+        List<String> lines = new ArrayList<>();
+        try {
+            DataManager.UPDATE_LOG.forEachLine(filePath, lines::add); // with logged updates applied
+        } catch (IOException e) { /* missing file = empty table */ }
+        return lines;
+    }
+
+    /**
+     * A lazily loaded table that remembers the size and modification time of
+     * the files it was built from, and their pending updates in the update log
+     * (which another instance may have added to), so edits made outside this
+     * process (or by code that forgot to invalidate) are still picked up on the
+     * next read.
+     */
+    private static class CachedTable<T> {
+        private final Supplier<T> loader;
+        private final String[] filePaths;
+        private T value;
+        private long[] stamps;
+
+        CachedTable(Supplier<T> loader, String... filePaths) {
+            this.loader = loader;
+            this.filePaths = filePaths;
+        }
+
+        synchronized T get() {
+            long[] current = currentStamps();
+            if (value == null || !Arrays.equals(current, stamps)) {
+                value = loader.get();
+                stamps = current;
+            }
+            return value;
+        }
+
+        synchronized void invalidate() {
+            value = null;
+        }
+
+        boolean dependsOn(String filePath) {
+            for (String path : filePaths) {
+                if (path.equals(filePath)) return true;
+            }
+            return false;
+        }
+
+        private long[] currentStamps() {
+            return stampsWithUpdatesOf(filePaths);
+        }
+    }
+}
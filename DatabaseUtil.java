@@ -1,11 +1,53 @@
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 
 public class DatabaseUtil {
     private static final String DB_URL = "jdbc:sqlite:learning_hub.db";
 
+    // SQLite serializes writers anyway; a few connections are enough for concurrent readers
+    private static final int POOL_SIZE = 4;
+    private static final Semaphore PERMITS = new Semaphore(POOL_SIZE);
+    private static final BlockingQueue<Connection> IDLE = new LinkedBlockingQueue<>();
+
+    /** Work done with a pooled connection, see {@link #withConnection}. */
+    public interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
     public static Connection getConnection() throws SQLException {
         return DriverManager.getConnection(DB_URL);
     }
-}
\ No newline at end of file
+
+    /**
+     * Runs 'work' on a connection from the pool, opening one if none is idle.
+     * Callers wait while all POOL_SIZE connections are in use. A connection is
+     * returned in auto-commit mode; one that failed is closed instead.
+     */
+    public static <T> T withConnection(SqlWork<T> work) throws SQLException {
+        PERMITS.acquireUninterruptibly();
+        Connection connection = null;
+        boolean healthy = false;
+        try {
+            connection = IDLE.poll();
+            if (connection == null || connection.isClosed()) {
+                connection = getConnection();
+            }
+            T result = work.run(connection);
+            healthy = connection.getAutoCommit();
+            return result;
+        } finally {
+            if (connection != null) {
+                if (healthy) {
+                    IDLE.offer(connection);
+                } else {
+                    try { connection.close(); } catch (SQLException e) { /* ignore */ }
+                }
+            }
+            PERMITS.release();
+        }
+    }
+}
@@ -0,0 +1,734 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Storage} over the flat files in data/. Reads go through the
+ * in-memory tables of {@link DataRepository}, the {@link ChatLog} and
+ * {@link IncomeLedger} aggregates and {@link MappedScanner}; field updates
+ * are logged in {@link DataManager#UPDATE_LOG} instead of rewriting a file.
+ */
+public class FileStorage implements Storage {
+    private final ChatLog chatLog = new ChatLog(DataManager.CHATS_FILE, DataManager.UPDATE_LOG);
+    private final IdAllocator ids = IdAllocator.persistedIn(DataManager.ID_SEQUENCES_FILE, FileStorage::maxIdNumber);
+
+    private final Users users = new FileUsers();
+    private final Courses courses = new FileCourses();
+    private final Enrollments enrollments = new FileEnrollments();
+    private final Payments payments = new FilePayments();
+    private final Chats chats = new FileChats();
+    private final Attendance attendance = new FileAttendance();
+    private final Results results = new FileResults();
+    private final Announcements announcements = new FileAnnouncements();
+    private final Feedback feedback = new FileFeedback();
+    private final Timetable timetable = new FileTimetable();
+    private final Requests requests = new FileRequests();
+    private final GroupChats groupChats = new FileGroupChats();
+
+    public FileStorage() {
+        DataManager.UPDATE_LOG.guard(DataManager.CHATS_FILE, chatLog);
+        DataManager.UPDATE_LOG.onCompacted(DataManager.CHATS_FILE, file -> chatLog.invalidate()); // offsets shifted
+    }
+
+    @Override public Users users() { return users; }
+    @Override public Courses courses() { return courses; }
+    @Override public Enrollments enrollments() { return enrollments; }
+    @Override public Payments payments() { return payments; }
+    @Override public Chats chats() { return chats; }
+    @Override public Attendance attendance() { return attendance; }
+    @Override public Results results() { return results; }
+    @Override public Announcements announcements() { return announcements; }
+    @Override public Feedback feedback() { return feedback; }
+    @Override public Timetable timetable() { return timetable; }
+    @Override public Requests requests() { return requests; }
+    @Override public GroupChats groupChats() { return groupChats; }
+
+    @Override
+    public String nextId(String prefix, String table, int startNumber) {
+        return ids.next(prefix, table, startNumber);
+    }
+
+    @Override
+    public List<String> nextIds(String prefix, String table, int startNumber, int count) {
+        return ids.next(prefix, table, startNumber, count);
+    }
+
+    @Override
+    public boolean addStudents(List<User> students, List<String[]> details, List<String[]> enrollments, List<String[]> payments) {
+        if (!usernamesAvailable(students)) return false;
+        Set<String> studentIds = new HashSet<>();
+        List<String> studentLines = new ArrayList<>();
+        for (User student : students) {
+            studentIds.add(student.getId());
+            studentLines.add(student.toCsvString());
+        }
+        // One append per file, payments last; if one fails the files before it are cleaned up again
+        if (appendLines(DataManager.STUDENTS_FILE, studentLines)) {
+            if (appendLines(DataManager.STUDENT_DETAILS_FILE, joinAll(details))) {
+                if (appendLines(DataManager.ENROLLMENTS_FILE, joinAll(enrollments))) {
+                    if (appendPayments(joinAll(payments))) return true;
+                    deleteLines(DataManager.ENROLLMENTS_FILE, columnIn(1, studentIds));
+                }
+                deleteLines(DataManager.STUDENT_DETAILS_FILE, columnIn(0, studentIds));
+            }
+            deleteLines(DataManager.STUDENTS_FILE, columnIn(0, studentIds));
+        }
+        return false;
+    }
+
+    private static List<String> joinAll(List<String[]> rows) {
+        List<String> lines = new ArrayList<>(rows.size());
+        for (String[] row : rows) {
+            lines.add(String.join(",", row));
+        }
+        return lines;
+    }
+
+    private static Predicate<String> columnIn(int columnIndex, Set<String> values) {
+        return line -> {
+            String[] data = line.split(",");
+            return data.length > columnIndex && values.contains(data[columnIndex]);
+        };
+    }
+
+    // Highest number after 'prefix' in the first column of a data file; read once per sequence
+    private static long maxIdNumber(String prefix, String table) {
+        long max = 0;
+        for (String line : readLines(table)) {
+            String id = line.split(",", 2)[0];
+            if (id.startsWith(prefix)) {
+                try {
+                    max = Math.max(max, Long.parseLong(id.substring(prefix.length()).trim()));
+                } catch (NumberFormatException e) { /* not one of ours */ }
+            }
+        }
+        return max;
+    }
+
+    // ---------------------------------------------------------------- Users
+
+    private static class FileUsers implements Users {
+        @Override public List<User> getByRole(String role) { return DataRepository.users().getByRole(role); }
+        @Override public User findById(String id) { return DataRepository.users().findById(id); }
+        @Override public User findByUsername(String username) { return DataRepository.users().findByUsername(username); }
+        @Override public boolean isUsernameTaken(String username) { return DataRepository.users().isUsernameTaken(username); }
+
+        @Override
+        public boolean add(User user) {
+            String filePath = DataManager.getFilePathForRole(user.getRole());
+            return filePath != null && appendLines(filePath, Collections.singletonList(user.toCsvString()));
+        }
+
+        @Override
+        public boolean update(User user) {
+            String filePath = DataManager.getFilePathForRole(user.getRole());
+            User existing = findById(user.getId());
+            if (filePath == null || existing == null || !filePath.equals(DataManager.getFilePathForRole(existing.getRole()))) return false;
+
+            // Everything after the id is replaced
+            String[] line = user.toCsvString().split(",", 2);
+            boolean updated = DataManager.UPDATE_LOG.submit(new UpdateLog.Update(filePath, 2)
+                    .where(0, user.getId())
+                    .set(1, line.length > 1 ? line[1] : ""));
+            if (updated) {
+                DataRepository.invalidate(filePath);
+            }
+            return updated;
+        }
+
+        @Override
+        public boolean deleteByUsername(String username) {
+            boolean deleted = false;
+            for (String role : new String[]{"Admin", "Tutor", "Receptionist", "Student"}) {
+                if (deleteLinesByColumn(DataManager.getFilePathForRole(role), username, 1)) deleted = true;
+            }
+            return deleted;
+        }
+
+        @Override
+        public boolean deleteById(String id) {
+            User user = findById(id);
+            return user != null && deleteLinesByColumn(DataManager.getFilePathForRole(user.getRole()), id, 0);
+        }
+
+        @Override
+        public boolean addStudentDetails(String[] details) {
+            return appendLines(DataManager.STUDENT_DETAILS_FILE, Collections.singletonList(String.join(",", details)));
+        }
+
+        @Override
+        public boolean deleteStudentDetails(String studentId) {
+            return deleteLinesByColumn(DataManager.STUDENT_DETAILS_FILE, studentId, 0);
+        }
+    }
+
+    // -------------------------------------------------------------- Courses
+
+    private static class FileCourses implements Courses {
+        @Override public Collection<String[]> getAll() { return DataRepository.courses().getAll(); }
+        @Override public String[] findById(String courseId) { return DataRepository.courses().findById(courseId); }
+        @Override public List<String[]> getByTutor(String tutorId) { return DataRepository.courses().getByTutor(tutorId); }
+
+        @Override
+        public boolean add(String[] course) {
+            return appendLines(DataManager.COURSES_FILE, Collections.singletonList(String.join(",", course)));
+        }
+
+        @Override
+        public boolean update(String[] course) {
+            String updatedLine = String.join(",", course);
+            return replaceLines(DataManager.COURSES_FILE, line -> line.split(",", 2)[0].equals(course[0]) ? updatedLine : null);
+        }
+
+        @Override
+        public boolean delete(String courseId) {
+            return deleteLinesByColumn(DataManager.COURSES_FILE, courseId, 0);
+        }
+    }
+
+    // ---------------------------------------------------------- Enrollments
+
+    private static class FileEnrollments implements Enrollments {
+        @Override public List<String[]> getByStudent(String studentId) { return DataRepository.enrollments().getByStudent(studentId); }
+        @Override public List<String[]> getByCourse(String courseId) { return DataRepository.enrollments().getByCourse(courseId); }
+        @Override public String getCourseId(String enrollmentId) { return DataRepository.enrollments().getCourseId(enrollmentId); }
+
+        @Override
+        public boolean add(String[] enrollment) {
+            return appendLines(DataManager.ENROLLMENTS_FILE, Collections.singletonList(String.join(",", enrollment)));
+        }
+
+        @Override
+        public boolean apply(String studentId, Set<String> removedIds, List<String[]> added) {
+            List<String> newLines = new ArrayList<>();
+            for (String[] enrollment : added) {
+                newLines.add(String.join(",", enrollment));
+            }
+            if (removedIds.isEmpty()) {
+                // One buffered append for every new enrollment
+                return newLines.isEmpty() || appendLines(DataManager.ENROLLMENTS_FILE, newLines);
+            }
+            // One replacement of the file, so the removals and additions land together
+            return rewrite(DataManager.ENROLLMENTS_FILE, lines -> {
+                lines.removeIf(line -> {
+                    String[] data = line.split(",");
+                    return data.length >= 3 && data[1].equals(studentId) && removedIds.contains(data[0]);
+                });
+                lines.addAll(newLines);
+                return lines;
+            });
+        }
+
+        @Override
+        public boolean deleteByStudent(String studentId) {
+            return deleteLinesByColumn(DataManager.ENROLLMENTS_FILE, studentId, 1);
+        }
+    }
+
+    // ------------------------------------------------------------- Payments
+
+    private static class FilePayments implements Payments {
+        @Override public List<String[]> getByEnrollment(String enrollmentId) { return DataRepository.payments().getByEnrollment(enrollmentId); }
+        @Override public double getTotalPaid(String enrollmentId) { return DataRepository.income().getTotalPaid(enrollmentId); }
+
+        @Override
+        public boolean add(String[] payment) {
+            return appendPayments(Collections.singletonList(String.join(",", payment)));
+        }
+
+        @Override
+        public boolean hasData() {
+            return Files.exists(Paths.get(DataManager.PAYMENTS_FILE));
+        }
+
+        @Override
+        public Map<String, Double> getPaymentStatus(String studentId) {
+            Map<String, Double> status = new HashMap<>();
+            double totalFees = 0.0;
+            double totalPaid = 0.0;
+
+            Set<String> courseIDs = new HashSet<>();
+            List<String> enrollmentIDs = new ArrayList<>();
+
+            // 1. Get all course and enrollment IDs for the student
+            for (String[] data : DataRepository.enrollments().getByStudent(studentId)) {
+                enrollmentIDs.add(data[0]);
+                courseIDs.add(data[2]);
+            }
+
+            // 2. Calculate total fees from the courses (each course counted once)
+            DataRepository.CourseIndex courses = DataRepository.courses();
+            for (String courseId : courseIDs) {
+                String[] data = courses.findById(courseId);
+                if (data != null && data.length == 7) {
+                    try {
+                        totalFees += Double.parseDouble(data[5]);
+                    } catch (NumberFormatException e) { /* ignore */ }
+                }
+            }
+
+            // 3. Calculate total paid from the income aggregate
+            IncomeLedger ledger = DataRepository.income();
+            for (String enrollmentId : enrollmentIDs) {
+                totalPaid += ledger.getTotalPaid(enrollmentId);
+            }
+
+            status.put("totalFees", totalFees);
+            status.put("totalPaid", totalPaid);
+            status.put("balance", totalFees - totalPaid);
+            return status;
+        }
+
+        @Override
+        public String getPaymentsError() {
+            return DataRepository.income().getParseError();
+        }
+
+        @Override
+        public Map<String, Map<String, Double>> getIncomeByLevelAndSubject(int year, Integer month) {
+            return DataRepository.income().getIncomeByLevelAndSubject(year, month, null);
+        }
+
+        @Override
+        public Map<String, Double> getIncomeBySubject(int year) {
+            return DataRepository.income().getIncomeBySubject(year, null, null);
+        }
+
+        @Override
+        public double getTotalIncome(int year) {
+            return DataRepository.income().getTotalIncome(year, null, null);
+        }
+    }
+
+    // ---------------------------------------------------------------- Chats
+
+    private class FileChats implements Chats {
+        @Override
+        public void append(String line) throws IOException {
+            chatLog.append(line);
+        }
+
+        @Override
+        public int count(String conversationKey) {
+            return chatLog.count(conversationKey);
+        }
+
+        @Override
+        public List<String> readConversation(String conversationKey) {
+            return chatLog.readConversation(conversationKey);
+        }
+
+        @Override
+        public List<String> readRange(String conversationKey, int from, int to) {
+            return chatLog.readRange(conversationKey, from, to);
+        }
+
+        @Override
+        public boolean markRead(String sender, String recipient) {
+            // Only this conversation is read to see whether there is anything to mark
+            boolean hasUnread = false;
+            for (String line : chatLog.readConversation(ChatLog.directKey(recipient, sender))) {
+                String[] data = line.split(",", 5);
+                if (data.length >= 5 && data[1].equals(recipient) && data[0].equals(sender) && "UNREAD".equalsIgnoreCase(data[4])) {
+                    hasUnread = true;
+                    break;
+                }
+            }
+            if (!hasUnread) return false;
+
+            return DataManager.UPDATE_LOG.submit(new UpdateLog.Update(DataManager.CHATS_FILE, 5)
+                    .where(0, sender)
+                    .where(1, recipient)
+                    .whereIgnoreCase(4, "UNREAD")
+                    .set(4, "READ"));
+        }
+
+        @Override
+        public void forEachLine(Consumer<String> consumer) throws IOException {
+            DataManager.UPDATE_LOG.forEachLine(DataManager.CHATS_FILE, consumer);
+        }
+    }
+
+    // ----------------------------------------------------------- Attendance
+
+    private static class FileAttendance implements Attendance {
+        @Override
+        public List<String[]> getByStudent(String studentId) {
+            // Status changes still in the update log are applied to the student's rows as they are scanned
+            ReadWriteLock lock = AtomicFiles.lockFor(DataManager.ATTENDANCE_FILE);
+            lock.readLock().lock();
+            try {
+                return MappedScanner.select(DataManager.ATTENDANCE_FILE, 1, studentId, 0,
+                        DataManager.UPDATE_LOG.overlay(DataManager.ATTENDANCE_FILE));
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public boolean replace(String courseId, String date, List<String[]> records) {
+            List<String> newLines = new ArrayList<>();
+            for (String[] record : records) {
+                newLines.add(String.join(",", record));
+            }
+            if (!new File(DataManager.ATTENDANCE_FILE).exists()) {
+                return appendLines(DataManager.ATTENDANCE_FILE, newLines);
+            }
+            // Drops the course's records for that date and adds the new ones in one replacement,
+            // so no reader sees the day with neither
+            return rewrite(DataManager.ATTENDANCE_FILE, lines -> {
+                lines.removeIf(line -> {
+                    String[] data = line.split(",");
+                    return data.length >= 4 && data[0].equals(courseId) && data[2].equals(date);
+                });
+                lines.addAll(newLines);
+                return lines;
+            });
+        }
+
+        @Override
+        public boolean updateStatus(String courseId, String studentId, String date, String status) {
+            if (!new File(DataManager.ATTENDANCE_FILE).exists()) return false;
+
+            boolean found = false;
+            for (String[] data : MappedScanner.select(DataManager.ATTENDANCE_FILE, 1, studentId, 4)) {
+                if (data.length >= 4 && data[0].equals(courseId) && data[2].equals(date)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+
+            return DataManager.UPDATE_LOG.submit(new UpdateLog.Update(DataManager.ATTENDANCE_FILE, 4)
+                    .where(0, courseId)
+                    .where(1, studentId)
+                    .where(2, date)
+                    .set(3, status));
+        }
+    }
+
+    // -------------------------------------------------------------- Results
+
+    private static class FileResults implements Results {
+        // One scan of results.txt for several enrollments; only their rows are parsed.
+        @Override
+        public Map<String, List<String[]>> getByEnrollment(Collection<String> enrollmentIds) {
+            Map<String, List<String[]>> results = new HashMap<>();
+            for (String[] data : MappedScanner.select(DataManager.RESULTS_FILE, 1, enrollmentIds, 6)) {
+                if (data.length == 6) {
+                    results.computeIfAbsent(data[1], k -> new ArrayList<>()).add(data);
+                }
+            }
+            return results;
+        }
+
+        @Override
+        public boolean add(String[] result) {
+            return appendLines(DataManager.RESULTS_FILE, Collections.singletonList(String.join(",", result)));
+        }
+    }
+
+    // -------------------------------------------------------- Announcements
+
+    private static class FileAnnouncements implements Announcements {
+        @Override
+        public List<String[]> getAll() {
+            List<String[]> announcements = new ArrayList<>();
+            for (String line : readLines(DataManager.ANNOUNCEMENTS_FILE)) {
+                String[] data = line.split(",", 5);
+                if (data.length == 5) {
+                    announcements.add(data);
+                }
+            }
+            return announcements;
+        }
+
+        @Override
+        public boolean add(String[] announcement) {
+            return appendLines(DataManager.ANNOUNCEMENTS_FILE, Collections.singletonList(String.join(",", announcement)));
+        }
+
+        @Override
+        public boolean update(String announcementId, String authorUsername, String title, String content) {
+            return replaceLines(DataManager.ANNOUNCEMENTS_FILE, line -> {
+                String[] data = line.split(",", 5);
+                // Keep the original id, author and date
+                return isAnnouncement(data, announcementId, authorUsername) ? String.join(",", data[0], title, content, data[3], data[4]) : null;
+            });
+        }
+
+        @Override
+        public boolean delete(String announcementId, String authorUsername) {
+            return deleteLines(DataManager.ANNOUNCEMENTS_FILE, line -> isAnnouncement(line.split(",", 5), announcementId, authorUsername));
+        }
+
+        private static boolean isAnnouncement(String[] data, String announcementId, String authorUsername) {
+            return data.length == 5 && data[0].equals(announcementId) && data[3].equals(authorUsername);
+        }
+
+        @Override
+        public Set<String> getReadIds(String username) {
+            Set<String> readIds = new HashSet<>();
+            for (String line : readLines(DataManager.READ_ANNOUNCEMENTS_FILE)) {
+                String[] data = line.split(",");
+                if (data.length == 2 && data[0].equals(username)) {
+                    readIds.add(data[1]);
+                }
+            }
+            return readIds;
+        }
+
+        @Override
+        public void markRead(String username, String announcementId) throws IOException {
+            AtomicFiles.append(DataManager.READ_ANNOUNCEMENTS_FILE, Collections.singletonList(username + "," + announcementId));
+        }
+    }
+
+    // ------------------------------------------------------------- Feedback
+
+    private static class FileFeedback implements Feedback {
+        @Override
+        public List<String[]> getForUser(String userId) {
+            List<String[]> feedback = new ArrayList<>();
+            try {
+                DataManager.UPDATE_LOG.forEachLine(DataManager.FEEDBACK_FILE, line -> {
+                    String[] data = line.split(",", 9);
+                    if (data.length >= 9 && data[3].equals(userId)) {
+                        feedback.add(data);
+                    }
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return feedback;
+        }
+
+        @Override
+        public boolean add(String[] feedback) {
+            return appendLines(DataManager.FEEDBACK_FILE, Collections.singletonList(String.join(",", feedback)));
+        }
+
+        @Override
+        public boolean markRead(String userId) {
+            if (!Files.exists(Paths.get(DataManager.FEEDBACK_FILE))) return false;
+
+            boolean[] hasNew = {false};
+            try {
+                DataManager.UPDATE_LOG.forEachLine(DataManager.FEEDBACK_FILE, line -> {
+                    String[] data = line.split(",", 9);
+                    if (data.length >= 9 && data[3].equals(userId) && "NEW".equalsIgnoreCase(data[8])) hasNew[0] = true;
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+            if (!hasNew[0]) return false;
+
+            return DataManager.UPDATE_LOG.submit(new UpdateLog.Update(DataManager.FEEDBACK_FILE, 9)
+                    .where(3, userId)
+                    .whereIgnoreCase(8, "NEW")
+                    .set(8, "READ"));
+        }
+    }
+
+    // ------------------------------------------------------------ Timetable
+
+    private static class FileTimetable implements Timetable {
+        @Override
+        public NavigableMap<LocalDate, List<String[]>> getTimetable(LocalDate from, LocalDate to, String tutorFullName) {
+            return DataRepository.timetable().getTimetable(from, to, tutorFullName);
+        }
+
+        @Override
+        public NavigableMap<LocalDate, List<String[]>> getScheduledClasses(LocalDate from, LocalDate to) {
+            return DataRepository.resolvedTimetable().getClasses(from, to);
+        }
+
+        @Override
+        public boolean replaceAll(List<String[]> classes) {
+            List<String> lines = new ArrayList<>();
+            for (String[] classInfo : classes) {
+                lines.add(String.join(",", classInfo));
+            }
+            try {
+                AtomicFiles.replace(DataManager.TIMETABLE_FILE, lines);
+                DataRepository.invalidate(DataManager.TIMETABLE_FILE);
+                return true;
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+        }
+    }
+
+    // ------------------------------------------------------------- Requests
+
+    private static class FileRequests implements Requests {
+        @Override
+        public List<String[]> getAll() {
+            List<String[]> requests = new ArrayList<>();
+            try {
+                DataManager.UPDATE_LOG.forEachLine(DataManager.REQUESTS_FILE, line -> {
+                    String[] data = line.split(",", 5);
+                    if (data.length == 5) {
+                        requests.add(data);
+                    }
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return requests;
+        }
+
+        @Override
+        public boolean add(String[] request) {
+            return appendLines(DataManager.REQUESTS_FILE, Collections.singletonList(String.join(",", request)));
+        }
+
+        @Override
+        public boolean updateStatus(String requestId, String status) {
+            if (!new File(DataManager.REQUESTS_FILE).exists()) return false;
+
+            boolean[] found = {false};
+            try {
+                DataManager.UPDATE_LOG.forEachLine(DataManager.REQUESTS_FILE, line -> {
+                    String[] data = line.split(",", 5);
+                    if (data.length == 5 && data[0].equals(requestId)) found[0] = true;
+                });
+            } catch (IOException e) {
+                e.printStackTrace();
+                return false;
+            }
+            if (!found[0]) return false;
+
+            // Logged instead of rewriting requests.txt; the status is in column 3
+            return DataManager.UPDATE_LOG.submit(new UpdateLog.Update(DataManager.REQUESTS_FILE, 5)
+                    .where(0, requestId)
+                    .set(3, status));
+        }
+
+        @Override
+        public boolean delete(String requestId) {
+            return deleteLinesByColumn(DataManager.REQUESTS_FILE, requestId, 0);
+        }
+    }
+
+    // ----------------------------------------------------------- GroupChats
+
+    private static class FileGroupChats implements GroupChats {
+        @Override
+        public List<String[]> getAll() {
+            List<String[]> groups = new ArrayList<>();
+            for (String line : readLines(DataManager.GROUP_CHATS_FILE)) {
+                String[] data = line.split(",", 4);
+                if (data.length >= 4) {
+                    groups.add(data);
+                }
+            }
+            return groups;
+        }
+
+        @Override
+        public boolean add(String[] group) {
+            return appendLines(DataManager.GROUP_CHATS_FILE, Collections.singletonList(String.join(",", group)));
+        }
+
+        @Override
+        public boolean updateMembers(String groupId, String members) {
+            return replaceLines(DataManager.GROUP_CHATS_FILE, line -> {
+                String[] data = line.split(",", 4);
+                return data.length >= 4 && data[0].equals(groupId) ? String.join(",", data[0], data[1], data[2], members) : null;
+            });
+        }
+    }
+
+    // -------------------------------------------------------- File helpers
+
+    // All of a file's lines as of one moment; no file yet = no rows
+    private static List<String> readLines(String filePath) {
+        try {
+            return AtomicFiles.readLines(filePath);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new ArrayList<>();
+        }
+    }
+
+    // The income aggregate folds in just these lines; the payment history table reloads lazily
+    private static boolean appendPayments(List<String> lines) {
+        try {
+            DataRepository.income().append(lines);
+            DataRepository.invalidate(DataManager.PAYMENTS_FILE);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private static boolean appendLines(String filePath, List<String> lines) {
+        try {
+            AtomicFiles.append(filePath, lines);
+            DataRepository.invalidate(filePath);
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Rewrites the file with each line passed through 'replacer' (null keeps the line).
+    // Returns false, leaving the file alone, if no line was replaced.
+    private static boolean replaceLines(String filePath, UnaryOperator<String> replacer) {
+        return rewrite(filePath, lines -> {
+            boolean updated = false;
+            for (int i = 0; i < lines.size(); i++) {
+                String replacement = replacer.apply(lines.get(i));
+                if (replacement != null) {
+                    lines.set(i, replacement);
+                    updated = true;
+                }
+            }
+            return updated ? lines : null;
+        });
+    }
+
+    private static boolean deleteLinesByColumn(String filePath, String value, int columnIndex) {
+        return deleteLines(filePath, line -> {
+            String[] data = line.split(",");
+            return data.length > columnIndex && data[columnIndex].equals(value);
+        });
+    }
+
+    private static boolean deleteLines(String filePath, Predicate<String> matches) {
+        return rewrite(filePath, lines -> lines.removeIf(matches) ? lines : null);
+    }
+
+    // Atomic read-modify-write of a data file (see AtomicFiles.rewrite). Logged updates are
+    // folded in first, and the update log stays locked so none is logged against the old file.
+    private static boolean rewrite(String filePath, UnaryOperator<List<String>> edit) {
+        if (!new File(filePath).exists()) return false;
+        ReadWriteLock lock = AtomicFiles.lockFor(filePath);
+        boolean replaced;
+        lock.writeLock().lock();
+        try {
+            boolean[] rewritten = {false};
+            DataManager.UPDATE_LOG.replace(filePath, () -> rewritten[0] = AtomicFiles.rewrite(filePath, edit));
+            replaced = rewritten[0];
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Outside the lock: cached tables reload under their own monitor and take the read lock
+        if (replaced) DataRepository.invalidate(filePath);
+        return replaced;
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out ids like "ENR-042" without scanning the table on every insert.
+ *
+ * Each table and prefix has a sequence: an AtomicLong with the next number
+ * and the end of the block of numbers reserved for this process. Taking an
+ * id is a compare-and-set inside the block. When the block runs out the next
+ * one is reserved through {@link Reservations}, which keeps the high-water
+ * mark where every app instance sees it (a file, a table), so two instances
+ * never get the same number. Numbers still in a block when the app exits are
+ * skipped: ids are unique and increasing, but may have gaps.
+ *
+ * The first id of a sequence scans its table once ({@link Recovery}) and
+ * starts after the highest number found there, so rows written before the
+ * sequence was persisted (or by hand) are never reused.
+ */
+public class IdAllocator {
+    static final int BLOCK_SIZE = 32;
+
+    /** Highest number used with 'prefix' in 'table', or 0 if there is none. */
+    public interface Recovery {
+        long maxUsed(String prefix, String table);
+    }
+
+    /**
+     * Reserves 'size' numbers for a sequence and returns the first: 'from', or
+     * the number after the last one ever reserved if that is higher.
+     */
+    public interface Reservations {
+        long reserve(String sequence, long from, int size) throws IOException;
+    }
+
+    private final Recovery recovery;
+    private final Reservations reservations;
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    public IdAllocator(Recovery recovery, Reservations reservations) {
+        this.recovery = recovery;
+        this.reservations = reservations;
+    }
+
+    /** Sequences that live as long as the process (nothing is persisted). */
+    public static IdAllocator inMemory(Recovery recovery) {
+        Map<String, Long> highWater = new HashMap<>();
+        return new IdAllocator(recovery, (sequence, from, size) -> {
+            synchronized (highWater) {
+                long first = Math.max(from, highWater.getOrDefault(sequence, 0L) + 1);
+                highWater.put(sequence, first + size - 1);
+                return first;
+            }
+        });
+    }
+
+    /**
+     * Sequences whose high-water marks are kept in 'file' as lines of
+     * "sequence,highWater", shared by every instance using the same file.
+     */
+    public static IdAllocator persistedIn(String file, Recovery recovery) {
+        return new IdAllocator(recovery, (sequence, from, size) -> {
+            long[] first = {from};
+            AtomicFiles.rewrite(file, lines -> {
+                int at = -1;
+                for (int i = 0; i < lines.size(); i++) {
+                    if (lines.get(i).startsWith(sequence + ",")) {
+                        at = i;
+                        try {
+                            first[0] = Math.max(from, Long.parseLong(lines.get(i).substring(sequence.length() + 1).trim()) + 1);
+                        } catch (NumberFormatException e) { /* damaged line: the recovered start stands */ }
+                    }
+                }
+                String line = sequence + "," + (first[0] + size - 1);
+                if (at >= 0) lines.set(at, line); else lines.add(line);
+                return lines;
+            });
+            return first[0];
+        });
+    }
+
+    /** A new id with 'prefix' for 'table', numbered from startNumber and zero-padded to at least 3 digits. */
+    public String next(String prefix, String table, int startNumber) {
+        return format(prefix, sequence(prefix, table, startNumber).allocate(1));
+    }
+
+    /** 'count' new consecutive ids, taken at once (a bulk insert costs one reservation at most). */
+    public List<String> next(String prefix, String table, int startNumber, int count) {
+        List<String> ids = new ArrayList<>(count);
+        if (count <= 0) return ids;
+        long first = sequence(prefix, table, startNumber).allocate(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(format(prefix, first + i));
+        }
+        return ids;
+    }
+
+    private static String format(String prefix, long number) {
+        return prefix + String.format("%03d", number);
+    }
+
+    private Sequence sequence(String prefix, String table, int startNumber) {
+        return sequences.computeIfAbsent(table + "|" + prefix,
+                name -> new Sequence(name, Math.max(startNumber, recovery.maxUsed(prefix, table) + 1)));
+    }
+
+    /**
+     * Numbers next..limit-1 are reserved for this process. 'next' only moves
+     * forward; a new block moves 'next' first and 'limit' second, so a racing
+     * compare-and-set can never take a number outside a reserved block.
+     */
+    private final class Sequence {
+        private final String name;
+        private final AtomicLong next;
+        private volatile long limit;
+
+        Sequence(String name, long start) {
+            this.name = name;
+            this.next = new AtomicLong(start);
+            this.limit = start; // nothing reserved yet
+        }
+
+        long allocate(int count) {
+            while (true) {
+                long number = next.get();
+                if (number + count <= limit) {
+                    if (next.compareAndSet(number, number + count)) return number;
+                    continue;
+                }
+                synchronized (this) {
+                    long current = next.get();
+                    if (current + count > limit) {
+                        int size = Math.max(BLOCK_SIZE, count);
+                        long first;
+                        try {
+                            first = reservations.reserve(name, current, size);
+                        } catch (IOException e) {
+                            // Carry on unreserved; unique in this process, though another instance could repeat them
+                            System.err.println("Could not reserve ids for " + name + ": " + e.getMessage());
+                            first = Math.max(current, limit);
+                        }
+                        next.set(first);
+                        limit = first + size;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,701 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link Storage} that keeps every table in memory, for tests and benchmarks.
+ * Start it empty, or with {@link #fromFiles()} as a copy of data/ that is never
+ * written back. Rows are kept in insertion order (the order they would have in
+ * the data file) with hash indexes built on first lookup by a column.
+ */
+public class InMemoryStorage implements Storage {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // Users are rows of [id, username, password, role, fullName, specialization]
+    private final Table userRows = new Table();
+    private final Table studentDetails = new Table();
+    private final Table courseRows = new Table();
+    private final Table enrollmentRows = new Table();
+    private final Table paymentRows = new Table();
+    // Chats are rows of [sender, recipient, content, timestamp, status, conversationKey]
+    private final Table chatRows = new Table();
+    private final Table attendanceRows = new Table();
+    private final Table resultRows = new Table();
+    private final Table announcementRows = new Table();
+    private final Table readAnnouncementRows = new Table();
+    private final Table feedbackRows = new Table();
+    private final Table timetableRows = new Table();
+    private final Table requestRows = new Table();
+    private final Table groupChatRows = new Table();
+
+    // Tables by the DataManager file they stand in for, to start the id sequences from
+    private final Map<String, Table> tablesByFile = new HashMap<>();
+    private final IdAllocator ids = IdAllocator.inMemory(this::maxIdNumber);
+
+    private final Users users = new MemoryUsers();
+    private final Courses courses = new MemoryCourses();
+    private final Enrollments enrollments = new MemoryEnrollments();
+    private final Payments payments = new MemoryPayments();
+    private final Chats chats = new MemoryChats();
+    private final Attendance attendance = new MemoryAttendance();
+    private final Results results = new MemoryResults();
+    private final Announcements announcements = new MemoryAnnouncements();
+    private final Feedback feedback = new MemoryFeedback();
+    private final Timetable timetable = new MemoryTimetable();
+    private final Requests requests = new MemoryRequests();
+    private final GroupChats groupChats = new MemoryGroupChats();
+
+    /** An empty storage. */
+    public InMemoryStorage() {
+        for (String role : new String[]{"Admin", "Tutor", "Receptionist", "Student"}) {
+            tablesByFile.put(DataManager.getFilePathForRole(role), userRows);
+        }
+        tablesByFile.put(DataManager.STUDENT_DETAILS_FILE, studentDetails);
+        tablesByFile.put(DataManager.COURSES_FILE, courseRows);
+        tablesByFile.put(DataManager.ENROLLMENTS_FILE, enrollmentRows);
+        tablesByFile.put(DataManager.PAYMENTS_FILE, paymentRows);
+        tablesByFile.put(DataManager.CHATS_FILE, chatRows);
+        tablesByFile.put(DataManager.ATTENDANCE_FILE, attendanceRows);
+        tablesByFile.put(DataManager.RESULTS_FILE, resultRows);
+        tablesByFile.put(DataManager.ANNOUNCEMENTS_FILE, announcementRows);
+        tablesByFile.put(DataManager.READ_ANNOUNCEMENTS_FILE, readAnnouncementRows);
+        tablesByFile.put(DataManager.FEEDBACK_FILE, feedbackRows);
+        tablesByFile.put(DataManager.TIMETABLE_FILE, timetableRows);
+        tablesByFile.put(DataManager.REQUESTS_FILE, requestRows);
+        tablesByFile.put(DataManager.GROUP_CHATS_FILE, groupChatRows);
+    }
+
+    /**
+     * A copy of the data files (with logged updates applied), parsed the way
+     * the file storage reads them.
+     */
+    public static InMemoryStorage fromFiles() {
+        InMemoryStorage storage = new InMemoryStorage();
+        for (String role : new String[]{"Admin", "Tutor", "Receptionist", "Student"}) {
+            load(DataManager.getFilePathForRole(role), 5, 4, data -> storage.userRows.add(new String[]{
+                    data[0], data[1], data[2], role, data[3], role.equals("Tutor") && data.length > 4 ? data[4] : ""}));
+        }
+        load(DataManager.STUDENT_DETAILS_FILE, 5, 1, storage.studentDetails::add);
+        load(DataManager.COURSES_FILE, 7, 1, data -> {
+            if (!data[0].isEmpty()) storage.courseRows.add(data);
+        });
+        load(DataManager.ENROLLMENTS_FILE, 0, 3, data -> {
+            if (data.length == 3) storage.enrollmentRows.add(data);
+        });
+        load(DataManager.PAYMENTS_FILE, 0, 4, storage.paymentRows::add);
+        load(DataManager.CHATS_FILE, 5, 5, data -> storage.chatRows.add(chatRow(data)));
+        load(DataManager.ATTENDANCE_FILE, 0, 4, storage.attendanceRows::add);
+        load(DataManager.RESULTS_FILE, 6, 6, storage.resultRows::add);
+        load(DataManager.ANNOUNCEMENTS_FILE, 5, 5, storage.announcementRows::add);
+        load(DataManager.READ_ANNOUNCEMENTS_FILE, 0, 2, data -> {
+            if (data.length == 2) storage.readAnnouncementRows.add(data);
+        });
+        load(DataManager.FEEDBACK_FILE, 9, 9, storage.feedbackRows::add);
+        load(DataManager.TIMETABLE_FILE, 4, 4, storage.timetableRows::add);
+        load(DataManager.REQUESTS_FILE, 5, 5, storage.requestRows::add);
+        load(DataManager.GROUP_CHATS_FILE, 4, 4, storage.groupChatRows::add);
+        return storage;
+    }
+
+    // Splits each line of a file and hands on the rows with at least minColumns columns
+    private static void load(String file, int splitLimit, int minColumns, Consumer<String[]> rows) {
+        try {
+            DataManager.UPDATE_LOG.forEachLine(file, line -> {
+                String[] data = splitLimit > 0 ? line.split(",", splitLimit) : line.split(",");
+                if (!line.isEmpty() && data.length >= minColumns) {
+                    rows.accept(data);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Could not copy " + file + " into memory: " + e.getMessage());
+        }
+    }
+
+    @Override public Users users() { return users; }
+    @Override public Courses courses() { return courses; }
+    @Override public Enrollments enrollments() { return enrollments; }
+    @Override public Payments payments() { return payments; }
+    @Override public Chats chats() { return chats; }
+    @Override public Attendance attendance() { return attendance; }
+    @Override public Results results() { return results; }
+    @Override public Announcements announcements() { return announcements; }
+    @Override public Feedback feedback() { return feedback; }
+    @Override public Timetable timetable() { return timetable; }
+    @Override public Requests requests() { return requests; }
+    @Override public GroupChats groupChats() { return groupChats; }
+
+    @Override
+    public String nextId(String prefix, String table, int startNumber) {
+        return ids.next(prefix, table, startNumber);
+    }
+
+    @Override
+    public List<String> nextIds(String prefix, String table, int startNumber, int count) {
+        return ids.next(prefix, table, startNumber, count);
+    }
+
+    @Override
+    public boolean addStudents(List<User> students, List<String[]> details, List<String[]> enrollments, List<String[]> payments) {
+        if (!usernamesAvailable(students)) return false;
+        for (User student : students) {
+            userRows.add(new String[]{student.getId(), student.getUsername(), student.getPassword(), "Student", student.getFullName(), ""});
+        }
+        details.forEach(row -> studentDetails.add(row.clone()));
+        enrollments.forEach(row -> enrollmentRows.add(row.clone()));
+        payments.forEach(row -> paymentRows.add(row.clone()));
+        DataRepository.invalidate(DataManager.STUDENTS_FILE);
+        return true;
+    }
+
+    // Highest number after 'prefix' in a table's ids; read once per sequence
+    private long maxIdNumber(String prefix, String table) {
+        long max = 0;
+        for (String[] row : tablesByFile.get(table).all()) {
+            if (row[0].startsWith(prefix)) {
+                try {
+                    max = Math.max(max, Long.parseLong(row[0].substring(prefix.length()).trim()));
+                } catch (NumberFormatException e) { /* not one of ours */ }
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Rows in insertion order plus an index per looked-up column. Rows are
+     * never changed in place, and callers get copies, so a caller editing a
+     * row cannot change the table.
+     */
+    private static final class Table {
+        private final List<String[]> rows = new ArrayList<>();
+        private final Map<Integer, Map<String, List<String[]>>> indexes = new HashMap<>();
+
+        synchronized List<String[]> all() {
+            return copiesOf(rows);
+        }
+
+        synchronized List<String[]> where(int column, String value) {
+            Map<String, List<String[]>> index = indexes.get(column);
+            if (index == null) {
+                index = new HashMap<>();
+                for (String[] row : rows) {
+                    if (row.length > column) index.computeIfAbsent(row[column], k -> new ArrayList<>()).add(row);
+                }
+                indexes.put(column, index);
+            }
+            return copiesOf(index.getOrDefault(value, Collections.emptyList()));
+        }
+
+        private static List<String[]> copiesOf(List<String[]> rows) {
+            List<String[]> copies = new ArrayList<>(rows.size());
+            for (String[] row : rows) {
+                copies.add(row.clone());
+            }
+            return copies;
+        }
+
+        synchronized String[] first(int column, String value) {
+            List<String[]> matches = where(column, value);
+            return matches.isEmpty() ? null : matches.get(0);
+        }
+
+        synchronized void add(String[] row) {
+            rows.add(row);
+            indexes.forEach((column, index) -> {
+                if (row.length > column) index.computeIfAbsent(row[column], k -> new ArrayList<>()).add(row);
+            });
+        }
+
+        synchronized int removeIf(Predicate<String[]> matches) {
+            int before = rows.size();
+            rows.removeIf(matches);
+            if (rows.size() != before) indexes.clear();
+            return before - rows.size();
+        }
+
+        // Replaces each row 'replacer' maps to a new row (null keeps it); returns how many were replaced
+        synchronized int replace(UnaryOperator<String[]> replacer) {
+            int count = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                String[] replacement = replacer.apply(rows.get(i));
+                if (replacement != null) {
+                    rows.set(i, replacement);
+                    count++;
+                }
+            }
+            if (count > 0) indexes.clear();
+            return count;
+        }
+    }
+
+    // ---------------------------------------------------------------- Users
+
+    private class MemoryUsers implements Users {
+        @Override
+        public List<User> getByRole(String role) {
+            List<User> users = new ArrayList<>();
+            for (String[] row : userRows.where(3, role)) {
+                users.add(userOf(row));
+            }
+            return users;
+        }
+
+        @Override public User findById(String id) { return userOf(userRows.first(0, id)); }
+        @Override public User findByUsername(String username) { return userOf(userRows.first(1, username)); }
+        @Override public boolean isUsernameTaken(String username) { return userRows.first(1, username) != null; }
+
+        @Override
+        public boolean add(User user) {
+            userRows.add(rowOf(user));
+            return changed(1, user.getRole());
+        }
+
+        @Override
+        public boolean update(User user) {
+            String[] updated = rowOf(user);
+            return changed(userRows.replace(row -> row[0].equals(user.getId()) && row[3].equals(user.getRole()) ? updated : null), user.getRole());
+        }
+
+        @Override
+        public boolean deleteByUsername(String username) {
+            User user = findByUsername(username);
+            return user != null && changed(userRows.removeIf(row -> row[1].equals(username)), user.getRole());
+        }
+
+        @Override
+        public boolean deleteById(String id) {
+            User user = findById(id);
+            return user != null && changed(userRows.removeIf(row -> row[0].equals(id) && row[3].equals(user.getRole())), user.getRole());
+        }
+
+        @Override
+        public boolean addStudentDetails(String[] details) {
+            studentDetails.add(details.clone());
+            return true;
+        }
+
+        @Override
+        public boolean deleteStudentDetails(String studentId) {
+            return studentDetails.removeIf(row -> row[0].equals(studentId)) > 0;
+        }
+
+        // Chat renderers cache sender names; drop them when an account changes
+        private boolean changed(int count, String role) {
+            if (count <= 0) return false;
+            DataRepository.invalidate(DataManager.getFilePathForRole(role));
+            return true;
+        }
+
+        private String[] rowOf(User user) {
+            String specialization = "Tutor".equals(user.getRole()) && user.getSpecialization() != null ? user.getSpecialization() : "";
+            return new String[]{user.getId(), user.getUsername(), user.getPassword(), user.getRole(), user.getFullName(), specialization};
+        }
+
+        private User userOf(String[] row) {
+            return row == null ? null : new User(row[0], row[1], row[2], row[3], row[4], row[5]);
+        }
+    }
+
+    // -------------------------------------------------------------- Courses
+
+    private class MemoryCourses implements Courses {
+        @Override
+        public Collection<String[]> getAll() {
+            // One row per id, the first one, like the course index
+            Map<String, String[]> byId = new LinkedHashMap<>();
+            for (String[] row : courseRows.all()) {
+                byId.putIfAbsent(row[0], row);
+            }
+            return byId.values();
+        }
+
+        @Override public String[] findById(String courseId) { return courseRows.first(0, courseId); }
+        @Override public List<String[]> getByTutor(String tutorId) { return courseRows.where(2, tutorId); }
+
+        @Override
+        public boolean add(String[] course) {
+            courseRows.add(course.clone());
+            return true;
+        }
+
+        @Override
+        public boolean update(String[] course) {
+            String[] updated = course.clone();
+            return courseRows.replace(row -> row[0].equals(course[0]) ? updated : null) > 0;
+        }
+
+        @Override
+        public boolean delete(String courseId) {
+            return courseRows.removeIf(row -> row[0].equals(courseId)) > 0;
+        }
+    }
+
+    // ---------------------------------------------------------- Enrollments
+
+    private class MemoryEnrollments implements Enrollments {
+        @Override public List<String[]> getByStudent(String studentId) { return enrollmentRows.where(1, studentId); }
+        @Override public List<String[]> getByCourse(String courseId) { return enrollmentRows.where(2, courseId); }
+
+        @Override
+        public String getCourseId(String enrollmentId) {
+            String[] row = enrollmentRows.first(0, enrollmentId);
+            return row != null ? row[2] : null;
+        }
+
+        @Override
+        public boolean add(String[] enrollment) {
+            enrollmentRows.add(enrollment.clone());
+            return true;
+        }
+
+        @Override
+        public boolean apply(String studentId, Set<String> removedIds, List<String[]> added) {
+            synchronized (enrollmentRows) { // readers wait for the whole change
+                enrollmentRows.removeIf(row -> row[1].equals(studentId) && removedIds.contains(row[0]));
+                for (String[] enrollment : added) {
+                    enrollmentRows.add(enrollment.clone());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean deleteByStudent(String studentId) {
+            return enrollmentRows.removeIf(row -> row[1].equals(studentId)) > 0;
+        }
+    }
+
+    // ------------------------------------------------------------- Payments
+
+    // Income is summed from the payment rows on each call, with the income ledger's rules:
+    // a payment counts for its enrollment's course, or only towards the total if there is none.
+    private class MemoryPayments implements Payments {
+        @Override public List<String[]> getByEnrollment(String enrollmentId) { return paymentRows.where(1, enrollmentId); }
+
+        @Override
+        public double getTotalPaid(String enrollmentId) {
+            double total = 0;
+            for (String[] row : paymentRows.where(1, enrollmentId)) {
+                try {
+                    total += Double.parseDouble(row[2]);
+                } catch (NumberFormatException e) { /* reported by getPaymentsError */ }
+            }
+            return total;
+        }
+
+        @Override
+        public boolean add(String[] payment) {
+            paymentRows.add(payment.clone());
+            return true;
+        }
+
+        @Override
+        public boolean hasData() {
+            return !paymentRows.all().isEmpty();
+        }
+
+        @Override
+        public Map<String, Double> getPaymentStatus(String studentId) {
+            Map<String, Double> status = new HashMap<>();
+            double totalFees = 0.0;
+            double totalPaid = 0.0;
+            Set<String> courseIDs = new HashSet<>();
+            for (String[] enrollment : enrollments.getByStudent(studentId)) {
+                courseIDs.add(enrollment[2]);
+                totalPaid += getTotalPaid(enrollment[0]);
+            }
+            for (String courseId : courseIDs) {
+                String[] course = courses.findById(courseId);
+                if (course != null && course.length == 7) {
+                    try {
+                        totalFees += Double.parseDouble(course[5]);
+                    } catch (NumberFormatException e) { /* ignore */ }
+                }
+            }
+            status.put("totalFees", totalFees);
+            status.put("totalPaid", totalPaid);
+            status.put("balance", totalFees - totalPaid);
+            return status;
+        }
+
+        @Override
+        public String getPaymentsError() {
+            for (String[] row : paymentRows.all()) {
+                try {
+                    Double.parseDouble(row[2]);
+                    LocalDate.parse(row[3], DATE_FORMAT);
+                } catch (RuntimeException e) {
+                    return e.getMessage();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Map<String, Map<String, Double>> getIncomeByLevelAndSubject(int year, Integer month) {
+            Map<String, Map<String, Double>> result = new HashMap<>();
+            forEachPayment(year, month, (course, amount) -> {
+                if (course != null) result.computeIfAbsent(course[3], k -> new HashMap<>()).merge(course[4], amount, Double::sum);
+            });
+            return result;
+        }
+
+        @Override
+        public Map<String, Double> getIncomeBySubject(int year) {
+            Map<String, Double> result = new HashMap<>();
+            forEachPayment(year, null, (course, amount) -> {
+                if (course != null) result.merge(course[4], amount, Double::sum);
+            });
+            return result;
+        }
+
+        @Override
+        public double getTotalIncome(int year) {
+            double[] total = {0};
+            forEachPayment(year, null, (course, amount) -> total[0] += amount);
+            return total[0];
+        }
+
+        // Readable payments in the period with their course (null if it cannot be resolved)
+        private void forEachPayment(int year, Integer month, PaymentVisitor visitor) {
+            for (String[] row : paymentRows.all()) {
+                try {
+                    double amount = Double.parseDouble(row[2]);
+                    YearMonth paid = YearMonth.from(LocalDate.parse(row[3], DATE_FORMAT));
+                    if (paid.getYear() != year || (month != null && paid.getMonthValue() != month)) continue;
+                    String courseId = enrollments.getCourseId(row[1]);
+                    String[] course = courseId != null ? courses.findById(courseId) : null;
+                    visitor.visit(course != null && course.length >= 5 ? course : null, amount);
+                } catch (RuntimeException e) { /* reported by getPaymentsError */ }
+            }
+        }
+    }
+
+    private interface PaymentVisitor {
+        void visit(String[] course, double amount);
+    }
+
+    // ---------------------------------------------------------------- Chats
+
+    private static String[] chatRow(String[] data) {
+        String line = String.join(",", data);
+        return new String[]{data[0], data[1], data[2], data[3], data[4], ChatLog.keyOf(line)};
+    }
+
+    private static String lineOf(String[] chatRow) {
+        return String.join(",", chatRow[0], chatRow[1], chatRow[2], chatRow[3], chatRow[4]);
+    }
+
+    private class MemoryChats implements Chats {
+        @Override
+        public void append(String line) throws IOException {
+            String[] data = line.split(",", 5);
+            if (data.length < 5) throw new IOException("Not a chat record: " + line);
+            chatRows.add(chatRow(data));
+        }
+
+        @Override
+        public int count(String conversationKey) {
+            return chatRows.where(5, conversationKey).size();
+        }
+
+        @Override
+        public List<String> readConversation(String conversationKey) {
+            return readRange(conversationKey, 0, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public List<String> readRange(String conversationKey, int from, int to) {
+            List<String[]> rows = chatRows.where(5, conversationKey);
+            List<String> lines = new ArrayList<>();
+            for (int i = Math.max(0, from); i < Math.min(to, rows.size()); i++) {
+                lines.add(lineOf(rows.get(i)));
+            }
+            return lines;
+        }
+
+        @Override
+        public boolean markRead(String sender, String recipient) {
+            return chatRows.replace(row -> row[0].equals(sender) && row[1].equals(recipient) && "UNREAD".equalsIgnoreCase(row[4])
+                    ? new String[]{row[0], row[1], row[2], row[3], "READ", row[5]} : null) > 0;
+        }
+
+        @Override
+        public void forEachLine(Consumer<String> consumer) {
+            for (String[] row : chatRows.all()) {
+                consumer.accept(lineOf(row));
+            }
+        }
+    }
+
+    // ----------------------------------------------------------- Attendance
+
+    private class MemoryAttendance implements Attendance {
+        @Override public List<String[]> getByStudent(String studentId) { return attendanceRows.where(1, studentId); }
+
+        @Override
+        public boolean replace(String courseId, String date, List<String[]> records) {
+            synchronized (attendanceRows) {
+                attendanceRows.removeIf(row -> row[0].equals(courseId) && row[2].equals(date));
+                for (String[] record : records) {
+                    attendanceRows.add(record.clone());
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean updateStatus(String courseId, String studentId, String date, String status) {
+            return attendanceRows.replace(row -> row[0].equals(courseId) && row[1].equals(studentId) && row[2].equals(date)
+                    ? new String[]{row[0], row[1], row[2], status} : null) > 0;
+        }
+    }
+
+    // -------------------------------------------------------------- Results
+
+    private class MemoryResults implements Results {
+        @Override
+        public Map<String, List<String[]>> getByEnrollment(Collection<String> enrollmentIds) {
+            Map<String, List<String[]>> results = new HashMap<>();
+            for (String enrollmentId : new HashSet<>(enrollmentIds)) {
+                List<String[]> rows = resultRows.where(1, enrollmentId);
+                if (!rows.isEmpty()) results.put(enrollmentId, rows);
+            }
+            return results;
+        }
+
+        @Override
+        public boolean add(String[] result) {
+            resultRows.add(result.clone());
+            return true;
+        }
+    }
+
+    // -------------------------------------------------------- Announcements
+
+    private class MemoryAnnouncements implements Announcements {
+        @Override public List<String[]> getAll() { return announcementRows.all(); }
+
+        @Override
+        public boolean add(String[] announcement) {
+            announcementRows.add(announcement.clone());
+            return true;
+        }
+
+        @Override
+        public boolean update(String announcementId, String authorUsername, String title, String content) {
+            return announcementRows.replace(row -> row[0].equals(announcementId) && row[3].equals(authorUsername)
+                    ? new String[]{row[0], title, content, row[3], row[4]} : null) > 0;
+        }
+
+        @Override
+        public boolean delete(String announcementId, String authorUsername) {
+            return announcementRows.removeIf(row -> row[0].equals(announcementId) && row[3].equals(authorUsername)) > 0;
+        }
+
+        @Override
+        public Set<String> getReadIds(String username) {
+            Set<String> readIds = new HashSet<>();
+            for (String[] row : readAnnouncementRows.where(0, username)) {
+                readIds.add(row[1]);
+            }
+            return readIds;
+        }
+
+        @Override
+        public void markRead(String username, String announcementId) {
+            readAnnouncementRows.add(new String[]{username, announcementId});
+        }
+    }
+
+    // ------------------------------------------------------------- Feedback
+
+    private class MemoryFeedback implements Feedback {
+        @Override public List<String[]> getForUser(String userId) { return feedbackRows.where(3, userId); }
+
+        @Override
+        public boolean add(String[] feedback) {
+            feedbackRows.add(feedback.clone());
+            return true;
+        }
+
+        @Override
+        public boolean markRead(String userId) {
+            return feedbackRows.replace(row -> {
+                if (!row[3].equals(userId) || !"NEW".equalsIgnoreCase(row[8])) return null;
+                String[] updated = row.clone();
+                updated[8] = "READ";
+                return updated;
+            }) > 0;
+        }
+    }
+
+    // ------------------------------------------------------------ Timetable
+
+    private class MemoryTimetable implements Timetable {
+        @Override
+        public NavigableMap<LocalDate, List<String[]>> getTimetable(LocalDate from, LocalDate to, String tutorFullName) {
+            return DataRepository.timetableOf(timetableRows.all()).getTimetable(from, to, tutorFullName);
+        }
+
+        @Override
+        public NavigableMap<LocalDate, List<String[]>> getScheduledClasses(LocalDate from, LocalDate to) {
+            return DataRepository.resolve(DataRepository.timetableOf(timetableRows.all()), users.getByRole("Tutor"), courses::getByTutor)
+                    .getClasses(from, to);
+        }
+
+        @Override
+        public boolean replaceAll(List<String[]> classes) {
+            synchronized (timetableRows) {
+                timetableRows.removeIf(row -> true);
+                for (String[] classInfo : classes) {
+                    timetableRows.add(classInfo.clone());
+                }
+            }
+            return true;
+        }
+    }
+
+    // ------------------------------------------------------------- Requests
+
+    private class MemoryRequests implements Requests {
+        @Override public List<String[]> getAll() { return requestRows.all(); }
+
+        @Override
+        public boolean add(String[] request) {
+            requestRows.add(request.clone());
+            return true;
+        }
+
+        @Override
+        public boolean updateStatus(String requestId, String status) {
+            return requestRows.replace(row -> row[0].equals(requestId) ? new String[]{row[0], row[1], row[2], status, row[4]} : null) > 0;
+        }
+
+        @Override
+        public boolean delete(String requestId) {
+            return requestRows.removeIf(row -> row[0].equals(requestId)) > 0;
+        }
+    }
+
+    // ----------------------------------------------------------- GroupChats
+
+    private class MemoryGroupChats implements GroupChats {
+        @Override public List<String[]> getAll() { return groupChatRows.all(); }
+
+        @Override
+        public boolean add(String[] group) {
+            groupChatRows.add(group.clone());
+            return true;
+        }
+
+        @Override
+        public boolean updateMembers(String groupId, String members) {
+            return groupChatRows.replace(row -> row[0].equals(groupId) ? new String[]{row[0], row[1], row[2], members} : null) > 0;
+        }
+    }
+}
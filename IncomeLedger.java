@@ -0,0 +1,435 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Materialized income aggregate over payments.txt: the amount paid per
+ * (month, course level, subject, tutor), plus the total paid per enrollment.
+ *
+ * Works like {@link ChatLog}: the aggregate is kept in memory, extended by
+ * reading only the payment lines appended since the last call (so
+ * {@link #append(String)} costs one line, not a re-join of three files), and
+ * saved to a sidecar file next to payments.txt so a fresh start only folds in
+ * the payments made since the last save. Payments are attributed to a course
+ * through the enrollment and course tables. New enrollments or courses cannot
+ * change how existing payments are attributed, so appends to those files keep
+ * the aggregate; when one of them is rewritten (an enrollment or course edited
+ * or removed) it is rebuilt from payments.txt. The app rewrites those files
+ * through {@link UpdateLog#replace}, so a rewrite shows as a new
+ * {@link UpdateLog#generationOf generation}. A payments file that shrank or
+ * whose tail no longer matches the sidecar is rebuilt too.
+ *
+ * Obtain through {@link DataRepository#income()}.
+ */
+public class IncomeLedger {
+    private static final String SIDECAR_HEADER = "#income-cube v5";
+    private static final String[] JOIN_FILES = {DataManager.ENROLLMENTS_FILE, DataManager.COURSES_FILE};
+    private static final int FINGERPRINT_BYTES = 64;
+    private static final int SAVE_EVERY_N_RECORDS = 64;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    private final Path paymentsPath;
+    private final Path sidecarPath;
+    private final Charset charset = Charset.defaultCharset();
+
+    // Income per month, then per (level, subject, tutor) of the paid course
+    private final Map<YearMonth, Map<Dimensions, Double>> incomeByMonth = new LinkedHashMap<>();
+    // Payments whose enrollment or course no longer exists; they still count towards totals
+    private final Map<YearMonth, Double> unresolvedByMonth = new HashMap<>();
+    private final Map<String, Double> paidByEnrollment = new HashMap<>();
+    private String parseError;
+
+    private long indexedLength = -1; // -1 = not loaded yet
+    private JoinMark[] joinMarks; // enrollments/courses the attribution was made against
+    private int recordsSinceSave = 0;
+
+    public IncomeLedger(String paymentsFile) {
+        this.paymentsPath = Paths.get(paymentsFile);
+        this.sidecarPath = Paths.get(paymentsFile + ".idx");
+    }
+
+    /** The attributes of a course that income is broken down by. */
+    private static final class Dimensions {
+        final String level;
+        final String subject;
+        final String tutorId;
+
+        Dimensions(String level, String subject, String tutorId) {
+            this.level = level;
+            this.subject = subject;
+            this.tutorId = tutorId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Dimensions)) return false;
+            Dimensions other = (Dimensions) o;
+            return level.equals(other.level) && subject.equals(other.subject) && tutorId.equals(other.tutorId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, subject, tutorId);
+        }
+    }
+
+    /** How far a join file had been read: its rewrite generation, identity, modification time, length and tail fingerprint. */
+    private static final class JoinMark {
+        final long generation;
+        final String fileKey;
+        final long modified;
+        final long length;
+        final long fingerprint;
+
+        JoinMark(long generation, String fileKey, long modified, long length, long fingerprint) {
+            this.generation = generation;
+            this.fileKey = fileKey;
+            this.modified = modified;
+            this.length = length;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    /** Appends one payment record (without line separator) to payments.txt and folds it into the aggregate. */
+    public void append(String record) throws IOException {
+        append(Collections.singletonList(record));
+    }
+
+    /** Appends several payment records in one write and folds them into the aggregate. */
+    public void append(List<String> records) throws IOException {
+        AtomicFiles.append(paymentsPath.toString(), records);
+        synchronized (this) {
+            refresh();
+        }
+    }
+
+    /** Forgets the aggregate and its sidecar; the next read rebuilds it from payments.txt. */
+    public synchronized void invalidate() {
+        clear();
+        indexedLength = -1;
+        try {
+            Files.deleteIfExists(sidecarPath);
+        } catch (IOException e) { /* ignore, the header check catches a stale sidecar */ }
+    }
+
+    /** First date or amount parse failure seen in payments.txt, or null if every payment row was readable. */
+    public synchronized String getParseError() {
+        refresh();
+        return parseError;
+    }
+
+    /** Income per course level, then subject. A null month means the whole year; a null tutorId means all tutors. */
+    public synchronized Map<String, Map<String, Double>> getIncomeByLevelAndSubject(int year, Integer month, String tutorId) {
+        Map<String, Map<String, Double>> result = new HashMap<>();
+        for (Map.Entry<Dimensions, Double> cell : cells(year, month, tutorId)) {
+            result.computeIfAbsent(cell.getKey().level, k -> new HashMap<>()).merge(cell.getKey().subject, cell.getValue(), Double::sum);
+        }
+        return result;
+    }
+
+    /** Income per subject. A null month means the whole year; a null tutorId means all tutors. */
+    public synchronized Map<String, Double> getIncomeBySubject(int year, Integer month, String tutorId) {
+        Map<String, Double> result = new HashMap<>();
+        for (Map.Entry<Dimensions, Double> cell : cells(year, month, tutorId)) {
+            result.merge(cell.getKey().subject, cell.getValue(), Double::sum);
+        }
+        return result;
+    }
+
+    /**
+     * Total income for the period. Across all tutors this includes payments whose
+     * enrollment or course has since been deleted; per tutor it cannot.
+     */
+    public synchronized double getTotalIncome(int year, Integer month, String tutorId) {
+        double total = 0;
+        for (Map.Entry<Dimensions, Double> cell : cells(year, month, tutorId)) {
+            total += cell.getValue();
+        }
+        if (tutorId == null) {
+            for (Map.Entry<YearMonth, Double> entry : unresolvedByMonth.entrySet()) {
+                if (matches(entry.getKey(), year, month)) total += entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    /** Sum of all payments recorded against one enrollment. */
+    public synchronized double getTotalPaid(String enrollmentId) {
+        refresh();
+        return paidByEnrollment.getOrDefault(enrollmentId, 0.0);
+    }
+
+    private List<Map.Entry<Dimensions, Double>> cells(int year, Integer month, String tutorId) {
+        refresh();
+        List<Map.Entry<Dimensions, Double>> cells = new ArrayList<>();
+        for (Map.Entry<YearMonth, Map<Dimensions, Double>> monthEntry : incomeByMonth.entrySet()) {
+            if (!matches(monthEntry.getKey(), year, month)) continue;
+            for (Map.Entry<Dimensions, Double> cell : monthEntry.getValue().entrySet()) {
+                if (tutorId == null || tutorId.equals(cell.getKey().tutorId)) {
+                    cells.add(cell);
+                }
+            }
+        }
+        return cells;
+    }
+
+    private static boolean matches(YearMonth yearMonth, int year, Integer month) {
+        return yearMonth.getYear() == year && (month == null || yearMonth.getMonthValue() == month);
+    }
+
+    // Brings the aggregate up to date: loads the sidecar on first use, rebuilds
+    // it if the join tables changed, then folds in only the appended payments.
+    private void refresh() {
+        long paymentsLength = paymentsLength();
+        if (indexedLength < 0) {
+            if (!loadSidecar(paymentsLength)) {
+                rebuild();
+            }
+        } else if (paymentsLength < indexedLength || !followJoinFiles()) {
+            // Payments rewritten behind our back, or an enrollment/course edited or removed: re-attribute everything
+            rebuild();
+        }
+        if (paymentsLength > indexedLength) {
+            boolean fullScan = indexedLength == 0;
+            indexTail(paymentsLength);
+            if (fullScan || recordsSinceSave >= SAVE_EVERY_N_RECORDS) {
+                saveSidecar();
+            }
+        }
+    }
+
+    private void rebuild() {
+        clear();
+        indexedLength = 0;
+        joinMarks = new JoinMark[JOIN_FILES.length];
+        for (int i = 0; i < JOIN_FILES.length; i++) {
+            joinMarks[i] = markOf(JOIN_FILES[i], true);
+        }
+    }
+
+    // True if the join files were only appended to since they were marked; the marks then move
+    // to their current end. A new generation means the app rewrote the file. The file key, length
+    // and tail fingerprint only guard against edits made outside the app: without a file key
+    // (e.g. on Windows) anything but growth past an unchanged tail still counts as a rewrite.
+    private boolean followJoinFiles() {
+        for (int i = 0; i < JOIN_FILES.length; i++) {
+            JoinMark mark = joinMarks[i];
+            JoinMark current = markOf(JOIN_FILES[i], false);
+            if (current.generation != mark.generation || !current.fileKey.equals(mark.fileKey)) return false;
+            if (current.length == mark.length && current.modified == mark.modified) continue;
+            Path path = Paths.get(JOIN_FILES[i]);
+            if (current.length <= mark.length || fingerprint(path, mark.length) != mark.fingerprint) {
+                return false;
+            }
+            joinMarks[i] = new JoinMark(current.generation, current.fileKey, current.modified, current.length,
+                    fingerprint(path, current.length));
+        }
+        return true;
+    }
+
+    // The generation is read before the file: a rewrite in between then shows as a newer generation next time
+    private JoinMark markOf(String file, boolean withFingerprint) {
+        long generation = DataManager.UPDATE_LOG.generationOf(file);
+        Path path = Paths.get(file);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            String fileKey = attributes.fileKey() == null ? "" : attributes.fileKey().toString();
+            long length = attributes.size();
+            return new JoinMark(generation, fileKey, attributes.lastModifiedTime().toMillis(), length,
+                    withFingerprint ? fingerprint(path, length) : 0);
+        } catch (IOException e) {
+            return new JoinMark(generation, "", 0, 0, 0); // missing: marks as empty
+        }
+    }
+
+    private void clear() {
+        incomeByMonth.clear();
+        unresolvedByMonth.clear();
+        paidByEnrollment.clear();
+        parseError = null;
+        recordsSinceSave = 0;
+    }
+
+    private long paymentsLength() {
+        try {
+            return Files.exists(paymentsPath) ? Files.size(paymentsPath) : 0;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private void indexTail(long paymentsLength) {
+        DataRepository.EnrollmentIndex enrollments = DataRepository.enrollments();
+        DataRepository.CourseIndex courses = DataRepository.courses();
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(paymentsPath))) {
+            in.skipNBytes(indexedLength);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+            long position = indexedLength;
+            int b;
+            while (position < paymentsLength && (b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    byte[] bytes = line.toByteArray();
+                    int length = bytes.length;
+                    if (length > 0 && bytes[length - 1] == '\r') length--;
+                    record(new String(bytes, 0, length, charset), enrollments, courses);
+                    line.reset();
+                    indexedLength = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            // A trailing record without its line break is still being written; pick it up next time.
+        } catch (IOException e) {
+            System.err.println("Error reading payments: " + e.getMessage());
+        }
+    }
+
+    // Format: paymentId,enrollmentId,amount,date
+    private void record(String line, DataRepository.EnrollmentIndex enrollments, DataRepository.CourseIndex courses) {
+        String[] data = line.split(",");
+        if (data.length < 4) return;
+        recordsSinceSave++;
+        try {
+            double amount = Double.parseDouble(data[2]);
+            paidByEnrollment.merge(data[1], amount, Double::sum);
+            YearMonth month = YearMonth.from(LocalDate.parse(data[3], DATE_FORMAT));
+            String courseId = enrollments.getCourseId(data[1]);
+            String[] course = courseId != null ? courses.findById(courseId) : null;
+            if (course != null && course.length >= 5) {
+                incomeByMonth.computeIfAbsent(month, k -> new HashMap<>())
+                        .merge(new Dimensions(course[3], course[4], course[2]), amount, Double::sum);
+            } else {
+                unresolvedByMonth.merge(month, amount, Double::sum);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            // Reports refuse to total a ledger with unreadable rows, like the old line-by-line parser did
+            if (parseError == null) parseError = e.getMessage();
+        }
+    }
+
+    // --- Sidecar persistence ---
+    // Line 1: header,indexedLength,fingerprint
+    // Then:   J<TAB>generation<TAB>fileKey<TAB>modified<TAB>length<TAB>fingerprint   (join file mark, in JOIN_FILES order)
+    // Then:   I<TAB>month<TAB>level<TAB>subject<TAB>tutorId<TAB>amount   (income cell)
+    //         U<TAB>month<TAB>amount                                   (unresolved)
+    //         P<TAB>enrollmentId<TAB>amount                            (paid per enrollment)
+    //         E<TAB>message                                            (parse error)
+
+    private boolean loadSidecar(long paymentsLength) {
+        if (!Files.exists(sidecarPath)) return false;
+        try (BufferedReader reader = Files.newBufferedReader(sidecarPath)) {
+            String[] header = reader.readLine().split(",");
+            if (header.length != 3 || !SIDECAR_HEADER.equals(header[0])) return false;
+            long length = Long.parseLong(header[1]);
+            long fingerprint = Long.parseLong(header[2]);
+            if (length > paymentsLength || fingerprint(paymentsPath, length) != fingerprint) return false;
+
+            clear();
+            List<JoinMark> marks = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] data = line.split("\t", -1);
+                switch (data[0]) {
+                    case "J":
+                        marks.add(new JoinMark(Long.parseLong(data[1]), data[2], Long.parseLong(data[3]), Long.parseLong(data[4]),
+                                Long.parseLong(data[5])));
+                        break;
+                    case "I":
+                        incomeByMonth.computeIfAbsent(YearMonth.parse(data[1]), k -> new HashMap<>())
+                                .put(new Dimensions(data[2], data[3], data[4]), Double.parseDouble(data[5]));
+                        break;
+                    case "U": unresolvedByMonth.put(YearMonth.parse(data[1]), Double.parseDouble(data[2])); break;
+                    case "P": paidByEnrollment.put(data[1], Double.parseDouble(data[2])); break;
+                    case "E": parseError = line.substring(2); break;
+                }
+            }
+            // Saved against enrollments/courses that have since been rewritten: re-attribute
+            if (marks.size() != JOIN_FILES.length) return false;
+            joinMarks = marks.toArray(new JoinMark[0]);
+            if (!followJoinFiles()) return false;
+            indexedLength = length;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            clear();
+            return false; // Corrupt or unreadable sidecar: rebuild
+        }
+    }
+
+    private void saveSidecar() {
+        Path tempPath;
+        try {
+            // Own temp file: other app instances may be saving theirs at the same time
+            tempPath = Files.createTempFile(sidecarPath.toAbsolutePath().getParent(), sidecarPath.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            System.err.println("Could not save income aggregate: " + e.getMessage());
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(tempPath)) {
+            writer.write(SIDECAR_HEADER + "," + indexedLength + "," + fingerprint(paymentsPath, indexedLength));
+            writer.newLine();
+            for (JoinMark mark : joinMarks) {
+                writer.write(String.join("\t", "J", String.valueOf(mark.generation), mark.fileKey, String.valueOf(mark.modified),
+                        String.valueOf(mark.length), String.valueOf(mark.fingerprint)));
+                writer.newLine();
+            }
+            for (Map.Entry<YearMonth, Map<Dimensions, Double>> monthEntry : incomeByMonth.entrySet()) {
+                for (Map.Entry<Dimensions, Double> cell : monthEntry.getValue().entrySet()) {
+                    Dimensions d = cell.getKey();
+                    writer.write(String.join("\t", "I", monthEntry.getKey().toString(), d.level, d.subject, d.tutorId, cell.getValue().toString()));
+                    writer.newLine();
+                }
+            }
+            for (Map.Entry<YearMonth, Double> entry : unresolvedByMonth.entrySet()) {
+                writer.write("U\t" + entry.getKey() + "\t" + entry.getValue());
+                writer.newLine();
+            }
+            for (Map.Entry<String, Double> entry : paidByEnrollment.entrySet()) {
+                writer.write("P\t" + entry.getKey() + "\t" + entry.getValue());
+                writer.newLine();
+            }
+            if (parseError != null) {
+                writer.write("E\t" + parseError.replace('\n', ' '));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save income aggregate: " + e.getMessage());
+            try { Files.deleteIfExists(tempPath); } catch (IOException ignored) {}
+            return;
+        }
+        try {
+            Files.move(tempPath, sidecarPath, java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+            recordsSinceSave = 0;
+        } catch (IOException e) {
+            System.err.println("Could not save income aggregate: " + e.getMessage());
+        }
+    }
+
+    // CRC of the bytes just before 'length', used to detect a file that was rewritten since it was read up to there.
+    private static long fingerprint(Path path, long length) {
+        if (length <= 0) return 0;
+        int size = (int) Math.min(FINGERPRINT_BYTES, length);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, length - size + buffer.position()) < 0) return -1;
+            }
+            java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+            crc.update(buffer.array());
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
@@ -2,6 +2,8 @@ import javax.swing.SwingUtilities;
 
 public class Main {
     public static void main(String[] args) {
+        // Push changes made by other instances sharing the data folder to open windows
+        DataEventBus.startFileWatcher("data");
         SwingUtilities.invokeLater(() -> {
             new LoginFrame().setVisible(true);
         });
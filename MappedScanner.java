@@ -0,0 +1,151 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Read-only scans of the comma separated data files that only build Strings for
+ * the lines they return. The file is read into a byte buffer a window at a time
+ * and each line's key column is compared with the wanted values byte by byte;
+ * lines that do not match are skipped without being decoded.
+ *
+ * The file is read with plain channel reads rather than memory-mapped: a mapping
+ * stays alive until the buffer is garbage collected, and on Windows a mapped
+ * file cannot be replaced, which broke the attendance rewrites that follow a scan.
+ *
+ * Matching on raw bytes assumes the default charset is ASCII compatible (UTF-8,
+ * ISO-8859-1, ...): in those a comma or line break byte is never part of
+ * another character.
+ */
+public class MappedScanner {
+    // Files are read in windows of this size, grown only for a line that does not fit
+    private static final int WINDOW_BYTES = 1024 * 1024;
+
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /**
+     * Lines of {@code filePath} whose field number {@code column} equals
+     * {@code value}, each split with {@code line.split(",", splitLimit)}.
+     */
+    public static List<String[]> select(String filePath, int column, String value, int splitLimit) {
+        return select(filePath, column, Collections.singleton(value), splitLimit);
+    }
+
+    /** Like {@link #select(String, int, String, int)}, matching any of the given values. */
+    public static List<String[]> select(String filePath, int column, Collection<String> values, int splitLimit) {
+        return select(filePath, column, values, splitLimit, null);
+    }
+
+    /**
+     * Like {@link #select(String, int, String, int)}, with the updates in 'overlay'
+     * applied to each returned line. They must not change the key column, which
+     * is matched against the file as it is on disk.
+     */
+    public static List<String[]> select(String filePath, int column, String value, int splitLimit, UpdateLog.Overlay overlay) {
+        return select(filePath, column, Collections.singleton(value), splitLimit, overlay);
+    }
+
+    private static List<String[]> select(String filePath, int column, Collection<String> values, int splitLimit,
+                                         UpdateLog.Overlay overlay) {
+        List<String[]> rows = new ArrayList<>();
+        if (values.isEmpty()) return rows;
+        byte[][] wanted = new byte[values.size()][];
+        int i = 0;
+        for (String value : values) {
+            wanted[i++] = value.getBytes(CHARSET);
+        }
+
+        Path path = Paths.get(filePath);
+        if (!Files.exists(path)) return rows;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Small files, the common case, are read in one go into a buffer of their size
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(WINDOW_BYTES, size));
+            long windowStart = 0;
+            while (windowStart < size) {
+                buffer.clear();
+                buffer.limit((int) Math.min(buffer.capacity(), size - windowStart));
+                boolean endOfFile = false;
+                while (buffer.hasRemaining() && !endOfFile) {
+                    endOfFile = channel.read(buffer, windowStart + buffer.position()) < 0;
+                }
+                int windowLength = buffer.position();
+                if (windowLength == 0) break; // the file shrank while it was read
+                boolean lastWindow = endOfFile || windowStart + windowLength == size;
+
+                int consumed = scanWindow(buffer.array(), windowStart, windowLength, lastWindow, column, wanted, splitLimit, overlay, rows);
+                if (consumed == 0) {
+                    // A line longer than the window: read it again with a bigger one
+                    if (buffer.capacity() > Integer.MAX_VALUE / 2) {
+                        throw new IOException("Line too long in " + filePath);
+                    }
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    continue;
+                }
+                windowStart += consumed;
+            }
+        } catch (IOException e) {
+            System.err.println("Error scanning " + filePath + ": " + e.getMessage());
+        }
+        return rows;
+    }
+
+    // Scans the complete lines in the window and returns how many bytes they cover. The
+    // last window also counts a final line without a line break.
+    private static int scanWindow(byte[] buffer, long windowStart, int length, boolean lastWindow,
+                                  int column, byte[][] wanted, int splitLimit, UpdateLog.Overlay overlay, List<String[]> rows) {
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = indexOf(buffer, (byte) '\n', lineStart, length);
+            if (lineEnd < 0) {
+                if (!lastWindow) break;
+                lineEnd = length;
+            }
+            int contentEnd = lineEnd > lineStart && buffer[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+
+            if (columnMatches(buffer, lineStart, contentEnd, column, wanted)) {
+                String line = new String(buffer, lineStart, contentEnd - lineStart, CHARSET);
+                if (overlay != null) line = overlay.apply(windowStart + lineStart, line);
+                rows.add(line.split(",", splitLimit));
+            }
+            lineStart = lineEnd + 1;
+        }
+        return Math.min(lineStart, length);
+    }
+
+    private static boolean columnMatches(byte[] buffer, int lineStart, int lineEnd, int column, byte[][] wanted) {
+        int fieldStart = lineStart;
+        for (int i = 0; i < column; i++) {
+            int comma = indexOf(buffer, (byte) ',', fieldStart, lineEnd);
+            if (comma < 0) return false;
+            fieldStart = comma + 1;
+        }
+        int fieldEnd = indexOf(buffer, (byte) ',', fieldStart, lineEnd);
+        if (fieldEnd < 0) fieldEnd = lineEnd;
+
+        int fieldLength = fieldEnd - fieldStart;
+        for (byte[] value : wanted) {
+            if (value.length == fieldLength && bytesEqual(buffer, fieldStart, value)) return true;
+        }
+        return false;
+    }
+
+    private static boolean bytesEqual(byte[] buffer, int start, byte[] value) {
+        for (int i = 0; i < value.length; i++) {
+            if (buffer[start + i] != value[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] buffer, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == b) return i;
+        }
+        return -1;
+    }
+}
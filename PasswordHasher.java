@@ -0,0 +1,103 @@
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted password hashes for the user files. A stored credential looks like
+ * {@code pbkdf2$<iterations>$<salt>$<hash>} (Base64, so it never contains the
+ * comma the files are split on).
+ *
+ * Older files hold plaintext passwords. {@link #verify} still accepts those,
+ * and {@link #needsRehash} tells the caller to replace them after a
+ * successful login.
+ */
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int ITERATIONS = 100_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    // Upper bound for hashes made elsewhere, so one cannot make every login take minutes
+    private static final int MAX_ITERATIONS = 10_000_000;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** Returns the stored form of a plaintext password, with a fresh random salt. */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, ITERATIONS);
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + ITERATIONS + "$" + base64.encodeToString(salt) + "$" + base64.encodeToString(hash);
+    }
+
+    /**
+     * True if the password matches the stored credential (hashed or legacy
+     * plaintext). A hash that {@link #isWellFormed} rejects matches nothing.
+     */
+    public static boolean verify(String password, String stored) {
+        if (password == null || stored == null) return false;
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        if (!isWellFormed(stored)) return false;
+        String[] parts = stored.split("\\$");
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(pbkdf2(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) { // bad number or Base64
+            return false;
+        }
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /**
+     * True if 'stored' is a complete credential in our format: a sane iteration
+     * count and a salt and hash of the sizes {@link #hash} makes.
+     */
+    public static boolean isWellFormed(String stored) {
+        if (!isHashed(stored)) return false;
+        String[] parts = stored.split("\\$", -1);
+        if (parts.length != 4) return false;
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] hash = Base64.getDecoder().decode(parts[3]);
+            return iterations >= 1 && iterations <= MAX_ITERATIONS && salt.length == SALT_BYTES && hash.length == HASH_BITS / 8;
+        } catch (IllegalArgumentException e) { // bad number or Base64
+            return false;
+        }
+    }
+
+    /** True for plaintext credentials and hashes made with fewer iterations than we use now. */
+    public static boolean needsRehash(String stored) {
+        if (!isHashed(stored)) return true;
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < ITERATIONS;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException("PBKDF2 is not available", e); // part of every Java 8+ runtime
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
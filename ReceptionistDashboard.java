@@ -19,9 +19,11 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.Vector;
 import java.util.stream.Collectors;
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
@@ -29,6 +31,19 @@ import javax.swing.table.JTableHeader;
 
 public class ReceptionistDashboard extends JFrame {
     private User receptionistUser;
+    private final Consumer<DataEvent> dataEventListener = this::onDataEvent;
+
+    // Background loads, one slot per view so a newer request cancels the stale one
+    private final BackgroundLoader.Slot scheduleSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot studentTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot requestsTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot paymentSummarySlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot paymentTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot attendanceSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot chatBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot announcementBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot feedbackBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot importSlot = new BackgroundLoader.Slot();
 
     private CardLayout cardLayout;
     private JPanel contentPanel;
@@ -108,9 +123,43 @@ public class ReceptionistDashboard extends JFrame {
         refreshAnnouncementNotification();
         refreshFeedbackNotification(); 
 
+        // Badges are refreshed when a relevant change is published instead of on a timer
+        DataEventBus.subscribe(dataEventListener);
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                DataEventBus.unsubscribe(dataEventListener);
+            }
+        });
+
         cardLayout.show(contentPanel, "WELCOME_PANEL");
     }
 
+    private void onDataEvent(DataEvent event) {
+        switch (event.getType()) {
+            case MESSAGE_SENT:
+                if (receptionistUser.getUsername().equals(event.getTarget())) refreshChatNotification();
+                break;
+            case MESSAGES_READ:
+                if (receptionistUser.getUsername().equals(event.getActor())) refreshChatNotification();
+                break;
+            case ANNOUNCEMENTS_CHANGED:
+                refreshAnnouncementNotification();
+                break;
+            case FEEDBACK_SUBMITTED:
+            case FEEDBACK_READ:
+                if (receptionistUser.getId().equals(event.getTarget())) refreshFeedbackNotification();
+                break;
+            case FILE_CHANGED:
+                if (event.isFileChange(DataManager.CHATS_FILE)) refreshChatNotification();
+                if (event.isFileChange(DataManager.ANNOUNCEMENTS_FILE) || event.isFileChange(DataManager.READ_ANNOUNCEMENTS_FILE)) refreshAnnouncementNotification();
+                if (event.isFileChange(DataManager.FEEDBACK_FILE)) refreshFeedbackNotification();
+                break;
+            default:
+                break;
+        }
+    }
+
     private JPanel createHeaderPanel() {
         JPanel headerPanel = new JPanel(new BorderLayout());
         headerPanel.setBackground(BG_COLOR);
@@ -228,16 +277,19 @@ public class ReceptionistDashboard extends JFrame {
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 15, 0));
         buttonPanel.setBackground(BG_COLOR);
         JButton btnRegister = createStyledButton("Register New Student");
+        JButton btnImport = createStyledButton("Import Students (CSV)");
         JButton btnUpdate = createStyledButton("Update Enrollment");
         JButton btnDelete = createStyledButton("Delete Student");
         
         buttonPanel.add(btnRegister);
+        buttonPanel.add(btnImport);
         buttonPanel.add(btnUpdate);
         buttonPanel.add(btnDelete);
         
         panel.add(buttonPanel, BorderLayout.SOUTH);
 
         btnRegister.addActionListener(e -> showRegisterStudentDialog());
+        btnImport.addActionListener(e -> importStudentsFromCsv(btnImport));
         btnUpdate.addActionListener(e -> showUpdateEnrollmentDialog());
         btnDelete.addActionListener(e -> deleteSelectedStudent());
         
@@ -325,7 +377,7 @@ public class ReceptionistDashboard extends JFrame {
             String newPasswordStr = new String(txtPassword.getPassword());
             String finalPassword = newPasswordStr.isEmpty() ? receptionistUser.getPassword() : newPasswordStr;
             User updatedUser = new User(receptionistUser.getId(), receptionistUser.getUsername(), finalPassword, receptionistUser.getRole(), newFullName, "");
-            if (DataManager.updateUser(updatedUser)) {
+            if (DataManager.updateUser(updatedUser, newPasswordStr.isEmpty() ? null : newPasswordStr)) {
                 JOptionPane.showMessageDialog(this, "Profile updated successfully!");
                 this.receptionistUser = updatedUser;
             } else {
@@ -345,19 +397,23 @@ public class ReceptionistDashboard extends JFrame {
     }
     
     private void refreshStudentTable() {
-        studentTableModel.setRowCount(0);
-        List<User> students = DataManager.getAllUsersByRole("Student");
-        for (User student : students) {
-            studentTableModel.addRow(new Object[]{student.getId(), student.getUsername(), student.getFullName()});
-        }
+        BackgroundLoader.showLoading(studentTableModel);
+        studentTableSlot.load(AsyncDataManager.getAllUsersByRole("Student"), students -> {
+            studentTableModel.setRowCount(0);
+            for (User student : students) {
+                studentTableModel.addRow(new Object[]{student.getId(), student.getUsername(), student.getFullName()});
+            }
+        }, error -> BackgroundLoader.showError(studentTableModel));
     }
     
     private void refreshRequestsTable() {
-        requestTableModel.setRowCount(0);
-        List<String[]> pendingRequests = DataManager.getAllPendingRequests();
-        for (String[] requestData : pendingRequests) {
-            requestTableModel.addRow(new Object[]{requestData[0], requestData[1], requestData[4], requestData[2]});
-        }
+        BackgroundLoader.showLoading(requestTableModel);
+        requestsTableSlot.load(AsyncDataManager.getAllPendingRequests(), pendingRequests -> {
+            requestTableModel.setRowCount(0);
+            for (String[] requestData : pendingRequests) {
+                requestTableModel.addRow(new Object[]{requestData[0], requestData[1], requestData[4], requestData[2]});
+            }
+        }, error -> BackgroundLoader.showError(requestTableModel));
     }
     
     private void showRegisterStudentDialog() {
@@ -411,6 +467,32 @@ public class ReceptionistDashboard extends JFrame {
         }
     }
 
+    private void importStudentsFromCsv(JButton btnImport) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Import Students");
+        chooser.setFileFilter(new FileNameExtensionFilter("CSV files (fullName, username, password, ic, email, contact, address, courses)", "csv"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+        String path = chooser.getSelectedFile().getPath();
+
+        // Thousands of rows take a while (mostly password hashing); keep the window responsive
+        btnImport.setEnabled(false);
+        btnImport.setText("Importing...");
+        importSlot.load(() -> DataManager.importStudents(path), report -> {
+            btnImport.setEnabled(true);
+            btnImport.setText("Import Students (CSV)");
+            JTextArea summary = new JTextArea(report.summary(), 15, 50);
+            summary.setEditable(false);
+            int messageType = report.getErrors().isEmpty() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE;
+            JOptionPane.showMessageDialog(this, new JScrollPane(summary), "Import Students", messageType);
+            refreshStudentTable();
+        }, error -> {
+            btnImport.setEnabled(true);
+            btnImport.setText("Import Students (CSV)");
+            JOptionPane.showMessageDialog(this, "The import failed: " + error.getMessage(), "Import Students", JOptionPane.ERROR_MESSAGE);
+            refreshStudentTable();
+        });
+    }
+
     private void showUpdateEnrollmentDialog() {
         int selectedRow = studentTable.getSelectedRow();
         if (selectedRow < 0) {
@@ -482,16 +564,17 @@ public class ReceptionistDashboard extends JFrame {
     }
     
     public void refreshChatNotification() {
-        int unreadCount = DataManager.getUnreadMessageCount(this.receptionistUser); 
-        if (unreadCount > 0) {
-            btnChat.setText("Chat (" + unreadCount + ")");
-            btnChat.setForeground(Color.RED);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
-        } else {
-            btnChat.setText("Chat");
-            btnChat.setForeground(Color.WHITE);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
-        }
+        chatBadgeSlot.load(AsyncDataManager.getUnreadMessageCount(this.receptionistUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnChat.setText("Chat (" + unreadCount + ")");
+                btnChat.setForeground(Color.RED);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
+            } else {
+                btnChat.setText("Chat");
+                btnChat.setForeground(Color.WHITE);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
+            }
+        });
     }
 
     private void openAnnouncements() {
@@ -504,17 +587,17 @@ public class ReceptionistDashboard extends JFrame {
     }
     
     public void refreshAnnouncementNotification() {
-        Set<String> readIds = DataManager.getReadAnnouncementIds(this.receptionistUser);
-        long unreadCount = DataManager.getAllAnnouncements().stream().filter(a -> !readIds.contains(a.getId())).count();
-        if (unreadCount > 0) {
-            btnAnnouncements.setText("Announcements (" + unreadCount + ")");
-            btnAnnouncements.setForeground(Color.CYAN);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
-        } else {
-            btnAnnouncements.setText("Announcements");
-            btnAnnouncements.setForeground(Color.WHITE);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
-        }
+        announcementBadgeSlot.load(AsyncDataManager.getUnreadAnnouncementCount(this.receptionistUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnAnnouncements.setText("Announcements (" + unreadCount + ")");
+                btnAnnouncements.setForeground(Color.CYAN);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
+            } else {
+                btnAnnouncements.setText("Announcements");
+                btnAnnouncements.setForeground(Color.WHITE);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
+            }
+        });
     }
     
     private JPanel createMonthlySchedulePanel() {
@@ -557,63 +640,65 @@ public class ReceptionistDashboard extends JFrame {
             weekLabel.setText(start.format(dtf) + "  -  " + end.format(dtf));
 
             scheduleContentPanel.removeAll();
+            scheduleContentPanel.setLayout(new GridBagLayout());
+            scheduleContentPanel.add(BackgroundLoader.createLoadingLabel());
+            scheduleContentPanel.revalidate();
+            scheduleContentPanel.repaint();
 
-            Map<LocalDate, List<String[]>> allSchedules = DataManager.getStoredTimetable();
-            Map<LocalDate, List<String[]>> weeklySchedule = allSchedules.entrySet().stream()
-                    .filter(entry -> !entry.getKey().isBefore(start) && !entry.getKey().isAfter(end))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1, java.util.TreeMap::new));
-
-            if (weeklySchedule.isEmpty()) {
-                scheduleContentPanel.setLayout(new GridBagLayout());
-                JLabel noDataLabel = new JLabel("No classes scheduled for this week.");
-                noDataLabel.setFont(new Font("Arial", Font.ITALIC, 18));
-                noDataLabel.setForeground(Color.LIGHT_GRAY);
-                scheduleContentPanel.add(noDataLabel);
-            } else {
-                scheduleContentPanel.setLayout(new BoxLayout(scheduleContentPanel, BoxLayout.Y_AXIS));
-                DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("EEE, d MMM");
-
-                for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
-                    LocalDate date = entry.getKey();
-
-                    RoundedPanel dayHeader = new RoundedPanel(15, new Color(20, 110, 255));
-                    dayHeader.setLayout(new FlowLayout(FlowLayout.LEFT, 15, 8));
-                    dayHeader.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
-                    JLabel dayLabel = new JLabel(date.format(dayFormatter).toUpperCase());
-                    dayLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
-                    dayLabel.setForeground(Color.WHITE);
-                    dayHeader.add(dayLabel);
-                    scheduleContentPanel.add(dayHeader);
-                    scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-
-                    for (String[] classInfo : entry.getValue()) {
-                        String time = classInfo[0];
-                        String rawSubject = classInfo[1];
-                        String tutor = classInfo[2];
-
-                        String subjectName = rawSubject.replace("Weekly ", "");
-                        String subjectCode;
-                        String[] nameParts = subjectName.split(" ");
-                        if (nameParts.length > 1) {
-                            StringBuilder codeBuilder = new StringBuilder();
-                            for (String part : nameParts) {
-                                if (!part.isEmpty()) {
-                                    codeBuilder.append(part.charAt(0));
+            scheduleSlot.load(AsyncDataManager.getTimetableForWeek(start), weeklySchedule -> {
+                scheduleContentPanel.removeAll();
+                if (weeklySchedule.isEmpty()) {
+                    scheduleContentPanel.setLayout(new GridBagLayout());
+                    JLabel noDataLabel = new JLabel("No classes scheduled for this week.");
+                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 18));
+                    noDataLabel.setForeground(Color.LIGHT_GRAY);
+                    scheduleContentPanel.add(noDataLabel);
+                } else {
+                    scheduleContentPanel.setLayout(new BoxLayout(scheduleContentPanel, BoxLayout.Y_AXIS));
+                    DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("EEE, d MMM");
+
+                    for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
+                        LocalDate date = entry.getKey();
+
+                        RoundedPanel dayHeader = new RoundedPanel(15, new Color(20, 110, 255));
+                        dayHeader.setLayout(new FlowLayout(FlowLayout.LEFT, 15, 8));
+                        dayHeader.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+                        JLabel dayLabel = new JLabel(date.format(dayFormatter).toUpperCase());
+                        dayLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+                        dayLabel.setForeground(Color.WHITE);
+                        dayHeader.add(dayLabel);
+                        scheduleContentPanel.add(dayHeader);
+                        scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+
+                        for (String[] classInfo : entry.getValue()) {
+                            String time = classInfo[0];
+                            String rawSubject = classInfo[1];
+                            String tutor = classInfo[2];
+
+                            String subjectName = rawSubject.replace("Weekly ", "");
+                            String subjectCode;
+                            String[] nameParts = subjectName.split(" ");
+                            if (nameParts.length > 1) {
+                                StringBuilder codeBuilder = new StringBuilder();
+                                for (String part : nameParts) {
+                                    if (!part.isEmpty()) {
+                                        codeBuilder.append(part.charAt(0));
+                                    }
                                 }
+                                subjectCode = codeBuilder.toString().toUpperCase() + "-G1";
+                            } else {
+                                subjectCode = subjectName.toUpperCase() + "-G1";
                             }
-                            subjectCode = codeBuilder.toString().toUpperCase() + "-G1";
-                        } else {
-                            subjectCode = subjectName.toUpperCase() + "-G1";
-                        }
 
-                        ClassCard card = new ClassCard(subjectCode, subjectName, time, tutor);
-                        scheduleContentPanel.add(card);
-                        scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+                            ClassCard card = new ClassCard(subjectCode, subjectName, time, tutor);
+                            scheduleContentPanel.add(card);
+                            scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+                        }
                     }
                 }
-            }
-            scheduleContentPanel.revalidate();
-            scheduleContentPanel.repaint();
+                scheduleContentPanel.revalidate();
+                scheduleContentPanel.repaint();
+            }, error -> BackgroundLoader.showError(scheduleContentPanel));
         };
 
         // --- ACTION LISTENERS for the buttons ---
@@ -697,36 +782,45 @@ public class ReceptionistDashboard extends JFrame {
             User selectedStudent = (User) studentSelector.getSelectedItem();
             if (selectedStudent == null) return;
             
-            Map<String, Double> summary = DataManager.getPaymentStatus(selectedStudent.getId());
-            totalFeesLabel.setText(String.format("Total Fees: $%.2f", summary.getOrDefault("totalFees", 0.0)));
-            totalPaidLabel.setText(String.format("Total Paid: $%.2f", summary.getOrDefault("totalPaid", 0.0)));
-            double balance = summary.getOrDefault("balance", 0.0);
-            balanceLabel.setText(String.format("Balance Due: $%.2f", balance));
-            balanceLabel.setForeground(balance > 0 ? Color.ORANGE : TEXT_COLOR);
+            paymentSummarySlot.load(AsyncDataManager.getPaymentStatus(selectedStudent.getId()), summary -> {
+                totalFeesLabel.setText(String.format("Total Fees: $%.2f", summary.getOrDefault("totalFees", 0.0)));
+                totalPaidLabel.setText(String.format("Total Paid: $%.2f", summary.getOrDefault("totalPaid", 0.0)));
+                double balance = summary.getOrDefault("balance", 0.0);
+                balanceLabel.setText(String.format("Balance Due: $%.2f", balance));
+                balanceLabel.setForeground(balance > 0 ? Color.ORANGE : TEXT_COLOR);
+            });
             
-            enrollmentTableModel.setRowCount(0);
-            Map<String, String> enrollments = DataManager.getStudentEnrollments(selectedStudent.getId());
-            for (Map.Entry<String, String> entry : enrollments.entrySet()) {
-                String enrollmentId = entry.getKey();
-                String courseInfo = entry.getValue();
-                
-                Map<String, Double> status = DataManager.getEnrollmentPaymentStatus(enrollmentId);
-                double fee = status.getOrDefault("fee", 0.0);
-                double paid = status.getOrDefault("paid", 0.0);
-                double bal = status.getOrDefault("balance", 0.0);
-                String paymentStatus = (bal <= 0) ? "PAID" : "DUE";
-                
-                enrollmentTableModel.addRow(new Object[]{
-                    enrollmentId, courseInfo.split(" - ")[0],
-                    String.format("%.2f", fee),
-                    String.format("%.2f", paid),
-                    String.format("%.2f", bal),
-                    paymentStatus
-                });
-            }
+            BackgroundLoader.showLoading(enrollmentTableModel);
+            paymentTableSlot.load(() -> {
+                List<Object[]> rows = new ArrayList<>();
+                Map<String, String> enrollments = DataManager.getStudentEnrollments(selectedStudent.getId());
+                for (Map.Entry<String, String> entry : enrollments.entrySet()) {
+                    String enrollmentId = entry.getKey();
+                    String courseInfo = entry.getValue();
+                    
+                    Map<String, Double> status = DataManager.getEnrollmentPaymentStatus(enrollmentId);
+                    double fee = status.getOrDefault("fee", 0.0);
+                    double paid = status.getOrDefault("paid", 0.0);
+                    double bal = status.getOrDefault("balance", 0.0);
+                    String paymentStatus = (bal <= 0) ? "PAID" : "DUE";
+                    
+                    rows.add(new Object[]{
+                        enrollmentId, courseInfo.split(" - ")[0],
+                        String.format("%.2f", fee),
+                        String.format("%.2f", paid),
+                        String.format("%.2f", bal),
+                        paymentStatus
+                    });
+                }
+                return rows;
+            }, rows -> {
+                enrollmentTableModel.setRowCount(0);
+                rows.forEach(enrollmentTableModel::addRow);
+            }, error -> BackgroundLoader.showError(enrollmentTableModel));
         });
 
         acceptPaymentButton.addActionListener(e -> {
+            if (paymentTableSlot.isLoading() || BackgroundLoader.isPlaceholder(enrollmentTableModel)) return; // Rows are a loading or error placeholder
             int selectedRow = enrollmentTable.getSelectedRow();
             if (selectedRow < 0) {
                 JOptionPane.showMessageDialog(this, "Please select an enrollment from the table to accept payment for.", "Warning", JOptionPane.WARNING_MESSAGE);
@@ -893,8 +987,10 @@ public class ReceptionistDashboard extends JFrame {
         // --- Logic and Listeners ---
         mainPanel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
-                attendanceStudentSelector.removeAllItems(); // <-- FIX: Use the instance variable
-                DataManager.getAllUsersByRole("Student").forEach(attendanceStudentSelector::addItem); // <-- FIX: Use the instance variable
+                attendanceSlot.load(AsyncDataManager.getAllUsersByRole("Student"), students -> {
+                    attendanceStudentSelector.removeAllItems(); // <-- FIX: Use the instance variable
+                    students.forEach(attendanceStudentSelector::addItem); // <-- FIX: Use the instance variable
+                }, error -> BackgroundLoader.showError(contentListPanel));
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -906,29 +1002,36 @@ public class ReceptionistDashboard extends JFrame {
             contentListPanel.removeAll(); 
 
             if (selectedStudent == null) {
+                attendanceSlot.cancel();
                 contentListPanel.revalidate();
                 contentListPanel.repaint();
                 return;
             }
 
-            List<AttendanceSummary> summaries = DataManager.getAttendanceSummaryForStudent(selectedStudent.getId());
+            contentListPanel.setLayout(new GridBagLayout());
+            contentListPanel.add(BackgroundLoader.createLoadingLabel());
+            contentListPanel.revalidate();
+            contentListPanel.repaint();
 
-            if (summaries.isEmpty()) {
-                contentListPanel.setLayout(new GridBagLayout());
-                JLabel noDataLabel = new JLabel("No attendance records found for this student.");
-                noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
-                noDataLabel.setForeground(Color.LIGHT_GRAY);
-                contentListPanel.add(noDataLabel);
-            } else {
-                contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
-                for (AttendanceSummary summary : summaries) {
-                    contentListPanel.add(new AttendanceCard(summary));
-                    contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+            attendanceSlot.load(AsyncDataManager.getAttendanceSummaryForStudent(selectedStudent.getId()), summaries -> {
+                contentListPanel.removeAll();
+                if (summaries.isEmpty()) {
+                    contentListPanel.setLayout(new GridBagLayout());
+                    JLabel noDataLabel = new JLabel("No attendance records found for this student.");
+                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
+                    noDataLabel.setForeground(Color.LIGHT_GRAY);
+                    contentListPanel.add(noDataLabel);
+                } else {
+                    contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
+                    for (AttendanceSummary summary : summaries) {
+                        contentListPanel.add(new AttendanceCard(summary));
+                        contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+                    }
                 }
-            }
 
-            contentListPanel.revalidate();
-            contentListPanel.repaint();
+                contentListPanel.revalidate();
+                contentListPanel.repaint();
+            }, error -> BackgroundLoader.showError(contentListPanel));
         });
         
         // Trigger the action listener for the first item when the panel loads
@@ -1066,14 +1169,15 @@ public class ReceptionistDashboard extends JFrame {
     }
 
     public void refreshFeedbackNotification() {
-        int unreadCount = DataManager.getUnreadFeedbackCount(this.receptionistUser.getId());
-        if (unreadCount > 0) {
-            btnMyFeedback.setText("My Feedback (" + unreadCount + ")");
-            btnMyFeedback.setForeground(Color.ORANGE);
-        } else {
-            btnMyFeedback.setText("My Feedback");
-            btnMyFeedback.setForeground(TEXT_COLOR);
-        }
+        feedbackBadgeSlot.load(AsyncDataManager.getUnreadFeedbackCount(this.receptionistUser.getId()), unreadCount -> {
+            if (unreadCount > 0) {
+                btnMyFeedback.setText("My Feedback (" + unreadCount + ")");
+                btnMyFeedback.setForeground(Color.ORANGE);
+            } else {
+                btnMyFeedback.setText("My Feedback");
+                btnMyFeedback.setForeground(TEXT_COLOR);
+            }
+        });
     }
 
     private void styleJList(JList<?> list) { // Use JList<?> to accept any type
@@ -23,6 +23,11 @@ public class RoundedPanel extends JPanel {
         setOpaque(false);
     }
 
+    public void setBackgroundColor(Color backgroundColor) {
+        this.backgroundColor = backgroundColor;
+        repaint();
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
@@ -0,0 +1,1004 @@
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * {@link Storage} on the embedded SQLite database behind {@link DatabaseUtil}
+ * (needs the sqlite-jdbc driver on the classpath). In this mode the database
+ * is the store: every read and write goes to its tables, and the joins
+ * DataManager asks for run as indexed SQL instead of scans over several files.
+ *
+ * The data files are migrated once: on open, every file that was never
+ * imported is copied into its table (with logged updates applied), and from
+ * then on the files are left alone. Run {@code java SqliteStorage} to replace
+ * every table with the current files again.
+ *
+ * All columns are TEXT so rows read back exactly as they were written; sums
+ * cast where they need numbers.
+ */
+public class SqliteStorage implements Storage {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    // Bumped when the tables change; an older database is dropped and migrated again
+    private static final int SCHEMA_VERSION = 2;
+
+    // SQLite allows 999 parameters per statement
+    private static final int MAX_IN_PARAMETERS = 500;
+
+    private static final String[] TABLES = {
+        "users", "student_details", "courses", "enrollments", "payments", "results", "attendance", "chats",
+        "announcements", "read_announcements", "feedback", "timetable", "requests", "group_chats", "imported_files",
+        "id_sequences"
+    };
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS users (id TEXT PRIMARY KEY, role TEXT NOT NULL, username TEXT NOT NULL,"
+                + " password TEXT, full_name TEXT, specialization TEXT)",
+        "CREATE TABLE IF NOT EXISTS student_details (student_id TEXT NOT NULL, ic TEXT, email TEXT, contact TEXT, address TEXT)",
+        "CREATE TABLE IF NOT EXISTS courses (id TEXT PRIMARY KEY, name TEXT, tutor_id TEXT, level TEXT,"
+                + " subject TEXT, fee TEXT, schedule TEXT)",
+        // Like the enrollment index, a repeated id is kept and the first one wins lookups by id
+        "CREATE TABLE IF NOT EXISTS enrollments (id TEXT NOT NULL, student_id TEXT NOT NULL, course_id TEXT NOT NULL)",
+        // Every payment row counts, even a repeated id, like the income ledger
+        "CREATE TABLE IF NOT EXISTS payments (id TEXT, enrollment_id TEXT NOT NULL, amount TEXT NOT NULL, payment_date TEXT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS results (id TEXT, enrollment_id TEXT NOT NULL, assessment TEXT,"
+                + " score TEXT, total_marks TEXT, result_date TEXT)",
+        "CREATE TABLE IF NOT EXISTS attendance (course_id TEXT NOT NULL, student_id TEXT NOT NULL, attendance_date TEXT, status TEXT)",
+        "CREATE TABLE IF NOT EXISTS chats (conversation TEXT NOT NULL, sender TEXT NOT NULL, recipient TEXT NOT NULL,"
+                + " content TEXT, sent_at TEXT, status TEXT)",
+        "CREATE TABLE IF NOT EXISTS announcements (id TEXT, title TEXT, content TEXT, author TEXT, announced_on TEXT)",
+        "CREATE TABLE IF NOT EXISTS read_announcements (username TEXT NOT NULL, announcement_id TEXT NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS feedback (id TEXT, submitter_id TEXT, target_role TEXT, target_id TEXT, subject TEXT,"
+                + " rating TEXT, content TEXT, submitted_on TEXT, status TEXT)",
+        "CREATE TABLE IF NOT EXISTS timetable (class_date TEXT, class_time TEXT, subject TEXT, tutor TEXT)",
+        "CREATE TABLE IF NOT EXISTS requests (id TEXT, student_id TEXT, details TEXT, status TEXT, requested_on TEXT)",
+        "CREATE TABLE IF NOT EXISTS group_chats (id TEXT, name TEXT, creator TEXT, members TEXT)",
+        "CREATE TABLE IF NOT EXISTS imported_files (file TEXT PRIMARY KEY, error TEXT)",
+        // Highest id reserved per table and prefix (see IdAllocator); new tables need no version bump
+        "CREATE TABLE IF NOT EXISTS id_sequences (name TEXT PRIMARY KEY, high_water TEXT NOT NULL)",
+
+        "CREATE INDEX IF NOT EXISTS idx_users_username ON users (username)",
+        "CREATE INDEX IF NOT EXISTS idx_courses_tutor ON courses (tutor_id)",
+        "CREATE INDEX IF NOT EXISTS idx_enrollments_id ON enrollments (id)",
+        "CREATE INDEX IF NOT EXISTS idx_enrollments_student ON enrollments (student_id)",
+        "CREATE INDEX IF NOT EXISTS idx_enrollments_course ON enrollments (course_id)",
+        "CREATE INDEX IF NOT EXISTS idx_payments_enrollment ON payments (enrollment_id)",
+        "CREATE INDEX IF NOT EXISTS idx_payments_date ON payments (payment_date)",
+        "CREATE INDEX IF NOT EXISTS idx_results_enrollment ON results (enrollment_id)",
+        "CREATE INDEX IF NOT EXISTS idx_attendance_student ON attendance (student_id)",
+        "CREATE INDEX IF NOT EXISTS idx_attendance_course ON attendance (course_id, attendance_date)",
+        "CREATE INDEX IF NOT EXISTS idx_chats_conversation ON chats (conversation)",
+        "CREATE INDEX IF NOT EXISTS idx_chats_recipient_status ON chats (recipient, status)",
+        "CREATE INDEX IF NOT EXISTS idx_feedback_target ON feedback (target_id)",
+        "CREATE INDEX IF NOT EXISTS idx_read_announcements_username ON read_announcements (username)",
+    };
+
+    /** Binds one split line to the insert statement; false skips the line. */
+    private interface RowBinder {
+        boolean bind(PreparedStatement insert, String[] data) throws SQLException;
+    }
+
+    /** How one data file is stored: which rows it owns in which table, and how a line becomes a row. */
+    private static final class Import {
+        final String file;
+        final String table;
+        final String delete;
+        final String insert;
+        final int splitLimit;
+        final RowBinder binder;
+
+        Import(String file, String table, String delete, String insert, int splitLimit, RowBinder binder) {
+            this.file = file;
+            this.table = table;
+            this.delete = delete;
+            this.insert = insert;
+            this.splitLimit = splitLimit;
+            this.binder = binder;
+        }
+    }
+
+    private static final Map<String, Import> IMPORTS = new LinkedHashMap<>();
+
+    static {
+        // Same role order as DataRepository, so the first file wins a duplicate id
+        for (String role : new String[]{"Admin", "Tutor", "Receptionist", "Student"}) {
+            addImport(new Import(DataManager.getFilePathForRole(role), "users",
+                    "DELETE FROM users WHERE role = '" + role + "'",
+                    "INSERT OR IGNORE INTO users VALUES (?, ?, ?, ?, ?, ?)", 5,
+                    (insert, data) -> {
+                        if (data.length < 4) return false;
+                        bindAll(insert, data[0], role, data[1], data[2], data[3],
+                                role.equals("Tutor") && data.length > 4 ? data[4] : "");
+                        return true;
+                    }));
+        }
+        addImport(new Import(DataManager.STUDENT_DETAILS_FILE, "student_details", "DELETE FROM student_details",
+                "INSERT INTO student_details VALUES (?, ?, ?, ?, ?)", 5, SqliteStorage::bindPadded));
+        addImport(new Import(DataManager.COURSES_FILE, "courses", "DELETE FROM courses",
+                "INSERT OR IGNORE INTO courses VALUES (?, ?, ?, ?, ?, ?, ?)", 7,
+                (insert, data) -> !data[0].isEmpty() && bindPadded(insert, data)));
+        addImport(new Import(DataManager.ENROLLMENTS_FILE, "enrollments", "DELETE FROM enrollments",
+                "INSERT INTO enrollments VALUES (?, ?, ?)", 0,
+                (insert, data) -> data.length == 3 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.PAYMENTS_FILE, "payments", "DELETE FROM payments",
+                "INSERT INTO payments VALUES (?, ?, ?, ?)", 0,
+                (insert, data) -> {
+                    if (data.length < 4) return false;
+                    // A bad row throws and is recorded as the file's error
+                    Double.parseDouble(data[2]);
+                    LocalDate.parse(data[3], DATE_FORMAT);
+                    bindAll(insert, data[0], data[1], data[2], data[3]);
+                    return true;
+                }));
+        addImport(new Import(DataManager.RESULTS_FILE, "results", "DELETE FROM results",
+                "INSERT INTO results VALUES (?, ?, ?, ?, ?, ?)", 6,
+                (insert, data) -> data.length == 6 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.ATTENDANCE_FILE, "attendance", "DELETE FROM attendance",
+                "INSERT INTO attendance VALUES (?, ?, ?, ?)", 0,
+                (insert, data) -> {
+                    if (data.length < 4) return false;
+                    bindAll(insert, data[0], data[1], data[2], data[3]);
+                    return true;
+                }));
+        addImport(new Import(DataManager.CHATS_FILE, "chats", "DELETE FROM chats",
+                "INSERT INTO chats VALUES (?, ?, ?, ?, ?, ?)", 6,
+                (insert, data) -> {
+                    String[] record;
+                    if (data.length == 6) {
+                        // Old format: id,sender,recipient,timestamp,status,content
+                        record = new String[]{data[1], data[2], data[5], data[3], data[4]};
+                    } else if (data.length == 5) {
+                        record = data; // sender,recipient,content,timestamp,status
+                    } else {
+                        return false;
+                    }
+                    bindChat(insert, String.join(",", record));
+                    return true;
+                }));
+        addImport(new Import(DataManager.ANNOUNCEMENTS_FILE, "announcements", "DELETE FROM announcements",
+                "INSERT INTO announcements VALUES (?, ?, ?, ?, ?)", 5,
+                (insert, data) -> data.length == 5 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.READ_ANNOUNCEMENTS_FILE, "read_announcements", "DELETE FROM read_announcements",
+                "INSERT INTO read_announcements VALUES (?, ?)", 0,
+                (insert, data) -> data.length == 2 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.FEEDBACK_FILE, "feedback", "DELETE FROM feedback",
+                "INSERT INTO feedback VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", 9,
+                (insert, data) -> data.length == 9 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.TIMETABLE_FILE, "timetable", "DELETE FROM timetable",
+                "INSERT INTO timetable VALUES (?, ?, ?, ?)", 4,
+                (insert, data) -> data.length == 4 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.REQUESTS_FILE, "requests", "DELETE FROM requests",
+                "INSERT INTO requests VALUES (?, ?, ?, ?, ?)", 5,
+                (insert, data) -> data.length == 5 && bindPadded(insert, data)));
+        addImport(new Import(DataManager.GROUP_CHATS_FILE, "group_chats", "DELETE FROM group_chats",
+                "INSERT INTO group_chats VALUES (?, ?, ?, ?)", 4,
+                (insert, data) -> data.length == 4 && bindPadded(insert, data)));
+    }
+
+    private static void addImport(Import spec) {
+        IMPORTS.put(spec.file, spec);
+    }
+
+    // Unreadable rows skipped when each file was imported, by file
+    private final Map<String, String> importErrors = new HashMap<>();
+    private final IdAllocator ids = new IdAllocator(SqliteStorage::maxIdNumber, SqliteStorage::reserveIds);
+
+    private final Users users = new SqlUsers();
+    private final Courses courses = new SqlCourses();
+    private final Enrollments enrollments = new SqlEnrollments();
+    private final Payments payments = new SqlPayments();
+    private final Chats chats = new SqlChats();
+    private final Attendance attendance = new SqlAttendance();
+    private final Results results = new SqlResults();
+    private final Announcements announcements = new SqlAnnouncements();
+    private final Feedback feedback = new SqlFeedback();
+    private final Timetable timetable = new SqlTimetable();
+    private final Requests requests = new SqlRequests();
+    private final GroupChats groupChats = new SqlGroupChats();
+
+    /**
+     * Opens (and if needed creates) the database and migrates the data files
+     * it has not seen yet; fails if the driver or file is unavailable.
+     */
+    public SqliteStorage() throws SQLException {
+        DatabaseUtil.withConnection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                int version;
+                try (ResultSet rows = statement.executeQuery("PRAGMA user_version")) {
+                    version = rows.next() ? rows.getInt(1) : 0;
+                }
+                if (version != SCHEMA_VERSION) {
+                    for (String table : TABLES) {
+                        statement.execute("DROP TABLE IF EXISTS " + table);
+                    }
+                }
+                for (String ddl : SCHEMA) {
+                    statement.execute(ddl);
+                }
+                statement.execute("PRAGMA user_version = " + SCHEMA_VERSION);
+                try (ResultSet rows = statement.executeQuery("SELECT file, error FROM imported_files")) {
+                    while (rows.next()) {
+                        importErrors.put(rows.getString(1), rows.getString(2));
+                    }
+                }
+            }
+            return null;
+        });
+        for (String file : IMPORTS.keySet()) {
+            if (!importErrors.containsKey(file)) {
+                migrate(file);
+            }
+        }
+    }
+
+    @Override public Users users() { return users; }
+    @Override public Courses courses() { return courses; }
+    @Override public Enrollments enrollments() { return enrollments; }
+    @Override public Payments payments() { return payments; }
+    @Override public Chats chats() { return chats; }
+    @Override public Attendance attendance() { return attendance; }
+    @Override public Results results() { return results; }
+    @Override public Announcements announcements() { return announcements; }
+    @Override public Feedback feedback() { return feedback; }
+    @Override public Timetable timetable() { return timetable; }
+    @Override public Requests requests() { return requests; }
+    @Override public GroupChats groupChats() { return groupChats; }
+
+    @Override
+    public String nextId(String prefix, String table, int startNumber) {
+        return ids.next(prefix, table, startNumber);
+    }
+
+    @Override
+    public List<String> nextIds(String prefix, String table, int startNumber, int count) {
+        return ids.next(prefix, table, startNumber, count);
+    }
+
+    @Override
+    public boolean addStudents(List<User> students, List<String[]> details, List<String[]> enrollments, List<String[]> payments) {
+        if (!usernamesAvailable(students)) return false;
+        boolean added = inTransaction(connection -> {
+            try (PreparedStatement insertUser = connection.prepareStatement("INSERT INTO users VALUES (?, ?, ?, ?, ?, ?)")) {
+                for (User student : students) {
+                    bindAll(insertUser, student.getId(), "Student", student.getUsername(), student.getPassword(), student.getFullName(), "");
+                    insertUser.addBatch();
+                }
+                insertUser.executeBatch();
+            }
+            insertAll(connection, "INSERT INTO student_details VALUES (?, ?, ?, ?, ?)", details, 5);
+            insertAll(connection, "INSERT INTO enrollments VALUES (?, ?, ?)", enrollments, 3);
+            insertAll(connection, "INSERT INTO payments VALUES (?, ?, ?, ?)", payments, 4);
+            return true;
+        });
+        if (added) DataRepository.invalidate(DataManager.STUDENTS_FILE);
+        return added;
+    }
+
+    private static void insertAll(Connection connection, String sql, List<String[]> rows, int columns) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(sql)) {
+            for (String[] row : rows) {
+                bindAll(insert, (Object[]) padded(row, columns));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    // Highest number after 'prefix' in a table's ids; read once per sequence
+    private static long maxIdNumber(String prefix, String table) {
+        long max = 0;
+        for (String[] row : rows("SELECT id FROM " + IMPORTS.get(table).table + " WHERE substr(id, 1, ?) = ?",
+                prefix.length(), prefix)) {
+            try {
+                max = Math.max(max, Long.parseLong(row[0].substring(prefix.length()).trim()));
+            } catch (NumberFormatException e) { /* not one of ours */ }
+        }
+        return max;
+    }
+
+    // Moves a sequence's high-water mark in one transaction, so instances sharing the database
+    // get disjoint blocks. Writing first takes the write lock before the read.
+    private static long reserveIds(String sequence, long from, int size) throws IOException {
+        long[] first = {from};
+        boolean reserved = inTransaction(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement("INSERT OR IGNORE INTO id_sequences VALUES (?, '0')")) {
+                insert.setString(1, sequence);
+                insert.executeUpdate();
+            }
+            try (PreparedStatement select = connection.prepareStatement("SELECT high_water FROM id_sequences WHERE name = ?")) {
+                select.setString(1, sequence);
+                try (ResultSet rows = select.executeQuery()) {
+                    if (rows.next()) first[0] = Math.max(from, Long.parseLong(rows.getString(1)) + 1);
+                }
+            }
+            try (PreparedStatement update = connection.prepareStatement("UPDATE id_sequences SET high_water = ? WHERE name = ?")) {
+                update.setString(1, String.valueOf(first[0] + size - 1));
+                update.setString(2, sequence);
+                update.executeUpdate();
+            }
+            return true;
+        });
+        if (!reserved) throw new IOException("database unavailable");
+        return first[0];
+    }
+
+    // ---------------------------------------------------------------- Users
+
+    private static class SqlUsers implements Users {
+        private static final String COLUMNS = "SELECT id, username, password, role, full_name, specialization FROM users";
+
+        @Override
+        public List<User> getByRole(String role) {
+            List<User> users = new ArrayList<>();
+            for (String[] row : rows(COLUMNS + " WHERE role = ? ORDER BY rowid", role)) {
+                users.add(userOf(row));
+            }
+            return users;
+        }
+
+        @Override
+        public User findById(String id) {
+            List<String[]> rows = rows(COLUMNS + " WHERE id = ?", id);
+            return rows.isEmpty() ? null : userOf(rows.get(0));
+        }
+
+        @Override
+        public User findByUsername(String username) {
+            List<String[]> rows = rows(COLUMNS + " WHERE username = ? ORDER BY rowid LIMIT 1", username);
+            return rows.isEmpty() ? null : userOf(rows.get(0));
+        }
+
+        @Override
+        public boolean isUsernameTaken(String username) {
+            return !rows("SELECT 1 FROM users WHERE username = ? LIMIT 1", username).isEmpty();
+        }
+
+        @Override
+        public boolean add(User user) {
+            return changed(execute("INSERT INTO users VALUES (?, ?, ?, ?, ?, ?)", user.getId(), user.getRole(),
+                    user.getUsername(), user.getPassword(), user.getFullName(), specializationOf(user)), user.getRole());
+        }
+
+        @Override
+        public boolean update(User user) {
+            return changed(execute("UPDATE users SET username = ?, password = ?, full_name = ?, specialization = ? WHERE id = ? AND role = ?",
+                    user.getUsername(), user.getPassword(), user.getFullName(), specializationOf(user), user.getId(), user.getRole()), user.getRole());
+        }
+
+        @Override
+        public boolean deleteByUsername(String username) {
+            User user = findByUsername(username);
+            return user != null && changed(execute("DELETE FROM users WHERE username = ?", username), user.getRole());
+        }
+
+        @Override
+        public boolean deleteById(String id) {
+            User user = findById(id);
+            return user != null && changed(execute("DELETE FROM users WHERE id = ?", id), user.getRole());
+        }
+
+        @Override
+        public boolean addStudentDetails(String[] details) {
+            return execute("INSERT INTO student_details VALUES (?, ?, ?, ?, ?)", (Object[]) padded(details, 5)) > 0;
+        }
+
+        @Override
+        public boolean deleteStudentDetails(String studentId) {
+            return execute("DELETE FROM student_details WHERE student_id = ?", studentId) > 0;
+        }
+
+        // Chat renderers cache sender names; drop them when an account changes
+        private static boolean changed(int count, String role) {
+            if (count <= 0) return false;
+            DataRepository.invalidate(DataManager.getFilePathForRole(role));
+            return true;
+        }
+
+        private static String specializationOf(User user) {
+            return "Tutor".equals(user.getRole()) && user.getSpecialization() != null ? user.getSpecialization() : "";
+        }
+
+        private static User userOf(String[] row) {
+            return new User(row[0], row[1], row[2], row[3], row[4], row.length > 5 ? row[5] : "");
+        }
+    }
+
+    // -------------------------------------------------------------- Courses
+
+    private static class SqlCourses implements Courses {
+        private static final String COLUMNS = "SELECT id, name, tutor_id, level, subject, fee, schedule FROM courses";
+
+        @Override public Collection<String[]> getAll() { return rows(COLUMNS + " ORDER BY rowid"); }
+        @Override public List<String[]> getByTutor(String tutorId) { return rows(COLUMNS + " WHERE tutor_id = ? ORDER BY rowid", tutorId); }
+
+        @Override
+        public String[] findById(String courseId) {
+            List<String[]> rows = rows(COLUMNS + " WHERE id = ?", courseId);
+            return rows.isEmpty() ? null : rows.get(0);
+        }
+
+        @Override
+        public boolean add(String[] course) {
+            return execute("INSERT INTO courses VALUES (?, ?, ?, ?, ?, ?, ?)", (Object[]) padded(course, 7)) > 0;
+        }
+
+        @Override
+        public boolean update(String[] course) {
+            return execute("UPDATE courses SET name = ?, tutor_id = ?, level = ?, subject = ?, fee = ?, schedule = ? WHERE id = ?",
+                    course[1], course[2], course[3], course[4], course[5], course[6], course[0]) > 0;
+        }
+
+        @Override
+        public boolean delete(String courseId) {
+            return execute("DELETE FROM courses WHERE id = ?", courseId) > 0;
+        }
+    }
+
+    // ---------------------------------------------------------- Enrollments
+
+    private static class SqlEnrollments implements Enrollments {
+        @Override
+        public List<String[]> getByStudent(String studentId) {
+            return rows("SELECT id, student_id, course_id FROM enrollments WHERE student_id = ? ORDER BY rowid", studentId);
+        }
+
+        @Override
+        public List<String[]> getByCourse(String courseId) {
+            return rows("SELECT id, student_id, course_id FROM enrollments WHERE course_id = ? ORDER BY rowid", courseId);
+        }
+
+        @Override
+        public String getCourseId(String enrollmentId) {
+            List<String[]> rows = rows("SELECT course_id FROM enrollments WHERE id = ? ORDER BY rowid LIMIT 1", enrollmentId);
+            return rows.isEmpty() ? null : rows.get(0)[0];
+        }
+
+        @Override
+        public boolean add(String[] enrollment) {
+            return execute("INSERT INTO enrollments VALUES (?, ?, ?)", (Object[]) enrollment) > 0;
+        }
+
+        @Override
+        public boolean apply(String studentId, Set<String> removedIds, List<String[]> added) {
+            return inTransaction(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM enrollments WHERE student_id = ? AND id = ?");
+                     PreparedStatement insert = connection.prepareStatement("INSERT INTO enrollments VALUES (?, ?, ?)")) {
+                    for (String enrollmentId : removedIds) {
+                        delete.setString(1, studentId);
+                        delete.setString(2, enrollmentId);
+                        delete.addBatch();
+                    }
+                    for (String[] enrollment : added) {
+                        bindAll(insert, (Object[]) enrollment);
+                        insert.addBatch();
+                    }
+                    if (!removedIds.isEmpty()) delete.executeBatch();
+                    if (!added.isEmpty()) insert.executeBatch();
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public boolean deleteByStudent(String studentId) {
+            return execute("DELETE FROM enrollments WHERE student_id = ?", studentId) > 0;
+        }
+    }
+
+    // ------------------------------------------------------------- Payments
+
+    private class SqlPayments implements Payments {
+        // Payments are joined to the course through the first enrollment with their id, like the income ledger
+        private static final String COURSE_OF_PAYMENT = " FROM payments p JOIN courses c ON c.id ="
+                + " (SELECT e.course_id FROM enrollments e WHERE e.id = p.enrollment_id ORDER BY e.rowid LIMIT 1)";
+
+        @Override
+        public List<String[]> getByEnrollment(String enrollmentId) {
+            return rows("SELECT id, enrollment_id, amount, payment_date FROM payments WHERE enrollment_id = ? ORDER BY rowid", enrollmentId);
+        }
+
+        @Override
+        public double getTotalPaid(String enrollmentId) {
+            return queryDouble("SELECT COALESCE(SUM(CAST(amount AS REAL)), 0) FROM payments WHERE enrollment_id = ?", enrollmentId);
+        }
+
+        @Override
+        public boolean add(String[] payment) {
+            return execute("INSERT INTO payments VALUES (?, ?, ?, ?)", (Object[]) payment) > 0;
+        }
+
+        @Override
+        public boolean hasData() {
+            return queryDouble("SELECT COUNT(*) FROM payments") > 0;
+        }
+
+        @Override
+        public Map<String, Double> getPaymentStatus(String studentId) {
+            Map<String, Double> status = new HashMap<>();
+            // Only complete course rows have a fee, like in the file storage
+            double totalFees = queryDouble(
+                    "SELECT COALESCE(SUM(CAST(fee AS REAL)), 0) FROM courses WHERE schedule IS NOT NULL"
+                            + " AND id IN (SELECT course_id FROM enrollments WHERE student_id = ?)",
+                    studentId);
+            double totalPaid = queryDouble(
+                    "SELECT COALESCE(SUM(CAST(amount AS REAL)), 0) FROM payments"
+                            + " WHERE enrollment_id IN (SELECT id FROM enrollments WHERE student_id = ?)",
+                    studentId);
+            status.put("totalFees", totalFees);
+            status.put("totalPaid", totalPaid);
+            status.put("balance", totalFees - totalPaid);
+            return status;
+        }
+
+        @Override
+        public String getPaymentsError() {
+            synchronized (SqliteStorage.this) {
+                return importErrors.get(DataManager.PAYMENTS_FILE);
+            }
+        }
+
+        @Override
+        public Map<String, Map<String, Double>> getIncomeByLevelAndSubject(int year, Integer month) {
+            LocalDate from = LocalDate.of(year, month != null ? month : 1, 1);
+            LocalDate to = month != null ? from.plusMonths(1) : from.plusYears(1);
+            Map<String, Map<String, Double>> result = new HashMap<>();
+            for (String[] row : rows("SELECT c.level, c.subject, SUM(CAST(p.amount AS REAL))" + COURSE_OF_PAYMENT
+                    + " WHERE p.payment_date >= ? AND p.payment_date < ? AND c.subject IS NOT NULL GROUP BY c.level, c.subject",
+                    from.toString(), to.toString())) {
+                result.computeIfAbsent(row[0], k -> new HashMap<>()).put(row[1], Double.parseDouble(row[2]));
+            }
+            return result;
+        }
+
+        @Override
+        public Map<String, Double> getIncomeBySubject(int year) {
+            Map<String, Double> result = new HashMap<>();
+            for (String[] row : rows("SELECT c.subject, SUM(CAST(p.amount AS REAL))" + COURSE_OF_PAYMENT
+                    + " WHERE p.payment_date >= ? AND p.payment_date < ? AND c.subject IS NOT NULL GROUP BY c.subject",
+                    year + "-01-01", (year + 1) + "-01-01")) {
+                result.put(row[0], Double.parseDouble(row[1]));
+            }
+            return result;
+        }
+
+        @Override
+        public double getTotalIncome(int year) {
+            return queryDouble("SELECT COALESCE(SUM(CAST(amount AS REAL)), 0) FROM payments WHERE payment_date >= ? AND payment_date < ?",
+                    year + "-01-01", (year + 1) + "-01-01");
+        }
+    }
+
+    // ---------------------------------------------------------------- Chats
+
+    private static class SqlChats implements Chats {
+        private static final String LINE = "SELECT sender || ',' || recipient || ',' || content || ',' || sent_at || ',' || status FROM chats";
+
+        @Override
+        public void append(String line) throws IOException {
+            try {
+                DatabaseUtil.withConnection(connection -> {
+                    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO chats VALUES (?, ?, ?, ?, ?, ?)")) {
+                        bindChat(insert, line);
+                        return insert.executeUpdate();
+                    }
+                });
+            } catch (SQLException e) {
+                throw new IOException("Could not store chat message", e);
+            }
+        }
+
+        @Override
+        public int count(String conversationKey) {
+            return (int) queryDouble("SELECT COUNT(*) FROM chats WHERE conversation = ?", conversationKey);
+        }
+
+        @Override
+        public List<String> readConversation(String conversationKey) {
+            return linesOf(rows(LINE + " WHERE conversation = ? ORDER BY rowid", conversationKey));
+        }
+
+        @Override
+        public List<String> readRange(String conversationKey, int from, int to) {
+            if (to <= from) return new ArrayList<>();
+            return linesOf(rows(LINE + " WHERE conversation = ? ORDER BY rowid LIMIT ? OFFSET ?", conversationKey, to - from, from));
+        }
+
+        @Override
+        public boolean markRead(String sender, String recipient) {
+            return execute("UPDATE chats SET status = 'READ' WHERE sender = ? AND recipient = ? AND UPPER(status) = 'UNREAD'", sender, recipient) > 0;
+        }
+
+        @Override
+        public void forEachLine(Consumer<String> consumer) throws IOException {
+            try {
+                DatabaseUtil.withConnection(connection -> {
+                    try (Statement select = connection.createStatement();
+                         ResultSet rows = select.executeQuery(LINE + " ORDER BY rowid")) {
+                        while (rows.next()) {
+                            consumer.accept(rows.getString(1));
+                        }
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                throw new IOException("Could not read chat messages", e);
+            }
+        }
+
+        private static List<String> linesOf(List<String[]> rows) {
+            List<String> lines = new ArrayList<>();
+            for (String[] row : rows) {
+                lines.add(row[0]);
+            }
+            return lines;
+        }
+    }
+
+    // ----------------------------------------------------------- Attendance
+
+    private static class SqlAttendance implements Attendance {
+        @Override
+        public List<String[]> getByStudent(String studentId) {
+            return rows("SELECT course_id, student_id, attendance_date, status FROM attendance WHERE student_id = ? ORDER BY rowid", studentId);
+        }
+
+        @Override
+        public boolean replace(String courseId, String date, List<String[]> records) {
+            return inTransaction(connection -> {
+                try (PreparedStatement delete = connection.prepareStatement("DELETE FROM attendance WHERE course_id = ? AND attendance_date = ?");
+                     PreparedStatement insert = connection.prepareStatement("INSERT INTO attendance VALUES (?, ?, ?, ?)")) {
+                    bindAll(delete, courseId, date);
+                    delete.executeUpdate();
+                    for (String[] record : records) {
+                        bindAll(insert, (Object[]) record);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return true;
+            });
+        }
+
+        @Override
+        public boolean updateStatus(String courseId, String studentId, String date, String status) {
+            return execute("UPDATE attendance SET status = ? WHERE course_id = ? AND student_id = ? AND attendance_date = ?",
+                    status, courseId, studentId, date) > 0;
+        }
+    }
+
+    // -------------------------------------------------------------- Results
+
+    private static class SqlResults implements Results {
+        @Override
+        public Map<String, List<String[]>> getByEnrollment(Collection<String> enrollmentIds) {
+            Map<String, List<String[]>> results = new HashMap<>();
+            List<String> ids = new ArrayList<>(enrollmentIds);
+            for (int start = 0; start < ids.size(); start += MAX_IN_PARAMETERS) {
+                List<String> chunk = ids.subList(start, Math.min(ids.size(), start + MAX_IN_PARAMETERS));
+                String placeholders = String.join(", ", Collections.nCopies(chunk.size(), "?"));
+                for (String[] data : rows("SELECT id, enrollment_id, assessment, score, total_marks, result_date FROM results"
+                        + " WHERE enrollment_id IN (" + placeholders + ") ORDER BY rowid", chunk.toArray())) {
+                    results.computeIfAbsent(data[1], k -> new ArrayList<>()).add(data);
+                }
+            }
+            return results;
+        }
+
+        @Override
+        public boolean add(String[] result) {
+            return execute("INSERT INTO results VALUES (?, ?, ?, ?, ?, ?)", (Object[]) result) > 0;
+        }
+    }
+
+    // -------------------------------------------------------- Announcements
+
+    private static class SqlAnnouncements implements Announcements {
+        @Override
+        public List<String[]> getAll() {
+            return rows("SELECT id, title, content, author, announced_on FROM announcements ORDER BY rowid");
+        }
+
+        @Override
+        public boolean add(String[] announcement) {
+            return execute("INSERT INTO announcements VALUES (?, ?, ?, ?, ?)", (Object[]) announcement) > 0;
+        }
+
+        @Override
+        public boolean update(String announcementId, String authorUsername, String title, String content) {
+            return execute("UPDATE announcements SET title = ?, content = ? WHERE id = ? AND author = ?",
+                    title, content, announcementId, authorUsername) > 0;
+        }
+
+        @Override
+        public boolean delete(String announcementId, String authorUsername) {
+            return execute("DELETE FROM announcements WHERE id = ? AND author = ?", announcementId, authorUsername) > 0;
+        }
+
+        @Override
+        public Set<String> getReadIds(String username) {
+            Set<String> readIds = new HashSet<>();
+            for (String[] row : rows("SELECT announcement_id FROM read_announcements WHERE username = ?", username)) {
+                readIds.add(row[0]);
+            }
+            return readIds;
+        }
+
+        @Override
+        public void markRead(String username, String announcementId) throws IOException {
+            if (execute("INSERT INTO read_announcements VALUES (?, ?)", username, announcementId) < 0) {
+                throw new IOException("Could not record announcement " + announcementId + " as read");
+            }
+        }
+    }
+
+    // ------------------------------------------------------------- Feedback
+
+    private static class SqlFeedback implements Feedback {
+        @Override
+        public List<String[]> getForUser(String userId) {
+            return rows("SELECT id, submitter_id, target_role, target_id, subject, rating, content, submitted_on, status"
+                    + " FROM feedback WHERE target_id = ? ORDER BY rowid", userId);
+        }
+
+        @Override
+        public boolean add(String[] feedback) {
+            return execute("INSERT INTO feedback VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", (Object[]) feedback) > 0;
+        }
+
+        @Override
+        public boolean markRead(String userId) {
+            return execute("UPDATE feedback SET status = 'READ' WHERE target_id = ? AND UPPER(status) = 'NEW'", userId) > 0;
+        }
+    }
+
+    // ------------------------------------------------------------ Timetable
+
+    private class SqlTimetable implements Timetable {
+        @Override
+        public NavigableMap<LocalDate, List<String[]>> getTimetable(LocalDate from, LocalDate to, String tutorFullName) {
+            return load().getTimetable(from, to, tutorFullName);
+        }
+
+        @Override
+        public NavigableMap<LocalDate, List<String[]>> getScheduledClasses(LocalDate from, LocalDate to) {
+            return DataRepository.resolve(load(), users.getByRole("Tutor"), courses::getByTutor).getClasses(from, to);
+        }
+
+        @Override
+        public boolean replaceAll(List<String[]> classes) {
+            return inTransaction(connection -> {
+                try (Statement delete = connection.createStatement();
+                     PreparedStatement insert = connection.prepareStatement("INSERT INTO timetable VALUES (?, ?, ?, ?)")) {
+                    delete.executeUpdate("DELETE FROM timetable");
+                    for (String[] classInfo : classes) {
+                        bindAll(insert, (Object[]) classInfo);
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+                return true;
+            });
+        }
+
+        private DataRepository.TimetableIndex load() {
+            return DataRepository.timetableOf(rows("SELECT class_date, class_time, subject, tutor FROM timetable ORDER BY rowid"));
+        }
+    }
+
+    // ------------------------------------------------------------- Requests
+
+    private static class SqlRequests implements Requests {
+        @Override
+        public List<String[]> getAll() {
+            return rows("SELECT id, student_id, details, status, requested_on FROM requests ORDER BY rowid");
+        }
+
+        @Override
+        public boolean add(String[] request) {
+            return execute("INSERT INTO requests VALUES (?, ?, ?, ?, ?)", (Object[]) request) > 0;
+        }
+
+        @Override
+        public boolean updateStatus(String requestId, String status) {
+            return execute("UPDATE requests SET status = ? WHERE id = ?", status, requestId) > 0;
+        }
+
+        @Override
+        public boolean delete(String requestId) {
+            return execute("DELETE FROM requests WHERE id = ?", requestId) > 0;
+        }
+    }
+
+    // ----------------------------------------------------------- GroupChats
+
+    private static class SqlGroupChats implements GroupChats {
+        @Override
+        public List<String[]> getAll() {
+            return rows("SELECT id, name, creator, members FROM group_chats ORDER BY rowid");
+        }
+
+        @Override
+        public boolean add(String[] group) {
+            return execute("INSERT INTO group_chats VALUES (?, ?, ?, ?)", (Object[]) group) > 0;
+        }
+
+        @Override
+        public boolean updateMembers(String groupId, String members) {
+            return execute("UPDATE group_chats SET members = ? WHERE id = ?", members, groupId) > 0;
+        }
+    }
+
+    // ------------------------------------------------------------- Queries
+
+    // Rows as String arrays; trailing NULL columns are dropped, so a short line reads back as short as it was stored
+    private static List<String[]> rows(String sql, Object... parameters) {
+        List<String[]> result = new ArrayList<>();
+        try {
+            DatabaseUtil.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    bindAll(statement, parameters);
+                    try (ResultSet rows = statement.executeQuery()) {
+                        int columns = rows.getMetaData().getColumnCount();
+                        while (rows.next()) {
+                            int length = columns;
+                            while (length > 1 && rows.getString(length) == null) length--;
+                            String[] row = new String[length];
+                            for (int i = 0; i < length; i++) {
+                                row[i] = rows.getString(i + 1);
+                            }
+                            result.add(row);
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Database query failed: " + e.getMessage());
+        }
+        return result;
+    }
+
+    private static double queryDouble(String sql, Object... parameters) {
+        List<String[]> rows = rows(sql, parameters);
+        return rows.isEmpty() || rows.get(0)[0] == null ? 0 : Double.parseDouble(rows.get(0)[0]);
+    }
+
+    // Number of rows changed, or -1 if the statement failed
+    private static int execute(String sql, Object... parameters) {
+        try {
+            return DatabaseUtil.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    bindAll(statement, parameters);
+                    return statement.executeUpdate();
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Database update failed: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    private static boolean inTransaction(DatabaseUtil.SqlWork<Boolean> work) {
+        try {
+            return DatabaseUtil.withConnection(connection -> {
+                connection.setAutoCommit(false);
+                try {
+                    boolean done = work.run(connection);
+                    connection.commit();
+                    return done;
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(true);
+                }
+            });
+        } catch (SQLException e) {
+            System.err.println("Database update failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // ----------------------------------------------------------- Migration
+
+    /** Replaces every table with the current data files. */
+    public void migrateAll() {
+        for (String file : IMPORTS.keySet()) {
+            migrate(file);
+        }
+    }
+
+    private void migrate(String file) {
+        DataManager.UPDATE_LOG.sync(file); // fold logged updates in first
+        try {
+            DatabaseUtil.withConnection(connection -> {
+                importFile(connection, IMPORTS.get(file));
+                return null;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error importing " + file + " into the database: " + e.getMessage());
+        }
+    }
+
+    // Replaces the file's rows in one transaction, so queries never see half a file.
+    // A file that does not exist yet imports as an empty table.
+    private synchronized void importFile(Connection connection, Import spec) throws SQLException {
+        String[] error = {null};
+        connection.setAutoCommit(false);
+        try {
+            try (Statement delete = connection.createStatement()) {
+                delete.executeUpdate(spec.delete);
+            }
+            try (PreparedStatement insert = connection.prepareStatement(spec.insert)) {
+                SQLException[] failure = {null};
+                DataManager.UPDATE_LOG.forEachLine(spec.file, line -> {
+                    if (failure[0] != null || line.isEmpty()) return;
+                    try {
+                        if (spec.binder.bind(insert, spec.splitLimit > 0 ? line.split(",", spec.splitLimit) : line.split(","))) {
+                            insert.addBatch();
+                        }
+                    } catch (SQLException e) {
+                        failure[0] = e;
+                    } catch (RuntimeException e) { // unparsable number or date
+                        if (error[0] == null) error[0] = e.getMessage();
+                    }
+                });
+                if (failure[0] != null) throw failure[0];
+                insert.executeBatch();
+            } catch (IOException e) {
+                throw new SQLException("Cannot read " + spec.file, e);
+            }
+            try (PreparedStatement record = connection.prepareStatement("INSERT OR REPLACE INTO imported_files VALUES (?, ?)")) {
+                bindAll(record, spec.file, error[0]);
+                record.executeUpdate();
+            }
+            connection.commit();
+            importErrors.put(spec.file, error[0]);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private static void bindAll(PreparedStatement statement, Object... values) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            statement.setObject(i + 1, values[i]);
+        }
+    }
+
+    // Binds a row that may be shorter than the table; missing columns are NULL
+    private static boolean bindPadded(PreparedStatement insert, String[] data) throws SQLException {
+        bindAll(insert, (Object[]) padded(data, insert.getParameterMetaData().getParameterCount()));
+        return true;
+    }
+
+    private static String[] padded(String[] data, int length) {
+        return data.length >= length ? data : Arrays.copyOf(data, length);
+    }
+
+    // A chat record is stored with the key of the conversation it belongs to
+    private static void bindChat(PreparedStatement insert, String line) throws SQLException {
+        String[] data = line.split(",", 5);
+        bindAll(insert, ChatLog.keyOf(line), data[0], data[1], data[2], data[3], data[4]);
+    }
+
+    /** Re-runs the migration: java SqliteStorage (from the project directory). */
+    public static void main(String[] args) {
+        try {
+            SqliteStorage storage = new SqliteStorage();
+            storage.migrateAll();
+            for (String file : IMPORTS.keySet()) {
+                String error = storage.importErrors.get(file);
+                System.out.println("Imported " + file + (error != null ? " (skipped unreadable rows: " + error + ")" : ""));
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not open the database: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Where DataManager keeps its data, one interface per aggregate. DataManager
+ * holds the business rules and report formatting and goes through
+ * {@link DataManager#STORAGE} for every read and write, so the backend can be
+ * swapped without touching the dashboards.
+ *
+ * Rows are String arrays in the column order of the matching data file
+ * (documented on each aggregate), because that is what DataManager and the
+ * dashboards already work with. Ids are handed out by {@link #nextId}.
+ *
+ * Implementations: {@link FileStorage} (the flat files in data/, default),
+ * {@link InMemoryStorage} (tests and benchmarks) and {@link SqliteStorage}.
+ */
+public interface Storage {
+
+    /**
+     * Selects the backend named by the "storage" system property: "file"
+     * (default), "memory" (a copy of data/ that is never written back) or
+     * "sqlite".
+     */
+    static Storage open() {
+        String name = System.getProperty("storage", "file");
+        switch (name.toLowerCase()) {
+            case "file":
+                return new FileStorage();
+            case "memory":
+                return InMemoryStorage.fromFiles();
+            case "sqlite":
+                try {
+                    return new SqliteStorage();
+                } catch (SQLException e) {
+                    // Usually the sqlite-jdbc driver is not on the classpath
+                    System.err.println("SQLite storage unavailable, using the data files: " + e.getMessage());
+                    return new FileStorage();
+                }
+            default:
+                System.err.println("Unknown storage '" + name + "', using the data files.");
+                return new FileStorage();
+        }
+    }
+
+    Users users();
+    Courses courses();
+    Enrollments enrollments();
+    Payments payments();
+    Chats chats();
+    Attendance attendance();
+    Results results();
+    Announcements announcements();
+    Feedback feedback();
+    Timetable timetable();
+    Requests requests();
+    GroupChats groupChats();
+
+    /**
+     * A new id with the given prefix for a table, numbered from startNumber
+     * and zero-padded to at least 3 digits. Tables are named by their
+     * DataManager *_FILE constant. No id is handed out twice, across threads
+     * or app instances; numbers may be skipped (see {@link IdAllocator}).
+     */
+    String nextId(String prefix, String table, int startNumber);
+
+    /** 'count' new ids at once, as {@link #nextId}; for writes that insert several rows. */
+    List<String> nextIds(String prefix, String table, int startNumber, int count);
+
+    /**
+     * Stores new students (role Student) with their details, enrollments and
+     * payments, rows in the formats of the aggregates below, in one write per
+     * table. If a write fails the rows already written are removed again, so
+     * a batch is stored completely or not at all. A batch with a username that
+     * is taken, or used twice in it, is rejected without writing anything.
+     */
+    boolean addStudents(List<User> students, List<String[]> details, List<String[]> enrollments, List<String[]> payments);
+
+    /** False if a username of 'newUsers' is taken or appears more than once among them. */
+    default boolean usernamesAvailable(List<User> newUsers) {
+        Set<String> seen = new HashSet<>();
+        for (User user : newUsers) {
+            if (!seen.add(user.getUsername()) || users().isUsernameTaken(user.getUsername())) return false;
+        }
+        return true;
+    }
+
+    /** Accounts of all four roles. Users are returned as copies the caller may change. */
+    interface Users {
+        List<User> getByRole(String role);
+        User findById(String id);
+        User findByUsername(String username);
+        boolean isUsernameTaken(String username);
+        boolean add(User user);
+        /** Replaces the stored fields of the user with the same id and role. */
+        boolean update(User user);
+        /** Removes the account with this username, whatever its role. */
+        boolean deleteByUsername(String username);
+        boolean deleteById(String id);
+
+        /** [studentId, ic, email, contact, address] */
+        boolean addStudentDetails(String[] details);
+        boolean deleteStudentDetails(String studentId);
+    }
+
+    /** [id, name, tutorId, level, subject, fee, schedule] */
+    interface Courses {
+        Collection<String[]> getAll();
+        String[] findById(String courseId);
+        List<String[]> getByTutor(String tutorId);
+        boolean add(String[] course);
+        /** Replaces the course with the same id. */
+        boolean update(String[] course);
+        boolean delete(String courseId);
+    }
+
+    /** [enrollmentId, studentId, courseId] */
+    interface Enrollments {
+        List<String[]> getByStudent(String studentId);
+        List<String[]> getByCourse(String courseId);
+        String getCourseId(String enrollmentId);
+        boolean add(String[] enrollment);
+        /**
+         * Removes the student's enrollments with the given ids and adds 'added',
+         * as one write that lands completely or not at all.
+         */
+        boolean apply(String studentId, Set<String> removedIds, List<String[]> added);
+        boolean deleteByStudent(String studentId);
+    }
+
+    /** [paymentId, enrollmentId, amount, date] */
+    interface Payments {
+        List<String[]> getByEnrollment(String enrollmentId);
+        double getTotalPaid(String enrollmentId);
+        boolean add(String[] payment);
+
+        /** False if no payment was ever stored (for the files: there is no payments file). */
+        boolean hasData();
+
+        /** "totalFees" (each enrolled course counted once), "totalPaid" and "balance" of one student. */
+        Map<String, Double> getPaymentStatus(String studentId);
+
+        /** First unreadable payment row, or null. Income reports refuse to total a ledger with one. */
+        String getPaymentsError();
+
+        /** Income per course level, then subject. A null month means the whole year. */
+        Map<String, Map<String, Double>> getIncomeByLevelAndSubject(int year, Integer month);
+
+        Map<String, Double> getIncomeBySubject(int year);
+
+        /** Total income for a year, including payments whose enrollment or course no longer exists. */
+        double getTotalIncome(int year);
+    }
+
+    /**
+     * Chat records as lines of chats.txt: sender,recipient,content,timestamp,status.
+     * Conversations are addressed by {@link ChatLog#directKey} / {@link ChatLog#groupKey}.
+     */
+    interface Chats {
+        void append(String line) throws IOException;
+        int count(String conversationKey);
+        /** Every record of a conversation, oldest first. */
+        List<String> readConversation(String conversationKey);
+        /** Records 'from' (inclusive) to 'to' (exclusive) of a conversation, oldest first. */
+        List<String> readRange(String conversationKey, int from, int to);
+        /** Marks what 'sender' sent to 'recipient' as read; false if nothing was unread. */
+        boolean markRead(String sender, String recipient);
+        void forEachLine(Consumer<String> consumer) throws IOException;
+    }
+
+    /** [courseId, studentId, date, status] */
+    interface Attendance {
+        List<String[]> getByStudent(String studentId);
+        /** Replaces every record of the course on that date with 'records'. */
+        boolean replace(String courseId, String date, List<String[]> records);
+        boolean updateStatus(String courseId, String studentId, String date, String status);
+    }
+
+    /** [resultId, enrollmentId, assessment, score, totalMarks, date] */
+    interface Results {
+        Map<String, List<String[]>> getByEnrollment(Collection<String> enrollmentIds);
+        boolean add(String[] result);
+    }
+
+    /** [id, title, content, authorUsername, date], with commas in the text stored as ';' */
+    interface Announcements {
+        List<String[]> getAll();
+        boolean add(String[] announcement);
+        /** New (already escaped) title and content for the announcement with this id and author. */
+        boolean update(String announcementId, String authorUsername, String title, String content);
+        boolean delete(String announcementId, String authorUsername);
+        Set<String> getReadIds(String username);
+        void markRead(String username, String announcementId) throws IOException;
+    }
+
+    /** [id, submitterId, targetRole, targetId, subject, rating, content, date, status] */
+    interface Feedback {
+        List<String[]> getForUser(String userId);
+        boolean add(String[] feedback);
+        /** Marks the user's NEW feedback as READ; false if there was none. */
+        boolean markRead(String userId);
+    }
+
+    /** Classes as [time, subject, tutor]; stored as [date, time, subject, tutor]. */
+    interface Timetable {
+        /** Classes from 'from' to 'to' (inclusive), optionally only one tutor's (by full name). */
+        NavigableMap<LocalDate, List<String[]>> getTimetable(LocalDate from, LocalDate to, String tutorFullName);
+        /** Classes resolved to [time, subjectName, tutor, courseId]; courseId is null if no course matches. */
+        NavigableMap<LocalDate, List<String[]>> getScheduledClasses(LocalDate from, LocalDate to);
+        boolean replaceAll(List<String[]> classes);
+    }
+
+    /** [id, studentId, details, status, date] */
+    interface Requests {
+        List<String[]> getAll();
+        boolean add(String[] request);
+        boolean updateStatus(String requestId, String status);
+        boolean delete(String requestId);
+    }
+
+    /** [id, name, creatorUsername, members] with members joined by ';' */
+    interface GroupChats {
+        List<String[]> getAll();
+        boolean add(String[] group);
+        boolean updateMembers(String groupId, String members);
+    }
+}
@@ -16,6 +16,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.Vector;
 import java.util.stream.Collectors;
 import javax.swing.*;
@@ -25,6 +26,16 @@ import javax.swing.table.JTableHeader;
 
 public class StudentDashboard extends JFrame {
     private User studentUser;
+    private final Consumer<DataEvent> dataEventListener = this::onDataEvent;
+
+    // Background loads, one slot per view so a newer request cancels the stale one
+    private final BackgroundLoader.Slot scheduleSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot requestsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot paymentsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot resultsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot attendanceSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot chatBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot announcementBadgeSlot = new BackgroundLoader.Slot();
     
     private CardLayout cardLayout;
     private JPanel contentPanel;
@@ -75,9 +86,38 @@ public class StudentDashboard extends JFrame {
         refreshChatNotification();
         refreshAnnouncementNotification();
         
+        // Badges are refreshed when a relevant change is published instead of on a timer
+        DataEventBus.subscribe(dataEventListener);
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                DataEventBus.unsubscribe(dataEventListener);
+            }
+        });
+
         cardLayout.show(contentPanel, "WELCOME_PANEL");
     }
 
+    private void onDataEvent(DataEvent event) {
+        switch (event.getType()) {
+            case MESSAGE_SENT:
+                if (studentUser.getUsername().equals(event.getTarget())) refreshChatNotification();
+                break;
+            case MESSAGES_READ:
+                if (studentUser.getUsername().equals(event.getActor())) refreshChatNotification();
+                break;
+            case ANNOUNCEMENTS_CHANGED:
+                refreshAnnouncementNotification();
+                break;
+            case FILE_CHANGED:
+                if (event.isFileChange(DataManager.CHATS_FILE)) refreshChatNotification();
+                if (event.isFileChange(DataManager.ANNOUNCEMENTS_FILE) || event.isFileChange(DataManager.READ_ANNOUNCEMENTS_FILE)) refreshAnnouncementNotification();
+                break;
+            default:
+                break;
+        }
+    }
+
     private JPanel createHeaderPanel() {
         JPanel headerPanel = new JPanel(new BorderLayout());
         headerPanel.setBackground(BG_COLOR);
@@ -305,28 +345,37 @@ public class StudentDashboard extends JFrame {
         mainPanel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
                 contentListPanel.removeAll();
-                List<ResultSummary> summaries = DataManager.getStudentResultSummaries(studentUser.getId());
-
-                if (summaries.isEmpty()) {
-                    gpaLabel.setText("Overall GPA: N/A");
-                    contentListPanel.setLayout(new GridBagLayout());
-                    JLabel noDataLabel = new JLabel("No results have been uploaded yet.");
-                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
-                    noDataLabel.setForeground(Color.LIGHT_GRAY);
-                    contentListPanel.add(noDataLabel);
-                } else {
-                    double totalPoints = summaries.stream().mapToDouble(ResultSummary::getGradePoints).sum();
-                    double gpa = totalPoints / summaries.size();
-                    gpaLabel.setText(String.format("Overall GPA: %.2f", gpa));
-                    
-                    contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
-                    for (ResultSummary summary : summaries) {
-                        contentListPanel.add(new ResultCard(summary));
-                        contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
-                    }
-                }
+                contentListPanel.setLayout(new GridBagLayout());
+                contentListPanel.add(BackgroundLoader.createLoadingLabel());
                 contentListPanel.revalidate();
                 contentListPanel.repaint();
+
+                resultsSlot.load(AsyncDataManager.getStudentSnapshot(studentUser.getId()).thenApply(StudentSnapshot::getResultSummaries), summaries -> {
+                    contentListPanel.removeAll();
+                    if (summaries.isEmpty()) {
+                        gpaLabel.setText("Overall GPA: N/A");
+                        contentListPanel.setLayout(new GridBagLayout());
+                        JLabel noDataLabel = new JLabel("No results have been uploaded yet.");
+                        noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
+                        noDataLabel.setForeground(Color.LIGHT_GRAY);
+                        contentListPanel.add(noDataLabel);
+                    } else {
+                        double totalPoints = summaries.stream().mapToDouble(ResultSummary::getGradePoints).sum();
+                        double gpa = totalPoints / summaries.size();
+                        gpaLabel.setText(String.format("Overall GPA: %.2f", gpa));
+                        
+                        contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
+                        for (ResultSummary summary : summaries) {
+                            contentListPanel.add(new ResultCard(summary));
+                            contentListPanel.add(Box.createRigidArea(new Dimension(0, 5)));
+                        }
+                    }
+                    contentListPanel.revalidate();
+                    contentListPanel.repaint();
+                }, error -> {
+                    gpaLabel.setText("Overall GPA: N/A");
+                    BackgroundLoader.showError(contentListPanel);
+                });
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -363,7 +412,7 @@ public class StudentDashboard extends JFrame {
             String newPasswordStr = new String(txtPassword.getPassword());
             String finalPassword = newPasswordStr.isEmpty() ? studentUser.getPassword() : newPasswordStr;
             User updatedUser = new User(studentUser.getId(), studentUser.getUsername(), finalPassword, studentUser.getRole(), newFullName, "");
-            if (DataManager.updateUser(updatedUser)) {
+            if (DataManager.updateUser(updatedUser, newPasswordStr.isEmpty() ? null : newPasswordStr)) {
                 JOptionPane.showMessageDialog(this, "Profile updated successfully!");
                 this.studentUser = updatedUser;
             } else {
@@ -381,18 +430,21 @@ public class StudentDashboard extends JFrame {
     }
     
     private void refreshPayments(DefaultTableModel tableModel, JLabel feesLabel, JLabel paidLabel, JLabel balanceLabel) {
-        Map<String, Double> status = DataManager.getPaymentStatus(studentUser.getId());
-        feesLabel.setText(String.format("Total Course Fees: $%.2f", status.getOrDefault("totalFees", 0.0)));
-        paidLabel.setText(String.format("Total Amount Paid: $%.2f", status.getOrDefault("totalPaid", 0.0)));
-        double balance = status.getOrDefault("balance", 0.0);
-        balanceLabel.setText(String.format("Balance Due: $%.2f", balance));
-        balanceLabel.setForeground(balance > 0 ? Color.ORANGE : TEXT_COLOR);
-
-        tableModel.setRowCount(0);
-        List<String[]> history = DataManager.getStudentPaymentHistory(studentUser.getId());
-        for (String[] payment : history) {
-            tableModel.addRow(payment);
-        }
+        BackgroundLoader.showLoading(tableModel);
+        // Status and history come from the same snapshot, so the totals always match the table
+        paymentsSlot.load(AsyncDataManager.getStudentSnapshot(studentUser.getId()), snapshot -> {
+            Map<String, Double> status = snapshot.getPaymentStatus();
+            feesLabel.setText(String.format("Total Course Fees: $%.2f", status.getOrDefault("totalFees", 0.0)));
+            paidLabel.setText(String.format("Total Amount Paid: $%.2f", status.getOrDefault("totalPaid", 0.0)));
+            double balance = status.getOrDefault("balance", 0.0);
+            balanceLabel.setText(String.format("Balance Due: $%.2f", balance));
+            balanceLabel.setForeground(balance > 0 ? Color.ORANGE : TEXT_COLOR);
+
+            tableModel.setRowCount(0);
+            for (String[] payment : snapshot.getPaymentHistory()) {
+                tableModel.addRow(payment);
+            }
+        }, error -> BackgroundLoader.showError(tableModel));
     }
     
     private void openChatDialog() {
@@ -407,17 +459,17 @@ public class StudentDashboard extends JFrame {
     }
 
     public void refreshChatNotification() {
-        int unreadCount = DataManager.getUnreadMessageCount(this.studentUser); 
-        
-        if (unreadCount > 0) {
-            btnChat.setText("Chat (" + unreadCount + ")");
-            btnChat.setForeground(Color.RED);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
-        } else {
-            btnChat.setText("Chat");
-            btnChat.setForeground(Color.WHITE);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
-        }
+        chatBadgeSlot.load(AsyncDataManager.getUnreadMessageCount(this.studentUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnChat.setText("Chat (" + unreadCount + ")");
+                btnChat.setForeground(Color.RED);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
+            } else {
+                btnChat.setText("Chat");
+                btnChat.setForeground(Color.WHITE);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
+            }
+        });
     }
 
     private void openAnnouncements() {
@@ -432,19 +484,17 @@ public class StudentDashboard extends JFrame {
     }
     
     public void refreshAnnouncementNotification() {
-        Set<String> readIds = DataManager.getReadAnnouncementIds(this.studentUser);
-        List<Announcement> allAnnouncements = DataManager.getAllAnnouncements();
-        long unreadCount = allAnnouncements.stream().filter(a -> !readIds.contains(a.getId())).count();
-
-        if (unreadCount > 0) {
-            btnAnnouncements.setText("Announcements (" + unreadCount + ")");
-            btnAnnouncements.setForeground(Color.CYAN);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
-        } else {
-            btnAnnouncements.setText("Announcements");
-            btnAnnouncements.setForeground(Color.WHITE);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
-        }
+        announcementBadgeSlot.load(AsyncDataManager.getUnreadAnnouncementCount(this.studentUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnAnnouncements.setText("Announcements (" + unreadCount + ")");
+                btnAnnouncements.setForeground(Color.CYAN);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
+            } else {
+                btnAnnouncements.setText("Announcements");
+                btnAnnouncements.setForeground(Color.WHITE);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
+            }
+        });
     }
 
 
@@ -562,31 +612,37 @@ public class StudentDashboard extends JFrame {
         // Use an AncestorListener to load the data fresh every time the tab is viewed
         mainPanel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
-                // Clear any previous content
+                // Clear any previous content and show a placeholder while loading
                 contentListPanel.removeAll();
-                
-                // Fetch the summary data using the existing DataManager method
-                List<AttendanceSummary> summaries = DataManager.getAttendanceSummaryForStudent(studentUser.getId());
-
-                if (summaries.isEmpty()) {
-                    // Display a helpful message if no attendance data exists
-                    contentListPanel.setLayout(new GridBagLayout());
-                    JLabel noDataLabel = new JLabel("No attendance records found.");
-                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
-                    noDataLabel.setForeground(Color.LIGHT_GRAY);
-                    contentListPanel.add(noDataLabel);
-                } else {
-                    // Restore layout and create a card for each course summary
-                    contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
-                    for (AttendanceSummary summary : summaries) {
-                        contentListPanel.add(new AttendanceCard(summary));
-                        contentListPanel.add(Box.createRigidArea(new Dimension(0, 5))); // A small gap between cards
-                    }
-                }
-                
-                // Refresh the UI to show the new cards
+                contentListPanel.setLayout(new GridBagLayout());
+                contentListPanel.add(BackgroundLoader.createLoadingLabel());
                 contentListPanel.revalidate();
                 contentListPanel.repaint();
+                
+                // Fetch the summary data off the EDT using the existing DataManager method
+                attendanceSlot.load(AsyncDataManager.getStudentSnapshot(studentUser.getId()), snapshot -> {
+                    List<AttendanceSummary> summaries = snapshot.getAttendanceSummaries();
+                    contentListPanel.removeAll();
+                    if (summaries.isEmpty()) {
+                        // Display a helpful message if no attendance data exists
+                        contentListPanel.setLayout(new GridBagLayout());
+                        JLabel noDataLabel = new JLabel("No attendance records found.");
+                        noDataLabel.setFont(new Font("Arial", Font.ITALIC, 16));
+                        noDataLabel.setForeground(Color.LIGHT_GRAY);
+                        contentListPanel.add(noDataLabel);
+                    } else {
+                        // Restore layout and create a card for each course summary
+                        contentListPanel.setLayout(new BoxLayout(contentListPanel, BoxLayout.Y_AXIS));
+                        for (AttendanceSummary summary : summaries) {
+                            contentListPanel.add(new AttendanceCard(summary, snapshot.getAttendance(summary.getCourseId())));
+                            contentListPanel.add(Box.createRigidArea(new Dimension(0, 5))); // A small gap between cards
+                        }
+                    }
+                    
+                    // Refresh the UI to show the new cards
+                    contentListPanel.revalidate();
+                    contentListPanel.repaint();
+                }, error -> BackgroundLoader.showError(contentListPanel));
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -628,47 +684,32 @@ public class StudentDashboard extends JFrame {
             weekLabel.setText(start.format(DateTimeFormatter.ofPattern("dd MMM yyyy")) + "  -  " + end.format(DateTimeFormatter.ofPattern("dd MMM yyyy")));
 
             scheduleContentPanel.removeAll();
-            Map<LocalDate, List<String[]>> weeklySchedule = DataManager.getStoredTimetable().entrySet().stream()
-                    .filter(entry -> !entry.getKey().isBefore(start) && !entry.getKey().isAfter(end))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1, java.util.TreeMap::new));
+            scheduleContentPanel.setLayout(new GridBagLayout());
+            scheduleContentPanel.add(BackgroundLoader.createLoadingLabel());
+            scheduleContentPanel.revalidate();
+            scheduleContentPanel.repaint();
 
-            if (weeklySchedule.isEmpty()) {
-                // ... (no data label logic is unchanged) ...
-            } else {
-                scheduleContentPanel.setLayout(new BoxLayout(scheduleContentPanel, BoxLayout.Y_AXIS));
-                for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
-                    // ... (day header logic is unchanged) ...
-
-                    for (String[] classInfo : entry.getValue()) {
-                        String time = classInfo[0];
-                        String rawSubject = classInfo[1];
-                        String tutor = classInfo[2];
-
-                        // ============================ THE FIX ============================
-                        // Find the REAL course ID instead of inventing one.
-                        String subjectName = rawSubject.replace("Weekly ", "").trim();
-                        User tutorUser = DataManager.findUserByUsername(tutor);
-                        
-                        String courseId = "Unknown Course"; // Default if not found
-                        if(tutorUser != null) {
-                            // This method correctly finds the course ID from the tutor and subject.
-                            String foundId = DataManager.getCourseIdByTutorAndSubject(tutorUser.getId(), subjectName);
-                            if (foundId != null) {
-                                courseId = foundId;
-                            }
+            // Classes come back as [time, subjectName, tutor, courseId], with the REAL course ID already looked up
+            scheduleSlot.load(AsyncDataManager.getScheduledClassesForWeek(start), weeklySchedule -> {
+                scheduleContentPanel.removeAll();
+                if (weeklySchedule.isEmpty()) {
+                    // ... (no data label logic is unchanged) ...
+                } else {
+                    scheduleContentPanel.setLayout(new BoxLayout(scheduleContentPanel, BoxLayout.Y_AXIS));
+                    for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
+                        // ... (day header logic is unchanged) ...
+
+                        for (String[] classInfo : entry.getValue()) {
+                            String courseId = classInfo[3] != null ? classInfo[3] : "Unknown Course"; // Default if not found
+                            ClassCard card = new ClassCard(courseId, classInfo[1], classInfo[0], classInfo[2]);
+                            scheduleContentPanel.add(card);
+                            scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
                         }
-                        
-                        // Create the card with the REAL courseId and the clean subjectName.
-                        ClassCard card = new ClassCard(courseId, subjectName, time, tutor);
-                        // ========================= END OF FIX ==========================
-                        
-                        scheduleContentPanel.add(card);
-                        scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
                     }
                 }
-            }
-            scheduleContentPanel.revalidate();
-            scheduleContentPanel.repaint();
+                scheduleContentPanel.revalidate();
+                scheduleContentPanel.repaint();
+            }, error -> BackgroundLoader.showError(scheduleContentPanel));
         };
 
         // --- ACTION LISTENERS AND FINAL ASSEMBLY (no changes here) ---
@@ -713,9 +754,18 @@ public class StudentDashboard extends JFrame {
 
     private void refreshRequestsPanel() {
         pendingRequestsPanel.removeAll(); // Clear the panel first
+        pendingRequestsPanel.setLayout(new GridBagLayout());
+        pendingRequestsPanel.add(BackgroundLoader.createLoadingLabel());
+        pendingRequestsPanel.revalidate();
+        pendingRequestsPanel.repaint();
+
+        requestsSlot.load(AsyncDataManager.getStudentSnapshot(studentUser.getId()).thenApply(StudentSnapshot::getPendingRequests), this::showPendingRequests,
+                error -> BackgroundLoader.showError(pendingRequestsPanel));
+    }
+
+    private void showPendingRequests(Map<String, String> requests) {
+        pendingRequestsPanel.removeAll();
 
-        Map<String, String> requests = DataManager.getPendingRequests(studentUser.getId());
-        
         if (requests.isEmpty()) {
             pendingRequestsPanel.setLayout(new GridBagLayout());
             JLabel noRequestsLabel = new JLabel("You have no pending requests.");
@@ -798,7 +848,7 @@ public class StudentDashboard extends JFrame {
     }
 
     private class AttendanceCard extends JPanel {
-        public AttendanceCard(AttendanceSummary summary) {
+        public AttendanceCard(AttendanceSummary summary, List<String[]> records) {
             // --- Existing setup for layout and background (No changes here) ---
             setBackground(StudentDashboard.FIELD_BG_COLOR);
             setLayout(new BorderLayout(15, 5));
@@ -846,7 +896,7 @@ public class StudentDashboard extends JFrame {
                 @Override
                 public void mouseClicked(java.awt.event.MouseEvent evt) {
                     // When the card is clicked, show the details dialog for this course
-                    showAttendanceDetailsDialog(summary.getCourseId(), summary.getCourseName());
+                    showAttendanceDetailsDialog(summary.getCourseName(), records);
                 }
 
                 @Override
@@ -864,7 +914,7 @@ public class StudentDashboard extends JFrame {
         }
     }
 
-    private void showAttendanceDetailsDialog(String courseId, String courseName) {
+    private void showAttendanceDetailsDialog(String courseName, List<String[]> records) {
         // 1. Create a table model that is explicitly configured to be non-editable.
         DefaultTableModel detailsModel = new DefaultTableModel(new String[]{"Date", "Status"}, 0) {
             @Override
@@ -874,8 +924,8 @@ public class StudentDashboard extends JFrame {
             }
         };
 
-        // 2. Fetch the detailed records for the specific course.
-        List<String[]> records = DataManager.getAttendanceForStudent(studentUser.getId(), courseId);
+        // 2. The detailed records for the course come from the snapshot the cards were built from,
+        //    so opening the dialog never reads the data files on the EDT.
 
         // 3. Populate the table model with the fetched data.
         for (String[] record : records) {
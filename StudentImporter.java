@@ -0,0 +1,243 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Registers students in bulk from a CSV file, for the start of term.
+ *
+ * Columns: fullName, username, password, ic, email, contact, address, courses.
+ * 'courses' lists 1 to 3 course ids separated by ';' (the register dialog's
+ * limit), each optionally followed by "=amount" to record a first payment for
+ * that enrollment, e.g. "C-101=150;C-102". Fields may be quoted, and a first
+ * line starting with "fullName" is skipped as a header.
+ *
+ * Passwords are hashed on import. A password already in the stored form
+ * ({@code pbkdf2$<iterations>$<salt>$<hash>}, e.g. exported from another copy
+ * of the data files) is kept as it is, but only if it is a complete hash (see
+ * {@link PasswordHasher#isWellFormed}); any other value starting with
+ * "pbkdf2$" rejects the row.
+ *
+ * The file is read a line at a time. Usernames are checked against a set
+ * loaded once, and valid rows are stored in batches of {@link #BATCH_SIZE}:
+ * ids are taken in blocks and each batch is one write per data file
+ * ({@link Storage#addStudents}). A row that fails validation is skipped and
+ * reported with its line number; the other rows are still imported.
+ */
+public class StudentImporter {
+    static final int BATCH_SIZE = 500;
+    private static final int MAX_COURSES = 3;
+    private static final int COLUMNS = 8;
+
+    /** Students imported, and one message per row that was not. */
+    public static class Report {
+        private int imported;
+        private final List<String> errors = new ArrayList<>();
+
+        public int getImported() { return imported; }
+        public List<String> getErrors() { return errors; }
+
+        public String summary() {
+            StringBuilder summary = new StringBuilder("Imported " + imported + " student(s).");
+            if (!errors.isEmpty()) {
+                summary.append("\n").append(errors.size()).append(" row(s) not imported:");
+                for (String error : errors) {
+                    summary.append("\n").append(error);
+                }
+            }
+            return summary.toString();
+        }
+    }
+
+    // One valid line of the file, waiting for its batch to be stored
+    private static class Row {
+        int line;
+        String fullName, username, password, ic, email, contact, address;
+        Map<String, Double> payments = new LinkedHashMap<>(); // courseId -> first payment, or null
+    }
+
+    private final Set<String> takenUsernames = new HashSet<>();
+    private final Map<String, Integer> usernameLines = new HashMap<>(); // usernames in this file -> line
+    private final Set<String> courseIds = new HashSet<>();
+    private final List<Row> batch = new ArrayList<>();
+    private final Report report = new Report();
+
+    private StudentImporter() {
+        for (String role : new String[]{"Admin", "Tutor", "Receptionist", "Student"}) {
+            for (User user : DataManager.STORAGE.users().getByRole(role)) {
+                takenUsernames.add(user.getUsername());
+            }
+        }
+        for (String[] course : DataManager.STORAGE.courses().getAll()) {
+            courseIds.add(course[0]);
+        }
+    }
+
+    /** Imports the students in a CSV file. Rows stored before a read error stay imported. */
+    public static Report importFile(String path) {
+        StudentImporter importer = new StudentImporter();
+        // Spreadsheet exports are UTF-8; undecodable bytes are replaced rather than failing the import
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(Paths.get(path)), StandardCharsets.UTF_8))) {
+            importer.read(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            importer.report.errors.add("Could not read " + path + ": " + e.getMessage());
+        }
+        importer.flush();
+        return importer.report;
+    }
+
+    private void read(BufferedReader reader) throws IOException {
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (lineNumber == 1 && line.startsWith("\uFEFF")) line = line.substring(1); // byte order mark
+            if (line.trim().isEmpty()) continue;
+            List<String> fields = splitCsv(line);
+            if (lineNumber == 1 && fields.get(0).equalsIgnoreCase("fullName")) continue;
+
+            Row row = new Row();
+            row.line = lineNumber;
+            String error = parse(fields, row);
+            if (error != null) {
+                report.errors.add("Line " + lineNumber + ": " + error);
+                continue;
+            }
+            takenUsernames.add(row.username);
+            usernameLines.put(row.username, lineNumber);
+            batch.add(row);
+            if (batch.size() >= BATCH_SIZE) flush();
+        }
+    }
+
+    // Fills 'row' from the fields of a line, or returns why the line is rejected
+    private String parse(List<String> fields, Row row) {
+        if (fields.size() != COLUMNS) return "expected " + COLUMNS + " columns, found " + fields.size();
+        for (int i = 0; i < COLUMNS; i++) {
+            // The data files are split on commas; only the address is stored as the last column
+            if (i != 6 && fields.get(i).contains(",")) return "commas are only allowed in the address";
+        }
+        row.fullName = fields.get(0);
+        row.username = fields.get(1);
+        row.password = fields.get(2);
+        row.ic = fields.get(3);
+        row.email = fields.get(4);
+        row.contact = fields.get(5);
+        row.address = fields.get(6);
+        if (row.fullName.isEmpty() || row.username.isEmpty() || row.password.isEmpty()) {
+            return "full name, username and password are required";
+        }
+        if (PasswordHasher.isHashed(row.password) && !PasswordHasher.isWellFormed(row.password)) {
+            return "password starts with \"pbkdf2$\" but is not a complete stored hash";
+        }
+        if (usernameLines.containsKey(row.username)) {
+            return "username '" + row.username + "' is already used on line " + usernameLines.get(row.username);
+        }
+        if (takenUsernames.contains(row.username)) return "username '" + row.username + "' is already taken";
+
+        for (String course : fields.get(7).split(";")) {
+            String[] parts = course.split("=", 2);
+            String courseId = parts[0].trim();
+            if (courseId.isEmpty()) continue;
+            if (!courseIds.contains(courseId)) return "unknown course '" + courseId + "'";
+            Double amount = null;
+            if (parts.length > 1) {
+                try {
+                    amount = Double.parseDouble(parts[1].trim());
+                } catch (NumberFormatException e) { /* checked below */ }
+                if (amount == null || !(amount > 0) || amount.isInfinite()) {
+                    return "bad payment amount '" + parts[1].trim() + "' for " + courseId;
+                }
+            }
+            row.payments.put(courseId, amount);
+        }
+        if (row.payments.isEmpty()) return "at least one course is required";
+        if (row.payments.size() > MAX_COURSES) return "a student can enroll in at most " + MAX_COURSES + " courses";
+        return null;
+    }
+
+    // Stores the rows collected so far: ids in blocks, one write per file
+    private void flush() {
+        if (batch.isEmpty()) return;
+        int enrollmentCount = 0, paymentCount = 0;
+        for (Row row : batch) {
+            enrollmentCount += row.payments.size();
+            for (Double amount : row.payments.values()) {
+                if (amount != null) paymentCount++;
+            }
+        }
+        Iterator<String> studentIds = DataManager.getNextIdsForRole("Student", batch.size()).iterator();
+        Iterator<String> enrollmentIds = DataManager.STORAGE.nextIds("ENR-", DataManager.ENROLLMENTS_FILE, 1, enrollmentCount).iterator();
+        Iterator<String> paymentIds = DataManager.STORAGE.nextIds("PAY-", DataManager.PAYMENTS_FILE, 1, paymentCount).iterator();
+        String paymentDate = LocalDate.now().format(DateTimeFormatter.ISO_LOCAL_DATE);
+
+        // Hashing is deliberately slow, so it is the bulk of the work; spread it over the cores.
+        // Stored hashes were checked by parse().
+        List<String> hashes = batch.parallelStream()
+                .map(row -> PasswordHasher.isHashed(row.password) ? row.password : PasswordHasher.hash(row.password))
+                .collect(Collectors.toList());
+
+        List<User> students = new ArrayList<>();
+        List<String[]> details = new ArrayList<>();
+        List<String[]> enrollments = new ArrayList<>();
+        List<String[]> payments = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Row row = batch.get(i);
+            String studentId = studentIds.next();
+            students.add(new User(studentId, row.username, hashes.get(i), "Student", row.fullName, ""));
+            details.add(new String[]{studentId, row.ic, row.email, row.contact, row.address});
+            for (Map.Entry<String, Double> course : row.payments.entrySet()) {
+                String enrollmentId = enrollmentIds.next();
+                enrollments.add(new String[]{enrollmentId, studentId, course.getKey()});
+                if (course.getValue() != null) {
+                    payments.add(new String[]{paymentIds.next(), enrollmentId, String.valueOf(course.getValue()), paymentDate});
+                }
+            }
+        }
+
+        if (DataManager.STORAGE.addStudents(students, details, enrollments, payments)) {
+            report.imported += batch.size();
+        } else {
+            for (Row row : batch) {
+                report.errors.add("Line " + row.line + ": could not be saved to the data files");
+                takenUsernames.remove(row.username);
+                usernameLines.remove(row.username);
+            }
+        }
+        batch.clear();
+    }
+
+    // Splits a CSV line: fields are trimmed, and a quoted field may hold commas and "" for a quote
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.*;
+
+/**
+ * Everything StudentDashboard shows about one student, gathered in one go by
+ * {@link DataManager#getStudentSnapshot}: the enrollments and their courses
+ * are looked up once and shared by the results, attendance and payment
+ * sections instead of each fetching them again.
+ *
+ * A snapshot is immutable. DataManager caches one per student and builds a
+ * new one once a write has changed student data (see {@link #isCurrent}).
+ */
+public class StudentSnapshot {
+    private final String studentId;
+    private final Set<String> courseIds;
+    private final List<ResultSummary> resultSummaries;
+    private final List<AttendanceSummary> attendanceSummaries;
+    private final Map<String, List<String[]>> attendanceByCourse;
+    private final Map<String, Double> paymentStatus;
+    private final List<String[]> paymentHistory;
+    private final Map<String, String> pendingRequests;
+
+    // What it was built from: DataManager's write version and the stamps of the data files
+    private final long version;
+    private final long[] stamps;
+
+    StudentSnapshot(String studentId, Set<String> courseIds, List<ResultSummary> resultSummaries,
+                    List<AttendanceSummary> attendanceSummaries, Map<String, List<String[]>> attendanceByCourse,
+                    Map<String, Double> paymentStatus, List<String[]> paymentHistory, Map<String, String> pendingRequests,
+                    long version, long[] stamps) {
+        this.studentId = studentId;
+        this.courseIds = Collections.unmodifiableSet(courseIds);
+        this.resultSummaries = Collections.unmodifiableList(resultSummaries);
+        this.attendanceSummaries = Collections.unmodifiableList(attendanceSummaries);
+        this.attendanceByCourse = Collections.unmodifiableMap(attendanceByCourse);
+        this.paymentStatus = Collections.unmodifiableMap(paymentStatus);
+        this.paymentHistory = Collections.unmodifiableList(paymentHistory);
+        this.pendingRequests = Collections.unmodifiableMap(pendingRequests);
+        this.version = version;
+        this.stamps = stamps;
+    }
+
+    public String getStudentId() { return studentId; }
+    public Set<String> getCourseIds() { return courseIds; }
+    public List<ResultSummary> getResultSummaries() { return resultSummaries; }
+    public List<AttendanceSummary> getAttendanceSummaries() { return attendanceSummaries; }
+    public Map<String, Double> getPaymentStatus() { return paymentStatus; }
+    /** [paymentId, date, courseName, amount], newest first. */
+    public List<String[]> getPaymentHistory() { return paymentHistory; }
+    /** Pending request id -> details. */
+    public Map<String, String> getPendingRequests() { return pendingRequests; }
+
+    /** [courseId, studentId, date, status] records in one course, newest first. */
+    public List<String[]> getAttendance(String courseId) {
+        return Collections.unmodifiableList(attendanceByCourse.getOrDefault(courseId, Collections.emptyList()));
+    }
+
+    /** True if nothing was written in this process since it was built and the files it was read from are unchanged. */
+    boolean isCurrent(long currentVersion, long[] currentStamps) {
+        return version == currentVersion && Arrays.equals(stamps, currentStamps);
+    }
+}
@@ -0,0 +1,353 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Builds a clash-free weekly timetable for a set of classes that each meet
+ * once a week.
+ *
+ * Hard constraints: a tutor teaches one class per slot, no student has two
+ * of their enrolled courses in the same slot, and at most {@code rooms}
+ * classes run in parallel. Soft constraints spread each tutor's classes over
+ * the week (at most {@link #MAX_CLASSES_PER_TUTOR_DAY} a day) and, for
+ * subjects that any qualified tutor may teach, balance the load between
+ * tutors.
+ *
+ * The solver starts from a greedy most-constrained-first placement and then
+ * improves it with simulated annealing. Several independent chains run in
+ * parallel until the time budget is spent (or one of them finds a timetable
+ * with no violations at all), and the best one wins. Classes that still clash
+ * are taken out and reported as unscheduled rather than written as clashes.
+ */
+public class TimetableSolver {
+    static final int MAX_CLASSES_PER_TUTOR_DAY = 2;
+    private static final int HARD_WEIGHT = 1000;
+    private static final double START_TEMPERATURE = 2.0 * HARD_WEIGHT;
+    private static final double END_TEMPERATURE = 0.05;
+
+    /** One class that has to be given a weekly slot. */
+    public static class ClassRequest {
+        final String subject;
+        final String courseId;
+        final List<String> tutorIds;
+
+        /**
+         * @param courseId the course this class belongs to, or null for a subject that has no course yet
+         * @param tutorIds tutors who may teach it; a course passes just its own tutor
+         */
+        public ClassRequest(String subject, String courseId, List<String> tutorIds) {
+            this.subject = subject;
+            this.courseId = courseId;
+            this.tutorIds = tutorIds;
+        }
+
+        public String getSubject() { return subject; }
+        public String getCourseId() { return courseId; }
+    }
+
+    /** A class placed on a day (0 = first day) and slot of the day, with the tutor who takes it. */
+    public static class Placement {
+        final ClassRequest request;
+        final int day;
+        final int slot;
+        final String tutorId;
+
+        Placement(ClassRequest request, int day, int slot, String tutorId) {
+            this.request = request;
+            this.day = day;
+            this.slot = slot;
+            this.tutorId = tutorId;
+        }
+
+        public ClassRequest getRequest() { return request; }
+        public int getDay() { return day; }
+        public int getSlot() { return slot; }
+        public String getTutorId() { return tutorId; }
+    }
+
+    public static class Result {
+        final List<Placement> placements;
+        final List<ClassRequest> unscheduled;
+        final int softViolations;
+
+        Result(List<Placement> placements, List<ClassRequest> unscheduled, int softViolations) {
+            this.placements = placements;
+            this.unscheduled = unscheduled;
+            this.softViolations = softViolations;
+        }
+
+        public List<Placement> getPlacements() { return placements; }
+        public List<ClassRequest> getUnscheduled() { return unscheduled; }
+        /** Tutor-day overloads and load imbalance left in the timetable (hard clashes are never left in). */
+        public int getSoftViolations() { return softViolations; }
+    }
+
+    private final List<ClassRequest> classes;
+    private final int days;
+    private final int slotsPerDay;
+    private final int slotCount;
+    private final int rooms;
+
+    private final List<String> tutorIds = new ArrayList<>();
+    private final int[][] candidateTutors; // per class, indexes into tutorIds
+    private final int[][] neighbours;      // per class, classes sharing students with it
+    private final int[][] sharedStudents;  // parallel to neighbours
+    private final int[] loadTarget;        // per tutor: fair share, or its own course count if that is higher
+
+    /**
+     * @param coursesByStudent each student's enrolled course ids; used to keep a student's classes apart
+     */
+    public TimetableSolver(List<ClassRequest> classes, Map<String, List<String>> coursesByStudent, int days, int slotsPerDay, int rooms) {
+        this.classes = classes;
+        this.days = days;
+        this.slotsPerDay = slotsPerDay;
+        this.slotCount = days * slotsPerDay;
+        this.rooms = rooms;
+
+        Map<String, Integer> tutorIndex = new HashMap<>();
+        candidateTutors = new int[classes.size()][];
+        Map<String, Integer> classByCourse = new HashMap<>();
+        for (int c = 0; c < classes.size(); c++) {
+            ClassRequest request = classes.get(c);
+            candidateTutors[c] = request.tutorIds.stream()
+                    .mapToInt(id -> tutorIndex.computeIfAbsent(id, k -> { tutorIds.add(k); return tutorIds.size() - 1; }))
+                    .toArray();
+            if (request.courseId != null) classByCourse.put(request.courseId, c);
+        }
+        int fairShare = tutorIds.isEmpty() ? 0 : (classes.size() + tutorIds.size() - 1) / tutorIds.size();
+        loadTarget = new int[tutorIds.size()];
+        for (int c = 0; c < classes.size(); c++) {
+            if (candidateTutors[c].length == 1) loadTarget[candidateTutors[c][0]]++;
+        }
+        for (int t = 0; t < loadTarget.length; t++) {
+            loadTarget[t] = Math.max(loadTarget[t], fairShare);
+        }
+
+        // Class conflict graph, weighted by the number of students the two classes share
+        List<Map<Integer, Integer>> shared = new ArrayList<>();
+        for (int c = 0; c < classes.size(); c++) shared.add(new HashMap<>());
+        for (List<String> courseIds : coursesByStudent.values()) {
+            List<Integer> enrolled = new ArrayList<>();
+            for (String courseId : courseIds) {
+                Integer c = classByCourse.get(courseId);
+                if (c != null && !enrolled.contains(c)) enrolled.add(c);
+            }
+            for (int i = 0; i < enrolled.size(); i++) {
+                for (int j = i + 1; j < enrolled.size(); j++) {
+                    shared.get(enrolled.get(i)).merge(enrolled.get(j), 1, Integer::sum);
+                    shared.get(enrolled.get(j)).merge(enrolled.get(i), 1, Integer::sum);
+                }
+            }
+        }
+        neighbours = new int[classes.size()][];
+        sharedStudents = new int[classes.size()][];
+        for (int c = 0; c < classes.size(); c++) {
+            Map<Integer, Integer> edges = shared.get(c);
+            neighbours[c] = new int[edges.size()];
+            sharedStudents[c] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> edge : edges.entrySet()) {
+                neighbours[c][i] = edge.getKey();
+                sharedStudents[c][i++] = edge.getValue();
+            }
+        }
+    }
+
+    /** Runs {@code threads} annealing chains for at most {@code timeBudgetMillis} and returns the best timetable. */
+    public Result solve(long timeBudgetMillis, int threads, long seed) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        AtomicBoolean perfectFound = new AtomicBoolean(false);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "timetable-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Chain>> chains = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                long chainSeed = seed + i * 0x9E3779B97F4A7C15L;
+                chains.add(pool.submit(() -> {
+                    Chain chain = new Chain(new Random(chainSeed));
+                    chain.anneal(deadline, perfectFound);
+                    return chain;
+                }));
+            }
+            Chain best = null;
+            for (Future<Chain> future : chains) {
+                Chain chain = future.get();
+                if (best == null || chain.bestCost < best.bestCost) best = chain;
+            }
+            return best.toResult();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Timetable solver interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Timetable solver failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** One annealing run with its own assignment and bookkeeping. */
+    private class Chain {
+        private final Random random;
+        private final int[] slotOf = new int[classes.size()];
+        private final int[] tutorOf = new int[classes.size()];
+        private final int[][] tutorSlotUse = new int[tutorIds.size()][slotCount];
+        private final int[][] tutorDayUse = new int[tutorIds.size()][days];
+        private final int[] tutorLoad = new int[tutorIds.size()];
+        private final int[] roomUse = new int[slotCount];
+        private long cost;
+
+        private int[] bestSlotOf;
+        private int[] bestTutorOf;
+        private long bestCost = Long.MAX_VALUE;
+
+        Chain(Random random) {
+            this.random = random;
+        }
+
+        void anneal(long deadline, AtomicBoolean perfectFound) {
+            placeGreedily();
+            remember();
+            if (classes.isEmpty()) return;
+
+            long start = System.nanoTime();
+            double span = Math.max(1, deadline - start);
+            double temperature = START_TEMPERATURE;
+            for (long step = 0; cost > 0; step++) {
+                if ((step & 1023) == 0) {
+                    long now = System.nanoTime();
+                    if (now >= deadline || perfectFound.get()) break;
+                    temperature = START_TEMPERATURE * Math.pow(END_TEMPERATURE / START_TEMPERATURE, (now - start) / span);
+                }
+                int c = random.nextInt(classes.size());
+                int newSlot = random.nextInt(slotCount);
+                int newTutor = candidateTutors[c][random.nextInt(candidateTutors[c].length)];
+                int oldSlot = slotOf[c];
+                int oldTutor = tutorOf[c];
+                if (newSlot == oldSlot && newTutor == oldTutor) continue;
+
+                remove(c);
+                long delta = placementCost(c, newSlot, newTutor) - placementCost(c, oldSlot, oldTutor);
+                if (delta <= 0 || random.nextDouble() < Math.exp(-delta / temperature)) {
+                    add(c, newSlot, newTutor);
+                    cost += delta;
+                    if (cost < bestCost) remember();
+                } else {
+                    add(c, oldSlot, oldTutor);
+                }
+            }
+            if (bestCost == 0) perfectFound.set(true);
+        }
+
+        // Most constrained classes first, each into its cheapest slot given what is already placed
+        private void placeGreedily() {
+            Integer[] order = new Integer[classes.size()];
+            for (int c = 0; c < order.length; c++) order[c] = c;
+            Arrays.sort(order, Comparator.<Integer>comparingInt(c -> candidateTutors[c].length)
+                    .thenComparing(Comparator.<Integer>comparingInt(c -> neighbours[c].length).reversed()));
+            Arrays.fill(slotOf, -1);
+            for (int c : order) {
+                long cheapest = Long.MAX_VALUE;
+                int bestSlot = 0, bestTutor = candidateTutors[c][0], ties = 0;
+                for (int s = 0; s < slotCount; s++) {
+                    for (int t : candidateTutors[c]) {
+                        long placement = placementCost(c, s, t);
+                        if (placement < cheapest) {
+                            cheapest = placement;
+                            bestSlot = s;
+                            bestTutor = t;
+                            ties = 1;
+                        } else if (placement == cheapest && random.nextInt(++ties) == 0) {
+                            bestSlot = s; // reservoir-sample among equally good slots so chains differ
+                            bestTutor = t;
+                        }
+                    }
+                }
+                add(c, bestSlot, bestTutor);
+                cost += cheapest;
+            }
+        }
+
+        // Cost that class c adds when put at (slot, tutor), given every other class where it is now.
+        // Unplaced classes (slot -1) are ignored.
+        private long placementCost(int c, int slot, int tutor) {
+            long hard = tutorSlotUse[tutor][slot];
+            if (roomUse[slot] >= rooms) hard++;
+            for (int i = 0; i < neighbours[c].length; i++) {
+                if (slotOf[neighbours[c][i]] == slot) hard += sharedStudents[c][i];
+            }
+            long soft = 0;
+            if (tutorDayUse[tutor][slot / slotsPerDay] >= MAX_CLASSES_PER_TUTOR_DAY) soft++;
+            if (tutorLoad[tutor] >= loadTarget[tutor]) soft++;
+            return hard * HARD_WEIGHT + soft;
+        }
+
+        private void add(int c, int slot, int tutor) {
+            slotOf[c] = slot;
+            tutorOf[c] = tutor;
+            tutorSlotUse[tutor][slot]++;
+            tutorDayUse[tutor][slot / slotsPerDay]++;
+            tutorLoad[tutor]++;
+            roomUse[slot]++;
+        }
+
+        private void remove(int c) {
+            int slot = slotOf[c];
+            int tutor = tutorOf[c];
+            tutorSlotUse[tutor][slot]--;
+            tutorDayUse[tutor][slot / slotsPerDay]--;
+            tutorLoad[tutor]--;
+            roomUse[slot]--;
+            slotOf[c] = -1;
+        }
+
+        private void remember() {
+            bestCost = cost;
+            bestSlotOf = slotOf.clone();
+            bestTutorOf = tutorOf.clone();
+        }
+
+        // Restores the best assignment, then drops the worst clashing class until no hard violation is left
+        Result toResult() {
+            for (int c = 0; c < classes.size(); c++) {
+                if (slotOf[c] >= 0) remove(c);
+            }
+            for (int c = 0; c < classes.size(); c++) {
+                add(c, bestSlotOf[c], bestTutorOf[c]);
+            }
+            List<ClassRequest> unscheduled = new ArrayList<>();
+            while (true) {
+                int worst = -1;
+                long worstHard = 0;
+                for (int c = 0; c < classes.size(); c++) {
+                    if (slotOf[c] < 0) continue;
+                    int slot = slotOf[c], tutor = tutorOf[c];
+                    remove(c);
+                    long hard = placementCost(c, slot, tutor) / HARD_WEIGHT;
+                    add(c, slot, tutor);
+                    if (hard > worstHard) {
+                        worstHard = hard;
+                        worst = c;
+                    }
+                }
+                if (worst < 0) break;
+                unscheduled.add(classes.get(worst));
+                remove(worst);
+            }
+
+            List<Placement> placements = new ArrayList<>();
+            for (int c = 0; c < classes.size(); c++) {
+                if (slotOf[c] < 0) continue;
+                placements.add(new Placement(classes.get(c), slotOf[c] / slotsPerDay, slotOf[c] % slotsPerDay, tutorIds.get(tutorOf[c])));
+            }
+            int soft = 0;
+            for (int t = 0; t < tutorIds.size(); t++) {
+                for (int d = 0; d < days; d++) soft += Math.max(0, tutorDayUse[t][d] - MAX_CLASSES_PER_TUTOR_DAY);
+                soft += Math.max(0, tutorLoad[t] - loadTarget[t]);
+            }
+            return new Result(placements, unscheduled, soft);
+        }
+    }
+}
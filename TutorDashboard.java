@@ -19,6 +19,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.Vector;
 import java.util.stream.Collectors;
 import javax.swing.*;
@@ -28,6 +29,17 @@ import javax.swing.table.JTableHeader;
 
 public class TutorDashboard extends JFrame {
     private User tutorUser;
+    private final Consumer<DataEvent> dataEventListener = this::onDataEvent;
+
+    // Background loads, one slot per view so a newer request cancels the stale one
+    private final BackgroundLoader.Slot scheduleSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot courseTableSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot resultsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot studentsSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot payrollSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot chatBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot announcementBadgeSlot = new BackgroundLoader.Slot();
+    private final BackgroundLoader.Slot feedbackBadgeSlot = new BackgroundLoader.Slot();
     
     private CardLayout cardLayout;
     private JPanel contentPanel;
@@ -102,9 +114,43 @@ public class TutorDashboard extends JFrame {
         refreshAnnouncementNotification();
         refreshFeedbackNotification();
 
+        // Badges are refreshed when a relevant change is published instead of on a timer
+        DataEventBus.subscribe(dataEventListener);
+        this.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                DataEventBus.unsubscribe(dataEventListener);
+            }
+        });
+
         cardLayout.show(contentPanel, "WELCOME_PANEL");
     }
 
+    private void onDataEvent(DataEvent event) {
+        switch (event.getType()) {
+            case MESSAGE_SENT:
+                if (tutorUser.getUsername().equals(event.getTarget())) refreshChatNotification();
+                break;
+            case MESSAGES_READ:
+                if (tutorUser.getUsername().equals(event.getActor())) refreshChatNotification();
+                break;
+            case ANNOUNCEMENTS_CHANGED:
+                refreshAnnouncementNotification();
+                break;
+            case FEEDBACK_SUBMITTED:
+            case FEEDBACK_READ:
+                if (tutorUser.getId().equals(event.getTarget())) refreshFeedbackNotification();
+                break;
+            case FILE_CHANGED:
+                if (event.isFileChange(DataManager.CHATS_FILE)) refreshChatNotification();
+                if (event.isFileChange(DataManager.ANNOUNCEMENTS_FILE) || event.isFileChange(DataManager.READ_ANNOUNCEMENTS_FILE)) refreshAnnouncementNotification();
+                if (event.isFileChange(DataManager.FEEDBACK_FILE)) refreshFeedbackNotification();
+                break;
+            default:
+                break;
+        }
+    }
+
     private JPanel createHeaderPanel() {
         JPanel headerPanel = new JPanel(new BorderLayout());
         headerPanel.setBackground(BG_COLOR);
@@ -255,10 +301,7 @@ public class TutorDashboard extends JFrame {
         
         panel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) { 
-                refreshCourseSelector(courseSelector);
-                if (courseSelector.getItemCount() > 0) {
-                    courseSelector.setSelectedIndex(0);
-                }
+                loadCourseSelector(courseSelector, resultsSlot);
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -283,18 +326,14 @@ public class TutorDashboard extends JFrame {
             String selectedCourse = (String) courseSelector.getSelectedItem();
             if (selectedCourse == null) return;
             String courseId = selectedCourse.split(":")[0];
-            String report = DataManager.getTutorCourseResultsReport(courseId);
-            resultsArea.setText(report);
-            resultsArea.setCaretPosition(0);
+            loadResultsReport(courseId, resultsArea);
         });
         
         viewButton.addActionListener(e -> {
             String selectedCourse = (String) courseSelector.getSelectedItem();
             if (selectedCourse == null) return;
             String courseId = selectedCourse.split(":")[0];
-            String report = DataManager.getTutorCourseResultsReport(courseId);
-            resultsArea.setText(report);
-            resultsArea.setCaretPosition(0);
+            loadResultsReport(courseId, resultsArea);
         });
         uploadButton.addActionListener(e -> showUploadResultDialog(courseSelector));
         
@@ -313,10 +352,7 @@ public class TutorDashboard extends JFrame {
 
         panel.addAncestorListener(new javax.swing.event.AncestorListener() {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
-                refreshCourseSelector(courseSelector);
-                if (courseSelector.getItemCount() > 0) {
-                    courseSelector.setSelectedIndex(0);
-                }
+                loadCourseSelector(courseSelector, studentsSlot);
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
             public void ancestorMoved(javax.swing.event.AncestorEvent e) {}
@@ -338,8 +374,10 @@ public class TutorDashboard extends JFrame {
             String selectedCourse = (String) courseSelector.getSelectedItem();
             if (selectedCourse == null) return;
             String courseId = selectedCourse.split(":")[0];
-            List<String> students = DataManager.getStudentsByCourse(courseId);
-            studentList.setListData(new Vector<>(students));
+            studentList.setListData(new Vector<>(List.of("Loading...")));
+            studentsSlot.load(() -> DataManager.getStudentsByCourse(courseId),
+                    students -> studentList.setListData(new Vector<>(students)),
+                    error -> studentList.setListData(new Vector<>(List.of(BackgroundLoader.LOAD_FAILED))));
         });
 
         return panel;
@@ -381,9 +419,11 @@ public class TutorDashboard extends JFrame {
         btnGenerate.addActionListener(e -> {
             int month = (int) monthComboBox.getSelectedItem();
             int year = (int) yearComboBox.getSelectedItem();
-            String report = DataManager.generateTutorPayrollReport(tutorUser.getId(), month, year);
-            reportArea.setText(report);
-            reportArea.setCaretPosition(0);
+            reportArea.setText("Generating report...");
+            payrollSlot.load(() -> DataManager.generateTutorPayrollReport(tutorUser.getId(), month, year), report -> {
+                reportArea.setText(report);
+                reportArea.setCaretPosition(0);
+            }, error -> reportArea.setText(BackgroundLoader.LOAD_FAILED));
         });
         
         return panel;
@@ -420,7 +460,7 @@ public class TutorDashboard extends JFrame {
             String newSpecialization = txtSpecialization.getText().trim();
             String finalPassword = newPasswordStr.isEmpty() ? tutorUser.getPassword() : newPasswordStr;
             User updatedUser = new User(tutorUser.getId(), tutorUser.getUsername(), finalPassword, tutorUser.getRole(), newFullName, newSpecialization);
-            if (DataManager.updateUser(updatedUser)) {
+            if (DataManager.updateUser(updatedUser, newPasswordStr.isEmpty() ? null : newPasswordStr)) {
                 JOptionPane.showMessageDialog(this, "Profile updated successfully!");
                 this.tutorUser = updatedUser;
             } else {
@@ -431,11 +471,34 @@ public class TutorDashboard extends JFrame {
     }
     
     private void refreshCourseTable() {
-        courseTableModel.setRowCount(0);
-        List<String[]> courses = DataManager.getCoursesByTutor(tutorUser.getId());
-        for (String[] courseData : courses) {
-            courseTableModel.addRow(courseData);
-        }
+        BackgroundLoader.showLoading(courseTableModel);
+        courseTableSlot.load(AsyncDataManager.getCoursesByTutor(tutorUser.getId()), courses -> {
+            courseTableModel.setRowCount(0);
+            for (String[] courseData : courses) {
+                courseTableModel.addRow(courseData);
+            }
+        }, error -> BackgroundLoader.showError(courseTableModel));
+    }
+
+    // Fills the selector off the EDT and selects the first course, which triggers its listener.
+    private void loadCourseSelector(JComboBox<String> selector, BackgroundLoader.Slot slot) {
+        slot.load(AsyncDataManager.getCoursesByTutor(tutorUser.getId()), courses -> {
+            selector.removeAllItems();
+            for (String[] courseData : courses) {
+                selector.addItem(courseData[0] + ": " + courseData[1]);
+            }
+            if (selector.getItemCount() > 0) {
+                selector.setSelectedIndex(0);
+            }
+        });
+    }
+
+    private void loadResultsReport(String courseId, JTextArea resultsArea) {
+        resultsArea.setText("Loading...");
+        resultsSlot.load(() -> DataManager.getTutorCourseResultsReport(courseId), report -> {
+            resultsArea.setText(report);
+            resultsArea.setCaretPosition(0);
+        }, error -> resultsArea.setText(BackgroundLoader.LOAD_FAILED));
     }
     
     private void refreshCourseSelector(JComboBox<String> selector) {
@@ -612,16 +675,17 @@ public class TutorDashboard extends JFrame {
     }
     
     public void refreshChatNotification() {
-        int unreadCount = DataManager.getUnreadMessageCount(this.tutorUser); 
-        if (unreadCount > 0) {
-            btnChat.setText("Chat (" + unreadCount + ")");
-            btnChat.setForeground(Color.RED);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
-        } else {
-            btnChat.setText("Chat");
-            btnChat.setForeground(Color.WHITE);
-            btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
-        }
+        chatBadgeSlot.load(AsyncDataManager.getUnreadMessageCount(this.tutorUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnChat.setText("Chat (" + unreadCount + ")");
+                btnChat.setForeground(Color.RED);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.BOLD, btnChat.getFont().getSize()));
+            } else {
+                btnChat.setText("Chat");
+                btnChat.setForeground(Color.WHITE);
+                btnChat.setFont(new Font(btnChat.getFont().getName(), Font.PLAIN, btnChat.getFont().getSize()));
+            }
+        });
     }
 
     private void openAnnouncements() {
@@ -636,17 +700,17 @@ public class TutorDashboard extends JFrame {
     }
     
     public void refreshAnnouncementNotification() {
-        Set<String> readIds = DataManager.getReadAnnouncementIds(this.tutorUser);
-        long unreadCount = DataManager.getAllAnnouncements().stream().filter(a -> !readIds.contains(a.getId())).count();
-        if (unreadCount > 0) {
-            btnAnnouncements.setText("Announcements (" + unreadCount + ")");
-            btnAnnouncements.setForeground(Color.CYAN);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
-        } else {
-            btnAnnouncements.setText("Announcements");
-            btnAnnouncements.setForeground(Color.WHITE);
-            btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
-        }
+        announcementBadgeSlot.load(AsyncDataManager.getUnreadAnnouncementCount(this.tutorUser), unreadCount -> {
+            if (unreadCount > 0) {
+                btnAnnouncements.setText("Announcements (" + unreadCount + ")");
+                btnAnnouncements.setForeground(Color.CYAN);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.BOLD, btnAnnouncements.getFont().getSize()));
+            } else {
+                btnAnnouncements.setText("Announcements");
+                btnAnnouncements.setForeground(Color.WHITE);
+                btnAnnouncements.setFont(new Font(btnAnnouncements.getFont().getName(), Font.PLAIN, btnAnnouncements.getFont().getSize()));
+            }
+        });
     }
 
     
@@ -784,11 +848,9 @@ public class TutorDashboard extends JFrame {
             public void ancestorAdded(javax.swing.event.AncestorEvent e) {
                 dateSelector.removeAllItems();
                 LocalDate today = LocalDate.now();
-                for (int i = 0; i < 7; i++) {
-                    LocalDate date = today.minusDays(i);
-                    if (!DataManager.getTutorClassesForDate(tutorUser.getFullName(), date).isEmpty()) {
-                        dateSelector.addItem(date);
-                    }
+                // Days in the last week this tutor taught, most recent first
+                for (LocalDate date : DataManager.getTimetable(today.minusDays(6), today, tutorUser.getFullName()).descendingKeySet()) {
+                    dateSelector.addItem(date);
                 }
             }
             public void ancestorRemoved(javax.swing.event.AncestorEvent e) {}
@@ -908,70 +970,72 @@ public class TutorDashboard extends JFrame {
             weekLabel.setText(start.format(dtf) + "  -  " + end.format(dtf));
 
             scheduleContentPanel.removeAll();
+            scheduleContentPanel.setLayout(new GridBagLayout());
+            scheduleContentPanel.add(BackgroundLoader.createLoadingLabel());
+            scheduleContentPanel.revalidate();
+            scheduleContentPanel.repaint();
 
-            Map<LocalDate, List<String[]>> allSchedules = DataManager.getStoredTimetable();
-            Map<LocalDate, List<String[]>> weeklySchedule = allSchedules.entrySet().stream()
-                    .filter(entry -> !entry.getKey().isBefore(start) && !entry.getKey().isAfter(end))
-                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (v1, v2) -> v1, java.util.TreeMap::new));
-
-            if (weeklySchedule.isEmpty()) {
-                scheduleContentPanel.setLayout(new GridBagLayout());
-                JLabel noDataLabel = new JLabel("No classes scheduled for this week.");
-                noDataLabel.setFont(new Font("Arial", Font.ITALIC, 18));
-                noDataLabel.setForeground(Color.LIGHT_GRAY);
-                scheduleContentPanel.add(noDataLabel);
-            } else {
-                scheduleContentPanel.setLayout(new BoxLayout(scheduleContentPanel, BoxLayout.Y_AXIS));
-                DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("EEE, d MMM");
+            scheduleSlot.load(AsyncDataManager.getTimetableForWeek(start), weeklySchedule -> {
+                scheduleContentPanel.removeAll();
+                if (weeklySchedule.isEmpty()) {
+                    scheduleContentPanel.setLayout(new GridBagLayout());
+                    JLabel noDataLabel = new JLabel("No classes scheduled for this week.");
+                    noDataLabel.setFont(new Font("Arial", Font.ITALIC, 18));
+                    noDataLabel.setForeground(Color.LIGHT_GRAY);
+                    scheduleContentPanel.add(noDataLabel);
+                } else {
+                    scheduleContentPanel.setLayout(new BoxLayout(scheduleContentPanel, BoxLayout.Y_AXIS));
+                    DateTimeFormatter dayFormatter = DateTimeFormatter.ofPattern("EEE, d MMM");
 
-                for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
-                    LocalDate date = entry.getKey();
+                    for (Map.Entry<LocalDate, List<String[]>> entry : weeklySchedule.entrySet()) {
+                        LocalDate date = entry.getKey();
                     
-                    // Filter to only show classes taught by the current tutor
-                    List<String[]> myClasses = entry.getValue().stream()
-                        .filter(classInfo -> classInfo[2].equals(tutorUser.getFullName()))
-                        .collect(Collectors.toList());
-
-                    if (myClasses.isEmpty()) continue; // Skip days where this tutor has no classes
-
-                    RoundedPanel dayHeader = new RoundedPanel(15, new Color(20, 110, 255));
-                    dayHeader.setLayout(new FlowLayout(FlowLayout.LEFT, 15, 8));
-                    dayHeader.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
-                    JLabel dayLabel = new JLabel(date.format(dayFormatter).toUpperCase());
-                    dayLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
-                    dayLabel.setForeground(Color.WHITE);
-                    dayHeader.add(dayLabel);
-                    scheduleContentPanel.add(dayHeader);
-                    scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
-
-                    for (String[] classInfo : myClasses) {
-                        String time = classInfo[0];
-                        String rawSubject = classInfo[1];
-                        String tutor = classInfo[2];
-
-                        String subjectName = rawSubject.replace("Weekly ", "");
-                        String subjectCode;
-                        String[] nameParts = subjectName.split(" ");
-                        if (nameParts.length > 1) {
-                            StringBuilder codeBuilder = new StringBuilder();
-                            for (String part : nameParts) {
-                                if (!part.isEmpty()) {
-                                    codeBuilder.append(part.charAt(0));
+                        // Filter to only show classes taught by the current tutor
+                        List<String[]> myClasses = entry.getValue().stream()
+                            .filter(classInfo -> classInfo[2].equals(tutorUser.getFullName()))
+                            .collect(Collectors.toList());
+
+                        if (myClasses.isEmpty()) continue; // Skip days where this tutor has no classes
+
+                        RoundedPanel dayHeader = new RoundedPanel(15, new Color(20, 110, 255));
+                        dayHeader.setLayout(new FlowLayout(FlowLayout.LEFT, 15, 8));
+                        dayHeader.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40));
+                        JLabel dayLabel = new JLabel(date.format(dayFormatter).toUpperCase());
+                        dayLabel.setFont(new Font("SansSerif", Font.BOLD, 16));
+                        dayLabel.setForeground(Color.WHITE);
+                        dayHeader.add(dayLabel);
+                        scheduleContentPanel.add(dayHeader);
+                        scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+
+                        for (String[] classInfo : myClasses) {
+                            String time = classInfo[0];
+                            String rawSubject = classInfo[1];
+                            String tutor = classInfo[2];
+
+                            String subjectName = rawSubject.replace("Weekly ", "");
+                            String subjectCode;
+                            String[] nameParts = subjectName.split(" ");
+                            if (nameParts.length > 1) {
+                                StringBuilder codeBuilder = new StringBuilder();
+                                for (String part : nameParts) {
+                                    if (!part.isEmpty()) {
+                                        codeBuilder.append(part.charAt(0));
+                                    }
                                 }
+                                subjectCode = codeBuilder.toString().toUpperCase() + "-G1";
+                            } else {
+                                subjectCode = subjectName.toUpperCase() + "-G1";
                             }
-                            subjectCode = codeBuilder.toString().toUpperCase() + "-G1";
-                        } else {
-                            subjectCode = subjectName.toUpperCase() + "-G1";
-                        }
 
-                        ClassCard card = new ClassCard(subjectCode, subjectName, time, tutor);
-                        scheduleContentPanel.add(card);
-                        scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+                            ClassCard card = new ClassCard(subjectCode, subjectName, time, tutor);
+                            scheduleContentPanel.add(card);
+                            scheduleContentPanel.add(Box.createRigidArea(new Dimension(0, 10)));
+                        }
                     }
                 }
-            }
-            scheduleContentPanel.revalidate();
-            scheduleContentPanel.repaint();
+                scheduleContentPanel.revalidate();
+                scheduleContentPanel.repaint();
+            }, error -> BackgroundLoader.showError(scheduleContentPanel));
         };
 
         // Action listeners for buttons
@@ -1126,14 +1190,15 @@ public class TutorDashboard extends JFrame {
     }
 
     public void refreshFeedbackNotification() {
-        int unreadCount = DataManager.getUnreadFeedbackCount(this.tutorUser.getId());
-        if (unreadCount > 0) {
-            btnMyFeedback.setText("My Feedback (" + unreadCount + ")");
-            btnMyFeedback.setForeground(Color.ORANGE);
-        } else {
-            btnMyFeedback.setText("My Feedback");
-            btnMyFeedback.setForeground(TEXT_COLOR);
-        }
+        feedbackBadgeSlot.load(AsyncDataManager.getUnreadFeedbackCount(this.tutorUser.getId()), unreadCount -> {
+            if (unreadCount > 0) {
+                btnMyFeedback.setText("My Feedback (" + unreadCount + ")");
+                btnMyFeedback.setForeground(Color.ORANGE);
+            } else {
+                btnMyFeedback.setText("My Feedback");
+                btnMyFeedback.setForeground(TEXT_COLOR);
+            }
+        });
     }
 
     class AttendanceStatusRenderer extends DefaultTableCellRenderer {
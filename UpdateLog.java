@@ -0,0 +1,722 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.Charset;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log for in-place updates of the data files (data/updates.wal).
+ *
+ * Changing one field of a data file used to mean rewriting the whole file. An
+ * update is now a small record appended here: "in FILE, on the lines that start
+ * before byte BEFORE and whose fields match, set these fields". {@link #submit}
+ * returns once the record is on disk; updates submitted at the same time share
+ * one fsync (group commit).
+ *
+ * Pending updates are folded into their base file later, by a background thread
+ * a few seconds after the last update or by {@link #sync(String)}. Code that
+ * reads a file through {@link #forEachLine} or an {@link #overlay} sees pending
+ * updates straight away. Code that reads a file directly must call
+ * {@link #sync(String)} first, and code that rewrites it does so through
+ * {@link #replace}. Compaction rewrites the base file through the
+ * locks of {@link AtomicFiles} and renames a temp file over it, so a crash
+ * leaves either the old or the new file. Records stay
+ * in the log until then and are replayed on the next start. Updates only set
+ * fields, so replaying one that already reached the base file does nothing.
+ *
+ * Other app instances share the log. A lock file serializes writers and
+ * compaction, and the log is re-read whenever another instance has appended to
+ * or compacted it. A record's offset is only meaningful in the file it was
+ * measured in, so each record also holds that file's identity (its file key),
+ * and a file with pending updates is only replaced under the lock file
+ * ({@link #replace}).
+ *
+ * The log also counts how often each file was replaced through it, by a
+ * compaction or {@link #replace} in any instance ({@link #generationOf}). A
+ * cache built from a file that is otherwise only appended to can tell a
+ * rewrite from an append by that number instead of by the file's bytes.
+ */
+public class UpdateLog {
+    private static final long COMPACT_DELAY_MS = 3000;
+    private static final int GROUP_COMMIT_MAX_RECORDS = 256;
+
+    private final Path logPath;
+    private final Path lockPath;
+    private final Charset charset = Charset.defaultCharset();
+
+    // Pending updates per base file, in log order. Guarded by 'this'.
+    private final Map<String, List<Update>> pending = new HashMap<>();
+    // Changes whenever a file's pending updates change, see versionsOf. Guarded by 'this'.
+    private final Map<String, Long> versions = new HashMap<>();
+    private long lastVersion = 0;
+    // Generation per base file, bumped each time it is replaced, see generationOf. Guarded by 'this'.
+    private final Map<String, Long> generations = new HashMap<>();
+    private Object logFileKey;
+    private long logLength = -1; // -1 = not loaded yet
+
+    // Compaction takes a file's write lock (see AtomicFiles.lockFor); submits and overlay reads take the read lock
+    // Extra monitors held while a file is compacted, e.g. the ChatLog that indexes it
+    private final Map<String, Object> guards = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<String>> compactionListeners = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Update> commitQueue = new LinkedBlockingQueue<>();
+    private final Object logWriteLock = new Object();
+    private Thread committer;
+    private ScheduledExecutorService compactor;
+    private ScheduledFuture<?> scheduledCompaction;
+
+    public UpdateLog(String logFile) {
+        this.logPath = Paths.get(logFile);
+        this.lockPath = Paths.get(logFile + ".lock");
+    }
+
+    /**
+     * Sets fields of the lines of one file. Lines are split with
+     * {@code split(",", width)}; a line is updated when every {@code where}
+     * column is present and equal (ignoring case for {@link #whereIgnoreCase}),
+     * and written back joined with commas.
+     */
+    public static final class Update {
+        private final String file;
+        private final int width;
+        private final Map<Integer, String> where = new LinkedHashMap<>();
+        private final Set<Integer> ignoreCase = new HashSet<>(); // where columns compared with equalsIgnoreCase
+        private final Map<Integer, String> set = new LinkedHashMap<>();
+        private long before = Long.MAX_VALUE; // only lines starting before this offset
+        private String baseKey = ""; // file key of the base file 'before' was measured in ("" = unknown)
+        private final CompletableFuture<Boolean> committed = new CompletableFuture<>();
+
+        public Update(String file, int width) {
+            this.file = file;
+            this.width = width;
+        }
+
+        public Update where(int column, String value) {
+            where.put(column, value);
+            return this;
+        }
+
+        public Update whereIgnoreCase(int column, String value) {
+            where.put(column, value);
+            ignoreCase.add(column);
+            return this;
+        }
+
+        public Update set(int column, String value) {
+            set.put(column, value);
+            return this;
+        }
+
+        // Returns the updated line, or the line itself if the update does not apply
+        String applyTo(long offset, String line) {
+            if (offset >= before) return line;
+            String[] data = line.split(",", width);
+            for (Map.Entry<Integer, String> condition : where.entrySet()) {
+                int column = condition.getKey();
+                if (column >= data.length) return line;
+                boolean matches = ignoreCase.contains(column)
+                        ? data[column].equalsIgnoreCase(condition.getValue()) : data[column].equals(condition.getValue());
+                if (!matches) return line;
+            }
+            for (Map.Entry<Integer, String> change : set.entrySet()) {
+                if (change.getKey() >= data.length) return line;
+            }
+            for (Map.Entry<Integer, String> change : set.entrySet()) {
+                data[change.getKey()] = change.getValue();
+            }
+            return String.join(",", data);
+        }
+    }
+
+    /** Makes sure 'guard' is held while 'file' is rewritten by a compaction. */
+    public void guard(String file, Object guard) {
+        guards.put(file, guard);
+    }
+
+    /** Called (with the guard held) after pending updates were folded into 'file'. */
+    public void onCompacted(String file, Consumer<String> listener) {
+        compactionListeners.put(file, listener);
+    }
+
+    // ----------------------------------------------------------- Submitting
+
+    /**
+     * Logs an update of the lines currently in the file and waits until it is
+     * durable. Returns false if it could not be written.
+     */
+    public boolean submit(Update update) {
+        ReadWriteLock fileLock = lockFor(update.file);
+        fileLock.readLock().lock(); // nothing in this process may replace the file before the record is pending
+        try {
+            update.before = fileLength(update.file);
+            update.baseKey = baseKeyOf(update.file);
+            startCommitter();
+            commitQueue.add(update);
+            boolean written = update.committed.join();
+            if (written) scheduleCompaction();
+            return written;
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    private synchronized void startCommitter() {
+        if (committer != null) return;
+        committer = new Thread(this::commitLoop, "update-log-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    // Takes whatever queued up while the previous batch was being written and makes it
+    // durable with a single write and fsync.
+    private void commitLoop() {
+        while (true) {
+            List<Update> batch = new ArrayList<>();
+            try {
+                batch.add(commitQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            commitQueue.drainTo(batch, GROUP_COMMIT_MAX_RECORDS - 1);
+
+            boolean written = false;
+            synchronized (logWriteLock) {
+                // The file lock keeps other instances out, so writing at the end is an append
+                try (FileChannel lockChannel = openLockChannel()) {
+                    FileLock lock = lockChannel.lock();
+                    try {
+                        // Another instance may have replaced a base file since submit. Files are only
+                        // replaced under the lock file, so measured again here the offset stays valid.
+                        StringBuilder text = new StringBuilder();
+                        for (Update update : batch) {
+                            String key = baseKeyOf(update.file);
+                            if (!key.equals(update.baseKey)) {
+                                update.before = fileLength(update.file);
+                                update.baseKey = key;
+                            }
+                            text.append(encode(update)).append('\n');
+                        }
+                        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                            long end = channel.size();
+                            if (end > 0 && !endsWithLineBreak(channel)) {
+                                text.insert(0, '\n'); // a crash cut the last record short; keep ours on its own line
+                            }
+                            ByteBuffer buffer = ByteBuffer.wrap(text.toString().getBytes(charset));
+                            while (buffer.hasRemaining()) {
+                                end += channel.write(buffer, end);
+                            }
+                            channel.force(false);
+                        }
+                        refresh(); // reads our own records back into 'pending'
+                    } finally {
+                        lock.release();
+                    }
+                    written = true;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Error writing update log: " + e);
+                } finally {
+                    for (Update update : batch) {
+                        update.committed.complete(written);
+                    }
+                }
+            }
+        }
+    }
+
+    // --------------------------------------------------------------- Reading
+
+    /** The updates of one file that were pending when it was taken, for readers that track line offsets. */
+    public static final class Overlay {
+        private final List<Update> updates = new ArrayList<>();
+        private int stale; // updates logged against a file that was replaced since
+
+        // Keeps the updates whose offsets were measured in the base file with key 'baseKey'
+        private Overlay(List<Update> updates, String baseKey) {
+            for (Update update : updates) {
+                if (update.baseKey.isEmpty() || baseKey.isEmpty() || update.baseKey.equals(baseKey)) {
+                    this.updates.add(update);
+                } else {
+                    stale++;
+                }
+            }
+        }
+
+        public boolean isEmpty() { return updates.isEmpty(); }
+
+        /** The line that starts at byte 'offset' of the base file, with the updates applied. */
+        public String apply(long offset, String line) {
+            for (Update update : updates) {
+                line = update.applyTo(offset, line);
+            }
+            return line;
+        }
+    }
+
+    public Overlay overlay(String file) {
+        return new Overlay(pendingFor(file), baseKeyOf(file));
+    }
+
+    /**
+     * A number per file that changes whenever the file's pending updates change,
+     * also through records another instance logged. Caches built from a file
+     * stamp it alongside the file's size and modification time.
+     */
+    public synchronized long[] versionsOf(String... files) {
+        try {
+            refresh();
+        } catch (IOException e) {
+            System.err.println("Error reading update log: " + e.getMessage());
+        }
+        long[] result = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            result[i] = versions.getOrDefault(files[i], 0L);
+        }
+        return result;
+    }
+
+    /**
+     * {@link #versionsOf} for every file that has had updates logged, keyed by
+     * file. Comparing two of these tells which files the log changed in between.
+     */
+    public synchronized Map<String, Long> versions() {
+        try {
+            refresh();
+        } catch (IOException e) {
+            System.err.println("Error reading update log: " + e.getMessage());
+        }
+        return new HashMap<>(versions);
+    }
+
+    /**
+     * Changes every time 'file' is replaced through this log (a compaction or
+     * {@link #replace}), in this or another instance; 0 if it never was.
+     * Appends leave it alone.
+     */
+    public synchronized long generationOf(String file) {
+        try {
+            refresh();
+        } catch (IOException e) {
+            System.err.println("Error reading update log: " + e.getMessage());
+        }
+        return generations.getOrDefault(file, 0L);
+    }
+
+    // Caller holds 'this'
+    private void bumpVersion(String file) {
+        versions.put(file, ++lastVersion);
+    }
+
+    // Caller holds 'this'
+    private void clearPending() {
+        for (String file : pending.keySet()) {
+            bumpVersion(file);
+        }
+        pending.clear();
+    }
+
+    /** True if 'file' has updates that are not in the base file yet. */
+    public boolean hasPending(String file) {
+        return !pendingFor(file).isEmpty();
+    }
+
+    /** Reads every line of 'file' with pending updates applied (nothing if the file is missing). */
+    public void forEachLine(String file, Consumer<String> consumer) throws IOException {
+        Path path = Paths.get(file);
+        if (!Files.exists(path)) return;
+        ReadWriteLock fileLock = lockFor(file);
+        fileLock.readLock().lock();
+        try {
+            Overlay overlay = overlay(file);
+            if (overlay.isEmpty()) {
+                try (BufferedReader reader = Files.newBufferedReader(path, charset)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        consumer.accept(line);
+                    }
+                }
+                return;
+            }
+            forEachLineWithOffset(path, Long.MAX_VALUE, true, (offset, line) -> consumer.accept(overlay.apply(offset, line)));
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    private interface LineVisitor {
+        void visit(long offset, String line) throws IOException;
+    }
+
+    // Visits the lines in the first 'limit' bytes and returns the offset after the last
+    // line break. A last line without a break is only visited if 'includeUnterminated'.
+    private long forEachLineWithOffset(Path path, long limit, boolean includeUnterminated, LineVisitor visitor) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long position = 0;
+            long lineStart = 0;
+            int b;
+            while (position < limit && (b = in.read()) != -1) {
+                position++;
+                if (b == '\n') {
+                    visitor.visit(lineStart, decodeLine(line));
+                    line.reset();
+                    lineStart = position;
+                } else {
+                    line.write(b);
+                }
+            }
+            if (includeUnterminated && line.size() > 0) {
+                visitor.visit(lineStart, decodeLine(line));
+            }
+            return lineStart;
+        }
+    }
+
+    private String decodeLine(ByteArrayOutputStream line) {
+        byte[] bytes = line.toByteArray();
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\r') length--;
+        return new String(bytes, 0, length, charset);
+    }
+
+    private synchronized List<Update> pendingFor(String file) {
+        try {
+            refresh();
+        } catch (IOException e) {
+            System.err.println("Error reading update log: " + e.getMessage());
+        }
+        List<Update> updates = pending.get(file);
+        return updates == null ? Collections.emptyList() : new ArrayList<>(updates);
+    }
+
+    // ------------------------------------------------------------ Compaction
+
+    /** Folds the pending updates of 'file' into it, so it can be read directly. */
+    public void sync(String file) {
+        if (!hasPending(file)) return;
+        try {
+            compact(file, null);
+        } catch (IOException e) {
+            System.err.println("Error compacting " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Folds the pending updates of 'file' into it and then runs 'replace', which
+     * rewrites the file, holding the lock file throughout: no update can be
+     * logged against the old file in between.
+     */
+    public void replace(String file, AtomicFiles.IOAction replace) throws IOException {
+        compact(file, replace);
+    }
+
+    public void syncAll() {
+        List<String> files;
+        synchronized (this) {
+            files = new ArrayList<>(pending.keySet());
+        }
+        for (String file : files) {
+            sync(file);
+        }
+    }
+
+    private synchronized void scheduleCompaction() {
+        if (compactor == null) {
+            compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "update-log-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        // Restart the delay on every update so a burst is compacted once
+        if (scheduledCompaction != null) scheduledCompaction.cancel(false);
+        scheduledCompaction = compactor.schedule(this::syncAll, COMPACT_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void compact(String file, AtomicFiles.IOAction replace) throws IOException {
+        ReadWriteLock fileLock = lockFor(file);
+        fileLock.writeLock().lock();
+        try {
+            synchronized (guards.getOrDefault(file, new Object())) {
+                synchronized (logWriteLock) {
+                    try (FileChannel lockChannel = openLockChannel()) {
+                        FileLock lock = lockChannel.lock();
+                        try {
+                            List<Update> updates = pendingFor(file);
+                            if (updates.isEmpty() && replace == null) return;
+                            if (!updates.isEmpty()) {
+                                rewriteBaseFile(Paths.get(file), updates);
+                            }
+                            if (replace != null) replace.run();
+                            synchronized (this) {
+                                if (!updates.isEmpty()) {
+                                    pending.remove(file);
+                                    bumpVersion(file);
+                                }
+                                // Never reuse an earlier generation, even if the log was deleted in between
+                                long generation = generations.getOrDefault(file, 0L);
+                                generations.put(file, Math.max(generation + 1, System.currentTimeMillis()));
+                                rewriteLog();
+                            }
+                        } finally {
+                            lock.release();
+                        }
+                    }
+                }
+                Consumer<String> listener = compactionListeners.get(file);
+                if (listener != null) listener.accept(file);
+            }
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    // Holds the base file's lock file, so writers in other instances wait for the rename
+    private void rewriteBaseFile(Path path, List<Update> updates) throws IOException {
+        AtomicFiles.withProcessLock(path.toString(), () -> rewriteBaseFileLocked(path, updates));
+    }
+
+    private void rewriteBaseFileLocked(Path path, List<Update> updates) throws IOException {
+        Path temp = Paths.get(path + ".compact.tmp");
+        long length = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, charset)) {
+            if (Files.exists(path)) {
+                Overlay overlay = new Overlay(updates, baseKeyOf(path.toString()));
+                if (overlay.stale > 0) {
+                    System.err.println("Dropping " + overlay.stale + " update(s) of " + path + " logged against a file that has since been replaced");
+                }
+                length = forEachLineWithOffset(path, Files.size(path), false, (offset, line) -> {
+                    writer.write(overlay.apply(offset, line));
+                    writer.write(System.lineSeparator());
+                });
+            }
+        }
+        // Lines appended since (or still being written) come after every update's bound; copy them as they are
+        while (Files.exists(path) && Files.size(path) > length) {
+            long newLength = Files.size(path);
+            try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                source.transferTo(length, newLength - length, target);
+            }
+            length = newLength;
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Replaces the log with the generations and the records that are still pending (caller holds the lock file)
+    private void rewriteLog() throws IOException {
+        Path temp = Paths.get(logPath + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, charset)) {
+            for (Map.Entry<String, Long> generation : generations.entrySet()) {
+                writer.write(encodeGeneration(generation.getKey(), generation.getValue()));
+                writer.write('\n');
+            }
+            for (List<Update> updates : pending.values()) {
+                for (Update update : updates) {
+                    writer.write(encode(update));
+                    writer.write('\n');
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+        Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logLength = Files.size(logPath);
+        logFileKey = fileKey();
+    }
+
+    // ------------------------------------------------------ Log persistence
+    // One record per line: crc<TAB>file<TAB>before<TAB>width<TAB>where<TAB>set<TAB>baseKey
+    // where/set are col=value pairs separated by spaces, values backslash-escaped; a where
+    // column compared ignoring case is written "coli=value". Older records have no baseKey.
+    // A file's generation is a line of its own: crc<TAB>file<TAB>G<TAB>generation
+
+    // Brings the in-memory records up to date with the log file: reads records other
+    // instances appended, or everything if the log was replaced by a compaction.
+    private synchronized void refresh() throws IOException {
+        if (!Files.exists(logPath)) {
+            if (logLength != 0) clearPending();
+            generations.clear();
+            logLength = 0;
+            logFileKey = null;
+            return;
+        }
+        Object key = fileKey();
+        long length = Files.size(logPath);
+        boolean replaced = logLength < 0 || !Objects.equals(key, logFileKey) || length < logLength;
+        if (!replaced && length == logLength) return;
+        if (replaced) {
+            clearPending();
+            generations.clear();
+            logLength = 0;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(logPath))) {
+            in.skipNBytes(logLength);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            long position = logLength;
+            int b;
+            while (position < length && (b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                String record = new String(line.toByteArray(), charset);
+                line.reset();
+                logLength = position;
+                if (decodeGeneration(record)) continue;
+                Update update = decode(record);
+                if (update == null) continue; // torn write; the next compaction drops it
+                pending.computeIfAbsent(update.file, k -> new ArrayList<>()).add(update);
+                bumpVersion(update.file);
+            }
+        }
+        logFileKey = key;
+    }
+
+    private String encode(Update update) {
+        StringBuilder record = new StringBuilder();
+        record.append(escape(update.file)).append('\t').append(update.before).append('\t').append(update.width).append('\t');
+        appendPairs(record, update.where, update.ignoreCase);
+        record.append('\t');
+        appendPairs(record, update.set, Collections.emptySet());
+        record.append('\t').append(escape(update.baseKey));
+        return crcOf(record.toString()) + "\t" + record;
+    }
+
+    private String encodeGeneration(String file, long generation) {
+        String record = escape(file) + "\tG\t" + generation;
+        return crcOf(record) + "\t" + record;
+    }
+
+    // Reads a generation line into 'generations'; false if 'line' is not one (caller holds 'this')
+    private boolean decodeGeneration(String line) {
+        int tab = line.indexOf('\t');
+        if (tab < 0) return false;
+        String record = line.substring(tab + 1);
+        String[] parts = record.split("\t", -1);
+        if (parts.length != 3 || !"G".equals(parts[1]) || !line.substring(0, tab).equals(crcOf(record))) return false;
+        try {
+            generations.put(unescape(parts[0]), Long.parseLong(parts[2]));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void appendPairs(StringBuilder record, Map<Integer, String> pairs, Set<Integer> ignoreCase) {
+        StringJoiner joiner = new StringJoiner(" ");
+        for (Map.Entry<Integer, String> pair : pairs.entrySet()) {
+            joiner.add(pair.getKey() + (ignoreCase.contains(pair.getKey()) ? "i" : "") + "=" + escape(pair.getValue()));
+        }
+        record.append(joiner);
+    }
+
+    private Update decode(String line) {
+        int tab = line.indexOf('\t');
+        if (tab < 0) return null;
+        String record = line.substring(tab + 1);
+        if (!line.substring(0, tab).equals(crcOf(record))) return null;
+        String[] parts = record.split("\t", -1);
+        if (parts.length != 5 && parts.length != 6) return null;
+        try {
+            Update update = new Update(unescape(parts[0]), Integer.parseInt(parts[2]));
+            update.before = Long.parseLong(parts[1]);
+            readPairs(parts[3], update.where, update.ignoreCase);
+            readPairs(parts[4], update.set, update.ignoreCase);
+            if (parts.length == 6) update.baseKey = unescape(parts[5]);
+            update.committed.complete(true);
+            return update;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void readPairs(String text, Map<Integer, String> pairs, Set<Integer> ignoreCase) {
+        if (text.isEmpty()) return;
+        for (String pair : text.split(" ")) {
+            int equals = pair.indexOf('=');
+            String column = pair.substring(0, equals);
+            if (column.endsWith("i")) {
+                column = column.substring(0, column.length() - 1);
+                ignoreCase.add(Integer.parseInt(column));
+            }
+            pairs.put(Integer.parseInt(column), unescape(pair.substring(equals + 1)));
+        }
+    }
+
+    private String crcOf(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(charset));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r").replace(" ", "\\s");
+    }
+
+    private static String unescape(String value) {
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                switch (next) {
+                    case 't': result.append('\t'); break;
+                    case 'n': result.append('\n'); break;
+                    case 'r': result.append('\r'); break;
+                    case 's': result.append(' '); break;
+                    default: result.append(next);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    // ---------------------------------------------------------------- Helpers
+
+    private ReadWriteLock lockFor(String file) {
+        return AtomicFiles.lockFor(file);
+    }
+
+    private FileChannel openLockChannel() throws IOException {
+        return FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    }
+
+    private static boolean endsWithLineBreak(FileChannel channel) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, channel.size() - 1);
+        return last.get(0) == '\n';
+    }
+
+    private Object fileKey() throws IOException {
+        return Files.readAttributes(logPath, BasicFileAttributes.class).fileKey();
+    }
+
+    // Identifies the file (inode) now at 'file', or "" if it is missing or the file system has no keys
+    private static String baseKeyOf(String file) {
+        try {
+            Object key = Files.readAttributes(Paths.get(file), BasicFileAttributes.class).fileKey();
+            return key == null ? "" : key.toString();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static long fileLength(String file) {
+        File f = new File(file);
+        return f.exists() ? f.length() : 0;
+    }
+}
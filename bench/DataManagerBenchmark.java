@@ -0,0 +1,106 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Micro-benchmarks for the DataManager hot paths. DataManager reads its files
+ * from ./data, so run this from the root of a directory created by
+ * {@link SyntheticDataGenerator} (bench/run.sh does all of this).
+ *
+ * Usage: java DataManagerBenchmark [warmup=N] [iterations=N] [only=name,name]
+ *
+ * Each benchmark is warmed up, then timed per call; the report shows the mean,
+ * the fastest and the 90th percentile time per operation. Results are folded
+ * into a sink so the JIT cannot drop the calls.
+ */
+public class DataManagerBenchmark {
+    private static volatile int sink;
+
+    private final Map<String, Supplier<Object>> benchmarks = new LinkedHashMap<>();
+    private int warmup = 5;
+    private int iterations = 20;
+    private List<String> only = new ArrayList<>();
+
+    public static void main(String[] args) {
+        DataManagerBenchmark benchmark = new DataManagerBenchmark();
+        for (String arg : args) {
+            benchmark.configure(arg);
+        }
+        benchmark.register();
+        benchmark.runAll();
+    }
+
+    void configure(String arg) {
+        String[] kv = arg.split("=", 2);
+        if (kv.length != 2) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+        switch (kv[0]) {
+            case "warmup": warmup = Integer.parseInt(kv[1]); break;
+            case "iterations": iterations = Integer.parseInt(kv[1]); break;
+            case "only": only = Arrays.asList(kv[1].split(",")); break;
+            default: throw new IllegalArgumentException("Unknown key: " + kv[0]);
+        }
+    }
+
+    void register() {
+        User student = DataManager.findUserByUsername(SyntheticDataGenerator.BENCH_STUDENT);
+        User tutor = DataManager.findUserByUsername(SyntheticDataGenerator.BENCH_TUTOR);
+        if (student == null || tutor == null) {
+            throw new IllegalStateException("Benchmark users not found - run from a directory made by SyntheticDataGenerator");
+        }
+        LocalDate lastMonth = LocalDate.now().minusMonths(1);
+
+        benchmarks.put("authenticateUser", () -> DataManager.authenticateUser(student.getUsername(), SyntheticDataGenerator.PASSWORD));
+        benchmarks.put("getConversation", () -> DataManager.getConversation(student.getUsername(), tutor.getUsername()));
+        benchmarks.put("getAllUnreadMessageCounts", () -> DataManager.getAllUnreadMessageCounts(tutor));
+        benchmarks.put("getPaymentStatus", () -> DataManager.getPaymentStatus(student.getId()));
+        benchmarks.put("generateIncomeReport", () -> DataManager.generateIncomeReport(lastMonth.getMonthValue(), lastMonth.getYear()));
+        benchmarks.put("generateYearlyIncomeReport", () -> DataManager.generateYearlyIncomeReport(lastMonth.getYear()));
+        benchmarks.put("getAttendanceSummaryForStudent", () -> DataManager.getAttendanceSummaryForStudent(student.getId()));
+        benchmarks.put("generateAndAssignTimetable", DataManager::generateAndAssignTimetable);
+    }
+
+    void runAll() {
+        PrintStream report = System.out;
+        report.printf("%-32s %8s %12s %12s %12s%n", "benchmark", "ops", "mean ms/op", "min ms/op", "p90 ms/op");
+        for (Map.Entry<String, Supplier<Object>> entry : benchmarks.entrySet()) {
+            if (!only.isEmpty() && !only.contains(entry.getKey())) continue;
+            long[] times = run(entry.getValue());
+            Arrays.sort(times);
+            double mean = Arrays.stream(times).average().orElse(0) / 1e6;
+            double min = times[0] / 1e6;
+            double p90 = times[Math.min(times.length - 1, (int) Math.ceil(times.length * 0.9) - 1)] / 1e6;
+            report.printf("%-32s %8d %12.3f %12.3f %12.3f%n", entry.getKey(), times.length, mean, min, p90);
+        }
+    }
+
+    // DataManager logs progress to stdout (e.g. the timetable generator); keep it out of the report
+    private long[] run(Supplier<Object> benchmark) {
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int i = 0; i < warmup; i++) {
+                consume(benchmark.get());
+            }
+            long[] times = new long[iterations];
+            for (int i = 0; i < iterations; i++) {
+                long start = System.nanoTime();
+                Object result = benchmark.get();
+                times[i] = System.nanoTime() - start;
+                consume(result);
+            }
+            return times;
+        } finally {
+            System.setOut(original);
+        }
+    }
+
+    private static void consume(Object result) {
+        sink += result == null ? 0 : result.hashCode();
+    }
+}
@@ -0,0 +1,177 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Writes a synthetic data/ directory in the same flat-file formats DataManager
+ * reads, so the benchmarks can run against realistic volumes.
+ *
+ * Usage: java SyntheticDataGenerator <outDir> [small|medium|large] [key=value ...]
+ * Keys: students, tutors, courses, enrollmentsPerStudent, payments, chats, seed
+ *
+ * The output is deterministic for a given seed. Every benchmark fixture
+ * (BENCH_STUDENT, BENCH_TUTOR) is guaranteed to have data.
+ */
+public class SyntheticDataGenerator {
+    static final String BENCH_STUDENT = "student0";
+    static final String BENCH_TUTOR = "tutor0";
+    static final String PASSWORD = "pass";
+
+    private static final String[] SUBJECTS = {"Math", "Science", "English", "History", "Physics", "Chemistry", "Biology", "Geography"};
+    private static final String[] LEVELS = {"Form 1", "Form 2", "Form 3", "Form 4", "Form 5", "General"};
+    private static final String[] SLOTS = {"Mon 09-10 AM", "Tue 10-11 AM", "Wed 02-03 PM", "Thu 03-04 PM", "Fri 05-06 PM"};
+    private static final String[] ATTENDANCE = {"Present", "Present", "Present", "Late", "Absent"};
+
+    int students = 1_000;
+    int tutors = 50;
+    int courses = 200;
+    int enrollmentsPerStudent = 3;
+    int payments = 5_000;
+    int chats = 10_000;
+    long seed = 42;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java SyntheticDataGenerator <outDir> [small|medium|large] [key=value ...]");
+            System.exit(1);
+        }
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        for (int i = 1; i < args.length; i++) {
+            generator.configure(args[i]);
+        }
+        Path dataDir = Paths.get(args[0], "data");
+        long start = System.nanoTime();
+        generator.generate(dataDir);
+        System.out.printf("Generated %s in %d ms: %d students, %d tutors, %d courses, %d payments, %d chat lines%n",
+                dataDir, (System.nanoTime() - start) / 1_000_000, generator.students, generator.tutors,
+                generator.courses, generator.payments, generator.chats);
+    }
+
+    void configure(String arg) {
+        switch (arg) {
+            case "small":
+                students = 1_000; tutors = 50; courses = 200; payments = 5_000; chats = 10_000;
+                return;
+            case "medium":
+                students = 10_000; tutors = 200; courses = 1_000; payments = 30_000; chats = 100_000;
+                return;
+            case "large":
+                students = 100_000; tutors = 1_000; courses = 5_000; payments = 100_000; chats = 1_000_000;
+                return;
+        }
+        String[] kv = arg.split("=", 2);
+        if (kv.length != 2) throw new IllegalArgumentException("Expected a scale or key=value, got: " + arg);
+        int value = Integer.parseInt(kv[1].replace("_", ""));
+        switch (kv[0]) {
+            case "students": students = value; break;
+            case "tutors": tutors = value; break;
+            case "courses": courses = value; break;
+            case "enrollmentsPerStudent": enrollmentsPerStudent = value; break;
+            case "payments": payments = value; break;
+            case "chats": chats = value; break;
+            case "seed": seed = value; break;
+            default: throw new IllegalArgumentException("Unknown key: " + kv[0]);
+        }
+    }
+
+    void generate(Path dataDir) throws IOException {
+        Files.createDirectories(dataDir);
+        Random random = new Random(seed);
+        LocalDate today = LocalDate.now();
+        // Hashing is deliberately slow, so every synthetic user shares one salted hash of PASSWORD
+        String credential = PasswordHasher.hash(PASSWORD);
+
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("admins.txt"))) {
+            out.write("ADM-101,admin," + credential + ",Administrator User\n");
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("receptionists.txt"))) {
+            out.write("REC-201,recep," + credential + ",Front Desk\n");
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("tutors.txt"))) {
+            for (int t = 0; t < tutors; t++) {
+                String specialization = SUBJECTS[t % SUBJECTS.length] + ";" + SUBJECTS[(t + 3) % SUBJECTS.length];
+                out.write(tutorId(t) + ",tutor" + t + "," + credential + ",Tutor " + t + "," + specialization + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("students.txt"))) {
+            for (int s = 0; s < students; s++) {
+                out.write(studentId(s) + ",student" + s + "," + credential + ",Student " + s + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("courses.txt"))) {
+            for (int c = 0; c < courses; c++) {
+                String subject = SUBJECTS[c % SUBJECTS.length];
+                out.write(courseId(c) + ",Weekly " + subject + "," + tutorId(c % tutors) + "," + LEVELS[c % LEVELS.length]
+                        + "," + subject + ",150.00," + SLOTS[c % SLOTS.length] + "\n");
+            }
+        }
+
+        // Enrollments: ENR ids are dense so payments/results can pick one at random
+        int enrollments = students * enrollmentsPerStudent;
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("enrollments.txt"))) {
+            for (int e = 0; e < enrollments; e++) {
+                int student = e / enrollmentsPerStudent;
+                int course = (student * 7 + e % enrollmentsPerStudent * 13) % courses;
+                out.write(enrollmentId(e) + "," + studentId(student) + "," + courseId(course) + "\n");
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("payments.txt"))) {
+            for (int p = 0; p < payments; p++) {
+                // Spread over the last two years so both report types have work to do
+                LocalDate date = today.minusDays(random.nextInt(730));
+                out.write(String.format(Locale.ROOT, "PAY-%07d,%s,%.2f,%s\n", p + 1, enrollmentId(random.nextInt(enrollments)), 50.0 + random.nextInt(10) * 10, date));
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("results.txt"))) {
+            for (int e = 0; e < enrollments; e += 2) {
+                out.write(String.format("RES-%07d,%s,%s,%d,100,%s\n", e / 2 + 1, enrollmentId(e), SUBJECTS[e % SUBJECTS.length], 40 + random.nextInt(61), today.minusDays(random.nextInt(120))));
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("attendance.txt"))) {
+            // Ten sessions per enrollment; format: courseId,studentId,date,status
+            for (int e = 0; e < enrollments; e++) {
+                int student = e / enrollmentsPerStudent;
+                int course = (student * 7 + e % enrollmentsPerStudent * 13) % courses;
+                for (int week = 0; week < 10; week++) {
+                    out.write(courseId(course) + "," + studentId(student) + "," + today.minusWeeks(week) + "," + ATTENDANCE[random.nextInt(ATTENDANCE.length)] + "\n");
+                }
+            }
+        }
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("chats.txt"))) {
+            // Format: sender,recipient,content,timestamp,status
+            LocalDateTime time = LocalDateTime.now().minusDays(365);
+            for (int m = 0; m < chats; m++) {
+                time = time.plusSeconds(1 + random.nextInt(30));
+                String student = "student" + random.nextInt(students);
+                String tutor = "tutor" + random.nextInt(tutors);
+                if (m % 100 == 0) { // keep the benchmarked conversation busy at every scale
+                    student = BENCH_STUDENT;
+                    tutor = BENCH_TUTOR;
+                }
+                boolean fromStudent = random.nextBoolean();
+                String status = random.nextInt(5) == 0 ? "UNREAD" : "READ";
+                out.write((fromStudent ? student : tutor) + "," + (fromStudent ? tutor : student)
+                        + ",Synthetic message " + m + " about homework," + time + "," + status + "\n");
+            }
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(dataDir.resolve("announcements.txt"))) {
+            out.write("ANC-001,Welcome,Synthetic dataset,admin," + today + "\n");
+        }
+        for (String empty : new String[]{"read_announcements.txt", "group_chats.txt", "feedback.txt", "requests.txt",
+                "student_details.txt", "timetable.txt"}) {
+            Files.write(dataDir.resolve(empty), new byte[0]);
+        }
+    }
+
+    static String studentId(int index) { return String.format("STU-%06d", index + 1); }
+    static String tutorId(int index) { return String.format("TUT-%05d", index + 1); }
+    static String courseId(int index) { return String.format("C-%05d", index + 1); }
+    static String enrollmentId(int index) { return String.format("ENR-%07d", index + 1); }
+}
@@ -0,0 +1,28 @@
+#!/bin/sh
+# Builds the app and the benchmarks, generates a synthetic dataset and runs the
+# DataManager benchmarks against it.
+#
+#   bench/run.sh [small|medium|large] [benchmark args...]
+#   bench/run.sh large iterations=10 only=getConversation,getPaymentStatus
+#
+# Datasets are cached in bench/data-<scale>; delete the folder to regenerate.
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+SCALE=${1:-small}
+[ $# -gt 0 ] && shift
+
+OUT="$ROOT/bench/out"
+DATASET="$ROOT/bench/data-$SCALE"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -d "$OUT" "$ROOT"/*.java "$ROOT"/bench/*.java
+
+if [ ! -d "$DATASET/data" ]; then
+    java -cp "$OUT" SyntheticDataGenerator "$DATASET" "$SCALE"
+fi
+
+# DataManager resolves data/ against the working directory
+cd "$DATASET"
+java -cp "$OUT" DataManagerBenchmark "$@"
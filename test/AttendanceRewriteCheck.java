@@ -0,0 +1,72 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads attendance and then rewrites it, the sequence that failed on Windows while
+ * the scan left attendance.txt memory-mapped. Run it from an empty folder (see
+ * test/run.sh): it writes its own data/attendance.txt there. Exits with 1 on the
+ * first check that fails.
+ */
+public class AttendanceRewriteCheck {
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(DataManager.ATTENDANCE_FILE);
+        Files.createDirectories(file.getParent());
+        Files.write(file, Arrays.asList(
+                "C-1,STU-1,2026-10-04,Present",
+                "C-1,STU-2,2026-10-04,Absent",
+                "C-1,STU-1,2026-10-11,Late",
+                "C-2,STU-1,2026-10-04,Present"));
+
+        Storage.Attendance attendance = DataManager.STORAGE.attendance();
+
+        check("scan finds the student's rows", attendance.getByStudent("STU-1").size() == 3);
+        check("scan leaves no mapping of the file", !isMapped(file));
+
+        // Replacing a day right after a scan is what the open mapping blocked
+        check("replace after a scan", attendance.replace("C-1", "2026-10-04", Arrays.asList(
+                new String[]{"C-1", "STU-1", "2026-10-04", "Absent"},
+                new String[]{"C-1", "STU-2", "2026-10-04", "Present"})));
+        check("replaced row is read back", statusOf(attendance.getByStudent("STU-1"), "C-1", "2026-10-04").equals("Absent"));
+        check("other rows survive the replace", attendance.getByStudent("STU-1").size() == 3);
+
+        check("status update after a scan", attendance.updateStatus("C-1", "STU-2", "2026-10-04", "Late"));
+        check("updated status is read back", statusOf(attendance.getByStudent("STU-2"), "C-1", "2026-10-04").equals("Late"));
+
+        check("replace after the status update", attendance.replace("C-2", "2026-10-04", Arrays.asList(
+                new String[][]{{"C-2", "STU-1", "2026-10-04", "Late"}})));
+        check("both changes are in the file", statusOf(attendance.getByStudent("STU-2"), "C-1", "2026-10-04").equals("Late")
+                && statusOf(attendance.getByStudent("STU-1"), "C-2", "2026-10-04").equals("Late"));
+        check("scans leave no mapping of the file", !isMapped(file));
+
+        System.out.println("AttendanceRewriteCheck: all checks passed");
+        System.exit(0);
+    }
+
+    private static String statusOf(List<String[]> rows, String courseId, String date) {
+        for (String[] row : rows) {
+            if (row[0].equals(courseId) && row[2].equals(date)) return row[3];
+        }
+        return "";
+    }
+
+    // Where the JVM's mappings can be listed (Linux), whether the file is one of them
+    private static boolean isMapped(Path file) throws IOException {
+        Path maps = Paths.get("/proc/self/maps");
+        if (!Files.exists(maps)) return false;
+        String name = file.toAbsolutePath().normalize().toString();
+        for (String line : Files.readAllLines(maps)) {
+            if (line.endsWith(name)) return true;
+        }
+        return false;
+    }
+
+    private static void check(String what, boolean passed) {
+        if (passed) return;
+        System.err.println("FAILED: " + what);
+        System.exit(1);
+    }
+}
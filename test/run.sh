@@ -0,0 +1,21 @@
+#!/bin/sh
+# Builds the app and the checks and runs each check in a fresh, empty folder.
+#
+#   test/run.sh
+set -e
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/test/out"
+WORK="$ROOT/test/work"
+
+rm -rf "$OUT"
+mkdir -p "$OUT"
+javac -encoding UTF-8 -d "$OUT" "$ROOT"/*.java "$ROOT"/test/*.java
+
+for CHECK in AttendanceRewriteCheck; do
+    rm -rf "$WORK"
+    mkdir -p "$WORK"
+    # DataManager resolves data/ against the working directory
+    (cd "$WORK" && java -cp "$OUT" "$CHECK")
+done
+rm -rf "$WORK"